@@ -0,0 +1,86 @@
+package org.broadinstitute.hellbender;
+
+import htsjdk.samtools.SAMFileHeader;
+import org.broadinstitute.hellbender.engine.ReadsPathDataSource;
+import org.broadinstitute.hellbender.exceptions.UserException;
+import org.broadinstitute.hellbender.utils.SimpleInterval;
+import org.broadinstitute.hellbender.utils.read.GATKRead;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Inputs shared by the JMH benchmarks. All of them come from the test resources, so benchmarks must be run from the
+ * root of the repository, as the {@code jmh} Gradle task does.
+ */
+public final class BenchmarkResources {
+
+    public static final String publicTestDir = "src/test/resources/";
+
+    /**
+     * Reference for {@link #NA12878_CHR17_BAM}, with a single 1Mb contig "17".
+     */
+    public static final String CHR17_REFERENCE = publicTestDir + "human_g1k_v37.chr17_1Mb.fasta";
+
+    /**
+     * Whole-genome HiSeq reads of NA12878 on 17:69,000-70,000.
+     */
+    public static final String NA12878_CHR17_BAM = publicTestDir + "NA12878.chr17_69k_70k.dictFix.bam";
+
+    /**
+     * dbSNP sites on 17:69,000-70,000, used as known sites by the base recalibration benchmark.
+     */
+    public static final String DBSNP_CHR17_VCF = publicTestDir + "org/broadinstitute/hellbender/tools/BQSR/dbsnp_132.b37.excluding_sites_after_129.chr17_69k_70k.vcf";
+
+    /**
+     * Haplotype and read pairs with their qualities, as used by {@code VectorPairHMMUnitTest}.
+     */
+    public static final String PAIR_HMM_TEST_DATA = publicTestDir + "pairhmm-testdata.txt";
+
+    /**
+     * The span of {@link #NA12878_CHR17_BAM}.
+     */
+    public static final SimpleInterval CHR17_READS_SPAN = new SimpleInterval("17", 69_000, 70_000);
+
+    private BenchmarkResources() {}
+
+    /**
+     * @return the header of {@link #NA12878_CHR17_BAM}.
+     */
+    public static SAMFileHeader chr17ReadsHeader() {
+        try (final ReadsPathDataSource reads = new ReadsPathDataSource(Paths.get(NA12878_CHR17_BAM))) {
+            return reads.getHeader();
+        }
+    }
+
+    /**
+     * @return the reads of {@link #NA12878_CHR17_BAM} overlapping an interval, in coordinate order.
+     */
+    public static List<GATKRead> chr17Reads(final SimpleInterval interval) {
+        try (final ReadsPathDataSource reads = new ReadsPathDataSource(Paths.get(NA12878_CHR17_BAM))) {
+            final List<GATKRead> result = new ArrayList<>();
+            reads.query(interval).forEachRemaining(result::add);
+            return result;
+        }
+    }
+
+    /**
+     * @return the records of {@link #PAIR_HMM_TEST_DATA}, each one split into its whitespace-separated fields:
+     * haplotype bases, read bases, read base qualities, insertion qualities, deletion qualities, gap continuation
+     * penalties and expected log10 likelihood. Qualities are Phred+33 encoded.
+     */
+    public static List<String[]> pairHMMTestData() {
+        try {
+            return Files.readAllLines(Paths.get(PAIR_HMM_TEST_DATA)).stream()
+                    .filter(line -> !line.isEmpty() && !line.startsWith("#"))
+                    .map(line -> line.trim().split("\\s+"))
+                    .collect(Collectors.toList());
+        } catch (final IOException e) {
+            throw new UserException.CouldNotReadInputFile(Paths.get(PAIR_HMM_TEST_DATA), e);
+        }
+    }
+}
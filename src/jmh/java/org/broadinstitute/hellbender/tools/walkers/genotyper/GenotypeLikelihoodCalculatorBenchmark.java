@@ -0,0 +1,67 @@
+package org.broadinstitute.hellbender.tools.walkers.genotyper;
+
+import htsjdk.variant.variantcontext.Allele;
+import htsjdk.variant.variantcontext.GenotypeLikelihoods;
+import org.broadinstitute.hellbender.BenchmarkResources;
+import org.broadinstitute.hellbender.utils.SimpleInterval;
+import org.broadinstitute.hellbender.utils.Utils;
+import org.broadinstitute.hellbender.utils.genotyper.AlleleLikelihoods;
+import org.broadinstitute.hellbender.utils.genotyper.IndexedAlleleList;
+import org.broadinstitute.hellbender.utils.genotyper.IndexedSampleList;
+import org.broadinstitute.hellbender.utils.genotyper.LikelihoodMatrix;
+import org.broadinstitute.hellbender.utils.read.GATKRead;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Computes genotype likelihoods from the read likelihoods of the NA12878 reads overlapping a site on chromosome 17.
+ * The read likelihoods themselves are random, as they do not affect the cost of the calculation.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GenotypeLikelihoodCalculatorBenchmark {
+
+    private static final SimpleInterval SITE = new SimpleInterval("17", 69_500, 69_500);
+    private static final String[] ALLELE_BASES = {"A", "C", "G", "T", "AT", "ATT"};
+
+    @Param({"1", "2", "4"})
+    public int ploidy;
+
+    @Param({"2", "4", "6"})
+    public int alleleCount;
+
+    private GenotypeLikelihoodCalculator calculator;
+    private LikelihoodMatrix<GATKRead, Allele> likelihoods;
+
+    @Setup
+    public void setUp() {
+        final List<Allele> alleles = new ArrayList<>(alleleCount);
+        for (int a = 0; a < alleleCount; a++) {
+            alleles.add(Allele.create(ALLELE_BASES[a], a == 0));
+        }
+        final List<GATKRead> reads = BenchmarkResources.chr17Reads(SITE);
+        likelihoods = new AlleleLikelihoods<>(new IndexedSampleList("NA12878"), new IndexedAlleleList<>(alleles),
+                Collections.singletonMap("NA12878", reads)).sampleMatrix(0);
+        final Random random = Utils.getRandomGenerator();
+        for (int a = 0; a < alleleCount; a++) {
+            for (int r = 0; r < reads.size(); r++) {
+                likelihoods.set(a, r, -Math.abs(random.nextGaussian()));
+            }
+        }
+        calculator = new GenotypeLikelihoodCalculators().getInstance(ploidy, alleleCount);
+    }
+
+    @Benchmark
+    public GenotypeLikelihoods genotypeLikelihoods() {
+        return calculator.genotypeLikelihoods(likelihoods);
+    }
+}
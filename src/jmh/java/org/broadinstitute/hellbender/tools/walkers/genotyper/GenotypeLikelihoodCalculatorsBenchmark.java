@@ -0,0 +1,87 @@
+package org.broadinstitute.hellbender.tools.walkers.genotyper;
+
+import htsjdk.variant.variantcontext.Allele;
+import htsjdk.variant.variantcontext.GenotypeLikelihoods;
+import org.broadinstitute.hellbender.BenchmarkResources;
+import org.broadinstitute.hellbender.utils.SimpleInterval;
+import org.broadinstitute.hellbender.utils.Utils;
+import org.broadinstitute.hellbender.utils.genotyper.AlleleLikelihoods;
+import org.broadinstitute.hellbender.utils.genotyper.IndexedAlleleList;
+import org.broadinstitute.hellbender.utils.genotyper.IndexedSampleList;
+import org.broadinstitute.hellbender.utils.genotyper.LikelihoodMatrix;
+import org.broadinstitute.hellbender.utils.read.GATKRead;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Looks up genotype likelihood calculators from a single provider shared by several threads, as the static providers
+ * of the genotyping engines are, and computes genotype likelihoods from the read likelihoods of the NA12878 reads
+ * overlapping a site on chromosome 17. The read likelihoods themselves are random, as they do not affect the cost of
+ * the calculation.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GenotypeLikelihoodCalculatorsBenchmark {
+
+    private static final SimpleInterval SITE = new SimpleInterval("17", 69_500, 69_500);
+    private static final String[] ALLELE_BASES = {"A", "C", "G", "T", "AT", "ATT"};
+    private static final int PLOIDY = 2;
+
+    @Param({"2", "4", "6"})
+    public int alleleCount;
+
+    private GenotypeLikelihoodCalculators calculators;
+    private LikelihoodMatrix<GATKRead, Allele> likelihoods;
+
+    @Setup
+    public void setUp() {
+        final List<Allele> alleles = new ArrayList<>(alleleCount);
+        for (int a = 0; a < alleleCount; a++) {
+            alleles.add(Allele.create(ALLELE_BASES[a], a == 0));
+        }
+        final List<GATKRead> reads = BenchmarkResources.chr17Reads(SITE);
+        likelihoods = new AlleleLikelihoods<>(new IndexedSampleList("NA12878"), new IndexedAlleleList<>(alleles),
+                Collections.singletonMap("NA12878", reads)).sampleMatrix(0);
+        final Random random = Utils.getRandomGenerator();
+        for (int a = 0; a < alleleCount; a++) {
+            for (int r = 0; r < reads.size(); r++) {
+                likelihoods.set(a, r, -Math.abs(random.nextGaussian()));
+            }
+        }
+        calculators = new GenotypeLikelihoodCalculators();
+    }
+
+    @Benchmark
+    @Threads(1)
+    public GenotypeLikelihoods lookUpAndGenotypeOneThread() {
+        return lookUpAndGenotype();
+    }
+
+    @Benchmark
+    @Threads(4)
+    public GenotypeLikelihoods lookUpAndGenotypeFourThreads() {
+        return lookUpAndGenotype();
+    }
+
+    @Benchmark
+    @Threads(8)
+    public GenotypeLikelihoods lookUpAndGenotypeEightThreads() {
+        return lookUpAndGenotype();
+    }
+
+    private GenotypeLikelihoods lookUpAndGenotype() {
+        final int genotypeCount = calculators.genotypeCount(PLOIDY, alleleCount);
+        final GenotypeLikelihoodCalculator calculator = calculators.getInstance(PLOIDY, alleleCount);
+        Utils.validate(calculator.genotypeCount() == genotypeCount, "unexpected genotype count");
+        return calculator.genotypeLikelihoods(likelihoods);
+    }
+}
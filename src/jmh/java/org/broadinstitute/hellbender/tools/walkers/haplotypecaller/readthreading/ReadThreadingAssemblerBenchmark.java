@@ -0,0 +1,70 @@
+package org.broadinstitute.hellbender.tools.walkers.haplotypecaller.readthreading;
+
+import htsjdk.samtools.SAMFileHeader;
+import org.broadinstitute.hellbender.BenchmarkResources;
+import org.broadinstitute.hellbender.engine.AssemblyRegion;
+import org.broadinstitute.hellbender.tools.walkers.haplotypecaller.AssemblyBasedCallerUtils;
+import org.broadinstitute.hellbender.tools.walkers.haplotypecaller.AssemblyResultSet;
+import org.broadinstitute.hellbender.utils.SimpleInterval;
+import org.broadinstitute.hellbender.utils.clipping.ReadClipper;
+import org.broadinstitute.hellbender.utils.fasta.CachingIndexedFastaSequenceFile;
+import org.broadinstitute.hellbender.utils.haplotype.Haplotype;
+import org.broadinstitute.hellbender.utils.read.GATKRead;
+import org.broadinstitute.hellbender.utils.smithwaterman.SmithWatermanAligner;
+import org.openjdk.jmh.annotations.*;
+
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Assembles the NA12878 reads of a 300bp HaplotypeCaller-like assembly region on chromosome 17, with the default
+ * HaplotypeCaller kmer sizes.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ReadThreadingAssemblerBenchmark {
+
+    // the same padding as AssemblyBasedCallerUtils.REFERENCE_PADDING_FOR_ASSEMBLY
+    private static final int REFERENCE_PADDING_FOR_ASSEMBLY = 500;
+    private static final SimpleInterval ACTIVE_SPAN = new SimpleInterval("17", 69_400, 69_700);
+    private static final int ASSEMBLY_REGION_PADDING = 100;
+
+    private SAMFileHeader header;
+    private AssemblyRegion region;
+    private Haplotype refHaplotype;
+    private byte[] fullReferenceWithPadding;
+    private SimpleInterval paddedReferenceLoc;
+    private SmithWatermanAligner aligner;
+
+    @Setup
+    public void setUp() {
+        header = BenchmarkResources.chr17ReadsHeader();
+        region = new AssemblyRegion(ACTIVE_SPAN, true, ASSEMBLY_REGION_PADDING, header);
+        final SimpleInterval paddedSpan = region.getPaddedSpan();
+        for (final GATKRead read : BenchmarkResources.chr17Reads(paddedSpan)) {
+            final GATKRead clipped = ReadClipper.hardClipToRegion(read, paddedSpan.getStart(), paddedSpan.getEnd());
+            if (!clipped.isEmpty()) {
+                region.add(clipped);
+            }
+        }
+
+        try (final CachingIndexedFastaSequenceFile reference = new CachingIndexedFastaSequenceFile(Paths.get(BenchmarkResources.CHR17_REFERENCE))) {
+            fullReferenceWithPadding = region.getAssemblyRegionReference(reference, REFERENCE_PADDING_FOR_ASSEMBLY);
+            paddedReferenceLoc = AssemblyBasedCallerUtils.getPaddedReferenceLoc(region, REFERENCE_PADDING_FOR_ASSEMBLY, reference);
+            refHaplotype = AssemblyBasedCallerUtils.createReferenceHaplotype(region, paddedReferenceLoc, reference);
+        }
+        aligner = SmithWatermanAligner.getAligner(SmithWatermanAligner.Implementation.JAVA);
+    }
+
+    @Benchmark
+    public AssemblyResultSet runLocalAssembly() {
+        // a new assembler each time, as HaplotypeCaller does not share graphs across regions
+        final ReadThreadingAssembler assembler = new ReadThreadingAssembler(ReadThreadingAssembler.DEFAULT_NUM_PATHS_PER_GRAPH, Arrays.asList(10, 25), 2);
+        return assembler.runLocalAssembly(region, refHaplotype, fullReferenceWithPadding, paddedReferenceLoc, null, header, aligner);
+    }
+}
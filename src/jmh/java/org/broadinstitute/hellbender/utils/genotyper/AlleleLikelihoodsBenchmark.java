@@ -0,0 +1,86 @@
+package org.broadinstitute.hellbender.utils.genotyper;
+
+import htsjdk.variant.variantcontext.Allele;
+import org.broadinstitute.hellbender.BenchmarkResources;
+import org.broadinstitute.hellbender.utils.SimpleInterval;
+import org.broadinstitute.hellbender.utils.Utils;
+import org.broadinstitute.hellbender.utils.read.GATKRead;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs the read likelihood manipulations of a HaplotypeCaller region (normalization, filtering of poorly modeled
+ * reads, marginalization to the alleles of a site and addition of the non-ref allele) on the NA12878 reads of a
+ * 300bp region on chromosome 17, with random haplotype likelihoods.
+ *
+ * <p>Run with {@code -Pjmh.args="-prof gc"} to report the allocation rate.</p>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AlleleLikelihoodsBenchmark {
+
+    private static final SimpleInterval REGION = new SimpleInterval("17", 69_400, 69_700);
+    private static final String SAMPLE = "NA12878";
+
+    @Param({"8", "32"})
+    public int haplotypeCount;
+
+    private SampleList samples;
+    private AlleleList<Allele> haplotypes;
+    private Map<String, List<GATKRead>> readsBySample;
+    private double[][] values;
+    private Map<Allele, List<Allele>> siteAlleles;
+
+    @Setup
+    public void setUp() {
+        final List<GATKRead> reads = BenchmarkResources.chr17Reads(REGION);
+        samples = new IndexedSampleList(SAMPLE);
+        readsBySample = Collections.singletonMap(SAMPLE, reads);
+
+        final Random random = Utils.getRandomGenerator();
+        final List<Allele> haplotypeList = new ArrayList<>(haplotypeCount);
+        final byte[] bases = new byte[50];
+        for (int h = 0; h < haplotypeCount; h++) {
+            for (int i = 0; i < bases.length; i++) {
+                bases[i] = "ACGT".getBytes()[random.nextInt(4)];
+            }
+            haplotypeList.add(Allele.create(bases.clone(), h == 0));
+        }
+        haplotypes = new IndexedAlleleList<>(haplotypeList);
+
+        values = new double[haplotypeCount][reads.size()];
+        for (final double[] haplotypeValues : values) {
+            for (int r = 0; r < haplotypeValues.length; r++) {
+                haplotypeValues[r] = -Math.abs(20 * random.nextGaussian());
+            }
+        }
+
+        // a bi-allelic site: the reference haplotype supports the reference allele, and all others the alternate one
+        siteAlleles = new LinkedHashMap<>();
+        siteAlleles.put(Allele.create("A", true), Collections.singletonList(haplotypeList.get(0)));
+        siteAlleles.put(Allele.create("C", false), haplotypeList.subList(1, haplotypeCount));
+    }
+
+    @Benchmark
+    public AlleleLikelihoods<GATKRead, Allele> processRegionLikelihoods() {
+        final AlleleLikelihoods<GATKRead, Allele> haplotypeLikelihoods = new AlleleLikelihoods<>(samples, haplotypes, readsBySample);
+        final LikelihoodMatrix<GATKRead, Allele> matrix = haplotypeLikelihoods.sampleMatrix(0);
+        for (int h = 0; h < values.length; h++) {
+            for (int r = 0; r < values[h].length; r++) {
+                matrix.set(h, r, values[h][r]);
+            }
+        }
+        haplotypeLikelihoods.normalizeLikelihoods(-100.0, true);
+        haplotypeLikelihoods.filterPoorlyModeledEvidence(read -> -60.0);
+
+        final AlleleLikelihoods<GATKRead, Allele> siteLikelihoods = haplotypeLikelihoods.marginalize(siteAlleles);
+        siteLikelihoods.addNonReferenceAllele(Allele.NON_REF_ALLELE);
+        return siteLikelihoods;
+    }
+}
@@ -0,0 +1,45 @@
+package org.broadinstitute.hellbender.utils.locusiterator;
+
+import htsjdk.samtools.SAMFileHeader;
+import org.broadinstitute.hellbender.BenchmarkResources;
+import org.broadinstitute.hellbender.utils.downsampling.DownsamplingMethod;
+import org.broadinstitute.hellbender.utils.read.GATKRead;
+import org.broadinstitute.hellbender.utils.read.ReadUtils;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Builds the pileups of every locus covered by the NA12878 reads on chromosome 17.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LocusIteratorByStateBenchmark {
+
+    private SAMFileHeader header;
+    private Set<String> samples;
+    private List<GATKRead> reads;
+
+    @Setup
+    public void setUp() {
+        header = BenchmarkResources.chr17ReadsHeader();
+        samples = ReadUtils.getSamplesFromHeader(header);
+        reads = BenchmarkResources.chr17Reads(BenchmarkResources.CHR17_READS_SPAN);
+    }
+
+    @Benchmark
+    public long iteratePileups() {
+        final LocusIteratorByState libs = new LocusIteratorByState(reads.iterator(), DownsamplingMethod.NONE, false, samples, header, true);
+        long pileupElements = 0;
+        while (libs.hasNext()) {
+            pileupElements += libs.next().size();
+        }
+        return pileupElements;
+    }
+}
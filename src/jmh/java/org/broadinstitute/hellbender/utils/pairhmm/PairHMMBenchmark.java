@@ -0,0 +1,99 @@
+package org.broadinstitute.hellbender.utils.pairhmm;
+
+import org.broadinstitute.gatk.nativebindings.pairhmm.PairHMMNativeArguments;
+import org.broadinstitute.hellbender.BenchmarkResources;
+import org.broadinstitute.hellbender.utils.genotyper.AlleleLikelihoods;
+import org.broadinstitute.hellbender.utils.genotyper.IndexedAlleleList;
+import org.broadinstitute.hellbender.utils.genotyper.IndexedSampleList;
+import org.broadinstitute.hellbender.utils.genotyper.LikelihoodMatrix;
+import org.broadinstitute.hellbender.utils.haplotype.Haplotype;
+import org.broadinstitute.hellbender.utils.read.ArtificialReadUtils;
+import org.broadinstitute.hellbender.utils.read.GATKRead;
+import org.broadinstitute.hellbender.utils.read.ReadUtils;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Evaluates all the reads of the PairHMM test data against all its haplotypes with each PairHMM implementation.
+ *
+ * <p>The AVX implementation is only benchmarked on machines that support it; elsewhere its setup fails.</p>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PairHMMBenchmark {
+
+    @Param({"LOGLESS_CACHING", "DIAGONAL_LOGLESS", "AVX_LOGLESS_CACHING"})
+    public PairHMM.Implementation implementation;
+
+    private PairHMM pairHMM;
+    private List<GATKRead> reads;
+    private LikelihoodMatrix<GATKRead, Haplotype> likelihoods;
+    private PairHMMInputScoreImputator inputScoreImputator;
+
+    @Setup
+    public void setUp() {
+        final Map<String, Haplotype> haplotypes = new LinkedHashMap<>();
+        final Map<GATKRead, byte[]> gapContinuationPenalties = new IdentityHashMap<>();
+        reads = new ArrayList<>();
+        for (final String[] record : BenchmarkResources.pairHMMTestData()) {
+            haplotypes.computeIfAbsent(record[0], bases -> new Haplotype(bases.getBytes(), haplotypes.isEmpty()));
+            final byte[] bases = record[1].getBytes();
+            final GATKRead read = ArtificialReadUtils.createArtificialRead(bases, phredScores(record[2], 6), bases.length + "M");
+            ReadUtils.setInsertionBaseQualities(read, phredScores(record[3], 0));
+            ReadUtils.setDeletionBaseQualities(read, phredScores(record[4], 0));
+            gapContinuationPenalties.put(read, phredScores(record[5], 0));
+            reads.add(read);
+        }
+
+        final List<Haplotype> haplotypeList = new ArrayList<>(haplotypes.values());
+        final Map<String, List<GATKRead>> readsBySample = Collections.singletonMap("sample", reads);
+        likelihoods = new AlleleLikelihoods<>(new IndexedSampleList("sample"), new IndexedAlleleList<>(haplotypeList), readsBySample).sampleMatrix(0);
+        inputScoreImputator = read -> new PairHMMInputScoreImputation() {
+            @Override
+            public byte[] delOpenPenalties() {
+                return ReadUtils.getBaseDeletionQualities(read);
+            }
+
+            @Override
+            public byte[] insOpenPenalties() {
+                return ReadUtils.getBaseInsertionQualities(read);
+            }
+
+            @Override
+            public byte[] gapContinuationPenalties() {
+                return gapContinuationPenalties.get(read);
+            }
+        };
+
+        pairHMM = implementation.makeNewHMM(new PairHMMNativeArguments());
+        pairHMM.initialize(haplotypeList, readsBySample,
+                reads.stream().mapToInt(GATKRead::getLength).max().getAsInt(),
+                haplotypeList.stream().mapToInt(Haplotype::length).max().getAsInt());
+    }
+
+    @TearDown
+    public void tearDown() {
+        pairHMM.close();
+    }
+
+    @Benchmark
+    public LikelihoodMatrix<GATKRead, Haplotype> computeLog10Likelihoods() {
+        pairHMM.computeLog10Likelihoods(likelihoods, reads, inputScoreImputator);
+        return likelihoods;
+    }
+
+    // decodes Phred+33 scores, capping them from below.
+    private static byte[] phredScores(final String encoded, final int min) {
+        final byte[] result = encoded.getBytes();
+        for (int i = 0; i < result.length; i++) {
+            result[i] = (byte) Math.max(result[i] - 33, min);
+        }
+        return result;
+    }
+}
@@ -0,0 +1,65 @@
+package org.broadinstitute.hellbender.utils.recalibration;
+
+import htsjdk.samtools.SAMFileHeader;
+import htsjdk.variant.variantcontext.VariantContext;
+import org.broadinstitute.hellbender.BenchmarkResources;
+import org.broadinstitute.hellbender.engine.FeatureDataSource;
+import org.broadinstitute.hellbender.engine.ReferenceDataSource;
+import org.broadinstitute.hellbender.engine.filters.ReadFilter;
+import org.broadinstitute.hellbender.tools.walkers.bqsr.BaseRecalibrator;
+import org.broadinstitute.hellbender.utils.read.GATKRead;
+import org.openjdk.jmh.annotations.*;
+
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Accumulates base recalibration tables for the NA12878 reads on chromosome 17, with dbSNP known sites and the default
+ * {@link BaseRecalibrator} read filters and arguments.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BaseRecalibrationEngineBenchmark {
+
+    private SAMFileHeader header;
+    private ReferenceDataSource reference;
+    private List<GATKRead> reads;
+    private List<List<VariantContext>> knownSitesPerRead;
+
+    @Setup
+    public void setUp() {
+        header = BenchmarkResources.chr17ReadsHeader();
+        reference = ReferenceDataSource.of(Paths.get(BenchmarkResources.CHR17_REFERENCE));
+        final ReadFilter readFilter = ReadFilter.fromList(BaseRecalibrator.getStandardBQSRReadFilterList(), header);
+        reads = BenchmarkResources.chr17Reads(BenchmarkResources.CHR17_READS_SPAN).stream()
+                .filter(readFilter)
+                .collect(Collectors.toList());
+        knownSitesPerRead = new ArrayList<>(reads.size());
+        try (final FeatureDataSource<VariantContext> knownSites = new FeatureDataSource<>(BenchmarkResources.DBSNP_CHR17_VCF)) {
+            for (final GATKRead read : reads) {
+                knownSitesPerRead.add(knownSites.queryAndPrefetch(read));
+            }
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        reference.close();
+    }
+
+    @Benchmark
+    public RecalibrationTables processReads() {
+        final BaseRecalibrationEngine engine = new BaseRecalibrationEngine(new RecalibrationArgumentCollection(), header);
+        for (int i = 0; i < reads.size(); i++) {
+            engine.processRead(reads.get(i), reference, knownSitesPerRead.get(i));
+        }
+        return engine.getRecalibrationTables();
+    }
+}
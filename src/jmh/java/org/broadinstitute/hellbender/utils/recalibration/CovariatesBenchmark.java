@@ -0,0 +1,52 @@
+package org.broadinstitute.hellbender.utils.recalibration;
+
+import htsjdk.samtools.SAMFileHeader;
+import org.broadinstitute.hellbender.BenchmarkResources;
+import org.broadinstitute.hellbender.utils.read.GATKRead;
+import org.broadinstitute.hellbender.utils.recalibration.covariates.CovariateKeyCache;
+import org.broadinstitute.hellbender.utils.recalibration.covariates.ReadCovariates;
+import org.broadinstitute.hellbender.utils.recalibration.covariates.StandardCovariateList;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Computes the standard BQSR covariates of the NA12878 reads on chromosome 17, as BaseRecalibrator (with indel
+ * covariates) and ApplyBQSR (without) do for every read.
+ *
+ * <p>Run with {@code -Pjmh.args="-prof gc"} to report the allocation rate per read batch.</p>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CovariatesBenchmark {
+
+    @Param({"true", "false"})
+    public boolean recordIndelValues;
+
+    private SAMFileHeader header;
+    private List<GATKRead> reads;
+    private StandardCovariateList covariates;
+    private CovariateKeyCache keyCache;
+
+    @Setup
+    public void setUp() {
+        header = BenchmarkResources.chr17ReadsHeader();
+        reads = BenchmarkResources.chr17Reads(BenchmarkResources.CHR17_READS_SPAN);
+        covariates = new StandardCovariateList(new RecalibrationArgumentCollection(), header);
+        keyCache = new CovariateKeyCache();
+    }
+
+    @Benchmark
+    public void computeCovariates(final Blackhole blackhole) {
+        for ( final GATKRead read : reads ) {
+            final ReadCovariates readCovariates = RecalUtils.computeCovariates(read, header, covariates, recordIndelValues, keyCache);
+            blackhole.consume(readCovariates);
+        }
+    }
+}
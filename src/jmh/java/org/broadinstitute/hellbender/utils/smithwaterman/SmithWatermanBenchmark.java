@@ -0,0 +1,52 @@
+package org.broadinstitute.hellbender.utils.smithwaterman;
+
+import org.broadinstitute.gatk.nativebindings.smithwaterman.SWOverhangStrategy;
+import org.broadinstitute.hellbender.BenchmarkResources;
+import org.broadinstitute.hellbender.utils.read.CigarUtils;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Aligns each read of the PairHMM test data to its haplotype with the Java, buffered Java and AVX Smith-Waterman
+ * aligners.
+ *
+ * <p>The AVX aligner is only benchmarked on machines that support it; elsewhere its setup fails.</p>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SmithWatermanBenchmark {
+
+    @Param({"JAVA", "JAVA_BUFFERED", "AVX_ENABLED"})
+    public SmithWatermanAligner.Implementation implementation;
+
+    private SmithWatermanAligner aligner;
+    private byte[][] haplotypes;
+    private byte[][] reads;
+
+    @Setup
+    public void setUp() {
+        final List<String[]> records = BenchmarkResources.pairHMMTestData();
+        haplotypes = records.stream().map(record -> record[0].getBytes()).toArray(byte[][]::new);
+        reads = records.stream().map(record -> record[1].getBytes()).toArray(byte[][]::new);
+        aligner = SmithWatermanAligner.getAligner(implementation);
+    }
+
+    @TearDown
+    public void tearDown() {
+        aligner.close();
+    }
+
+    @Benchmark
+    public void alignReadsToHaplotypes(final Blackhole blackhole) {
+        for (int i = 0; i < reads.length; i++) {
+            blackhole.consume(aligner.align(haplotypes[i], reads[i], CigarUtils.NEW_SW_PARAMETERS, SWOverhangStrategy.SOFTCLIP));
+        }
+    }
+}
@@ -9,10 +9,13 @@ import org.broadinstitute.hellbender.engine.filters.ReadFilter;
 import org.broadinstitute.hellbender.engine.filters.ReadFilterLibrary;
 import org.broadinstitute.hellbender.engine.filters.WellformedReadFilter;
 import org.broadinstitute.hellbender.engine.spark.AssemblyRegionArgumentCollection;
+import org.broadinstitute.hellbender.engine.spark.AssemblyRegionWalkerContext;
 import org.broadinstitute.hellbender.exceptions.UserException;
+import org.broadinstitute.hellbender.utils.AutoCloseableReference;
 import org.broadinstitute.hellbender.utils.IGVUtils;
 import org.broadinstitute.hellbender.utils.IntervalUtils;
 import org.broadinstitute.hellbender.utils.SimpleInterval;
+import org.broadinstitute.hellbender.utils.Utils;
 import org.broadinstitute.hellbender.utils.downsampling.PositionalDownsampler;
 import org.broadinstitute.hellbender.utils.downsampling.ReadsDownsampler;
 
@@ -21,6 +24,10 @@ import java.io.PrintStream;
 import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 /**
  * An AssemblyRegionWalker is a tool that processes an entire region of reads at a time, each marked as either "active"
@@ -39,6 +46,11 @@ import java.util.List;
  *
  * Internally, the reads are loaded in chunks called read shards, which are then subdivided into active/inactive regions
  * for processing by the tool implementation. One read shard is created per contig.
+ *
+ * Tools that override {@link #supportsParallelTraversal} and {@link #makeAssemblyRegionWorker} can process several
+ * read shards concurrently (see {@link #ASSEMBLY_REGION_THREADS_LONG_NAME}). Each worker thread then owns its own reads,
+ * reference and feature data sources, and the results of each region are emitted on the traversal thread in the same
+ * order as in a single-threaded traversal.
  */
 public abstract class AssemblyRegionWalker extends WalkerBase {
 
@@ -56,6 +68,41 @@ public abstract class AssemblyRegionWalker extends WalkerBase {
     @Argument(fullName = AssemblyRegionArgumentCollection.ASSEMBLY_REGION_OUT_LONG_NAME, doc="Output the assembly region to this IGV formatted file", optional = true)
     protected String assemblyRegionOut = null;
 
+    public static final String ASSEMBLY_REGION_THREADS_LONG_NAME = "assembly-region-threads";
+
+    /**
+     * Number of read shards (contigs) to process concurrently. Values greater than 1 are only accepted by tools that
+     * support parallel traversal. Each thread opens its own reads, reference and feature data sources.
+     *
+     * Results are always emitted in genomic order. Random draws (e.g. positional downsampling) use one independent
+     * random stream per shard, chosen by the index of the shard, when running with more than 1 thread, so the output
+     * is the same for any number of threads greater than 1. A single-threaded traversal uses the global random
+     * generator, as it always has, so its output may differ from that of a parallel traversal when random draws are made.
+     */
+    @Advanced
+    @Argument(fullName = ASSEMBLY_REGION_THREADS_LONG_NAME, doc = "Number of threads used to process read shards concurrently", optional = true, minValue = 1)
+    protected int assemblyRegionThreads = 1;
+
+    public static final String ASSEMBLY_REGION_BATCH_SIZE_LONG_NAME = "assembly-region-batch-size";
+
+    /**
+     * Number of consecutive assembly regions of a read shard that each thread hands over together to the tool during
+     * parallel traversal (see {@link AssemblyRegionWorker#processRegions}), so that it can share expensive per-call work
+     * among them, such as PairHMM calls for small regions. Only valid with {@link #ASSEMBLY_REGION_THREADS_LONG_NAME} > 1.
+     *
+     * Results are still emitted in genomic order. As the regions of a batch are discovered before any of them is
+     * processed, the output may depend on the batch size when random draws are made.
+     */
+    @Advanced
+    @Argument(fullName = ASSEMBLY_REGION_BATCH_SIZE_LONG_NAME, doc = "Number of consecutive assembly regions processed together by each thread in parallel traversal", optional = true, minValue = 1)
+    protected int assemblyRegionBatchSize = 1;
+
+    /**
+     * Maximum number of processed regions per shard waiting to be emitted during parallel traversal. Bounds the memory
+     * used by shards that finish ahead of the shard currently being emitted.
+     */
+    private static final int MAX_PENDING_REGIONS_PER_SHARD = 1000;
+
     private PrintStream assemblyRegionOutStream;
 
     @Override
@@ -79,6 +126,14 @@ public abstract class AssemblyRegionWalker extends WalkerBase {
         super.onStartup();
 
         assemblyRegionArgs.validate();
+        if ( assemblyRegionThreads > 1 && ! supportsParallelTraversal() ) {
+            throw new CommandLineException.BadArgumentValue(ASSEMBLY_REGION_THREADS_LONG_NAME, Integer.toString(assemblyRegionThreads),
+                    getClass().getSimpleName() + " does not support parallel traversal");
+        }
+        if ( assemblyRegionBatchSize > 1 && assemblyRegionThreads == 1 ) {
+            throw new CommandLineException.BadArgumentValue(ASSEMBLY_REGION_BATCH_SIZE_LONG_NAME, Integer.toString(assemblyRegionBatchSize),
+                    "batches of assembly regions are only supported in parallel traversal (" + ASSEMBLY_REGION_THREADS_LONG_NAME + " > 1)");
+        }
 
         final List<SimpleInterval> intervals = hasUserSuppliedIntervals() ? userIntervals : IntervalUtils.getAllIntervalsForReference(getHeaderForReads().getSequenceDictionary());
         readShards = makeReadShards(intervals);
@@ -162,20 +217,27 @@ public abstract class AssemblyRegionWalker extends WalkerBase {
         // meter to check the time more frequently (every 10 regions instead of every 1000 regions).
         progressMeter.setRecordsBetweenTimeChecks(10L);
 
-        for ( final MultiIntervalLocalReadShard readShard : readShards ) {
-            // Since reads in each shard are lazily fetched, we need to pass the filter and transformers to the window
-            // instead of filtering the reads directly here
-            readShard.setPreReadFilterTransformer(makePreReadFilterTransformer());
-            readShard.setReadFilter(countedFilter);
-            readShard.setDownsampler(createDownsampler());
-            readShard.setPostReadFilterTransformer(makePostReadFilterTransformer());
-
-            processReadShard(readShard, reference, features);
+        if ( assemblyRegionThreads > 1 ) {
+            traverseReadShardsInParallel(countedFilter);
+        } else {
+            for ( final MultiIntervalLocalReadShard readShard : readShards ) {
+                prepareReadShard(readShard, countedFilter);
+                processReadShard(readShard, reference, features);
+            }
         }
 
         logger.info(countedFilter.getSummaryLine());
     }
 
+    private void prepareReadShard(final MultiIntervalLocalReadShard readShard, final ReadFilter readFilter) {
+        // Since reads in each shard are lazily fetched, we need to pass the filter and transformers to the window
+        // instead of filtering the reads directly here
+        readShard.setPreReadFilterTransformer(makePreReadFilterTransformer());
+        readShard.setReadFilter(readFilter);
+        readShard.setDownsampler(createDownsampler());
+        readShard.setPostReadFilterTransformer(makePostReadFilterTransformer());
+    }
+
     /**
      * Divide the given Shard up into active/inactive AssemblyRegions using the {@link #assemblyRegionEvaluator},
      * and send each region to the tool implementation for processing.
@@ -195,7 +257,7 @@ public abstract class AssemblyRegionWalker extends WalkerBase {
             }
 
             logger.debug("Processing assembly region at " + assemblyRegion.getSpan() + " isActive: " + assemblyRegion.isActive() + " numReads: " + assemblyRegion.getReads().size());
-            writeAssemblyRegion(assemblyRegion);
+            writeAssemblyRegion(assemblyRegion.getSpan(), assemblyRegion.isActive());
 
             apply(assemblyRegion,
                     new ReferenceContext(reference, assemblyRegion.getPaddedSpan()),
@@ -206,12 +268,147 @@ public abstract class AssemblyRegionWalker extends WalkerBase {
         }
     }
 
-    private void writeAssemblyRegion(final AssemblyRegion region) {
+    /**
+     * Run the traversal with {@link #assemblyRegionThreads} worker threads, each processing one read shard at a time
+     * with its own data sources and {@link AssemblyRegionWorker}.
+     *
+     * The results of each region are queued per shard and emitted here, on the traversal thread, shard by shard and
+     * in region order, so that tool output is identical to that of a single-threaded traversal. Shards are started in
+     * order, so the shard being emitted always has a worker thread; the bounded queues stall workers that get too far
+     * ahead.
+     *
+     * @param countedFilter read filter shared by all the workers, to keep a single set of filtering counts
+     */
+    private void traverseReadShardsInParallel(final CountingReadFilter countedFilter) {
+        final ReadFilter sharedReadFilter = makeSynchronizedReadFilter(countedFilter);
+        final List<ParallelTraversalWorker> workers = new ArrayList<>(assemblyRegionThreads);
+        final BlockingQueue<ParallelTraversalWorker> idleWorkers = new ArrayBlockingQueue<>(assemblyRegionThreads);
+        final List<ShardOutputQueue> shardOutputs = new ArrayList<>(readShards.size());
+        final ExecutorService executor = Executors.newFixedThreadPool(assemblyRegionThreads);
+        logger.info("Processing read shards using " + assemblyRegionThreads + " threads");
+
+        try ( final ReadsDataSourcePool readsPool = new ReadsDataSourcePool(this::makeReadsPathDataSource) ) {
+            for ( int i = 0; i < assemblyRegionThreads; i++ ) {
+                final ParallelTraversalWorker worker = new ParallelTraversalWorker();
+                workers.add(worker);
+                idleWorkers.add(worker);
+            }
+
+            for ( int shardIndex = 0; shardIndex < readShards.size(); shardIndex++ ) {
+                final ShardOutputQueue output = new ShardOutputQueue(MAX_PENDING_REGIONS_PER_SHARD);
+                final List<SimpleInterval> shardIntervals = readShards.get(shardIndex).getIntervals();
+                final long randomStreamId = shardIndex;
+                shardOutputs.add(output);
+                executor.submit(() -> {
+                    try {
+                        final ParallelTraversalWorker worker = idleWorkers.take();
+                        try ( final AutoCloseableReference<ReadsPathDataSource> readsSource = readsPool.borrowAutoReturn() ) {
+                            final MultiIntervalLocalReadShard readShard = new MultiIntervalLocalReadShard(shardIntervals, assemblyRegionArgs.assemblyRegionPadding, readsSource.get());
+                            prepareReadShard(readShard, sharedReadFilter);
+                            Utils.runWithIndependentRandomGenerator(randomStreamId, () -> worker.processReadShard(readShard, output));
+                        } finally {
+                            idleWorkers.add(worker);
+                        }
+                        output.finish(null);
+                    } catch ( final Throwable e ) {
+                        output.finish(e);
+                    }
+                });
+            }
+
+            // Emit the results of each shard in turn, in the same order as the single-threaded traversal
+            for ( final ShardOutputQueue output : shardOutputs ) {
+                output.emitAll();
+            }
+        } finally {
+            // workers may still be processing a shard if the traversal failed, so wait for them to stop before closing
+            // their data sources
+            executor.shutdownNow();
+            awaitTerminationUninterruptibly(executor);
+            workers.forEach(ParallelTraversalWorker::close);
+        }
+    }
+
+    /**
+     * Per-thread state of a parallel traversal: the data sources and {@link AssemblyRegionWorker} used to discover
+     * and process the regions of one read shard at a time.
+     */
+    private final class ParallelTraversalWorker implements AutoCloseable {
+        private final ReferenceDataSource workerReference;
+        private final FeatureManager workerFeatures;
+        private final AssemblyRegionWorker regionWorker;
+
+        private ParallelTraversalWorker() {
+            workerReference = ReferenceDataSource.of(referenceArguments.getReferencePath());
+            workerFeatures = features == null ? null : new FeatureManager(AssemblyRegionWalker.this, FeatureDataSource.DEFAULT_QUERY_LOOKAHEAD_BASES,
+                    cloudPrefetchBuffer, cloudIndexPrefetchBuffer, getGenomicsDBOptions());
+            if ( workerFeatures != null && asyncFeaturePrefetch ) {
+                workerFeatures.enableAsyncPrefetch();
+            }
+            regionWorker = Utils.nonNull(makeAssemblyRegionWorker(), "makeAssemblyRegionWorker() must not return null");
+        }
+
+        private void processReadShard(final MultiIntervalLocalReadShard shard, final ShardOutputQueue output) {
+            final Iterator<AssemblyRegion> assemblyRegionIter = new AssemblyRegionIterator(shard, getHeaderForReads(), workerReference, workerFeatures, regionWorker.assemblyRegionEvaluator(), assemblyRegionArgs);
+            final List<AssemblyRegionWalkerContext> batch = new ArrayList<>(assemblyRegionBatchSize);
+
+            while ( assemblyRegionIter.hasNext() ) {
+                final AssemblyRegion assemblyRegion = assemblyRegionIter.next();
+                if ( assemblyRegionArgs.forceActive ) {
+                    assemblyRegion.setIsActive(true);
+                }
+
+                logger.debug("Processing assembly region at " + assemblyRegion.getSpan() + " isActive: " + assemblyRegion.isActive() + " numReads: " + assemblyRegion.getReads().size());
+                batch.add(new AssemblyRegionWalkerContext(assemblyRegion,
+                        new ReferenceContext(workerReference, assemblyRegion.getPaddedSpan()),
+                        new FeatureContext(workerFeatures, assemblyRegion.getPaddedSpan())));
+                if ( batch.size() == assemblyRegionBatchSize ) {
+                    processBatch(batch, output);
+                }
+            }
+            if ( ! batch.isEmpty() ) {
+                processBatch(batch, output);
+            }
+        }
+
+        /**
+         * Process a batch of consecutive regions and queue their results for emission, emptying the batch.
+         */
+        private void processBatch(final List<AssemblyRegionWalkerContext> batch, final ShardOutputQueue output) {
+            final List<Runnable> emitters = regionWorker.processRegions(batch);
+            Utils.validate(emitters != null && emitters.size() == batch.size(), "processRegions() must return one task per region");
+
+            for ( int i = 0; i < batch.size(); i++ ) {
+                final Runnable emitter = Utils.nonNull(emitters.get(i), "processRegions() must not return null tasks");
+
+                // Don't hold on to the region itself (and its reads) while waiting to be emitted
+                final SimpleInterval span = batch.get(i).getAssemblyRegion().getSpan();
+                final boolean isActive = batch.get(i).getAssemblyRegion().isActive();
+                output.add(() -> {
+                    writeAssemblyRegion(span, isActive);
+                    emitter.run();
+                    progressMeter.update(span);
+                });
+            }
+            batch.clear();
+        }
+
+        @Override
+        public void close() {
+            regionWorker.close();
+            workerReference.close();
+            if ( workerFeatures != null ) {
+                workerFeatures.close();
+            }
+        }
+    }
+
+    private void writeAssemblyRegion(final SimpleInterval span, final boolean isActive) {
         if ( assemblyRegionOutStream != null ) {
-            IGVUtils.printIGVFormatRow(assemblyRegionOutStream, new SimpleInterval(region.getContig(), region.getStart(), region.getStart()),
+            IGVUtils.printIGVFormatRow(assemblyRegionOutStream, new SimpleInterval(span.getContig(), span.getStart(), span.getStart()),
                     "end-marker", 0.0);
-            IGVUtils.printIGVFormatRow(assemblyRegionOutStream, region,
-                    "size=" + new SimpleInterval(region).size(), region.isActive() ? 1.0 : -1.0);
+            IGVUtils.printIGVFormatRow(assemblyRegionOutStream, span,
+                    "size=" + span.size(), isActive ? 1.0 : -1.0);
         }
     }
 
@@ -248,4 +445,25 @@ public abstract class AssemblyRegionWalker extends WalkerBase {
      * @param featureContext features overlapping the padded span of the assembly region
      */
     public abstract void apply( final AssemblyRegion region, final ReferenceContext referenceContext, final FeatureContext featureContext );
+
+    /**
+     * Tools that can process read shards concurrently should override this to return true, and implement
+     * {@link #makeAssemblyRegionWorker} accordingly.
+     *
+     * @return whether this tool accepts values greater than 1 for {@link #ASSEMBLY_REGION_THREADS_LONG_NAME}.
+     */
+    protected boolean supportsParallelTraversal() {
+        return false;
+    }
+
+    /**
+     * Create the thread-confined state used to discover and process regions on one worker thread during parallel
+     * traversal. Called once per thread, after {@link #onTraversalStart}, and only if {@link #supportsParallelTraversal}
+     * returns true. Tools that support parallel traversal must override this.
+     *
+     * @return a new AssemblyRegionWorker that shares no mutable state with other workers. Never {@code null}.
+     */
+    protected AssemblyRegionWorker makeAssemblyRegionWorker() {
+        throw new UnsupportedOperationException(getClass().getSimpleName() + " does not support parallel traversal");
+    }
 }
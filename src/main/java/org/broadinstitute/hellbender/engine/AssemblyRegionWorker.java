@@ -0,0 +1,64 @@
+package org.broadinstitute.hellbender.engine;
+
+import org.broadinstitute.hellbender.engine.spark.AssemblyRegionWalkerContext;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Thread-confined processing state for an {@link AssemblyRegionWalker} that supports parallel traversal
+ * (see {@link AssemblyRegionWalker#supportsParallelTraversal()}).
+ *
+ * During a parallel traversal each worker thread owns exactly one AssemblyRegionWorker, together with its own reads,
+ * reference and feature data sources, and uses it to discover and process the regions of one read shard at a time.
+ * Implementations therefore need not be thread-safe, but must not share mutable state with other workers or with
+ * the tool instance.
+ *
+ * Output must not be written directly by {@link #processRegion}. Instead, it returns a task that the engine runs
+ * on the traversal thread, in the same order as a single-threaded traversal would have called
+ * {@link AssemblyRegionWalker#apply}, so that tool output is independent of the number of threads.
+ */
+public interface AssemblyRegionWorker extends AutoCloseable {
+
+    /**
+     * @return the evaluator used by this worker to determine whether each locus is active or not. Must not be
+     *         shared with other workers.
+     */
+    AssemblyRegionEvaluator assemblyRegionEvaluator();
+
+    /**
+     * Process an individual AssemblyRegion on the worker thread. This is the parallel counterpart of
+     * {@link AssemblyRegionWalker#apply}, and should do all the expensive work (assembly, genotyping, etc.).
+     *
+     * @param region region to process (pre-marked as either active or inactive)
+     * @param referenceContext reference data overlapping the padded span of the assembly region
+     * @param featureContext features overlapping the padded span of the assembly region
+     * @return a task that emits the results for this region; it will be run on the traversal thread in region order.
+     *         Never {@code null}.
+     */
+    Runnable processRegion(final AssemblyRegion region, final ReferenceContext referenceContext, final FeatureContext featureContext);
+
+    /**
+     * Process a batch of consecutive AssemblyRegions of the same read shard on the worker thread (see
+     * {@link AssemblyRegionWalker#ASSEMBLY_REGION_BATCH_SIZE_LONG_NAME}). Workers can override this to share
+     * expensive work among the regions of the batch; by default each region is processed in turn with
+     * {@link #processRegion}.
+     *
+     * @param regions regions to process, in genomic order, each with its reference and feature contexts
+     * @return one task per region, in the same order as {@code regions}, that emits the results for that region.
+     *         Never {@code null}.
+     */
+    default List<Runnable> processRegions(final List<AssemblyRegionWalkerContext> regions) {
+        final List<Runnable> emitters = new ArrayList<>(regions.size());
+        for ( final AssemblyRegionWalkerContext region : regions ) {
+            emitters.add(processRegion(region.getAssemblyRegion(), region.getReferenceContext(), region.getFeatureContext()));
+        }
+        return emitters;
+    }
+
+    /**
+     * Release any resources held by this worker. Called once the traversal has finished.
+     */
+    @Override
+    default void close() { }
+}
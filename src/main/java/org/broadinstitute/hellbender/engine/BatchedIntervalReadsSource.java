@@ -0,0 +1,182 @@
+package org.broadinstitute.hellbender.engine;
+
+import com.google.common.annotations.VisibleForTesting;
+import org.broadinstitute.hellbender.utils.SimpleInterval;
+import org.broadinstitute.hellbender.utils.Utils;
+import org.broadinstitute.hellbender.utils.read.GATKRead;
+
+import java.util.*;
+
+/**
+ * Serves the reads queries of a traversal over a known, ordered list of intervals (e.g. the targets of an
+ * {@link IntervalWalker}) by querying the reads for batches of consecutive intervals at once.
+ *
+ * Querying the intervals one at a time seeks to, and decompresses, the blocks of each interval separately, and
+ * blocks shared by several small intervals that are close together (e.g. exome targets) are decompressed repeatedly.
+ * Instead, the intervals are planned into batches of consecutive intervals on the same contig, and each batch is
+ * fetched with a single {@link ReadsDataSource#queryIntervals} call, which merges the index chunks of all of its
+ * intervals and reads them once, in file order. The reads of the batch are then demultiplexed to the intervals they
+ * overlap, and held until each interval is queried.
+ *
+ * The first query for each planned interval is served from its batch (loading the batch if needed, and dropping any
+ * previous batch), and returns the same reads as {@link ReadsDataSource#query} would have. Any other query (an
+ * interval that was not planned, a repeated query, or an interval whose batch has already been dropped) is passed
+ * through to the underlying data source. Reads overlapping several intervals of a batch are returned as separate
+ * copies for each interval, so that tools may modify them.
+ *
+ * The reads of a whole batch are held in memory, so batches are limited both in number of intervals and in total
+ * number of bases spanned by their intervals. Intervals longer than the maximum number of bases per batch are never
+ * batched.
+ */
+public final class BatchedIntervalReadsSource implements GATKDataSource<GATKRead> {
+
+    /**
+     * Default maximum number of intervals in a batch
+     */
+    public static final int DEFAULT_MAX_INTERVALS_PER_BATCH = 64;
+
+    /**
+     * Default maximum total length, in bases, of the intervals in a batch
+     */
+    public static final long DEFAULT_MAX_BASES_PER_BATCH = 1_000_000L;
+
+    private final ReadsDataSource readsSource;
+
+    /**
+     * Planned batches, in traversal order
+     */
+    private final List<List<SimpleInterval>> batches;
+
+    /**
+     * Index in {@link #batches} of the batch containing each planned interval
+     */
+    private final Map<SimpleInterval, Integer> batchOfInterval;
+
+    /**
+     * Index of the batch whose reads are currently loaded, or -1 if none
+     */
+    private int currentBatch = -1;
+
+    /**
+     * Reads of the current batch, for each of its intervals that hasn't been queried yet
+     */
+    private final Map<SimpleInterval, List<GATKRead>> currentBatchReads = new HashMap<>();
+
+    /**
+     * @param readsSource source of reads, must be queryable by interval
+     * @param intervals intervals that will be queried, in the order in which they will be queried
+     * @param maxIntervalsPerBatch maximum number of intervals in a batch; 1 disables batching
+     * @param maxBasesPerBatch maximum total length of the intervals in a batch
+     */
+    public BatchedIntervalReadsSource(final ReadsDataSource readsSource, final List<SimpleInterval> intervals,
+                                      final int maxIntervalsPerBatch, final long maxBasesPerBatch) {
+        this.readsSource = Utils.nonNull(readsSource);
+        Utils.nonNull(intervals);
+        Utils.validateArg(maxIntervalsPerBatch > 0, "maxIntervalsPerBatch must be positive");
+        Utils.validateArg(maxBasesPerBatch > 0, "maxBasesPerBatch must be positive");
+        Utils.validateArg(readsSource.isQueryableByInterval(), "reads source must be queryable by interval");
+
+        batches = planBatches(intervals, maxIntervalsPerBatch, maxBasesPerBatch);
+        batchOfInterval = new HashMap<>();
+        for ( int i = 0; i < batches.size(); i++ ) {
+            for ( final SimpleInterval interval : batches.get(i) ) {
+                batchOfInterval.putIfAbsent(interval, i);
+            }
+        }
+    }
+
+    /**
+     * @param readsSource source of reads, must be queryable by interval
+     * @param intervals intervals that will be queried, in the order in which they will be queried
+     */
+    public BatchedIntervalReadsSource(final ReadsDataSource readsSource, final List<SimpleInterval> intervals) {
+        this(readsSource, intervals, DEFAULT_MAX_INTERVALS_PER_BATCH, DEFAULT_MAX_BASES_PER_BATCH);
+    }
+
+    /**
+     * Group consecutive intervals on the same contig into batches. Intervals that are too long to batch, and
+     * repeated intervals, are left out of the plan.
+     */
+    private static List<List<SimpleInterval>> planBatches(final List<SimpleInterval> intervals, final int maxIntervalsPerBatch, final long maxBasesPerBatch) {
+        final List<List<SimpleInterval>> batches = new ArrayList<>();
+        final Set<SimpleInterval> planned = new HashSet<>();
+        List<SimpleInterval> batch = new ArrayList<>();
+        long batchBases = 0;
+
+        for ( final SimpleInterval interval : intervals ) {
+            if ( interval.size() > maxBasesPerBatch || ! planned.add(interval) ) {
+                continue;
+            }
+            if ( ! batch.isEmpty() && (batch.size() >= maxIntervalsPerBatch || batchBases + interval.size() > maxBasesPerBatch ||
+                                       ! batch.get(0).getContig().equals(interval.getContig())) ) {
+                batches.add(batch);
+                batch = new ArrayList<>();
+                batchBases = 0;
+            }
+            batch.add(interval);
+            batchBases += interval.size();
+        }
+        if ( ! batch.isEmpty() ) {
+            batches.add(batch);
+        }
+        return batches;
+    }
+
+    @VisibleForTesting
+    List<List<SimpleInterval>> getBatches() {
+        return Collections.unmodifiableList(batches);
+    }
+
+    /**
+     * @return an iterator over all of the reads of the underlying data source, unaffected by batching
+     */
+    @Override
+    public Iterator<GATKRead> iterator() {
+        return readsSource.iterator();
+    }
+
+    /**
+     * @param interval interval to query
+     * @return the reads overlapping the interval, from its batch if it is the first query for a planned interval
+     */
+    @Override
+    public Iterator<GATKRead> query(final SimpleInterval interval) {
+        Utils.nonNull(interval);
+
+        final Integer batch = batchOfInterval.get(interval);
+        if ( batch != null && batch > currentBatch ) {
+            loadBatch(batch);
+        }
+
+        final List<GATKRead> batchReads = batch != null && batch == currentBatch ? currentBatchReads.remove(interval) : null;
+        return batchReads != null ? batchReads.iterator() : readsSource.query(interval);
+    }
+
+    /**
+     * Fetch the reads of a batch in a single query, and assign each of them to the intervals of the batch it overlaps
+     */
+    private void loadBatch(final int batch) {
+        currentBatch = batch;
+        currentBatchReads.clear();
+
+        final List<SimpleInterval> intervals = batches.get(batch);
+        for ( final SimpleInterval interval : intervals ) {
+            currentBatchReads.put(interval, new ArrayList<>());
+        }
+
+        final Iterator<GATKRead> reads = readsSource.queryIntervals(intervals);
+        while ( reads.hasNext() ) {
+            final GATKRead read = reads.next();
+            final int readStart = read.getAssignedStart();
+            final int readEnd = read.isUnmapped() ? readStart : Math.max(readStart, read.getEnd());
+
+            boolean assigned = false;
+            for ( final SimpleInterval interval : intervals ) {
+                if ( readStart <= interval.getEnd() && readEnd >= interval.getStart() ) {
+                    currentBatchReads.get(interval).add(assigned ? read.copy() : read);
+                    assigned = true;
+                }
+            }
+        }
+    }
+}
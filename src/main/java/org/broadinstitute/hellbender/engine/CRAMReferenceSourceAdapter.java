@@ -0,0 +1,194 @@
+package org.broadinstitute.hellbender.engine;
+
+import com.google.common.annotations.VisibleForTesting;
+import htsjdk.samtools.SAMSequenceDictionary;
+import htsjdk.samtools.SAMSequenceRecord;
+import htsjdk.samtools.cram.ref.CRAMReferenceSource;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.broadinstitute.hellbender.utils.Utils;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A {@link CRAMReferenceSource} that serves the reference bases needed to decode CRAM files from a GATK
+ * {@link ReferenceDataSource}, instead of letting htsjdk open and cache the reference on its own.
+ *
+ * htsjdk requests the bases of whole contigs. The most recently used contigs are kept in a small LRU cache, bounded
+ * in number of contigs, so that consecutive slices of a contig (and slices spanning a few contigs) don't reload
+ * their reference, while memory use stays bounded, unlike htsjdk's own cache of every contig seen so far.
+ *
+ * CRAM slices are checked against the MD5 of their reference bases, so the reference data source must return the
+ * bases of the FASTA file exactly, other than case (e.g. a {@link ReferenceFileSource} that preserves IUPAC codes):
+ * bases are upper-cased here, as htsjdk does.
+ *
+ * Instances are thread-safe, so that all of the reads data sources of a tool can share one.
+ */
+public final class CRAMReferenceSourceAdapter implements CRAMReferenceSource, AutoCloseable {
+    private static final Logger logger = LogManager.getLogger(CRAMReferenceSourceAdapter.class);
+
+    /**
+     * Default maximum number of contigs whose bases are cached
+     */
+    public static final int DEFAULT_MAX_CACHED_CONTIGS = 2;
+
+    private final ReferenceDataSource reference;
+    private final SAMSequenceDictionary dictionary;
+    private final int maxCachedContigs;
+
+    /**
+     * Bases of the most recently used contigs, least recently used first
+     */
+    private final LinkedHashMap<String, byte[]> cache = new LinkedHashMap<>(16, 0.75f, true);
+
+    private long numRequests = 0;
+    private long numHits = 0;
+    private long numBasesLoaded = 0;
+
+    /**
+     * @param reference source of the reference bases, closed when this adapter is closed
+     * @param maxCachedContigs maximum number of contigs whose bases are cached, must be positive
+     */
+    public CRAMReferenceSourceAdapter(final ReferenceDataSource reference, final int maxCachedContigs) {
+        this.reference = Utils.nonNull(reference);
+        Utils.validateArg(maxCachedContigs > 0, "maxCachedContigs must be positive");
+        this.dictionary = reference.getSequenceDictionary();
+        this.maxCachedContigs = maxCachedContigs;
+    }
+
+    /**
+     * @param reference source of the reference bases, closed when this adapter is closed
+     */
+    public CRAMReferenceSourceAdapter(final ReferenceDataSource reference) {
+        this(reference, DEFAULT_MAX_CACHED_CONTIGS);
+    }
+
+    /**
+     * @param sequenceRecord contig whose bases are requested
+     * @param tryNameVariants if true and the contig isn't in the reference, look for it with or without a "chr" prefix
+     * @return the upper-cased bases of the whole contig, or null if it isn't in the reference. Callers must not modify them.
+     */
+    @Override
+    public synchronized byte[] getReferenceBases(final SAMSequenceRecord sequenceRecord, final boolean tryNameVariants) {
+        Utils.nonNull(sequenceRecord);
+        ++numRequests;
+
+        final String contig = findContig(sequenceRecord.getSequenceName(), tryNameVariants);
+        if ( contig == null ) {
+            return null;
+        }
+
+        byte[] bases = cache.get(contig);
+        if ( bases != null ) {
+            ++numHits;
+            return bases;
+        }
+
+        // make room first, so that we never hold more than maxCachedContigs contigs
+        while ( cache.size() >= maxCachedContigs ) {
+            final Iterator<Map.Entry<String, byte[]>> eldest = cache.entrySet().iterator();
+            eldest.next();
+            eldest.remove();
+        }
+
+        bases = toUpperCase(reference.queryAndPrefetch(contig, 1, dictionary.getSequence(contig).getSequenceLength()).getBases());
+        numBasesLoaded += bases.length;
+        cache.put(contig, bases);
+        return bases;
+    }
+
+    private String findContig(final String name, final boolean tryNameVariants) {
+        if ( dictionary.getSequence(name) != null ) {
+            return name;
+        }
+        if ( tryNameVariants ) {
+            for ( final String variant : getNameVariants(name) ) {
+                if ( dictionary.getSequence(variant) != null ) {
+                    return variant;
+                }
+            }
+        }
+        return null;
+    }
+
+    private static List<String> getNameVariants(final String name) {
+        final List<String> variants = new ArrayList<>(2);
+        if ( name.startsWith("chr") ) {
+            variants.add(name.substring(3));
+        } else {
+            variants.add("chr" + name);
+        }
+        if ( name.equals("chrM") ) {
+            variants.add("MT");
+        } else if ( name.equals("MT") ) {
+            variants.add("chrM");
+        }
+        return variants;
+    }
+
+    /**
+     * @return the bases in upper case, copying them only if they contain lower-case bases, since the reference data
+     *         source may have returned its own cached array
+     */
+    private static byte[] toUpperCase(final byte[] bases) {
+        byte[] upperCased = bases;
+        for ( int i = 0; i < bases.length; i++ ) {
+            if ( bases[i] >= 'a' && bases[i] <= 'z' ) {
+                if ( upperCased == bases ) {
+                    upperCased = bases.clone();
+                }
+                upperCased[i] = (byte) (bases[i] - ('a' - 'A'));
+            }
+        }
+        return upperCased;
+    }
+
+    /**
+     * @return number of requests for the bases of a contig
+     */
+    public synchronized long getNumRequests() {
+        return numRequests;
+    }
+
+    /**
+     * @return number of requests served from the cache
+     */
+    public synchronized long getNumHits() {
+        return numHits;
+    }
+
+    /**
+     * @return total number of bases loaded from the reference data source
+     */
+    public synchronized long getNumBasesLoaded() {
+        return numBasesLoaded;
+    }
+
+    @VisibleForTesting
+    synchronized int getNumCachedContigs() {
+        return cache.size();
+    }
+
+    /**
+     * Log the cache statistics at the end of a run, if any CRAM reference bases were requested
+     */
+    public synchronized void printCacheStatistics() {
+        if ( numRequests > 0 ) {
+            logger.info(String.format("CRAM reference cache: %d contig requests, %d hits (%.2f%%), %d bases loaded",
+                    numRequests, numHits, 100.0 * numHits / numRequests, numBasesLoaded));
+        }
+    }
+
+    /**
+     * Release the cached bases and close the reference data source
+     */
+    @Override
+    public synchronized void close() {
+        cache.clear();
+        reference.close();
+    }
+}
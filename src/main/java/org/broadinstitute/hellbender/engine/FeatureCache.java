@@ -28,7 +28,8 @@ import java.util.*;
  *  records up to the desired endpoint using {@link #getCachedFeaturesUpToStopPosition(int)}.
  *
  * -If it is a cache miss, reset the cache using {@link #fill(java.util.Iterator, org.broadinstitute.hellbender.utils.SimpleInterval)}, pre-fetching
- *  a large number of records after the query interval in addition to those actually requested.
+ *  a large number of records after the query interval in addition to those actually requested, or replace its
+ *  contents with those of a cache filled in the background via {@link #replaceContents(FeatureCache)}.
  *
  * @param <CACHED_FEATURE> Type of Feature record we are caching
  */
@@ -38,7 +39,7 @@ class FeatureCache<CACHED_FEATURE extends Feature> {
     /**
      * Our cache of Features, optimized for insertion/removal at both ends.
      */
-    private final Deque<CACHED_FEATURE> cache;
+    private Deque<CACHED_FEATURE> cache;
 
     /**
      * Our cache currently contains Feature records overlapping this interval
@@ -55,6 +56,21 @@ class FeatureCache<CACHED_FEATURE extends Feature> {
      */
     private int numCacheMisses = 0;
 
+    /**
+     * Number of cache misses that were served by a cache filled in the background
+     */
+    private int numPrefetchHits = 0;
+
+    /**
+     * Number of cache misses for which a cache filled in the background was available, but did not cover the query
+     */
+    private int numPrefetchMisses = 0;
+
+    /**
+     * Total time spent waiting for caches being filled in the background, in nanoseconds
+     */
+    private long prefetchStallNanos = 0;
+
     /**
      * Initial capacity of our cache (will grow by doubling if needed)
      */
@@ -124,6 +140,27 @@ class FeatureCache<CACHED_FEATURE extends Feature> {
         return numCacheMisses;
     }
 
+    /**
+     * @return Number of cache misses that were served by a cache filled in the background
+     */
+    public int getNumPrefetchHits() {
+        return numPrefetchHits;
+    }
+
+    /**
+     * @return Number of cache misses for which a cache filled in the background did not cover the query
+     */
+    public int getNumPrefetchMisses() {
+        return numPrefetchMisses;
+    }
+
+    /**
+     * @return Total time spent waiting for caches being filled in the background, in nanoseconds
+     */
+    public long getPrefetchStallNanos() {
+        return prefetchStallNanos;
+    }
+
     /**
      * Clear our cache and fill it with the records from the provided iterator, preserving their
      * relative ordering, and update our contig/start/stop to reflect the new interval that all
@@ -145,6 +182,49 @@ class FeatureCache<CACHED_FEATURE extends Feature> {
         cachedInterval = interval;
     }
 
+    /**
+     * Replace the contents of our cache with those of another cache (typically one filled in the background
+     * by {@link #fill}), leaving the other cache empty. Our hit/miss statistics are kept.
+     *
+     * @param other cache whose contents to take over
+     */
+    public void replaceContents( final FeatureCache<CACHED_FEATURE> other ) {
+        final Deque<CACHED_FEATURE> previousContents = cache;
+        cache = other.cache;
+        cachedInterval = other.cachedInterval;
+
+        previousContents.clear();
+        other.cache = previousContents;
+        other.cachedInterval = null;
+    }
+
+    /**
+     * Determines whether all records overlapping the provided interval are contained in our cache,
+     * without updating our hit/miss statistics.
+     *
+     * @param interval the interval to check against the contents of our cache
+     * @return true if all records overlapping the provided interval are contained in our cache, otherwise false
+     */
+    public boolean covers( final Locatable interval ) {
+        return cachedInterval != null && cachedInterval.contains(interval);
+    }
+
+    /**
+     * Record the outcome of a cache miss for which a cache filled in the background was available.
+     *
+     * @param used true if the cache filled in the background covered the query and was used to serve it
+     * @param stallNanos time spent waiting for the background fill to complete, in nanoseconds
+     */
+    public void recordPrefetch( final boolean used, final long stallNanos ) {
+        if ( used ) {
+            ++numPrefetchHits;
+        }
+        else {
+            ++numPrefetchMisses;
+        }
+        prefetchStallNanos += stallNanos;
+    }
+
     /**
      * Determines whether all records overlapping the provided interval are already contained in our cache.
      *
@@ -152,7 +232,7 @@ class FeatureCache<CACHED_FEATURE extends Feature> {
      * @return true if all records overlapping the provided interval are already contained in our cache, otherwise false
      */
     public boolean cacheHit( final Locatable interval ) {
-        final boolean cacheHit = cachedInterval != null && cachedInterval.contains(interval);
+        final boolean cacheHit = covers(interval);
 
         if ( cacheHit ) {
             ++numCacheHits;
@@ -244,6 +324,16 @@ class FeatureCache<CACHED_FEATURE extends Feature> {
                 totalQueries > 0 ? ((double)getNumCacheHits() / totalQueries) * 100.0 : 0.0,
                 getNumCacheHits(),
                 totalQueries));
+
+        final int totalPrefetches = getNumPrefetchHits() + getNumPrefetchMisses();
+        if ( totalPrefetches > 0 ) {
+            logger.debug(String.format("Background prefetch %s served %d out of %d cache misses (%d prefetches not used), stalled for %.3f seconds",
+                    sourceNameString,
+                    getNumPrefetchHits(),
+                    getNumCacheMisses(),
+                    getNumPrefetchMisses(),
+                    getPrefetchStallNanos() / 1e9));
+        }
     }
 }
 
@@ -1,5 +1,7 @@
 package org.broadinstitute.hellbender.engine;
 
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import htsjdk.samtools.SAMSequenceDictionary;
 import htsjdk.samtools.util.IOUtil;
 import htsjdk.samtools.util.Locatable;
@@ -39,6 +41,10 @@ import java.nio.file.Paths;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.function.Function;
 
 import static org.broadinstitute.hellbender.tools.genomicsdb.GenomicsDBUtils.createExportConfiguration;
@@ -66,6 +72,15 @@ import static org.broadinstitute.hellbender.tools.genomicsdb.GenomicsDBUtils.cre
  * random, involves queries over intervals with DECREASING start positions instead of INCREASING start positions,
  * or involves lots of very large jumps forward on the genome or lots of contig switches. Query caching
  * can be disabled, if desired.
+ * <p>
+ * Optionally (see {@link #enableAsyncPrefetch()}), each time the cache is refilled this class predicts the
+ * next window that will be queried, assuming queries keep moving forward along the same contig, and decodes
+ * the Features in that window into a second cache on a background thread. When the next cache miss happens,
+ * the second cache replaces the current one if it covers the query, so that the decoding of Features overlaps
+ * with the processing done by the caller.
+ * <p>
+ * For dense inputs, the cache may be indexed for overlap queries instead of being scanned linearly
+ * (see {@link FeatureInput#QUERY_CACHE_ATTRIBUTE}).
  *
  * @param <T> The type of Feature returned by this data source
  */
@@ -97,10 +112,44 @@ public final class FeatureDataSource<T extends Feature> implements GATKDataSourc
      * {@link #queryAndPrefetch(Locatable)}. This is guaranteed to start at the start position of the
      * most recent query, but will typically end well after the end of the most recent query. Designed to
      * improve performance of the common access pattern involving multiple queries across nearby intervals
-     * with gradually increasing start positions.
+     * with gradually increasing start positions. Indexed for overlap queries if selected by our FeatureInput
+     * (see {@link FeatureInput#useIntervalIndexQueryCache()}).
      */
     private final FeatureCache<T> queryCache;
 
+    /**
+     * Single background thread used to fill {@link #pendingPrefetch}, or null if asynchronous prefetching
+     * is disabled or no prefetch has been started yet.
+     */
+    private ExecutorService prefetchExecutor;
+
+    /**
+     * True if asynchronous prefetching of the next query window has been enabled via {@link #enableAsyncPrefetch()}
+     */
+    private boolean asyncPrefetch = false;
+
+    /**
+     * Cache being filled in the background with the Features overlapping {@link #pendingPrefetchInterval},
+     * or null if there is no prefetch in progress.
+     */
+    private Future<FeatureCache<T>> pendingPrefetch;
+
+    /**
+     * The interval predicted to be queried after the current cache contents, that is being prefetched
+     * into {@link #pendingPrefetch}.
+     */
+    private SimpleInterval pendingPrefetchInterval;
+
+    /**
+     * Spare cache for the background thread to fill, recycled from previous prefetches.
+     */
+    private FeatureCache<T> spareCache;
+
+    /**
+     * True if our caches are indexed for overlap queries, rather than scanned linearly
+     */
+    private final boolean useIntervalIndexQueryCache;
+
     /**
      * When we experience a cache miss (ie., a query interval not fully contained within our cache) and need
      * to re-populate the Feature cache from disk to satisfy a query, this controls the number of extra bases
@@ -304,10 +353,42 @@ public final class FeatureDataSource<T extends Feature> implements GATKDataSourc
 
         this.currentIterator = null;
         this.intervalsForTraversal = null;
-        this.queryCache = new FeatureCache<>();
+        this.useIntervalIndexQueryCache = featureInput.useIntervalIndexQueryCache();
+        this.queryCache = newQueryCache();
+        this.spareCache = newQueryCache();
         this.queryLookaheadBases = queryLookaheadBases;
     }
 
+    /**
+     * Enable asynchronous prefetching of the Features in the window predicted to be queried after the current
+     * cache contents, on a background thread (see notes to the class as a whole). Only useful for access
+     * patterns with gradually increasing query start positions, and for a non-zero query lookahead.
+     *
+     * Does nothing if this data source does not support random access, or was created with a query lookahead of 0.
+     */
+    public void enableAsyncPrefetch() {
+        asyncPrefetch = supportsRandomAccess && queryLookaheadBases > 0;
+    }
+
+    /**
+     * @return true if asynchronous prefetching of the next query window is enabled
+     */
+    public boolean isAsyncPrefetchEnabled() {
+        return asyncPrefetch;
+    }
+
+    /**
+     * @return a new, empty cache of the kind selected by our FeatureInput
+     */
+    private FeatureCache<T> newQueryCache() {
+        return useIntervalIndexQueryCache ? new IntervalIndexFeatureCache<>() : new FeatureCache<>();
+    }
+
+    @VisibleForTesting
+    FeatureCache<T> getQueryCache() {
+        return queryCache;
+    }
+
     final void printCacheStats() {
         queryCache.printCacheStatistics( getName() );
     }
@@ -471,6 +552,7 @@ public final class FeatureDataSource<T extends Feature> implements GATKDataSourc
         // Tribble documentation states that having multiple iterators open simultaneously over the same FeatureReader
         // results in undefined behavior
         closeOpenIterationIfNecessary();
+        discardPendingPrefetch();
 
         try {
             // Save the iterator returned so that we can close it properly later
@@ -533,9 +615,18 @@ public final class FeatureDataSource<T extends Feature> implements GATKDataSourc
         if (queryCache.cacheHit(interval)) {
             queryCache.trimToNewStartPosition(interval.getStart());
         }
-        // Otherwise, we have a cache miss, so go to disk to refill our cache.
+        // Otherwise, we have a cache miss, so use the window prefetched in the background if it covers the query,
+        // or go to disk to refill our cache.
         else {
-            refillQueryCache(interval);
+            if (usePrefetchedCache(interval)) {
+                queryCache.trimToNewStartPosition(interval.getStart());
+            } else {
+                refillQueryCache(interval);
+            }
+
+            if (asyncPrefetch) {
+                startPrefetch(interval);
+            }
         }
 
         // Return the subset of our cache that overlaps our query interval
@@ -565,11 +656,111 @@ public final class FeatureDataSource<T extends Feature> implements GATKDataSourc
         // Note: we use addExact to blow up on overflow rather than propagate negative results downstream
         final SimpleInterval queryInterval = new SimpleInterval(interval.getContig(), interval.getStart(), Math.addExact(interval.getEnd(), queryLookaheadBases));
 
+        fillCache(queryCache, queryInterval);
+    }
+
+    /**
+     * Fill the given cache with all Features overlapping the given interval. May be called from the prefetch thread,
+     * so all accesses to the reader are serialized.
+     */
+    private void fillCache(final FeatureCache<T> cache, final SimpleInterval queryInterval) {
         // Query iterator over our reader will be immediately closed after re-populating our cache
-        try (final CloseableTribbleIterator<T> queryIter = featureReader.query(queryInterval.getContig(), queryInterval.getStart(), queryInterval.getEnd())) {
-            queryCache.fill(queryIter, queryInterval);
-        } catch (final IOException e) {
-            throw new GATKException("Error querying file " + featureInput + " over interval " + interval, e);
+        synchronized (featureReader) {
+            try (final CloseableTribbleIterator<T> queryIter = featureReader.query(queryInterval.getContig(), queryInterval.getStart(), queryInterval.getEnd())) {
+                cache.fill(queryIter, queryInterval);
+            } catch (final IOException e) {
+                throw new GATKException("Error querying file " + featureInput + " over interval " + queryInterval, e);
+            }
+        }
+    }
+
+    /**
+     * Start filling a cache in the background with the Features in the window predicted to be queried
+     * once the current cache contents are exhausted: a window of the size of our lookahead starting just before
+     * the end of the current cache, with enough overlap to contain a query of the same size as the last one.
+     *
+     * @param lastQuery the query that caused the current cache contents to be loaded
+     */
+    private void startPrefetch(final Locatable lastQuery) {
+        // Tribble doesn't support a traversal and a query being open at the same time
+        closeOpenIterationIfNecessary();
+
+        final int cacheEnd = queryCache.getCacheEnd();
+        final int overlap = lastQuery.getLengthOnReference();
+        final SimpleInterval prefetchInterval = new SimpleInterval(queryCache.getContig(),
+                Math.max(1, cacheEnd - overlap + 1),
+                Math.addExact(cacheEnd, Math.max(queryLookaheadBases, overlap)));
+
+        if (prefetchExecutor == null) {
+            prefetchExecutor = Executors.newSingleThreadExecutor(new ThreadFactoryBuilder()
+                    .setNameFormat("featurePrefetch-" + getName() + "-%d")
+                    .setDaemon(true).build());
+        }
+
+        final FeatureCache<T> prefetchCache = spareCache;
+        spareCache = null;
+        pendingPrefetchInterval = prefetchInterval;
+        pendingPrefetch = prefetchExecutor.submit(() -> {
+            fillCache(prefetchCache, prefetchInterval);
+            return prefetchCache;
+        });
+    }
+
+    /**
+     * If a prefetch is in progress and its window covers the given query interval, wait for it to complete and
+     * hand its contents over to our query cache. Otherwise discard it.
+     *
+     * @return true if the query cache now covers the interval
+     */
+    private boolean usePrefetchedCache(final Locatable interval) {
+        if (pendingPrefetch == null) {
+            return false;
+        }
+
+        final boolean covered = pendingPrefetchInterval.contains(interval);
+        final long stallStart = System.nanoTime();
+        final FeatureCache<T> prefetched = awaitPendingPrefetch();
+        queryCache.recordPrefetch(covered && prefetched != null, System.nanoTime() - stallStart);
+        if (prefetched == null) {
+            spareCache = newQueryCache();
+            return false;
+        }
+
+        if (covered) {
+            queryCache.replaceContents(prefetched);
+        }
+        spareCache = prefetched;
+        return covered;
+    }
+
+    /**
+     * Wait for any prefetch in progress to complete, and throw away its results.
+     */
+    private void discardPendingPrefetch() {
+        if (pendingPrefetch != null) {
+            final FeatureCache<T> prefetched = awaitPendingPrefetch();
+            spareCache = prefetched != null ? prefetched : newQueryCache();
+        }
+    }
+
+    /**
+     * Wait for the prefetch in progress to complete.
+     *
+     * @return the cache filled in the background, or null if prefetching failed (in which case the error will
+     *         surface again when querying the same file synchronously)
+     */
+    private FeatureCache<T> awaitPendingPrefetch() {
+        try {
+            return pendingPrefetch.get();
+        } catch (final ExecutionException e) {
+            logger.debug("Background prefetch failed for " + featureInput + " over interval " + pendingPrefetchInterval, e.getCause());
+            return null;
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new GATKException("Interrupted while waiting for background prefetch of " + featureInput, e);
+        } finally {
+            pendingPrefetch = null;
+            pendingPrefetchInterval = null;
         }
     }
 
@@ -598,6 +789,11 @@ public final class FeatureDataSource<T extends Feature> implements GATKDataSourc
     @Override
     public void close() {
         closeOpenIterationIfNecessary();
+        discardPendingPrefetch();
+        if (prefetchExecutor != null) {
+            prefetchExecutor.shutdownNow();
+            prefetchExecutor = null;
+        }
 
         logger.debug(String.format("Cache statistics for FeatureInput %s:", featureInput));
         queryCache.printCacheStatistics();
@@ -5,6 +5,7 @@ import htsjdk.tribble.Feature;
 import htsjdk.tribble.FeatureCodec;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
+import org.broadinstitute.hellbender.exceptions.UserException;
 import org.broadinstitute.hellbender.utils.Utils;
 import org.broadinstitute.hellbender.utils.io.IOUtils;
 
@@ -36,6 +37,10 @@ import java.util.*;
  *
  * the string value provided for a given key can be retrieved via {@link #getAttribute(String)}. Keys must be unique.
  *
+ * The attribute {@link #QUERY_CACHE_ATTRIBUTE} selects the cache used for queries by interval on this input, eg.:
+ *
+ *     --argument_name:logical_name,queryCache=intervalIndex feature_file
+ *
  * @param <T> the type of Feature that this FeatureInput file contains (eg., VariantContext, BEDFeature, etc.)
  */
 public final class FeatureInput<T extends Feature> extends GATKPath implements Serializable {
@@ -57,6 +62,22 @@ public final class FeatureInput<T extends Feature> extends GATKPath implements S
      */
     public static final String FEATURE_ARGUMENT_TAG_DELIMITER = ":";
 
+    /**
+     * Key of the attribute selecting the cache used for queries by interval on this input
+     */
+    public static final String QUERY_CACHE_ATTRIBUTE = "queryCache";
+
+    /**
+     * Value of {@link #QUERY_CACHE_ATTRIBUTE} selecting the default cache, scanned linearly (see {@link FeatureCache})
+     */
+    public static final String DEFAULT_QUERY_CACHE = "default";
+
+    /**
+     * Value of {@link #QUERY_CACHE_ATTRIBUTE} selecting a cache indexed for logarithmic overlap queries, for dense
+     * inputs (see {@link IntervalIndexFeatureCache})
+     */
+    public static final String INTERVAL_INDEX_QUERY_CACHE = "intervalIndex";
+
     /**
      * Construct a FeatureInput from a raw String argument value. To specify a logical name or tags, use
      * {@link #FeatureInput(String, String)} or {@link #FeatureInput( String, String, Map<String, String>)}.
@@ -167,6 +188,23 @@ public final class FeatureInput<T extends Feature> extends GATKPath implements S
         return getTagAttributes().get(key);
     }
 
+    /**
+     * @return true if queries by interval on this input should use a cache indexed for logarithmic overlap queries,
+     *         as selected by the {@link #QUERY_CACHE_ATTRIBUTE} attribute
+     * @throws UserException.BadInput if the attribute has an unknown value
+     */
+    public boolean useIntervalIndexQueryCache() {
+        final String queryCache = getTagAttributes() != null ? getAttribute(QUERY_CACHE_ATTRIBUTE) : null;
+        if ( queryCache == null || queryCache.equals(DEFAULT_QUERY_CACHE) ) {
+            return false;
+        }
+        if ( queryCache.equals(INTERVAL_INDEX_QUERY_CACHE) ) {
+            return true;
+        }
+        throw new UserException.BadInput(String.format("Invalid value %s for attribute %s of Feature input %s: must be %s or %s",
+                queryCache, QUERY_CACHE_ATTRIBUTE, getName(), DEFAULT_QUERY_CACHE, INTERVAL_INDEX_QUERY_CACHE));
+    }
+
     /**
      * Gets the logical name of this Feature source. This will be a user-provided value if the
      * --argument_name logical_name:feature_file was used on the command line, otherwise it will
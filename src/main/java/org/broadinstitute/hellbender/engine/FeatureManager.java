@@ -212,6 +212,14 @@ public final class FeatureManager implements AutoCloseable {
         }
     }
 
+    /**
+     * Enable asynchronous prefetching of the next query window for all of our sources of Features.
+     * See {@link FeatureDataSource#enableAsyncPrefetch()}.
+     */
+    public void enableAsyncPrefetch() {
+        featureSources.values().forEach(FeatureDataSource::enableAsyncPrefetch);
+    }
+
     @SuppressWarnings({"unchecked", "rawtypes"})
     public void dumpAllFeatureCacheStats() {
         for ( final FeatureDataSource f : featureSources.values() ) {
@@ -15,6 +15,7 @@ import java.nio.file.Path;
 import java.time.ZonedDateTime;
 import java.util.*;
 import java.util.stream.Stream;
+import org.broadinstitute.barclay.argparser.Advanced;
 import org.broadinstitute.barclay.argparser.Argument;
 import org.broadinstitute.barclay.argparser.ArgumentCollection;
 import org.broadinstitute.barclay.argparser.CommandLinePluginDescriptor;
@@ -111,6 +112,44 @@ public abstract class GATKTool extends CommandLineProgram {
     @Argument(fullName = StandardArgumentDefinitions.CLOUD_INDEX_PREFETCH_BUFFER_LONG_NAME, shortName = StandardArgumentDefinitions.CLOUD_INDEX_PREFETCH_BUFFER_SHORT_NAME, doc = "Size of the cloud-only prefetch buffer (in MB; 0 to disable). Defaults to cloudPrefetchBuffer if unset.", optional=true)
     public int cloudIndexPrefetchBuffer = getDefaultCloudIndexPrefetchBufferSize();
 
+    public static final String ASYNC_FEATURE_PREFETCH_LONG_NAME = "async-feature-prefetch";
+
+    /**
+     * Decode the Features that will be needed by the next queries of each source of Features on a background thread,
+     * so that tribble decoding overlaps with the work done by the tool. Only helps with inputs that are queried
+     * at gradually increasing positions (the common case during a traversal).
+     */
+    @Advanced
+    @Argument(fullName = ASYNC_FEATURE_PREFETCH_LONG_NAME,
+            doc = "If true, decode features ahead of the traversal on a background thread for each feature input.",
+            optional = true)
+    public boolean asyncFeaturePrefetch = false;
+
+    public static final String READS_INFLATER_THREADS_LONG_NAME = "reads-inflater-threads";
+
+    /**
+     * When traversing all of the reads of BAM inputs (i.e. without intervals), read compressed blocks ahead and
+     * inflate them on this many threads instead of on the traversal thread. The reads produced are the same.
+     */
+    @Advanced
+    @Argument(fullName = READS_INFLATER_THREADS_LONG_NAME,
+            doc = "Number of threads used to decompress BAM inputs during traversals without intervals (0 to decompress on the traversal thread).",
+            optional = true, minValue = 0)
+    public int readsInflaterThreads = 0;
+
+    public static final String LAZY_READ_DECODING_LONG_NAME = "lazy-read-decoding";
+
+    /**
+     * When traversing all of the reads of a single BAM input (i.e. without intervals), decode the name, cigar, bases,
+     * qualities and tags of each read only when first needed, so that reads removed by read filters are mostly never
+     * decoded. Lazily-decoded reads are not validated against the read validation stringency.
+     */
+    @Advanced
+    @Argument(fullName = LAZY_READ_DECODING_LONG_NAME,
+            doc = "Decode the fields of reads on demand during traversals of a single BAM input without intervals.",
+            optional = true)
+    public boolean lazyReadDecoding = false;
+
     @Argument(fullName = StandardArgumentDefinitions.DISABLE_BAM_INDEX_CACHING_LONG_NAME,
             shortName = StandardArgumentDefinitions.DISABLE_BAM_INDEX_CACHING_SHORT_NAME,
             doc = "If true, don't cache bam indexes, this will reduce memory requirements but may harm performance if many intervals are specified.  Caching is automatically disabled if there are no intervals specified.",
@@ -141,6 +180,11 @@ public abstract class GATKTool extends CommandLineProgram {
      */
     ReferenceDataSource reference;
 
+    /**
+     * Source of reference bases for decoding CRAM inputs, if any. See {@link #getCRAMReferenceSource}.
+     */
+    private CRAMReferenceSourceAdapter cramReferenceSource;
+
     /**
      * Our source of reads data (null if no source of reads was provided)
      */
@@ -441,26 +485,70 @@ public abstract class GATKTool extends CommandLineProgram {
      */
     void initializeReads() {
         if (! readArguments.getReadPathSpecifiers().isEmpty()) {
-            SamReaderFactory factory = SamReaderFactory.makeDefault().validationStringency(readArguments.getReadValidationStringency());
-            if (hasReference()) { // pass in reference if available, because CRAM files need it
-                factory = factory.referenceSequence(referenceArguments.getReferencePath());
-            }
-            else if (hasCramInput()) {
-                throw UserException.MISSING_REFERENCE_FOR_CRAM;
-            }
-
-            if(bamIndexCachingShouldBeEnabled()) {
-                factory = factory.enable(SamReaderFactory.Option.CACHE_FILE_BASED_INDEXES);
-            }
-
-            reads = new ReadsPathDataSource(readArguments.getReadPaths(), readArguments.getReadIndexPaths(), factory, cloudPrefetchBuffer,
-                (cloudIndexPrefetchBuffer < 0 ? cloudPrefetchBuffer : cloudIndexPrefetchBuffer));
+            reads = makeReadsPathDataSource();
         }
         else {
             reads = null;
         }
     }
 
+    /**
+     * Create a new source of reads data over the tool's read inputs, configured in the same way as the primary
+     * {@link #reads} data source (validation stringency, reference for CRAM, index caching and cloud prefetching).
+     *
+     * Package-private so that engine traversals that need an independent reads data source per thread can
+     * access it, but concrete tool child classes cannot. The caller is responsible for closing the returned source.
+     *
+     * @return a new, independent reads data source; never {@code null}
+     */
+    ReadsPathDataSource makeReadsPathDataSource() {
+        SamReaderFactory factory = SamReaderFactory.makeDefault().validationStringency(readArguments.getReadValidationStringency());
+        if (hasReference() && hasCramInput()) { // CRAM files need the reference, served from our own reference layer
+            factory = factory.referenceSource(getCRAMReferenceSource());
+        }
+        else if (hasReference()) { // pass in reference if available
+            factory = factory.referenceSequence(referenceArguments.getReferencePath());
+        }
+        else if (hasCramInput()) {
+            throw UserException.MISSING_REFERENCE_FOR_CRAM;
+        }
+
+        if(bamIndexCachingShouldBeEnabled()) {
+            factory = factory.enable(SamReaderFactory.Option.CACHE_FILE_BASED_INDEXES);
+        }
+
+        if (useAsyncReadsIO()) {
+            factory = factory.setUseAsyncIo(true);
+        }
+
+        final ReadsPathDataSource readsSource = new ReadsPathDataSource(readArguments.getReadPaths(), readArguments.getReadIndexPaths(), factory, cloudPrefetchBuffer,
+            (cloudIndexPrefetchBuffer < 0 ? cloudPrefetchBuffer : cloudIndexPrefetchBuffer));
+        readsSource.setInflaterThreads(readsInflaterThreads);
+        readsSource.setLazyReadDecoding(lazyReadDecoding);
+        return readsSource;
+    }
+
+
+    /**
+     * @return the source of reference bases for decoding CRAM inputs, shared by all of our reads data sources and
+     *         created on first use. It reads the reference with IUPAC codes preserved, since CRAM slices are checked
+     *         against the MD5 of their reference bases.
+     */
+    private synchronized CRAMReferenceSourceAdapter getCRAMReferenceSource() {
+        if ( cramReferenceSource == null ) {
+            cramReferenceSource = new CRAMReferenceSourceAdapter(ReferenceDataSource.of(referenceArguments.getReferencePath(), true));
+        }
+        return cramReferenceSource;
+    }
+
+    /**
+     * Whether reads should be decoded, and written by {@link #createSAMWriter}, on background threads regardless of
+     * the htsjdk asynchronous I/O defaults. Package-private so that engine traversals that pipeline their reads can
+     * enable it, but concrete tool child classes cannot.
+     */
+    boolean useAsyncReadsIO() {
+        return false;
+    }
 
     private boolean bamIndexCachingShouldBeEnabled() {
         return intervalArgumentCollection.intervalsSpecified() && !disableBamIndexCaching;
@@ -705,6 +793,9 @@ public abstract class GATKTool extends CommandLineProgram {
         initializeReads(); // Must be initialized after reference, in case we are dealing with CRAM and a reference is required
 
         initializeFeatures();
+        if ( hasFeatures() && asyncFeaturePrefetch ) {
+            features.enableAsyncPrefetch();
+        }
 
         initializeIntervals(); // Must be initialized after reference, reads and features, since intervals currently require a sequence dictionary from another data source
 
@@ -831,7 +922,8 @@ public abstract class GATKTool extends CommandLineProgram {
                 getHeaderForSAMWriter(),
                 preSorted,
                 createOutputBamIndex,
-                createOutputBamMD5
+                createOutputBamMD5,
+                useAsyncReadsIO()
             )
         );
     }
@@ -1018,6 +1110,11 @@ public abstract class GATKTool extends CommandLineProgram {
             reads.close();
         }
 
+        if ( cramReferenceSource != null ) {
+            cramReferenceSource.printCacheStatistics();
+            cramReferenceSource.close();
+        }
+
         if ( hasFeatures() ) {
             features.close();
         }
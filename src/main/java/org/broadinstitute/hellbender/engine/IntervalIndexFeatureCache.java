@@ -0,0 +1,234 @@
+package org.broadinstitute.hellbender.engine;
+
+import htsjdk.tribble.Feature;
+import org.broadinstitute.hellbender.utils.SimpleInterval;
+
+import java.util.*;
+
+/**
+ * IntervalIndexFeatureCache: alternative to {@link FeatureCache} for dense Feature inputs (e.g. population
+ * allele frequency resources, large interval lists or BED masks), selected per {@link FeatureInput} via
+ * {@link FeatureInput#QUERY_CACHE_ATTRIBUTE}.
+ *
+ * {@link FeatureCache} scans its Features from the start of the cache on every retrieval, and discards the
+ * Features ending before each new query start one at a time, which is slow when many Features are cached and
+ * each query only overlaps a few of them. Here, the Features of each fill are kept sorted by start position in
+ * an immutable array, indexed by parallel primitive arrays of start and end positions augmented with the maximum
+ * end position of each subtree of an implicit binary tree laid over the array (the layout used by cgranges).
+ * Overlap queries take logarithmic time in the number of cached Features, plus the number of Features returned.
+ *
+ * Trimming the cache to a new start position only moves the start of the cached interval, so the Features
+ * returned, their order, and the cache hit/miss behavior are the same as for {@link FeatureCache}.
+ *
+ * @param <CACHED_FEATURE> Type of Feature record we are caching
+ */
+final class IntervalIndexFeatureCache<CACHED_FEATURE extends Feature> extends FeatureCache<CACHED_FEATURE> {
+
+    /**
+     * Subtrees at or below this level are scanned linearly during queries, rather than descended into
+     */
+    private static final int LINEAR_SCAN_LEVEL = 3;
+
+    /**
+     * Maximum depth of the stack used to walk the tree during queries: more than enough for 2^31 Features
+     */
+    private static final int MAX_STACK_DEPTH = 64;
+
+    private final IntervalIndex<CACHED_FEATURE> emptyIndex = new IntervalIndex<>(Collections.emptyList());
+
+    private IntervalIndex<CACHED_FEATURE> index = emptyIndex;
+
+    /**
+     * Create an initially-empty IntervalIndexFeatureCache
+     */
+    public IntervalIndexFeatureCache() {
+        super();
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return index.size() == 0;
+    }
+
+    /**
+     * Clear our cache, fill it with the records from the provided iterator, and index them.
+     *
+     * @param featureIter iterator from which to pull Features with which to populate our cache
+     *                    (replacing existing cache contents)
+     * @param interval all Features from featureIter overlap this interval
+     */
+    @Override
+    public void fill( final Iterator<CACHED_FEATURE> featureIter, final SimpleInterval interval ) {
+        final List<CACHED_FEATURE> features = new ArrayList<>();
+        featureIter.forEachRemaining(features::add);
+        index = features.isEmpty() ? emptyIndex : new IntervalIndex<>(features);
+
+        super.fill(Collections.emptyIterator(), interval);
+    }
+
+    /**
+     * Replace the contents of our cache with those of another IntervalIndexFeatureCache, leaving the other cache empty.
+     *
+     * @param other cache whose contents to take over, must be an IntervalIndexFeatureCache
+     */
+    @Override
+    public void replaceContents( final FeatureCache<CACHED_FEATURE> other ) {
+        final IntervalIndexFeatureCache<CACHED_FEATURE> otherIndexCache = (IntervalIndexFeatureCache<CACHED_FEATURE>) other;
+        index = otherIndexCache.index;
+        otherIndexCache.index = otherIndexCache.emptyIndex;
+
+        super.replaceContents(other);
+    }
+
+    /**
+     * Returns all cached Features that overlap the region from the start of our cache (cacheStart) to the
+     * specified stop position, in order of start position.
+     *
+     * @param stopPosition Endpoint of the interval that returned Features must overlap
+     * @return all cached Features that overlap the region from the start of our cache to the specified stop position
+     */
+    @Override
+    public List<CACHED_FEATURE> getCachedFeaturesUpToStopPosition( final int stopPosition ) {
+        return index.getOverlapping(getCacheStart(), stopPosition);
+    }
+
+    /**
+     * Features sorted by start position, with an implicit interval tree over their positions: the Feature at index
+     * i is a node at level k, where k is the number of trailing 1 bits of i, whose children are at indices
+     * i - 2^(k-1) and i + 2^(k-1), and maxEnds[i] is the maximum end position in its subtree.
+     */
+    private static final class IntervalIndex<F extends Feature> {
+        private final List<F> features;
+        private final int[] starts;
+        private final int[] ends;
+        private final int[] maxEnds;
+        private final int maxLevel;
+
+        IntervalIndex( final List<F> unsortedFeatures ) {
+            features = sortedByStart(unsortedFeatures);
+            final int n = features.size();
+            starts = new int[n];
+            ends = new int[n];
+            maxEnds = new int[n];
+            for ( int i = 0; i < n; ++i ) {
+                final F feature = features.get(i);
+                starts[i] = feature.getStart();
+                // Features ending before their start (e.g. insertion points) overlap queries that contain their start,
+                // as in FeatureCache
+                ends[i] = Math.max(feature.getStart(), feature.getEnd());
+            }
+            maxLevel = buildIndex();
+        }
+
+        /**
+         * Features are expected to be sorted by start position already, so only sort them (stably) if they aren't
+         */
+        private static <F extends Feature> List<F> sortedByStart( final List<F> features ) {
+            for ( int i = 1; i < features.size(); ++i ) {
+                if ( features.get(i).getStart() < features.get(i - 1).getStart() ) {
+                    final List<F> sorted = new ArrayList<>(features);
+                    sorted.sort(Comparator.comparingInt(Feature::getStart));
+                    return sorted;
+                }
+            }
+            return features;
+        }
+
+        int size() {
+            return features.size();
+        }
+
+        /**
+         * Fill in maxEnds bottom-up, one level at a time. Nodes whose right subtree lies (partly) past the end of the
+         * array use the maximum end of the last node of the level below that is present instead.
+         *
+         * @return level of the root of the tree, or -1 if there are no Features
+         */
+        private int buildIndex() {
+            final int n = starts.length;
+            if ( n == 0 ) {
+                return -1;
+            }
+
+            int lastIndex = 0;
+            int lastMaxEnd = 0;
+            for ( int i = 0; i < n; i += 2 ) {
+                lastIndex = i;
+                lastMaxEnd = maxEnds[i] = ends[i];
+            }
+
+            int level;
+            for ( level = 1; (1L << level) <= n; ++level ) {
+                final int halfSpan = 1 << (level - 1);
+                final int step = halfSpan << 2;
+                for ( int i = (halfSpan << 1) - 1; i < n; i += step ) {
+                    final int leftMaxEnd = maxEnds[i - halfSpan];
+                    final int rightMaxEnd = i + halfSpan < n ? maxEnds[i + halfSpan] : lastMaxEnd;
+                    maxEnds[i] = Math.max(ends[i], Math.max(leftMaxEnd, rightMaxEnd));
+                }
+                lastIndex = ((lastIndex >> level) & 1) != 0 ? lastIndex - halfSpan : lastIndex + halfSpan;
+                if ( lastIndex < n && maxEnds[lastIndex] > lastMaxEnd ) {
+                    lastMaxEnd = maxEnds[lastIndex];
+                }
+            }
+            return level - 1;
+        }
+
+        /**
+         * @return the Features overlapping [queryStart, queryEnd], in order of start position
+         */
+        List<F> getOverlapping( final int queryStart, final int queryEnd ) {
+            final List<F> overlapping = new ArrayList<>();
+            if ( maxLevel < 0 ) {
+                return overlapping;
+            }
+
+            final int n = starts.length;
+            final int[] stackNodes = new int[MAX_STACK_DEPTH];
+            final int[] stackLevels = new int[MAX_STACK_DEPTH];
+            final boolean[] stackLeftDone = new boolean[MAX_STACK_DEPTH];
+            int depth = 0;
+            stackNodes[depth] = (1 << maxLevel) - 1;
+            stackLevels[depth] = maxLevel;
+            stackLeftDone[depth++] = false;
+
+            while ( depth > 0 ) {
+                --depth;
+                final int node = stackNodes[depth];
+                final int level = stackLevels[depth];
+
+                if ( level <= LINEAR_SCAN_LEVEL ) {
+                    // small subtree: scan its Features in order
+                    final int first = node >> level << level;
+                    final int last = Math.min(first + (1 << (level + 1)) - 1, n);
+                    for ( int i = first; i < last && starts[i] <= queryEnd; ++i ) {
+                        if ( ends[i] >= queryStart ) {
+                            overlapping.add(features.get(i));
+                        }
+                    }
+                }
+                else if ( ! stackLeftDone[depth] ) {
+                    // come back to this node once its left subtree is done, and descend into the left subtree
+                    // unless all of its Features end before the query
+                    final int leftChild = node - (1 << (level - 1));
+                    stackLeftDone[depth++] = true;
+                    if ( leftChild >= n || maxEnds[leftChild] >= queryStart ) {
+                        stackNodes[depth] = leftChild;
+                        stackLevels[depth] = level - 1;
+                        stackLeftDone[depth++] = false;
+                    }
+                }
+                else if ( node < n && starts[node] <= queryEnd ) {
+                    // the right subtree starts at or after this node, so is only needed if this node starts before the query end
+                    if ( ends[node] >= queryStart ) {
+                        overlapping.add(features.get(node));
+                    }
+                    stackNodes[depth] = node + (1 << (level - 1));
+                    stackLevels[depth] = level - 1;
+                    stackLeftDone[depth++] = false;
+                }
+            }
+            return overlapping;
+        }
+    }
+}
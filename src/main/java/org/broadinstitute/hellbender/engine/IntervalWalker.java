@@ -1,22 +1,34 @@
 package org.broadinstitute.hellbender.engine;
 
+import org.broadinstitute.barclay.argparser.Advanced;
+import org.broadinstitute.barclay.argparser.Argument;
 import org.broadinstitute.hellbender.engine.filters.ReadFilter;
 import org.broadinstitute.hellbender.utils.SimpleInterval;
+import org.broadinstitute.hellbender.utils.read.GATKRead;
 
 /**
  * An IntervalWalker is a tool that processes a single interval at a time, with the ability to query
  * optional overlapping sources of reads, reference data, and/or variants/features.
  *
- * The current implementation uses no caching, and so will likely only provide acceptable performance
- * if intervals are spaced sufficiently far apart that few records (reads, etc.) will overlap more than
- * one interval. Performance will likely be poor given a large set of small, nearby intervals, but we
- * will address this issue when porting this traversal to dataflow.
+ * Reads for consecutive small intervals are queried in batches (see {@link BatchedIntervalReadsSource}), so that
+ * a large set of small, nearby intervals does not decompress the same blocks of the reads files repeatedly.
+ * Other sources of data use no caching, and so will likely only provide acceptable performance if intervals are
+ * spaced sufficiently far apart that few records will overlap more than one interval.
  *
  * IntervalWalker authors must implement the apply() method to process each interval, and may optionally implement
  * onTraversalStart() and/or onTraversalSuccess(). See the {@link org.broadinstitute.hellbender.tools.examples.ExampleIntervalWalker}
  * tool for an example.
  */
 public abstract class IntervalWalker extends WalkerBase {
+    public static final String READS_QUERY_BATCH_SIZE_LONG_NAME = "reads-query-batch-size";
+
+    /**
+     * Maximum number of consecutive intervals whose reads are fetched from the reads files in a single pass.
+     * The reads of a whole batch are held in memory until their intervals are processed.
+     */
+    @Advanced
+    @Argument(fullName = READS_QUERY_BATCH_SIZE_LONG_NAME, doc = "Maximum number of consecutive intervals whose reads are queried together (1 to query each interval separately)", optional = true, minValue = 1)
+    protected int readsQueryBatchSize = BatchedIntervalReadsSource.DEFAULT_MAX_INTERVALS_PER_BATCH;
 
     @Override
     public boolean requiresIntervals() {
@@ -65,9 +77,12 @@ public abstract class IntervalWalker extends WalkerBase {
     @Override
     public void traverse() {
         final ReadFilter readFilter = makeReadFilter();
+        final GATKDataSource<GATKRead> readsForIntervals = reads != null && readsQueryBatchSize > 1 && reads.isQueryableByInterval() ?
+                new BatchedIntervalReadsSource(reads, userIntervals, readsQueryBatchSize, BatchedIntervalReadsSource.DEFAULT_MAX_BASES_PER_BATCH) :
+                reads;
         for ( final SimpleInterval interval : userIntervals ) {
             apply(interval,
-                  new ReadsContext(reads, interval, readFilter),
+                  new ReadsContext(readsForIntervals, interval, readFilter),
                   new ReferenceContext(reference, interval),
                   new FeatureContext(features, interval));
 
@@ -1,7 +1,7 @@
 package org.broadinstitute.hellbender.engine;
 
 import htsjdk.samtools.SAMFileHeader;
-import htsjdk.samtools.SAMReadGroupRecord;
+import org.broadinstitute.barclay.argparser.Advanced;
 import org.broadinstitute.barclay.argparser.Argument;
 import org.broadinstitute.barclay.argparser.CommandLineException;
 import org.broadinstitute.hellbender.engine.filters.CountingReadFilter;
@@ -9,7 +9,11 @@ import org.broadinstitute.hellbender.engine.filters.ReadFilter;
 import org.broadinstitute.hellbender.engine.filters.ReadFilterLibrary;
 import org.broadinstitute.hellbender.engine.filters.WellformedReadFilter;
 import org.broadinstitute.hellbender.exceptions.UserException;
+import org.broadinstitute.hellbender.transformers.ReadTransformer;
+import org.broadinstitute.hellbender.utils.AutoCloseableReference;
+import org.broadinstitute.hellbender.utils.IntervalUtils;
 import org.broadinstitute.hellbender.utils.SimpleInterval;
+import org.broadinstitute.hellbender.utils.Utils;
 import org.broadinstitute.hellbender.utils.locusiterator.AlignmentContextIteratorBuilder;
 import org.broadinstitute.hellbender.utils.locusiterator.LIBSDownsamplingInfo;
 import org.broadinstitute.hellbender.utils.locusiterator.LocusIteratorByState;
@@ -18,8 +22,10 @@ import org.broadinstitute.hellbender.utils.read.GATKRead;
 import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.List;
-import java.util.Set;
-import java.util.stream.Collectors;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 /**
  * A LocusWalker is a tool that processes reads that overlap a single position in a reference at a time from
@@ -35,6 +41,11 @@ import java.util.stream.Collectors;
  * LocusWalker authors must implement the apply() method to process each position, and may optionally implement
  * onTraversalStart(), onTraversalSuccess() and/or closeTool().
  *
+ * Tools that override {@link #supportsParallelTraversal} and {@link #makeLocusWorker} can process several contigs
+ * concurrently (see {@link #LOCUS_WALKER_THREADS_LONG_NAME}). Each worker thread then owns its own reads, reference
+ * and feature data sources, and the results of each locus are emitted on the traversal thread in the same order as
+ * in a single-threaded traversal.
+ *
  * @author Daniel Gomez-Sanchez (magicDGS)
  */
 public abstract class LocusWalker extends WalkerBase {
@@ -43,6 +54,32 @@ public abstract class LocusWalker extends WalkerBase {
     @Argument(fullName = MAX_DEPTH_PER_SAMPLE_NAME, shortName = MAX_DEPTH_PER_SAMPLE_NAME, doc = "Maximum number of reads to retain per sample per locus. Reads above this threshold will be downsampled. Set to 0 to disable.", optional = true)
     protected int maxDepthPerSample = defaultMaxDepthPerSample();
 
+    public static final String LOCUS_WALKER_THREADS_LONG_NAME = "locus-walker-threads";
+
+    /**
+     * Number of shards (one per contig in the traversal intervals) to process concurrently. Values greater than 1 are
+     * only accepted by tools that support parallel traversal, and require indexed reads. Each thread opens its own
+     * reads, reference and feature data sources.
+     *
+     * Results are always emitted in genomic order. Random draws (e.g. downsampling) in tools that support parallel
+     * traversal use one independent random stream per shard, also with a single thread, so the output is the same for
+     * any number of threads.
+     */
+    @Advanced
+    @Argument(fullName = LOCUS_WALKER_THREADS_LONG_NAME, doc = "Number of threads used to process contigs concurrently", optional = true, minValue = 1)
+    protected int locusWalkerThreads = 1;
+
+    /**
+     * Number of consecutive loci whose results are queued together during parallel traversal.
+     */
+    private static final int LOCI_PER_BATCH = 1000;
+
+    /**
+     * Maximum number of batches of processed loci per shard waiting to be emitted during parallel traversal. Bounds
+     * the memory used by shards that finish ahead of the shard currently being emitted.
+     */
+    private static final int MAX_PENDING_BATCHES_PER_SHARD = 100;
+
     /**
      * Should the LIBS keep unique reads? Tools that do should override to return {@code true}.
      */
@@ -134,6 +171,14 @@ public abstract class LocusWalker extends WalkerBase {
     @Override
     protected final void onStartup() {
         super.onStartup();
+        if ( locusWalkerThreads > 1 && ! supportsParallelTraversal() ) {
+            throw new CommandLineException.BadArgumentValue(LOCUS_WALKER_THREADS_LONG_NAME, Integer.toString(locusWalkerThreads),
+                    getClass().getSimpleName() + " does not support parallel traversal");
+        }
+        if ( locusWalkerThreads > 1 && ! reads.isQueryableByInterval() ) {
+            throw new UserException.MissingIndex("Traversal with --" + LOCUS_WALKER_THREADS_LONG_NAME + " greater than 1 queries the reads of each contig, " +
+                    "which requires indexed reads. Index the reads, or run with a single thread.");
+        }
         if ( hasUserSuppliedIntervals() ) {
             reads.setTraversalBounds(intervalArgumentCollection.getTraversalParameters(getHeaderForReads().getSequenceDictionary()));
         }
@@ -154,8 +199,38 @@ public abstract class LocusWalker extends WalkerBase {
     @Override
     public void traverse() {
         final CountingReadFilter countedFilter = makeReadFilter();
-        final Iterator<AlignmentContext> iterator = getAlignmentContextIterator(countedFilter);
+        traverseLoci(countedFilter);
+        logger.info(countedFilter.getSummaryLine());
+    }
+
+    /**
+     * Iterate over all the loci of the traversal, calling {@link #apply} for each of them, or processing them with
+     * {@link LocusWorker}s in parallel when {@link #locusWalkerThreads} is greater than 1.
+     *
+     * Tools that support parallel traversal are traversed one contig at a time, with the random stream of each contig
+     * chosen by its index, also with a single thread, so that random draws (e.g. downsampling in
+     * {@link LocusIteratorByState}) and thus the output don't depend on the number of threads.
+     *
+     * @param countedFilter read filter to apply to the reads
+     */
+    final void traverseLoci(final CountingReadFilter countedFilter) {
+        if ( locusWalkerThreads > 1 ) {
+            traverseLociInParallel(countedFilter);
+        } else if ( supportsParallelTraversal() && reads != null && reads.isQueryableByInterval() ) {
+            final List<List<SimpleInterval>> shards = makeContigShards();
+            for ( int shardIndex = 0; shardIndex < shards.size(); shardIndex++ ) {
+                final List<SimpleInterval> shardIntervals = shards.get(shardIndex);
+                Utils.runWithIndependentRandomGenerator(shardIndex, () -> {
+                    reads.setTraversalBounds(shardIntervals);
+                    applyToEachLocus(makeAlignmentContextIterator(getTransformedReadStream(countedFilter).iterator(), shardIntervals));
+                });
+            }
+        } else {
+            applyToEachLocus(getAlignmentContextIterator(countedFilter));
+        }
+    }
 
+    private void applyToEachLocus(final Iterator<AlignmentContext> iterator) {
         // iterate over each alignment, and apply the function
         iterator.forEachRemaining(alignmentContext -> {
                         final SimpleInterval alignmentInterval = new SimpleInterval(alignmentContext);
@@ -163,7 +238,14 @@ public abstract class LocusWalker extends WalkerBase {
                         progressMeter.update(alignmentInterval);
                 }
             );
-        logger.info(countedFilter.getSummaryLine());
+    }
+
+    /**
+     * @return the intervals of the traversal grouped into one shard per contig, in traversal order
+     */
+    private List<List<SimpleInterval>> makeContigShards() {
+        final List<SimpleInterval> intervals = hasUserSuppliedIntervals() ? userIntervals : IntervalUtils.getAllIntervalsForReference(getHeaderForReads().getSequenceDictionary());
+        return IntervalUtils.groupIntervalsByContig(intervals);
     }
 
     /**
@@ -173,14 +255,13 @@ public abstract class LocusWalker extends WalkerBase {
      * code as this class.
      */
     final Iterator<AlignmentContext> getAlignmentContextIterator(final CountingReadFilter readFilterToUse) {
-        final SAMFileHeader header = getHeaderForReads();
-        // get the samples from the read groups
-        final Set<String> samples = header.getReadGroups().stream()
-                                          .map(SAMReadGroupRecord::getSample)
-                                          .collect(Collectors.toSet());
         // get the filter and transformed iterator
         final Iterator<GATKRead> readIterator = getTransformedReadStream(readFilterToUse).iterator();
+        return makeAlignmentContextIterator(readIterator, userIntervals);
+    }
 
+    private Iterator<AlignmentContext> makeAlignmentContextIterator(final Iterator<GATKRead> readIterator, final List<SimpleInterval> intervals) {
+        final SAMFileHeader header = getHeaderForReads();
         final AlignmentContextIteratorBuilder alignmentContextIteratorBuilder = new AlignmentContextIteratorBuilder();
         alignmentContextIteratorBuilder.setDownsamplingInfo(getDownsamplingInfo());
         alignmentContextIteratorBuilder.setEmitEmptyLoci(emitEmptyLoci());
@@ -189,10 +270,151 @@ public abstract class LocusWalker extends WalkerBase {
         alignmentContextIteratorBuilder.setIncludeNs(includeNs());
 
         return alignmentContextIteratorBuilder.build(
-                readIterator, header, userIntervals, getBestAvailableSequenceDictionary(),
+                readIterator, header, intervals, getBestAvailableSequenceDictionary(),
                 hasReference());
     }
 
+    /**
+     * Run the traversal with {@link #locusWalkerThreads} worker threads, each processing the loci of one contig at a
+     * time with its own data sources and {@link LocusWorker}.
+     *
+     * The results of each locus are queued per shard and emitted here, on the traversal thread, shard by shard and
+     * in locus order, so that tool output is identical to that of a single-threaded traversal. Each shard uses the same
+     * random stream as in a single-threaded traversal (see {@link #traverseLoci}). Shards are started in
+     * order, so the shard being emitted always has a worker thread; the bounded queues stall workers that get too far
+     * ahead.
+     *
+     * @param countedFilter read filter shared by all the workers, to keep a single set of filtering counts
+     */
+    private void traverseLociInParallel(final CountingReadFilter countedFilter) {
+        final ReadFilter sharedReadFilter = makeSynchronizedReadFilter(countedFilter);
+        final List<List<SimpleInterval>> shards = makeContigShards();
+        final List<ParallelTraversalWorker> workers = new ArrayList<>(locusWalkerThreads);
+        final BlockingQueue<ParallelTraversalWorker> idleWorkers = new ArrayBlockingQueue<>(locusWalkerThreads);
+        final List<ShardOutputQueue> shardOutputs = new ArrayList<>(shards.size());
+        final ExecutorService executor = Executors.newFixedThreadPool(locusWalkerThreads);
+        logger.info("Processing " + shards.size() + " contigs using " + locusWalkerThreads + " threads");
+
+        try ( final ReadsDataSourcePool readsPool = new ReadsDataSourcePool(this::makeReadsPathDataSource) ) {
+            for ( int i = 0; i < locusWalkerThreads; i++ ) {
+                final ParallelTraversalWorker worker = new ParallelTraversalWorker();
+                workers.add(worker);
+                idleWorkers.add(worker);
+            }
+
+            for ( int shardIndex = 0; shardIndex < shards.size(); shardIndex++ ) {
+                final ShardOutputQueue output = new ShardOutputQueue(MAX_PENDING_BATCHES_PER_SHARD);
+                final List<SimpleInterval> shardIntervals = shards.get(shardIndex);
+                final long randomStreamId = shardIndex;
+                shardOutputs.add(output);
+                executor.submit(() -> {
+                    try {
+                        final ParallelTraversalWorker worker = idleWorkers.take();
+                        try ( final AutoCloseableReference<ReadsPathDataSource> readsSource = readsPool.borrowAutoReturn() ) {
+                            Utils.runWithIndependentRandomGenerator(randomStreamId,
+                                    () -> worker.processShard(shardIntervals, readsSource.get(), sharedReadFilter, output));
+                        } finally {
+                            idleWorkers.add(worker);
+                        }
+                        output.finish(null);
+                    } catch ( final Throwable e ) {
+                        output.finish(e);
+                    }
+                });
+            }
+
+            // Emit the results of each shard in turn, in the same order as the single-threaded traversal
+            for ( final ShardOutputQueue output : shardOutputs ) {
+                output.emitAll();
+            }
+        } finally {
+            // workers may still be processing a shard if the traversal failed, so wait for them to stop before closing
+            // their data sources
+            executor.shutdownNow();
+            awaitTerminationUninterruptibly(executor);
+            workers.forEach(ParallelTraversalWorker::close);
+        }
+    }
+
+    /**
+     * Per-thread state of a parallel traversal: the data sources and {@link LocusWorker} used to process the loci
+     * of one shard at a time.
+     */
+    private final class ParallelTraversalWorker implements AutoCloseable {
+        private final ReferenceDataSource workerReference;
+        private final FeatureManager workerFeatures;
+        private final LocusWorker locusWorker;
+
+        private ParallelTraversalWorker() {
+            workerReference = hasReference() ? ReferenceDataSource.of(referenceArguments.getReferencePath()) : null;
+            workerFeatures = features == null ? null : new FeatureManager(LocusWalker.this, FeatureDataSource.DEFAULT_QUERY_LOOKAHEAD_BASES,
+                    cloudPrefetchBuffer, cloudIndexPrefetchBuffer, getGenomicsDBOptions());
+            if ( workerFeatures != null && asyncFeaturePrefetch ) {
+                workerFeatures.enableAsyncPrefetch();
+            }
+            locusWorker = Utils.nonNull(makeLocusWorker(), "makeLocusWorker() must not return null");
+        }
+
+        private void processShard(final List<SimpleInterval> shardIntervals, final ReadsPathDataSource readsSource,
+                                  final ReadFilter readFilter, final ShardOutputQueue output) {
+            readsSource.setTraversalBounds(shardIntervals);
+            final ReadTransformer preTransformer = makePreReadFilterTransformer();
+            final ReadTransformer postTransformer = makePostReadFilterTransformer();
+            final Iterator<GATKRead> readIterator = Utils.stream(readsSource)
+                    .map(preTransformer)
+                    .filter(readFilter)
+                    .map(postTransformer)
+                    .iterator();
+            final Iterator<AlignmentContext> iterator = makeAlignmentContextIterator(readIterator, shardIntervals);
+
+            List<Runnable> emitters = new ArrayList<>();
+            int lociInBatch = 0;
+            SimpleInterval lastLocus = null;
+            while ( iterator.hasNext() ) {
+                final AlignmentContext alignmentContext = iterator.next();
+                final SimpleInterval alignmentInterval = new SimpleInterval(alignmentContext);
+                final Runnable emitter = locusWorker.processLocus(alignmentContext,
+                        new ReferenceContext(workerReference, alignmentInterval),
+                        new FeatureContext(workerFeatures, alignmentInterval));
+                if ( emitter != null ) {
+                    emitters.add(emitter);
+                }
+                lastLocus = alignmentInterval;
+                if ( ++lociInBatch == LOCI_PER_BATCH ) {
+                    queueBatch(emitters, lastLocus, lociInBatch, output);
+                    emitters = new ArrayList<>();
+                    lociInBatch = 0;
+                }
+            }
+            if ( lociInBatch > 0 ) {
+                queueBatch(emitters, lastLocus, lociInBatch, output);
+            }
+
+            final Runnable shardEmitter = locusWorker.finishShard();
+            if ( shardEmitter != null ) {
+                output.add(shardEmitter);
+            }
+        }
+
+        private void queueBatch(final List<Runnable> emitters, final SimpleInterval lastLocus, final int numLoci, final ShardOutputQueue output) {
+            output.add(() -> {
+                emitters.forEach(Runnable::run);
+                progressMeter.update(lastLocus, numLoci);
+            });
+        }
+
+        @Override
+        public void close() {
+            locusWorker.close();
+            if ( workerReference != null ) {
+                workerReference.close();
+            }
+            if ( workerFeatures != null ) {
+                workerFeatures.close();
+            }
+        }
+    }
+
     /**
      * Process an individual AlignmentContext (with optional contextual information). Must be implemented by tool authors.
      * In general, tool authors should simply stream their output from apply(), and maintain as little internal state
@@ -209,6 +431,27 @@ public abstract class LocusWalker extends WalkerBase {
      */
     public abstract void apply(AlignmentContext alignmentContext, ReferenceContext referenceContext, FeatureContext featureContext);
 
+    /**
+     * Tools that can process contigs concurrently should override this to return true, and implement
+     * {@link #makeLocusWorker} accordingly.
+     *
+     * @return whether this tool accepts values greater than 1 for {@link #LOCUS_WALKER_THREADS_LONG_NAME}.
+     */
+    protected boolean supportsParallelTraversal() {
+        return false;
+    }
+
+    /**
+     * Create the thread-confined state used to process loci on one worker thread during parallel traversal.
+     * Called once per thread, after {@link #onTraversalStart}, and only if {@link #supportsParallelTraversal}
+     * returns true. Tools that support parallel traversal must override this.
+     *
+     * @return a new LocusWorker that shares no mutable state with other workers. Never {@code null}.
+     */
+    protected LocusWorker makeLocusWorker() {
+        throw new UnsupportedOperationException(getClass().getSimpleName() + " does not support parallel traversal");
+    }
+
     /**
      * Marked final so that tool authors don't override it. Tool authors should override onTraversalSuccess() instead.
      */
@@ -7,6 +7,7 @@ import htsjdk.samtools.util.OverlapDetector;
 import org.apache.commons.collections4.SetUtils;
 import org.broadinstitute.hellbender.engine.filters.CountingReadFilter;
 import org.broadinstitute.hellbender.utils.SimpleInterval;
+import org.broadinstitute.hellbender.utils.Utils;
 import org.broadinstitute.hellbender.utils.locusiterator.AlignmentContextIteratorBuilder;
 import org.broadinstitute.hellbender.utils.read.GATKRead;
 
@@ -24,6 +25,11 @@ import java.util.stream.Collectors;
  *
  * NOTE: If there are Locatables provided by {@link #getIntervalObjectsToQueryOver()} that are never covered by the traversal of
  * the tool, {@link #onIntervalStart(Locatable)} and {@link #onIntervalEnd(Locatable)} will not be called on those intervals.
+ *
+ * Tools that support parallel traversal implement {@link #makeIntervalLocusWorker()} instead of
+ * {@link #makeLocusWorker()}. The overlapping intervals of each locus are then computed on the worker threads, while
+ * {@link #onIntervalStart(Locatable)} and {@link #onIntervalEnd(Locatable)} are still called on the traversal thread,
+ * in the same order as in a single-threaded traversal.
  */
 public abstract class LocusWalkerByInterval extends LocusWalker {
 
@@ -44,17 +50,10 @@ public abstract class LocusWalkerByInterval extends LocusWalker {
     @Override
     public void traverse() {
         final CountingReadFilter countedFilter = makeReadFilter();
-        final Iterator<AlignmentContext> iterator = getAlignmentContextIterator(countedFilter);
 
         intervalsToTrack = OverlapDetector.create(getIntervalObjectsToQueryOver());
 
-        // iterate over each alignment, and apply the function
-        iterator.forEachRemaining(alignmentContext -> {
-                    final SimpleInterval alignmentInterval = new SimpleInterval(alignmentContext);
-                    apply(alignmentContext, new ReferenceContext(reference, alignmentInterval), new FeatureContext(features, alignmentInterval));
-                    progressMeter.update(alignmentInterval);
-                }
-        );
+        traverseLoci(countedFilter);
         for (Locatable l : previousIntervals) {
             onIntervalEnd(l);
         }
@@ -77,6 +76,16 @@ public abstract class LocusWalkerByInterval extends LocusWalker {
     @Override
     public final void apply(AlignmentContext alignmentContext, ReferenceContext referenceContext, FeatureContext featureContext) {
         Set<Locatable> currentIntervals = intervalsToTrack.getOverlaps(alignmentContext);
+        updateActiveIntervals(currentIntervals);
+
+        apply(alignmentContext, referenceContext, featureContext, currentIntervals);
+    }
+
+    /**
+     * Call {@link #onIntervalEnd(Locatable)} and {@link #onIntervalStart(Locatable)} for the intervals that are no
+     * longer, or newly, active at the current locus.
+     */
+    private void updateActiveIntervals(final Set<Locatable> currentIntervals) {
         Set<Locatable> passedIntervals = SetUtils.difference(previousIntervals, currentIntervals);
         Set<Locatable> newIntervals = SetUtils.difference(currentIntervals, previousIntervals);
         previousIntervals = currentIntervals;
@@ -89,8 +98,83 @@ public abstract class LocusWalkerByInterval extends LocusWalker {
         for(Locatable l : newIntervals) {
             onIntervalStart(l);
         }
+    }
 
-        apply(alignmentContext, referenceContext, featureContext, currentIntervals);
+    /**
+     * Parallel traversal of a LocusWalkerByInterval uses the worker returned by {@link #makeIntervalLocusWorker()}.
+     */
+    @Override
+    protected final LocusWorker makeLocusWorker() {
+        final IntervalLocusWorker worker = Utils.nonNull(makeIntervalLocusWorker(), "makeIntervalLocusWorker() must not return null");
+        return new LocusWorker() {
+            @Override
+            public Runnable processLocus(final AlignmentContext alignmentContext, final ReferenceContext referenceContext, final FeatureContext featureContext) {
+                // the overlap detector is only read during traversal, so it can be queried from several threads
+                final Set<Locatable> currentIntervals = intervalsToTrack.getOverlaps(alignmentContext);
+                final Runnable emitter = worker.processLocus(alignmentContext, referenceContext, featureContext, currentIntervals);
+                return () -> {
+                    updateActiveIntervals(currentIntervals);
+                    if ( emitter != null ) {
+                        emitter.run();
+                    }
+                };
+            }
+
+            @Override
+            public Runnable finishShard() {
+                return worker.finishShard();
+            }
+
+            @Override
+            public void close() {
+                worker.close();
+            }
+        };
+    }
+
+    /**
+     * Create the thread-confined state used to process loci on one worker thread during parallel traversal.
+     * This is the counterpart of {@link LocusWalker#makeLocusWorker()} for tools that extend LocusWalkerByInterval,
+     * and must be overridden by those that support parallel traversal.
+     *
+     * @return a new IntervalLocusWorker that shares no mutable state with other workers. Never {@code null}.
+     */
+    protected IntervalLocusWorker makeIntervalLocusWorker() {
+        throw new UnsupportedOperationException(getClass().getSimpleName() + " does not support parallel traversal");
+    }
+
+    /**
+     * A {@link LocusWorker} that is also given the intervals overlapping each locus. See {@link LocusWorker} for
+     * the threading contract.
+     */
+    public interface IntervalLocusWorker extends AutoCloseable {
+
+        /**
+         * Process an individual locus on the worker thread. This is the parallel counterpart of
+         * {@link LocusWalkerByInterval#apply(AlignmentContext, ReferenceContext, FeatureContext, Set)}.
+         *
+         * @param alignmentContext current alignment context
+         * @param referenceContext reference bases spanning the current locus
+         * @param featureContext features spanning the current locus
+         * @param activeIntervals Locatables from the set provided by getIntervalObjectsToQueryOver() spanning the current locus.
+         * @return a task that emits the results for this locus, to be run on the traversal thread in locus order,
+         *         after any {@link LocusWalkerByInterval#onIntervalStart} and {@link LocusWalkerByInterval#onIntervalEnd} calls for the
+         *         locus, or {@code null} if there is nothing to emit
+         */
+        Runnable processLocus(final AlignmentContext alignmentContext, final ReferenceContext referenceContext, final FeatureContext featureContext, final Set<Locatable> activeIntervals);
+
+        /**
+         * See {@link LocusWorker#finishShard()}.
+         */
+        default Runnable finishShard() {
+            return null;
+        }
+
+        /**
+         * Release any resources held by this worker. Called once the traversal has finished.
+         */
+        @Override
+        default void close() { }
     }
 
     /**
@@ -0,0 +1,47 @@
+package org.broadinstitute.hellbender.engine;
+
+/**
+ * Thread-confined processing state for a {@link LocusWalker} that supports parallel traversal
+ * (see {@link LocusWalker#supportsParallelTraversal()}).
+ *
+ * During a parallel traversal each worker thread owns exactly one LocusWorker, together with its own reads,
+ * reference and feature data sources, and uses it to process the loci of one shard (contig) at a time.
+ * Implementations therefore need not be thread-safe, but must not share mutable state with other workers or with
+ * the tool instance.
+ *
+ * Output must not be written, nor tool state updated, directly by the worker. Instead, {@link #processLocus} and
+ * {@link #finishShard} return tasks that the engine runs on the traversal thread, in the same order as a
+ * single-threaded traversal would have called {@link LocusWalker#apply}, so that tool output is independent of the
+ * number of threads. Tools that accumulate state over the whole traversal can either return a small task per locus,
+ * or accumulate the state of a shard in the worker and merge it into the tool state from {@link #finishShard}.
+ */
+public interface LocusWorker extends AutoCloseable {
+
+    /**
+     * Process an individual locus on the worker thread. This is the parallel counterpart of
+     * {@link LocusWalker#apply}, and should do all the expensive work.
+     *
+     * @param alignmentContext current alignment context
+     * @param referenceContext reference bases spanning the current locus
+     * @param featureContext features spanning the current locus
+     * @return a task that emits the results for this locus, to be run on the traversal thread in locus order,
+     *         or {@code null} if there is nothing to emit
+     */
+    Runnable processLocus(final AlignmentContext alignmentContext, final ReferenceContext referenceContext, final FeatureContext featureContext);
+
+    /**
+     * Called on the worker thread after the last locus of each shard has been processed.
+     *
+     * @return a task to run on the traversal thread after those of all the loci of the shard (e.g. to merge the
+     *         state accumulated for the shard into the tool), or {@code null} if there is nothing to do
+     */
+    default Runnable finishShard() {
+        return null;
+    }
+
+    /**
+     * Release any resources held by this worker. Called once the traversal has finished.
+     */
+    @Override
+    default void close() { }
+}
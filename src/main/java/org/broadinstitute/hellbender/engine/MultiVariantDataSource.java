@@ -1,9 +1,12 @@
 package org.broadinstitute.hellbender.engine;
 
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import htsjdk.samtools.SAMSequenceDictionary;
 import htsjdk.samtools.SAMSequenceRecord;
 import htsjdk.samtools.util.CloseableIterator;
 import htsjdk.samtools.util.MergingIterator;
+import htsjdk.variant.variantcontext.GenotypesContext;
+import htsjdk.variant.variantcontext.LazyGenotypesContext;
 import htsjdk.variant.variantcontext.VariantContext;
 import htsjdk.variant.variantcontext.VariantContextComparator;
 import htsjdk.variant.variantcontext.writer.VariantContextWriter;
@@ -15,11 +18,14 @@ import org.broadinstitute.hellbender.exceptions.UserException;
 import org.broadinstitute.hellbender.utils.SequenceDictionaryUtils;
 import org.broadinstitute.hellbender.utils.SimpleInterval;
 import org.broadinstitute.hellbender.utils.Utils;
+import org.broadinstitute.hellbender.utils.iterators.ParallelDecodingIterator;
 import org.broadinstitute.hellbender.utils.variant.GATKVariantContextUtils;
 import org.broadinstitute.hellbender.utils.variant.VcfUtils;
 
 import java.nio.file.Path;
 import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 
@@ -37,6 +43,10 @@ import java.util.stream.Collectors;
  * -Targeted queries by one interval at a time. This also requires the files to have been indexed using
  *  the bundled tool IndexFeatureFile. Targeted queries by one interval at a time are unaffected by
  *  any intervals for full traversal set via {@link #setIntervalsForTraversal(List)}.
+ *
+ * Optionally (see {@link #enableParallelDecoding(int)}), iterations over all Variants decode the records of each
+ * data source on a pool of worker threads, in batches and one batch ahead of the merge, so that decoding many inputs
+ * scales with the number of threads while the memory used stays bounded by two batches per data source.
  */
 public final class MultiVariantDataSource implements GATKDataSource<VariantContext>, AutoCloseable {
     private static final Logger logger = LogManager.getLogger(MultiVariantDataSource.class);
@@ -60,6 +70,23 @@ public final class MultiVariantDataSource implements GATKDataSource<VariantConte
     private CloseableIterator<VariantContext> currentIterator;
     private SortedSet<String> mergedSamples;
 
+    /**
+     * Number of variants decoded at a time from each data source when decoding in parallel
+     */
+    private static final int VARIANTS_PER_DECODING_BATCH = 256;
+
+    /**
+     * Worker threads on which the data sources are decoded during iterations over all Variants, or null if they are
+     * decoded on the calling thread
+     */
+    private ExecutorService decodingExecutor;
+
+    /**
+     * Iterators decoding the data sources of the current iteration in parallel, if any, to be closed before the
+     * data sources are used again
+     */
+    private final List<ParallelDecodingIterator<VariantContext>> decodingIterators = new ArrayList<>();
+
     /**
      * Creates a MultiVariantDataSource backed by the provided FeatureInputs. We will look ahead the specified number of bases
      * during queries that produce cache misses.
@@ -111,6 +138,31 @@ public final class MultiVariantDataSource implements GATKDataSource<VariantConte
 
     }
 
+    /**
+     * Decode the data sources on a pool of worker threads during future iterations over all Variants via
+     * {@link #iterator}. Queries via {@link #query} are still served on the calling thread, from the caches of the
+     * data sources.
+     *
+     * @param numThreads number of worker threads; 1 or less to decode on the calling thread
+     */
+    public void enableParallelDecoding(final int numThreads) {
+        closeOpenIterationIfNecessary();
+        shutdownDecodingExecutor();
+        if (numThreads > 1) {
+            decodingExecutor = Executors.newFixedThreadPool(numThreads, new ThreadFactoryBuilder()
+                    .setNameFormat("variantDecoder-%d")
+                    .setDaemon(true).build());
+            logger.info("Decoding " + featureDataSources.size() + " variant inputs using " + numThreads + " threads");
+        }
+    }
+
+    /**
+     * @return true if the data sources are decoded on a pool of worker threads during iterations over all Variants
+     */
+    public boolean isParallelDecodingEnabled() {
+        return decodingExecutor != null;
+    }
+
     /**
      * Returns the aggregate sequence dictionary for this source of Variants. Uses the dictionary resulting
      * from merging available individual VCF headers (if present) for variant inputs.
@@ -157,9 +209,31 @@ public final class MultiVariantDataSource implements GATKDataSource<VariantConte
      */
     @Override
     public Iterator<VariantContext> iterator() {
+        if (decodingExecutor != null) {
+            return getMergedIteratorFromDataSources(this::decodeInParallel);
+        }
         return getMergedIteratorFromDataSources(ds -> ds.iterator());
     }
 
+    /**
+     * Iterate over all Variants of a data source, decoding them on our worker threads. Their genotypes are fully
+     * decoded on the worker as well, since lazy genotype decoding reuses the state of the codec of the data source,
+     * which the worker goes on to use for the next records.
+     */
+    private Iterator<VariantContext> decodeInParallel(final FeatureDataSource<VariantContext> dataSource) {
+        final ParallelDecodingIterator<VariantContext> decodingIterator = new ParallelDecodingIterator<>(
+                dataSource.iterator(), MultiVariantDataSource::decodeGenotypes, decodingExecutor, VARIANTS_PER_DECODING_BATCH, dataSource.getName());
+        decodingIterators.add(decodingIterator);
+        return decodingIterator;
+    }
+
+    private static void decodeGenotypes(final VariantContext vc) {
+        final GenotypesContext genotypes = vc.getGenotypes();
+        if (genotypes instanceof LazyGenotypesContext) {
+            ((LazyGenotypesContext) genotypes).decode();
+        }
+    }
+
     /**
      * Gets an iterator over all Variants in this data source that overlap the provided interval.
      *
@@ -224,9 +298,17 @@ public final class MultiVariantDataSource implements GATKDataSource<VariantConte
     @Override
     public void close() {
         closeOpenIterationIfNecessary();
+        shutdownDecodingExecutor();
         featureDataSources.forEach(dataSource -> dataSource.close());
     }
 
+    private void shutdownDecodingExecutor() {
+        if (decodingExecutor != null) {
+            decodingExecutor.shutdownNow();
+            decodingExecutor = null;
+        }
+    }
+
     private SAMSequenceDictionary getMergedSequenceDictionary(VCFHeader header) {
         return header != null ? header.getSequenceDictionary() : null;
     }
@@ -382,6 +464,9 @@ public final class MultiVariantDataSource implements GATKDataSource<VariantConte
             currentIterator.close();
             currentIterator = null;
         }
+        // the workers must be done with the data sources before they are used again
+        decodingIterators.forEach(ParallelDecodingIterator::close);
+        decodingIterators.clear();
     }
 
     /**
@@ -3,6 +3,8 @@ package org.broadinstitute.hellbender.engine;
 import htsjdk.samtools.SAMSequenceDictionary;
 import htsjdk.variant.variantcontext.VariantContext;
 import htsjdk.variant.vcf.VCFHeader;
+import org.broadinstitute.barclay.argparser.Advanced;
+import org.broadinstitute.barclay.argparser.Argument;
 import org.broadinstitute.barclay.argparser.ArgumentCollection;
 import org.broadinstitute.hellbender.cmdline.StandardArgumentDefinitions;
 import org.broadinstitute.hellbender.cmdline.argumentcollections.MultiVariantInputArgumentCollection;
@@ -25,6 +27,19 @@ import java.util.Spliterator;
  */
 public abstract class MultiVariantWalker extends VariantWalkerBase {
 
+    public static final String VARIANT_DECODING_THREADS_LONG_NAME = "variant-decoding-threads";
+
+    /**
+     * With more than one thread, the records of each driving variants input are decoded in batches on a pool of
+     * threads, ahead of the merge of the inputs. Useful with many inputs (e.g. combining hundreds of GVCFs), where
+     * decoding the VCF text dominates.
+     */
+    @Advanced
+    @Argument(fullName = VARIANT_DECODING_THREADS_LONG_NAME,
+            doc = "Number of threads used to decode the driving variants inputs.",
+            optional = true, minValue = 1)
+    public int variantDecodingThreads = 1;
+
     @ArgumentCollection
     protected MultiVariantInputArgumentCollection multiVariantInputArgumentCollection = getMultiVariantInputArgumentCollection();
 
@@ -97,6 +112,7 @@ public abstract class MultiVariantWalker extends VariantWalkerBase {
         // cache lookahead value from getDrivingVariantCacheLookAheadBases()
         drivingVariants = new MultiVariantDataSource(drivingVariantsFeatureInputs, getDrivingVariantCacheLookAheadBases(), cloudPrefetchBuffer, cloudIndexPrefetchBuffer,
                                                      referenceArguments.getReferencePath(), skipDictionaryValidation);
+        drivingVariants.enableParallelDecoding(variantDecodingThreads);
 
         // Note: the intervals for the driving variants are set in onStartup()
     }
@@ -7,7 +7,12 @@ import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.broadinstitute.hellbender.utils.Utils;
 
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
 
 /**
  * A basic progress meter to print out the number of records processed (and other metrics) during a traversal
@@ -125,6 +130,11 @@ public final class ProgressMeter {
      */
     private String recordLabel = DEFAULT_RECORD_LABEL;
 
+    /**
+     * Additional tool-specific statistics output as extra columns of each progress line, by column heading.
+     */
+    private final Map<String, Supplier<?>> extraStatistics = new LinkedHashMap<>();
+
     /**
      * Create a progress meter with the default update interval of {@link #DEFAULT_SECONDS_BETWEEN_UPDATES} seconds
      * and the default time function {@link #DEFAULT_TIME_FUNCTION}.
@@ -181,6 +191,23 @@ public final class ProgressMeter {
         this.recordLabel = label;
     }
 
+    /**
+     * Add a tool-specific statistic to be output as an extra column of each progress line, after the standard ones.
+     *
+     * The value is obtained by calling {@code value} each time a progress line is output, on the thread that updates
+     * the meter, so the supplier must be safe to call from that thread.
+     *
+     * @param heading column heading for the statistic. Not null.
+     * @param value supplies the current value of the statistic. Not null.
+     * @throws IllegalStateException if the meter has been started already
+     */
+    public void addStatistic( final String heading, final Supplier<?> value ) {
+        Utils.nonNull(heading);
+        Utils.nonNull(value);
+        Utils.validate( !started, "statistics must be added before the progress meter is started");
+        extraStatistics.put(heading, value);
+    }
+
     /**
      * Start the progress meter and produce preliminary output such as column headings.
      * @throws IllegalStateException if the meter has been started before or has been stopped already
@@ -266,7 +293,8 @@ public final class ProgressMeter {
         logger.info(String.format("%20s  %15s  %20s  %15s",
                                   "Current Locus", "Elapsed Minutes",
                                   StringUtils.capitalize(recordLabel) + " Processed",
-                                  StringUtils.capitalize(recordLabel) + "/Minute"));
+                                  StringUtils.capitalize(recordLabel) + "/Minute") +
+                    extraStatisticsColumns(extraStatistics.keySet()));
     }
 
     /**
@@ -275,7 +303,15 @@ public final class ProgressMeter {
     private void printProgress() {
         ++numLoggerUpdates;
         logger.info(String.format("%20s  %15.1f  %20d  %15.1f",
-                                  currentLocusString(), elapsedTimeInMinutes(), numRecordsProcessed, processingRate()));
+                                  currentLocusString(), elapsedTimeInMinutes(), numRecordsProcessed, processingRate()) +
+                    extraStatisticsColumns(extraStatistics.values().stream().map(Supplier::get).collect(Collectors.toList())));
+    }
+
+    /**
+     * @return the given headings or values of the extra statistics, formatted as additional progress line columns
+     */
+    private static String extraStatisticsColumns( final Collection<?> columns ) {
+        return columns.stream().map(column -> String.format("  %15s", column)).collect(Collectors.joining());
     }
 
     /**
@@ -1,13 +1,27 @@
 package org.broadinstitute.hellbender.engine;
 
+import org.broadinstitute.barclay.argparser.Advanced;
+import org.broadinstitute.barclay.argparser.Argument;
+import org.broadinstitute.barclay.argparser.CommandLineException;
 import org.broadinstitute.hellbender.engine.filters.CountingReadFilter;
 import org.broadinstitute.hellbender.engine.filters.ReadFilter;
 import org.broadinstitute.hellbender.engine.filters.WellformedReadFilter;
+import org.broadinstitute.hellbender.exceptions.GATKException;
+import org.broadinstitute.hellbender.transformers.ReadTransformer;
 import org.broadinstitute.hellbender.utils.SimpleInterval;
 import org.broadinstitute.hellbender.utils.read.GATKRead;
 
+import java.util.ArrayDeque;
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.Deque;
 import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 /**
  * A ReadWalker is a tool that processes a single read at a time from one or multiple sources of reads, with
@@ -23,9 +37,36 @@ import java.util.List;
  *
  * ReadWalker authors must implement the apply() method to process each read, and may optionally implement
  * onTraversalStart() and/or onTraversalSuccess(). See the PrintReadsWithReference walker for an example.
+ *
+ * Tools that override {@link #supportsPipelinedTraversal} can run a pipelined traversal (see
+ * {@link #READ_WALKER_THREADS_LONG_NAME}): reads are decoded on a background thread, transformed by the post-filter
+ * transformer on several worker threads, and passed to apply() on the traversal thread in their original order, while
+ * the output written with {@link #createSAMWriter} is encoded on a background thread.
  */
 public abstract class ReadWalker extends WalkerBase {
 
+    public static final String READ_WALKER_THREADS_LONG_NAME = "read-walker-threads";
+
+    /**
+     * Number of threads used to apply the post-filter read transformer (e.g. base quality recalibration in ApplyBQSR).
+     * Values greater than 1 are only accepted by tools that support pipelined traversal, and also decode the input
+     * reads and encode the output reads on background threads. Reads are always passed to the tool in their
+     * original order, so the output does not depend on the number of threads.
+     */
+    @Advanced
+    @Argument(fullName = READ_WALKER_THREADS_LONG_NAME, doc = "Number of threads used to transform reads in a pipelined traversal", optional = true, minValue = 1)
+    protected int readWalkerThreads = 1;
+
+    /**
+     * Number of reads transformed at a time by a worker thread during pipelined traversal
+     */
+    private static final int READS_PER_BATCH = 1000;
+
+    /**
+     * Maximum number of batches per thread being transformed, or waiting to be applied, during pipelined traversal
+     */
+    private static final int MAX_PENDING_BATCHES_PER_THREAD = 4;
+
     @Override
     public boolean requiresReads() {
         return true;
@@ -49,9 +90,29 @@ public abstract class ReadWalker extends WalkerBase {
     protected final void onStartup() {
         super.onStartup();
 
+        if ( readWalkerThreads > 1 && ! supportsPipelinedTraversal() ) {
+            throw new CommandLineException.BadArgumentValue(READ_WALKER_THREADS_LONG_NAME, Integer.toString(readWalkerThreads),
+                    getClass().getSimpleName() + " does not support pipelined traversal");
+        }
         setReadTraversalBounds();
     }
 
+    /**
+     * Tools that can run a pipelined traversal with more than one {@link #READ_WALKER_THREADS_LONG_NAME} should
+     * override this to return true. This requires that each call to {@link #makePostReadFilterTransformer()} returns
+     * a transformer that does not share mutable state with the others, as each worker thread uses its own.
+     *
+     * @return true if this tool supports pipelined traversal, false otherwise (the default)
+     */
+    protected boolean supportsPipelinedTraversal() {
+        return false;
+    }
+
+    @Override
+    boolean useAsyncReadsIO() {
+        return readWalkerThreads > 1;
+    }
+
     /**
      * Initialize traversal bounds if intervals are specified
      */
@@ -90,19 +151,106 @@ public abstract class ReadWalker extends WalkerBase {
         // Process each read in the input stream.
         // Supply reference bases spanning each read, if a reference is available.
         final CountingReadFilter countedFilter = makeReadFilter();
-        getTransformedReadStream(countedFilter)
-                .forEach(read -> {
-                    final SimpleInterval readInterval = getReadInterval(read);
-                    apply(read,
-                          new ReferenceContext(reference, readInterval), // Will create an empty ReferenceContext if reference or readInterval == null
-                          new FeatureContext(features, readInterval));   // Will create an empty FeatureContext if features or readInterval == null
-
-                    progressMeter.update(readInterval);
-                });
+        if ( readWalkerThreads > 1 ) {
+            traversePipelined(countedFilter);
+        } else {
+            getTransformedReadStream(countedFilter).forEach(this::applyToRead);
+        }
 
         logger.info(countedFilter.getSummaryLine());
     }
 
+    private void applyToRead(final GATKRead read) {
+        final SimpleInterval readInterval = getReadInterval(read);
+        apply(read,
+              new ReferenceContext(reference, readInterval), // Will create an empty ReferenceContext if reference or readInterval == null
+              new FeatureContext(features, readInterval));   // Will create an empty FeatureContext if features or readInterval == null
+
+        progressMeter.update(readInterval);
+    }
+
+    /**
+     * Pipelined traversal: the pre-filter transformer and the filter are applied on the traversal thread, to reads
+     * decoded on a background thread. Batches of reads that pass the filter are then transformed by
+     * {@link #readWalkerThreads} workers, each with its own post-filter transformer, and handed to apply(), batch by
+     * batch, in their original order.
+     *
+     * @param countedFilter read filter, only used on the traversal thread
+     */
+    private void traversePipelined(final CountingReadFilter countedFilter) {
+        final ReadTransformer preTransformer = makePreReadFilterTransformer();
+        final BlockingQueue<ReadTransformer> idleTransformers = new ArrayBlockingQueue<>(readWalkerThreads);
+        for ( int i = 0; i < readWalkerThreads; i++ ) {
+            idleTransformers.add(makePostReadFilterTransformer());
+        }
+        final Deque<Future<List<GATKRead>>> pendingBatches = new ArrayDeque<>();
+        final ExecutorService executor = Executors.newFixedThreadPool(readWalkerThreads);
+        logger.info("Transforming reads using " + readWalkerThreads + " threads");
+
+        try {
+            List<GATKRead> batch = new ArrayList<>(READS_PER_BATCH);
+            for ( final GATKRead originalRead : reads ) {
+                final GATKRead read = preTransformer.apply(originalRead);
+                if ( ! countedFilter.test(read) ) {
+                    continue;
+                }
+                batch.add(read);
+                if ( batch.size() == READS_PER_BATCH ) {
+                    pendingBatches.add(submitBatch(executor, idleTransformers, batch));
+                    batch = new ArrayList<>(READS_PER_BATCH);
+                    if ( pendingBatches.size() > MAX_PENDING_BATCHES_PER_THREAD * readWalkerThreads ) {
+                        applyToBatch(pendingBatches.poll());
+                    }
+                }
+            }
+            if ( ! batch.isEmpty() ) {
+                pendingBatches.add(submitBatch(executor, idleTransformers, batch));
+            }
+            while ( ! pendingBatches.isEmpty() ) {
+                applyToBatch(pendingBatches.poll());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static Future<List<GATKRead>> submitBatch(final ExecutorService executor, final BlockingQueue<ReadTransformer> idleTransformers, final List<GATKRead> batch) {
+        return executor.submit(() -> {
+            // there are as many transformers as threads, so this never waits
+            final ReadTransformer transformer = idleTransformers.take();
+            try {
+                final List<GATKRead> transformed = new ArrayList<>(batch.size());
+                for ( final GATKRead read : batch ) {
+                    transformed.add(transformer.apply(read));
+                }
+                return transformed;
+            } finally {
+                idleTransformers.add(transformer);
+            }
+        });
+    }
+
+    /**
+     * Wait for a batch to be transformed and apply the tool to its reads, rethrowing any failure of the transformer.
+     */
+    private void applyToBatch(final Future<List<GATKRead>> batch) {
+        final List<GATKRead> transformedReads;
+        try {
+            transformedReads = batch.get();
+        } catch ( final InterruptedException e ) {
+            Thread.currentThread().interrupt();
+            throw new GATKException("Interrupted while waiting for reads to be transformed", e);
+        } catch ( final ExecutionException e ) {
+            if ( e.getCause() instanceof RuntimeException ) {
+                throw (RuntimeException) e.getCause();
+            } else if ( e.getCause() instanceof Error ) {
+                throw (Error) e.getCause();
+            }
+            throw new GATKException("Failure while transforming reads", e.getCause());
+        }
+        transformedReads.forEach(this::applyToRead);
+    }
+
     /**
      * Returns an interval for the read.
      * Note: some walkers must be able to work on any read, including those whose coordinates do not form a valid SimpleInterval.
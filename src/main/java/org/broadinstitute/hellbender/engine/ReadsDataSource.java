@@ -66,6 +66,18 @@ public interface ReadsDataSource extends GATKDataSource<GATKRead>, AutoCloseable
      */
     boolean isQueryableByInterval();
 
+    /**
+     * Query reads overlapping any of a set of intervals in a single pass. Each read is returned once, in coordinate
+     * order, even if it overlaps several of the intervals. This is much cheaper than one {@link #query} per interval
+     * when the intervals are small and close together, since the index chunks of all of the intervals are merged and
+     * each part of the file is read and decompressed only once. This operation is not affected by prior calls to
+     * {@link #setTraversalBounds}. The underlying file must be indexed.
+     *
+     * @param intervals intervals over which to query; need not be sorted or merged. If empty, no reads are returned.
+     * @return Iterator over the reads overlapping any of the intervals
+     */
+    Iterator<GATKRead> queryIntervals(List<SimpleInterval> intervals);
+
     /**
      * @return An iterator over just the unmapped reads with no assigned position. This operation is not affected
      *         by prior calls to {@link #setTraversalBounds}. The underlying file must be indexed.
@@ -4,10 +4,12 @@ import org.apache.commons.pool.BasePoolableObjectFactory;
 import org.apache.commons.pool.impl.GenericObjectPool;
 import org.broadinstitute.hellbender.exceptions.GATKException;
 import org.broadinstitute.hellbender.utils.AutoCloseableReference;
+import org.broadinstitute.hellbender.utils.Utils;
 
 import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.function.Supplier;
 
 /**
  * Pool of {@link ReadsDataSource} instances.
@@ -15,10 +17,27 @@ import java.util.List;
 public final class ReadsDataSourcePool extends GenericObjectPool<ReadsPathDataSource> implements AutoCloseable {
 
     public ReadsDataSourcePool(final List<Path> readPaths) {
-        super(new Factory(readPaths));
+        this(newReadsDataSourceSupplier(readPaths));
+    }
+
+    /**
+     * Creates a pool whose members are created on demand by the given supplier.
+     * <p>
+     *     Useful when the pooled sources need a configuration beyond the bare read paths
+     *     (e.g. a reference for CRAM inputs, validation stringency or cloud prefetching).
+     * </p>
+     * @param readsDataSourceSupplier creates a new, open reads data source each time it is called.
+     */
+    public ReadsDataSourcePool(final Supplier<ReadsPathDataSource> readsDataSourceSupplier) {
+        super(new Factory(Utils.nonNull(readsDataSourceSupplier)));
         setWhenExhaustedAction(WHEN_EXHAUSTED_GROW);
     }
 
+    private static Supplier<ReadsPathDataSource> newReadsDataSourceSupplier(final List<Path> readPaths) {
+        final List<Path> paths = new ArrayList<>(readPaths);
+        return () -> new ReadsPathDataSource(paths);
+    }
+
     /**
      * Returns a reads-data-source wrapped into a reference that when close returns
      * the source back to the pool.
@@ -56,15 +75,15 @@ public final class ReadsDataSourcePool extends GenericObjectPool<ReadsPathDataSo
 
     private static class Factory extends BasePoolableObjectFactory<ReadsPathDataSource> {
 
-        private final List<Path> paths;
+        private final Supplier<ReadsPathDataSource> supplier;
 
-        private Factory(final List<Path> paths) {
-            this.paths = new ArrayList<>(paths);
+        private Factory(final Supplier<ReadsPathDataSource> supplier) {
+            this.supplier = supplier;
         }
 
         @Override
         public ReadsPathDataSource makeObject() {
-            return new ReadsPathDataSource(paths);
+            return supplier.get();
         }
 
         @Override
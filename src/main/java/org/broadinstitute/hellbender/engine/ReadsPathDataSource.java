@@ -1,6 +1,7 @@
 package org.broadinstitute.hellbender.engine;
 
 import com.google.common.annotations.VisibleForTesting;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import htsjdk.samtools.MergingSamRecordIterator;
 import htsjdk.samtools.SAMException;
 import htsjdk.samtools.SAMFileHeader;
@@ -10,6 +11,7 @@ import htsjdk.samtools.SamFileHeaderMerger;
 import htsjdk.samtools.SamInputResource;
 import htsjdk.samtools.SamReader;
 import htsjdk.samtools.SamReaderFactory;
+import htsjdk.samtools.ValidationStringency;
 import htsjdk.samtools.util.CloseableIterator;
 import htsjdk.samtools.util.IOUtil;
 import org.apache.logging.log4j.LogManager;
@@ -20,9 +22,12 @@ import org.broadinstitute.hellbender.utils.IntervalUtils;
 import org.broadinstitute.hellbender.utils.SimpleInterval;
 import org.broadinstitute.hellbender.utils.Utils;
 import org.broadinstitute.hellbender.utils.gcs.BucketUtils;
+import org.broadinstitute.hellbender.utils.iterators.LazyBAMReadIterator;
+import org.broadinstitute.hellbender.utils.iterators.ParallelInflatingBAMIterator;
 import org.broadinstitute.hellbender.utils.iterators.SAMRecordToReadIterator;
 import org.broadinstitute.hellbender.utils.iterators.SamReaderQueryingIterator;
 import org.broadinstitute.hellbender.utils.read.GATKRead;
+import org.broadinstitute.hellbender.utils.read.LazyBAMRecordToGATKReadAdapter;
 import org.broadinstitute.hellbender.utils.read.ReadConstants;
 
 import java.io.IOException;
@@ -30,11 +35,14 @@ import java.nio.channels.SeekableByteChannel;
 import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.Iterator;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 
@@ -63,6 +71,45 @@ public final class ReadsPathDataSource implements ReadsDataSource {
      */
     private final Map<SamReader, Path> backingPaths;
 
+    /**
+     * Channel wrapper (e.g. cloud prefetching) used when opening each input, so that traversals that read
+     * the files directly can apply it as well
+     */
+    private final Map<SamReader, Function<SeekableByteChannel, SeekableByteChannel>> dataWrappers;
+
+    /**
+     * Validation stringency of our readers
+     */
+    private final ValidationStringency validationStringency;
+
+    /**
+     * Number of blocks that each BAM input reads ahead of the current record for each thread in {@link #inflaterPool}
+     */
+    public static final int INFLATER_BLOCKS_AHEAD_PER_THREAD = 4;
+
+    /**
+     * Thread pool used to inflate the BGZF blocks of BAM inputs during unbounded traversals, created on first use.
+     * Null if blocks are inflated by htsjdk on the calling thread, or no unbounded traversal has happened yet.
+     * See {@link #setInflaterThreads(int)}.
+     */
+    private ExecutorService inflaterPool;
+
+    /**
+     * Number of threads in {@link #inflaterPool}
+     */
+    private int inflaterThreads = 0;
+
+    /**
+     * If true, unbounded traversals of a single BAM input produce reads that are decoded lazily.
+     * See {@link #setLazyReadDecoding(boolean)}.
+     */
+    private boolean lazyReadDecoding = false;
+
+    /**
+     * Iterator over the current lazily-decoded traversal, if any. Null otherwise.
+     */
+    private CloseableIterator<GATKRead> lazyReadIterator;
+
     /**
      * Only reads that overlap these intervals (and unmapped reads, if {@link #traverseUnmapped} is set) will be returned
      * during a full iteration. Null if iteration is unbounded.
@@ -210,12 +257,14 @@ public final class ReadsPathDataSource implements ReadsDataSource {
 
         readers = new LinkedHashMap<>(samPaths.size() * 2);
         backingPaths = new LinkedHashMap<>(samPaths.size() * 2);
+        dataWrappers = new LinkedHashMap<>(samPaths.size() * 2);
         indicesAvailable = true;
 
         final SamReaderFactory samReaderFactory =
                 customSamReaderFactory == null ?
                     SamReaderFactory.makeDefault().validationStringency(ReadConstants.DEFAULT_READ_VALIDATION_STRINGENCY) :
                     customSamReaderFactory;
+        validationStringency = samReaderFactory.validationStringency();
 
         int samCount = 0;
         for ( final Path samPath : samPaths ) {
@@ -258,6 +307,7 @@ public final class ReadsPathDataSource implements ReadsDataSource {
 
             readers.put(reader, null);
             backingPaths.put(reader, samPath);
+            dataWrappers.put(reader, wrapper);
             ++samCount;
         }
 
@@ -265,6 +315,65 @@ public final class ReadsPathDataSource implements ReadsDataSource {
         headerMerger = samPaths.size() > 1 ? createHeaderMerger() : null;
     }
 
+    /**
+     * Inflate the BGZF blocks of BAM inputs on a pool of threads during unbounded traversals (queries, traversals
+     * bounded by intervals, and SAM/CRAM inputs are unaffected). Compressed blocks are read ahead of the current
+     * record, inflated in parallel, and decoded in order, so the reads returned are the same as without this setting.
+     *
+     * @param numThreads number of inflater threads, or 0 to inflate blocks on the calling thread (the default)
+     */
+    public void setInflaterThreads(final int numThreads) {
+        Utils.validateArg(numThreads >= 0, "the number of inflater threads must be >= 0");
+        closePreviousIterationsIfNecessary();
+        shutdownInflaterPool();
+        inflaterThreads = numThreads;
+    }
+
+    /**
+     * @return the number of threads used to inflate BAM inputs during unbounded traversals; 0 if blocks are inflated on the calling thread
+     */
+    public int getInflaterThreads() {
+        return inflaterThreads;
+    }
+
+    /**
+     * Produce reads that decode their name, cigar, bases, qualities and tags from the raw BAM record only when first
+     * accessed (see {@link LazyBAMRecordToGATKReadAdapter}) during unbounded traversals of a single BAM input. This
+     * saves most of the decoding cost of reads that are removed by read filters. Queries, traversals bounded by
+     * intervals, multiple inputs and SAM/CRAM inputs are unaffected.
+     *
+     * Note that, unlike other reads, lazily-decoded reads are not validated against the validation stringency.
+     *
+     * @param lazyReadDecoding whether to decode reads lazily when possible
+     */
+    public void setLazyReadDecoding(final boolean lazyReadDecoding) {
+        closePreviousIterationsIfNecessary();
+        this.lazyReadDecoding = lazyReadDecoding;
+    }
+
+    /**
+     * @return true if unbounded traversals of a single BAM input produce lazily-decoded reads
+     */
+    public boolean isLazyReadDecoding() {
+        return lazyReadDecoding;
+    }
+
+    private ExecutorService getInflaterPool() {
+        if ( inflaterPool == null ) {
+            inflaterPool = Executors.newFixedThreadPool(inflaterThreads, new ThreadFactoryBuilder()
+                    .setNameFormat("readsInflater-thread-%d")
+                    .setDaemon(true).build());
+        }
+        return inflaterPool;
+    }
+
+    private void shutdownInflaterPool() {
+        if ( inflaterPool != null ) {
+            inflaterPool.shutdownNow();
+            inflaterPool = null;
+        }
+    }
+
     /**
      * Are indices available for all files?
      */
@@ -352,6 +461,27 @@ public final class ReadsPathDataSource implements ReadsDataSource {
         return prepareIteratorsForTraversal(Arrays.asList(interval));
     }
 
+    /**
+     * Query reads overlapping any of a set of intervals in a single pass. The index chunks of all of the intervals
+     * are merged by htsjdk, so that each compressed block is read and inflated only once.
+     * This operation is not affected by prior calls to {@link #setTraversalBounds}
+     *
+     * @param intervals The intervals over which to query
+     * @return Iterator over reads overlapping any of the query intervals, each returned once
+     */
+    @Override
+    public Iterator<GATKRead> queryIntervals( final List<SimpleInterval> intervals ) {
+        Utils.nonNull(intervals);
+        if ( ! indicesAvailable ) {
+            raiseExceptionForMissingIndex("Cannot query reads data source by interval unless all files are indexed");
+        }
+        if ( intervals.isEmpty() ) {
+            return Collections.emptyIterator();
+        }
+
+        return prepareIteratorsForTraversal(intervals);
+    }
+
     /**
      * @return An iterator over just the unmapped reads with no assigned position. This operation is not affected
      *         by prior calls to {@link #setTraversalBounds}. The underlying file must be indexed.
@@ -402,6 +532,15 @@ public final class ReadsPathDataSource implements ReadsDataSource {
 
         final boolean traversalIsBounded = (queryIntervals != null && ! queryIntervals.isEmpty()) || queryUnmapped;
 
+        if ( lazyReadDecoding && ! traversalIsBounded && readers.size() == 1 ) {
+            final SamReader reader = readers.keySet().iterator().next();
+            if ( reader.type().equals(SamReader.Type.BAM_TYPE) ) {
+                lazyReadIterator = new LazyBAMReadIterator(backingPaths.get(reader), dataWrappers.get(reader), reader.getFileHeader(),
+                        inflaterThreads > 0 ? getInflaterPool() : null, inflaterThreads * INFLATER_BLOCKS_AHEAD_PER_THREAD);
+                return lazyReadIterator;
+            }
+        }
+
         // Set up an iterator for each reader, bounded to overlap with the supplied intervals if there are any
         for ( Map.Entry<SamReader, CloseableIterator<SAMRecord>> readerEntry : readers.entrySet() ) {
             if (traversalIsBounded) {
@@ -414,6 +553,10 @@ public final class ReadsPathDataSource implements ReadsDataSource {
                                 queryUnmapped
                         )
                 );
+            } else if ( inflaterThreads > 0 && readerEntry.getKey().type().equals(SamReader.Type.BAM_TYPE) ) {
+                final SamReader reader = readerEntry.getKey();
+                readerEntry.setValue(new ParallelInflatingBAMIterator(backingPaths.get(reader), dataWrappers.get(reader),
+                        reader.getFileHeader(), validationStringency, getInflaterPool(), inflaterThreads * INFLATER_BLOCKS_AHEAD_PER_THREAD));
             } else {
                 readerEntry.setValue(readerEntry.getKey().iterator());
             }
@@ -493,6 +636,7 @@ public final class ReadsPathDataSource implements ReadsDataSource {
         }
         isClosed = true;
         closePreviousIterationsIfNecessary();
+        shutdownInflaterPool();
 
         try {
             for ( Map.Entry<SamReader, CloseableIterator<SAMRecord>> readerEntry : readers.entrySet() ) {
@@ -512,6 +656,10 @@ public final class ReadsPathDataSource implements ReadsDataSource {
      * Close any previously-opened iterations over our readers (htsjdk allows only one open iteration per reader).
      */
     private void closePreviousIterationsIfNecessary() {
+        if ( lazyReadIterator != null ) {
+            lazyReadIterator.close();
+            lazyReadIterator = null;
+        }
         for ( Map.Entry<SamReader, CloseableIterator<SAMRecord>> readerEntry : readers.entrySet() ) {
             CloseableIterator<SAMRecord> readerIterator = readerEntry.getValue();
             if ( readerIterator != null ) {
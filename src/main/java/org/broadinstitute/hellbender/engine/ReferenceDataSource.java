@@ -3,7 +3,9 @@ package org.broadinstitute.hellbender.engine;
 import htsjdk.samtools.SAMSequenceDictionary;
 import htsjdk.samtools.reference.ReferenceSequence;
 import org.broadinstitute.hellbender.utils.SimpleInterval;
+import org.broadinstitute.hellbender.utils.Utils;
 import org.broadinstitute.hellbender.utils.iterators.ByteArrayIterator;
+import org.broadinstitute.hellbender.utils.reference.PackedReferenceImage;
 import org.broadinstitute.hellbender.utils.reference.ReferenceBases;
 
 import java.nio.file.Path;
@@ -21,10 +23,14 @@ public interface ReferenceDataSource extends GATKDataSource<Byte>, AutoCloseable
      *
      * The provided fasta file must have companion .fai and .dict files.
      *
+     * If an up-to-date {@link PackedReferenceImage} of the fasta file is stored next to it (see
+     * {@link PackedReferenceImage#findImageForFasta}), the reference bases are read from the memory-mapped image instead.
+     *
      * @param fastaPath reference fasta Path
      */
     public static ReferenceDataSource of(final Path fastaPath) {
-        return new ReferenceFileSource(fastaPath);
+        final Path imagePath = PackedReferenceImage.findImageForFasta(Utils.nonNull(fastaPath));
+        return imagePath != null ? new ReferenceImageSource(imagePath) : new ReferenceFileSource(fastaPath);
     }
 
     /**
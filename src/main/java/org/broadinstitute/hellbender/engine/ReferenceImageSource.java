@@ -0,0 +1,76 @@
+package org.broadinstitute.hellbender.engine;
+
+import htsjdk.samtools.SAMSequenceDictionary;
+import htsjdk.samtools.reference.ReferenceSequence;
+import org.broadinstitute.hellbender.utils.reference.PackedReferenceImage;
+
+import java.nio.file.Path;
+import java.util.Iterator;
+
+/**
+ * Manages queries over reference data stored in a memory-mapped {@link PackedReferenceImage}.
+ *
+ * Instances over the same image share its bases through the page cache, so they are cheap to create (e.g. one per
+ * thread), and queries do not need to parse the FASTA file. Bases are returned as by a {@link ReferenceFileSource}
+ * in its default mode: in upper case, with IUPAC ambiguity codes converted to N.
+ *
+ * Supports targeted queries over the reference by interval, but does not
+ * yet support complete iteration over the entire reference.
+ */
+public final class ReferenceImageSource implements ReferenceDataSource {
+
+    private final PackedReferenceImage image;
+
+    /**
+     * Initialize this data source using a packed reference image.
+     *
+     * @param imagePath image file, as created by {@link PackedReferenceImage#create}
+     */
+    public ReferenceImageSource(final Path imagePath) {
+        image = new PackedReferenceImage(imagePath);
+    }
+
+    /**
+     * Start an iteration over the entire reference. Not yet supported!
+     *
+     * @return iterator over all bases in this reference
+     */
+    @Override
+    public Iterator<Byte> iterator() {
+        throw new UnsupportedOperationException("Iteration over entire reference not yet implemented");
+    }
+
+    /**
+     * Query a specific interval on this reference, and get back all bases spanning that interval at once.
+     * Call getBases() on the returned ReferenceSequence to get the actual reference bases. See the BaseUtils
+     * class for guidance on how to work with bases in this format.
+     *
+     * @param contig query interval contig
+     * @param start query interval start
+     * @param stop query interval stop
+     * @return a ReferenceSequence containing all bases spanning the query interval, prefetched
+     */
+    @Override
+    public ReferenceSequence queryAndPrefetch( final String contig, final long start , final long stop) {
+        final byte[] bases = image.getBases(contig, start, stop);
+        return new ReferenceSequence(contig, image.getSequenceDictionary().getSequenceIndex(contig), bases);
+    }
+
+    /**
+     * Get the sequence dictionary for this reference
+     *
+     * @return SAMSequenceDictionary for this reference
+     */
+    @Override
+    public SAMSequenceDictionary getSequenceDictionary() {
+        return image.getSequenceDictionary();
+    }
+
+    /**
+     * Permanently close this data source
+     */
+    @Override
+    public void close() {
+        image.close();
+    }
+}
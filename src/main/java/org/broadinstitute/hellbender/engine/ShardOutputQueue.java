@@ -0,0 +1,75 @@
+package org.broadinstitute.hellbender.engine;
+
+import org.broadinstitute.hellbender.exceptions.GATKException;
+import org.broadinstitute.hellbender.utils.Utils;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * Reorder buffer for the results of a single shard during a parallel traversal: filled by the worker thread
+ * processing the shard and drained, in order, by the traversal thread.
+ *
+ * Traversals keep one queue per shard and drain them in shard order, so that tool output is identical to that
+ * of a single-threaded traversal. The queue is bounded, to stall workers that get too far ahead of the shard
+ * currently being emitted.
+ */
+final class ShardOutputQueue {
+    private static final Runnable END_OF_SHARD = () -> { };
+
+    private final BlockingQueue<Runnable> pending;
+    private volatile Throwable failure;
+
+    /**
+     * @param capacity maximum number of tasks waiting to be emitted before {@link #add} blocks. Must be positive.
+     */
+    ShardOutputQueue(final int capacity) {
+        Utils.validateArg(capacity > 0, "capacity must be positive");
+        pending = new ArrayBlockingQueue<>(capacity);
+    }
+
+    /**
+     * Queue a task to be run on the traversal thread, waiting for room if the queue is full.
+     */
+    void add(final Runnable emitter) {
+        try {
+            pending.put(emitter);
+        } catch ( final InterruptedException e ) {
+            Thread.currentThread().interrupt();
+            throw new GATKException("interrupted while waiting to queue shard results", e);
+        }
+    }
+
+    /**
+     * Mark the end of the shard. Must be called exactly once by the worker, after the last {@link #add}.
+     *
+     * @param failure exception that stopped the processing of the shard, or {@code null} if it completed normally
+     */
+    void finish(final Throwable failure) {
+        this.failure = failure;
+        add(END_OF_SHARD);
+    }
+
+    /**
+     * Run the queued tasks on the calling thread until the end of the shard is reached, rethrowing
+     * any failure that happened while processing the shard.
+     */
+    void emitAll() {
+        try {
+            for ( Runnable next = pending.take(); next != END_OF_SHARD; next = pending.take() ) {
+                next.run();
+            }
+        } catch ( final InterruptedException e ) {
+            Thread.currentThread().interrupt();
+            throw new GATKException("interrupted while waiting for shard results", e);
+        }
+
+        if ( failure instanceof RuntimeException ) {
+            throw (RuntimeException) failure;
+        } else if ( failure instanceof Error ) {
+            throw (Error) failure;
+        } else if ( failure != null ) {
+            throw new GATKException("exception when processing shard in parallel", failure);
+        }
+    }
+}
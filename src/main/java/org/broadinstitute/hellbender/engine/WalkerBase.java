@@ -1,6 +1,12 @@
 package org.broadinstitute.hellbender.engine;
 
+import org.broadinstitute.hellbender.engine.filters.CountingReadFilter;
+import org.broadinstitute.hellbender.engine.filters.ReadFilter;
 import org.broadinstitute.hellbender.exceptions.GATKException;
+import org.broadinstitute.hellbender.utils.read.GATKRead;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Base class for pre-packaged walker traversals in the GATK engine.
@@ -65,4 +71,42 @@ public abstract class WalkerBase extends GATKTool {
         throw new GATKException("Should never directly access the engine FeatureManager in walker tool classes " +
                 "outside of the engine package. Walker tools should get their data via apply() instead.");
     }
+
+    /**
+     * In parallel traversals reads are filtered on the worker threads, but {@link CountingReadFilter} is not
+     * thread-safe, so we serialize access to the filter shared by all the workers.
+     */
+    static ReadFilter makeSynchronizedReadFilter(final CountingReadFilter filter) {
+        return new ReadFilter() {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            public boolean test(final GATKRead read) {
+                synchronized (filter) {
+                    return filter.test(read);
+                }
+            }
+        };
+    }
+
+    /**
+     * Wait for all the tasks of a parallel traversal to stop, e.g. after {@link ExecutorService#shutdownNow}, so that
+     * the data sources they use can be closed. Interrupts don't stop the wait, as the tasks may still be using them;
+     * the interrupt status is restored afterwards.
+     */
+    static void awaitTerminationUninterruptibly(final ExecutorService executor) {
+        boolean interrupted = false;
+        while ( true ) {
+            try {
+                if ( executor.awaitTermination(Long.MAX_VALUE, TimeUnit.MILLISECONDS) ) {
+                    break;
+                }
+            } catch ( final InterruptedException e ) {
+                interrupted = true;
+            }
+        }
+        if ( interrupted ) {
+            Thread.currentThread().interrupt();
+        }
+    }
 }
@@ -19,6 +19,7 @@ import picard.cmdline.programgroups.OtherProgramGroup;
 import org.broadinstitute.hellbender.engine.FeatureManager;
 import org.broadinstitute.hellbender.engine.ProgressMeter;
 import org.broadinstitute.hellbender.exceptions.UserException;
+import org.broadinstitute.hellbender.utils.codecs.BinaryGVCFCodec;
 import org.broadinstitute.hellbender.utils.codecs.ProgressReportingDelegatingCodec;
 
 import java.io.IOException;
@@ -110,7 +111,7 @@ public final class IndexFeatureFile extends CommandLineProgram {
             }
             // TODO: detection of GVCF files should not be file-extension-based. Need to come up with canonical
             // TODO: way of detecting GVCFs based on the contents (may require changes to the spec!)
-            else if (featurePath.getURIString().endsWith(GVCF_FILE_EXTENSION)) {
+            else if (featurePath.getURIString().endsWith(GVCF_FILE_EXTENSION) || BinaryGVCFCodec.isBinaryGVCFPath(featurePath.getURIString())) {
                 // Optimize GVCF indices for the use case of having a large number of GVCFs open simultaneously
                 return IndexFactory.createLinearIndex(featurePath.toPath(), codec, OPTIMAL_GVCF_INDEX_BIN_SIZE);
             } else {
@@ -0,0 +1,76 @@
+package org.broadinstitute.hellbender.tools;
+
+import org.broadinstitute.barclay.argparser.Argument;
+import org.broadinstitute.barclay.argparser.CommandLineProgramProperties;
+import org.broadinstitute.barclay.help.DocumentedFeature;
+import picard.cmdline.programgroups.ReferenceProgramGroup;
+import org.broadinstitute.hellbender.cmdline.CommandLineProgram;
+import org.broadinstitute.hellbender.cmdline.StandardArgumentDefinitions;
+import org.broadinstitute.hellbender.utils.io.IOUtils;
+import org.broadinstitute.hellbender.utils.reference.PackedReferenceImage;
+
+/**
+ * Create a packed, memory-mappable image of a reference FASTA file
+ *
+ * <p>The image stores the reference bases 2-bit packed, together with the positions of Ns and the sequence
+ * dictionary. When the image is stored next to the FASTA file (with the default output name), GATK tools given that
+ * FASTA file as reference read the bases from the memory-mapped image instead of parsing the FASTA file. All the
+ * tools running on the same machine then share a single copy of the reference in memory.</p>
+ *
+ * <p>The image holds the bases as GATK tools read them by default: lower-case bases are converted to upper case and
+ * IUPAC ambiguity codes to N; any other base is an error. An image older than its FASTA file, or than the .fai index
+ * or .dict sequence dictionary of that file, is ignored, so it must be recreated whenever any of them changes.</p>
+ *
+ * <h3>Input</h3>
+ *
+ * <ul>
+ *     <li>Reference FASTA file, with its .fai index and .dict sequence dictionary</li>
+ * </ul>
+ *
+ * <h4>Output</h4>
+ *
+ * <ul>
+ *     <li>Packed reference image file</li>
+ * </ul>
+ *
+ * <h3>Usage example</h3>
+ *
+ * <pre>
+ * gatk PackedReferenceImageCreator \
+ *     -I reference.fasta \
+ *     -O reference.fasta.refimg
+ * </pre>
+ *
+ */
+@DocumentedFeature
+@CommandLineProgramProperties(
+        summary = "Create a packed, memory-mappable image of a reference FASTA file for faster reference access by GATK tools",
+        oneLineSummary = "Create a packed, memory-mappable image of a reference FASTA file",
+        programGroup = ReferenceProgramGroup.class
+)
+public final class PackedReferenceImageCreator extends CommandLineProgram {
+
+    @Argument(fullName = StandardArgumentDefinitions.INPUT_LONG_NAME,
+            shortName = StandardArgumentDefinitions.INPUT_SHORT_NAME,
+            doc = "Input reference FASTA file location.")
+    private String referenceFastaLoc = null;
+
+    /**
+     * If not provided, the default image file path will be the same as the reference FASTA with the extension
+     * ".refimg", which is where GATK tools look for an image of their reference.
+     */
+    @Argument(fullName = StandardArgumentDefinitions.OUTPUT_LONG_NAME,
+            shortName = StandardArgumentDefinitions.OUTPUT_SHORT_NAME,
+            doc = "Output packed reference image file (ending in \"" + PackedReferenceImage.IMAGE_EXTENSION + "\").",
+            optional = true)
+    private String referenceImageOutputLoc = null;
+
+    @Override
+    protected final Object doWork() {
+        if (referenceImageOutputLoc == null) {
+            referenceImageOutputLoc = referenceFastaLoc + PackedReferenceImage.IMAGE_EXTENSION;
+        }
+        PackedReferenceImage.create(IOUtils.getPath(referenceFastaLoc), IOUtils.getPath(referenceImageOutputLoc));
+        return null;
+    }
+}
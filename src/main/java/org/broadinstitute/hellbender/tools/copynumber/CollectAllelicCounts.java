@@ -10,6 +10,7 @@ import org.broadinstitute.hellbender.cmdline.programgroups.CoverageAnalysisProgr
 import org.broadinstitute.hellbender.engine.AlignmentContext;
 import org.broadinstitute.hellbender.engine.FeatureContext;
 import org.broadinstitute.hellbender.engine.LocusWalker;
+import org.broadinstitute.hellbender.engine.LocusWorker;
 import org.broadinstitute.hellbender.engine.ReferenceContext;
 import org.broadinstitute.hellbender.engine.filters.MappingQualityReadFilter;
 import org.broadinstitute.hellbender.engine.filters.ReadFilter;
@@ -104,6 +105,7 @@ public final class CollectAllelicCounts extends LocusWalker {
     )
     private int minimumBaseQuality = DEFAULT_MINIMUM_BASE_QUALITY;
 
+    private SampleLocatableMetadata metadata;
     private AllelicCountCollector allelicCountCollector;
 
     @Override
@@ -132,7 +134,7 @@ public final class CollectAllelicCounts extends LocusWalker {
     public void onTraversalStart() {
         validateArguments();
 
-        final SampleLocatableMetadata metadata = MetadataUtils.fromHeader(getHeaderForReads(), Metadata.Type.SAMPLE_LOCATABLE);
+        metadata = MetadataUtils.fromHeader(getHeaderForReads(), Metadata.Type.SAMPLE_LOCATABLE);
         final SAMSequenceDictionary sequenceDictionary = getBestAvailableSequenceDictionary();
         //this check is currently redundant, since the master dictionary is taken from the reads;
         //however, if any other dictionary is added in the future, such a check should be performed
@@ -159,7 +161,40 @@ public final class CollectAllelicCounts extends LocusWalker {
 
     @Override
     public void apply(AlignmentContext alignmentContext, ReferenceContext referenceContext, FeatureContext featureContext) {
+        collectAtLocus(allelicCountCollector, alignmentContext, referenceContext);
+    }
+
+    private void collectAtLocus(final AllelicCountCollector collector, final AlignmentContext alignmentContext, final ReferenceContext referenceContext) {
         final byte refAsByte = referenceContext.getBase();
-        allelicCountCollector.collectAtLocus(Nucleotide.decode(refAsByte), alignmentContext.getBasePileup(), alignmentContext.getLocation(), minimumBaseQuality);
+        collector.collectAtLocus(Nucleotide.decode(refAsByte), alignmentContext.getBasePileup(), alignmentContext.getLocation(), minimumBaseQuality);
+    }
+
+    @Override
+    protected boolean supportsParallelTraversal() {
+        return true;
+    }
+
+    /**
+     * Each worker collects the counts of a contig separately; these are then appended to the tool's collector in
+     * contig order.
+     */
+    @Override
+    protected LocusWorker makeLocusWorker() {
+        return new LocusWorker() {
+            private AllelicCountCollector shardCollector = new AllelicCountCollector(metadata);
+
+            @Override
+            public Runnable processLocus(final AlignmentContext alignmentContext, final ReferenceContext referenceContext, final FeatureContext featureContext) {
+                collectAtLocus(shardCollector, alignmentContext, referenceContext);
+                return null;
+            }
+
+            @Override
+            public Runnable finishShard() {
+                final AllelicCountCollector collector = shardCollector;
+                shardCollector = new AllelicCountCollector(metadata);
+                return () -> allelicCountCollector.collectFromCollector(collector);
+            }
+        };
     }
 }
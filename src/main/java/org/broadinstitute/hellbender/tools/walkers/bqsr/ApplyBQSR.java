@@ -100,6 +100,14 @@ public final class ApplyBQSR extends ReadWalker{
     
     private SAMFileGATKReadWriter outputWriter;
 
+    /**
+     * Each call returns a new, independent transformer, so reads can be recalibrated by several threads.
+     */
+    @Override
+    protected boolean supportsPipelinedTraversal() {
+        return true;
+    }
+
     /**
      * Returns the BQSR post-transformer.
      */
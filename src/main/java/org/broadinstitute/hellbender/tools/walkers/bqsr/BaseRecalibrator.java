@@ -3,6 +3,7 @@ package org.broadinstitute.hellbender.tools.walkers.bqsr;
 import htsjdk.tribble.Feature;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
+import org.broadinstitute.barclay.argparser.Advanced;
 import org.broadinstitute.barclay.argparser.Argument;
 import org.broadinstitute.barclay.argparser.ArgumentCollection;
 import org.broadinstitute.barclay.argparser.CommandLineProgramProperties;
@@ -15,18 +16,26 @@ import org.broadinstitute.hellbender.engine.*;
 import org.broadinstitute.hellbender.engine.filters.ReadFilter;
 import org.broadinstitute.hellbender.engine.filters.ReadFilterLibrary;
 import org.broadinstitute.hellbender.engine.filters.WellformedReadFilter;
+import org.broadinstitute.hellbender.exceptions.GATKException;
 import org.broadinstitute.hellbender.exceptions.UserException;
 import org.broadinstitute.hellbender.utils.Utils;
 import org.broadinstitute.hellbender.utils.read.GATKRead;
 import org.broadinstitute.hellbender.utils.recalibration.BaseRecalibrationEngine;
+import org.broadinstitute.hellbender.utils.recalibration.ConcurrentRecalibrationTables;
 import org.broadinstitute.hellbender.utils.recalibration.QuantizationInfo;
 import org.broadinstitute.hellbender.utils.recalibration.RecalUtils;
 import org.broadinstitute.hellbender.utils.recalibration.RecalibrationArgumentCollection;
+import org.broadinstitute.hellbender.utils.recalibration.covariates.StandardCovariateList;
 import picard.cmdline.programgroups.ReadDataManipulationProgramGroup;
 
 import java.io.PrintStream;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
 
 /**
  * First pass of the base quality score recalibration.
@@ -89,6 +98,7 @@ public final class BaseRecalibrator extends ReadWalker {
             "(such as read group, reported quality score, machine cycle, and nucleotide context).";
 
     public static final String KNOWN_SITES_ARG_FULL_NAME = "known-sites";
+    public static final String BQSR_THREADS_LONG_NAME = "bqsr-threads";
 
     protected static final Logger logger = LogManager.getLogger(BaseRecalibrator.class);
 
@@ -119,6 +129,20 @@ public final class BaseRecalibrator extends ReadWalker {
     @WorkflowOutput
     private GATKPath recalTableFile = null;
 
+    /**
+     * Number of threads used to process reads. With more than one thread, all the threads accumulate their statistics
+     * into a single set of shared tables. The resulting report is the same as with a single thread, except that
+     * fractional numbers of mismatches (with --enable-baq) may differ by rounding errors in the last digits.
+     */
+    @Advanced
+    @Argument(fullName = BQSR_THREADS_LONG_NAME, doc = "Number of threads used to accumulate the recalibration tables", optional = true, minValue = 1)
+    private int bqsrThreads = 1;
+
+    /**
+     * Number of reads handed over to a worker thread at a time when using multiple threads
+     */
+    private static final int READS_PER_BATCH = 1000;
+
     private BaseRecalibrationEngine recalibrationEngine;
 
     private ReferenceDataSource referenceDataSource; // datasource for the reference. We're using a different one from the engine itself to avoid messing with its caches.
@@ -128,6 +152,13 @@ public final class BaseRecalibrator extends ReadWalker {
      */
     private QuantizationInfo quantizationInfo = null;
 
+    // state of the multi-threaded mode (bqsrThreads > 1)
+    private ThreadPoolExecutor workerPool;
+    private BlockingQueue<RecalibrationWorker> idleWorkers;
+    private List<RecalibrationWorker> workers;
+    private ReadBatch pendingBatch;
+    private final AtomicReference<Throwable> workerFailure = new AtomicReference<>();
+
     @Override
     public boolean requiresReference() {
         return true;
@@ -145,11 +176,40 @@ public final class BaseRecalibrator extends ReadWalker {
 
         Utils.warnOnNonIlluminaReadGroups(getHeaderForReads(), logger);
 
-        recalibrationEngine = new BaseRecalibrationEngine(recalArgs, getHeaderForReads());
+        if ( bqsrThreads > 1 ) {
+            startWorkers();
+        } else {
+            recalibrationEngine = new BaseRecalibrationEngine(recalArgs, getHeaderForReads());
+        }
         recalibrationEngine.logCovariatesUsed();
         referenceDataSource = ReferenceDataSource.of(referenceArguments.getReferencePath());
     }
 
+    /**
+     * Set up {@link #bqsrThreads} workers, each with its own engine and reference, that accumulate their statistics
+     * into tables shared with {@link #recalibrationEngine}.
+     *
+     * Reads are processed in batches, queued in a bounded queue: when the queue is full, the traversal thread
+     * processes the batch itself, which keeps it from getting too far ahead of the workers.
+     */
+    private void startWorkers() {
+        final StandardCovariateList covariates = new StandardCovariateList(recalArgs, getHeaderForReads());
+        final ConcurrentRecalibrationTables sharedTables = new ConcurrentRecalibrationTables(covariates, getHeaderForReads().getReadGroups().size());
+        recalibrationEngine = new BaseRecalibrationEngine(recalArgs, getHeaderForReads(), sharedTables);
+
+        logger.info("Processing reads using " + bqsrThreads + " threads");
+        workers = new ArrayList<>(bqsrThreads);
+        idleWorkers = new ArrayBlockingQueue<>(bqsrThreads);
+        for ( int i = 0; i < bqsrThreads; i++ ) {
+            final RecalibrationWorker worker = new RecalibrationWorker(sharedTables);
+            workers.add(worker);
+            idleWorkers.add(worker);
+        }
+        workerPool = new ThreadPoolExecutor(bqsrThreads, bqsrThreads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(2 * bqsrThreads), new ThreadPoolExecutor.CallerRunsPolicy());
+        pendingBatch = new ReadBatch();
+    }
+
     @Override
     public List<ReadFilter> getDefaultReadFilters() {
         return getStandardBQSRReadFilterList();
@@ -186,11 +246,72 @@ public final class BaseRecalibrator extends ReadWalker {
      */
     @Override
     public void apply( GATKRead read, ReferenceContext ref, FeatureContext featureContext ) {
-        recalibrationEngine.processRead(read, referenceDataSource, featureContext.getValues(knownSites));
+        if ( workerPool == null ) {
+            recalibrationEngine.processRead(read, referenceDataSource, featureContext.getValues(knownSites));
+            return;
+        }
+
+        // the feature context can only be queried from the traversal thread
+        pendingBatch.add(read, featureContext.getValues(knownSites));
+        if ( pendingBatch.size() >= READS_PER_BATCH ) {
+            submitPendingBatch();
+        }
+    }
+
+    private void submitPendingBatch() {
+        checkForWorkerFailure();
+        final ReadBatch batch = pendingBatch;
+        pendingBatch = new ReadBatch();
+        workerPool.execute(() -> {
+            try {
+                final RecalibrationWorker worker = idleWorkers.take();
+                try {
+                    worker.process(batch);
+                } finally {
+                    idleWorkers.add(worker);
+                }
+            } catch ( final InterruptedException e ) {
+                Thread.currentThread().interrupt();
+                workerFailure.compareAndSet(null, e);
+            } catch ( final Throwable e ) {
+                workerFailure.compareAndSet(null, e);
+            }
+        });
+    }
+
+    /**
+     * Process the last batch of reads and wait for all the workers to finish.
+     */
+    private void finishWorkers() {
+        submitPendingBatch();
+        workerPool.shutdown();
+        try {
+            workerPool.awaitTermination(Long.MAX_VALUE, TimeUnit.MILLISECONDS);
+        } catch ( final InterruptedException e ) {
+            Thread.currentThread().interrupt();
+            throw new GATKException("Interrupted while waiting for the recalibration threads to finish", e);
+        }
+        checkForWorkerFailure();
+    }
+
+    private void checkForWorkerFailure() {
+        final Throwable failure = workerFailure.get();
+        if ( failure instanceof RuntimeException ) {
+            throw (RuntimeException) failure;
+        } else if ( failure instanceof Error ) {
+            throw (Error) failure;
+        } else if ( failure != null ) {
+            throw new GATKException("Failure while processing reads in a recalibration thread", failure);
+        }
     }
 
     @Override
     public Object onTraversalSuccess() {
+        long numReadsProcessed = recalibrationEngine.getNumReadsProcessed();
+        if ( workerPool != null ) {
+            finishWorkers();
+            numReadsProcessed = workers.stream().mapToLong(worker -> worker.engine.getNumReadsProcessed()).sum();
+        }
         recalibrationEngine.finalizeData();
 
         logger.info("Calculating quantized quality scores...");
@@ -200,10 +321,18 @@ public final class BaseRecalibrator extends ReadWalker {
         generateReport();
         logger.info("...done!");
 
-        logger.info("BaseRecalibrator was able to recalibrate " + recalibrationEngine.getNumReadsProcessed() + " reads");
+        logger.info("BaseRecalibrator was able to recalibrate " + numReadsProcessed + " reads");
         return "SUCCESS";
     }
 
+    @Override
+    public void closeTool() {
+        if ( workerPool != null ) {
+            workerPool.shutdownNow();
+            workers.forEach(RecalibrationWorker::close);
+        }
+    }
+
     /**
      * go through the quality score table and use the # observations and the empirical quality score
      * to build a quality score histogram for quantization. Then use the QuantizeQual algorithm to
@@ -221,4 +350,45 @@ public final class BaseRecalibrator extends ReadWalker {
             RecalUtils.outputRecalibrationReport(recalTableStream, recalArgs, quantizationInfo, recalibrationEngine.getFinalRecalibrationTables(), recalibrationEngine.getCovariates());
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * A batch of reads with the known sites overlapping each of them.
+     */
+    private static final class ReadBatch {
+        private final List<GATKRead> reads = new ArrayList<>(READS_PER_BATCH);
+        private final List<List<Feature>> knownSites = new ArrayList<>(READS_PER_BATCH);
+
+        private void add(final GATKRead read, final List<Feature> readKnownSites) {
+            reads.add(read);
+            knownSites.add(readKnownSites);
+        }
+
+        private int size() {
+            return reads.size();
+        }
+    }
+
+    /**
+     * Per-thread state of the multi-threaded mode: an engine accumulating into the shared tables, and a reference.
+     */
+    private final class RecalibrationWorker implements AutoCloseable {
+        private final BaseRecalibrationEngine engine;
+        private final ReferenceDataSource reference;
+
+        private RecalibrationWorker(final ConcurrentRecalibrationTables sharedTables) {
+            engine = new BaseRecalibrationEngine(recalArgs, getHeaderForReads(), sharedTables);
+            reference = ReferenceDataSource.of(referenceArguments.getReferencePath());
+        }
+
+        private void process(final ReadBatch batch) {
+            for ( int i = 0; i < batch.size(); i++ ) {
+                engine.processRead(batch.reads.get(i), reference, batch.knownSites.get(i));
+            }
+        }
+
+        @Override
+        public void close() {
+            reference.close();
+        }
+    }
+}
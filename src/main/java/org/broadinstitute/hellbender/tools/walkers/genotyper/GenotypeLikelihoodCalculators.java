@@ -9,8 +9,9 @@ import org.apache.logging.log4j.Logger;
 import java.util.Arrays;
 
 /**
- * Genotype likelihood calculator utility. This class is thread-safe since access to shared mutable state is
- * synchronized.
+ * Genotype likelihood calculator utility. This class is thread-safe: the shared tables are immutable once built and
+ * are published through a volatile reference, so that looking up calculators and genotype counts doesn't lock. Only
+ * growing the tables to a larger ploidy or allele count is synchronized, and replaces them with larger ones.
  *
  * <p>
  *     This class provide genotype likelihood calculators with any number of alleles able given an arbitrary ploidy and allele
@@ -22,13 +23,20 @@ public final class GenotypeLikelihoodCalculators {
     private static final Logger logger = LogManager.getLogger(GenotypeLikelihoodCalculators.class);
 
     /**
-     * The current maximum ploidy supported by the tables.
+     * The initial maximum ploidy supported by the tables.
      * <p>
-     *     Its initial value indicates the initial capacity of the shared {@link #genotypeTableByPloidy}. Feel free
-     *     to change it to anything reasonable that is non-negative.
+     *     Feel free to change it to anything reasonable that is non-negative.
+     * </p>
+     */
+    private static final int INITIAL_MAXIMUM_PLOIDY = 2;
+
+    /**
+     * The initial maximum allele index supported by the tables.
+     * <p>
+     *     Feel free to change it to anything reasonable that is non-negative.
      * </p>
      */
-    private int maximumPloidy = 2; // its initial value is the initial capacity of the shared tables.
+    private static final int INITIAL_MAXIMUM_ALLELE = 1;
 
     /**
      * Maximum possible number of genotypes that this calculator can handle.
@@ -41,35 +49,56 @@ public final class GenotypeLikelihoodCalculators {
     static final int GENOTYPE_COUNT_OVERFLOW = -1;
 
     /**
-     * The current maximum allele index supported by the tables.
+     * Shared tables, the largest requested so far in terms of maximum-allele and maximum-ploidy.
      * <p>
-     *     Its initial value indicates the initial capacity of the shared {@link #alleleFirstGenotypeOffsetByPloidy} table.
-     *     Feel free to change it to anything reasonable that is non-negative.
+     *     The tables referenced are never modified, so any thread can use the ones it reads without locking.
      * </p>
      */
-    private int maximumAllele = 1; // its initial value is the initial capacity of the shared tables.
+    private volatile Tables tables = new Tables(INITIAL_MAXIMUM_PLOIDY, INITIAL_MAXIMUM_ALLELE);
 
-    /**
-     * Shared copy of the offset table as described in {@link #buildGenotypeAlleleCountsTable(int, int, int[][])}.
-     *
-     * This reference holds the largest requested so far in terms of maximum-allele and maximum-ploidy.
-     */
-    private int[][] alleleFirstGenotypeOffsetByPloidy =
-            buildAlleleFirstGenotypeOffsetTable(maximumPloidy, maximumAllele);
+    public GenotypeLikelihoodCalculators(){
 
+    }
 
     /**
-     * Shared table of genotypes give the ploidy sorted by their index in the likelihood array.
-     *
-     * <p>
-     *  Its format is described in {@link #buildGenotypeAlleleCountsTable(int, int, int[][])}.
-     * </p>
+     * Immutable offset and genotype tables supporting up to a maximum ploidy and allele index.
      */
-    private GenotypeAlleleCounts[][] genotypeTableByPloidy =
-            buildGenotypeAlleleCountsTable(maximumPloidy,maximumAllele,alleleFirstGenotypeOffsetByPloidy);
-
-    public GenotypeLikelihoodCalculators(){
+    private static final class Tables {
+
+        /**
+         * The maximum ploidy supported by the tables.
+         */
+        private final int maximumPloidy;
+
+        /**
+         * The maximum allele index supported by the tables.
+         */
+        private final int maximumAllele;
+
+        /**
+         * Offset table as described in {@link #buildAlleleFirstGenotypeOffsetTable(int, int)}.
+         */
+        private final int[][] alleleFirstGenotypeOffsetByPloidy;
+
+        /**
+         * Table of genotypes give the ploidy sorted by their index in the likelihood array.
+         *
+         * <p>
+         *  Its format is described in {@link #buildGenotypeAlleleCountsTable(int, int, int[][])}.
+         * </p>
+         */
+        private final GenotypeAlleleCounts[][] genotypeTableByPloidy;
+
+        private Tables(final int maximumPloidy, final int maximumAllele) {
+            this.maximumPloidy = maximumPloidy;
+            this.maximumAllele = maximumAllele;
+            alleleFirstGenotypeOffsetByPloidy = buildAlleleFirstGenotypeOffsetTable(maximumPloidy, maximumAllele);
+            genotypeTableByPloidy = buildGenotypeAlleleCountsTable(maximumPloidy, maximumAllele, alleleFirstGenotypeOffsetByPloidy);
+        }
 
+        private boolean supports(final int ploidy, final int allele) {
+            return ploidy <= maximumPloidy && allele <= maximumAllele;
+        }
     }
 
     /**
@@ -258,23 +287,24 @@ public final class GenotypeLikelihoodCalculators {
      *
      * @return never {@code null}.
      */
-    public synchronized GenotypeLikelihoodCalculator getInstance(final int ploidy, final int alleleCount) {
-        calculateGenotypeCountsUsingTablesAndValidate(ploidy, alleleCount);
+    public GenotypeLikelihoodCalculator getInstance(final int ploidy, final int alleleCount) {
+        final Tables tables = getTablesAndValidateGenotypeCount(ploidy, alleleCount);
 
         // At this point the tables must have at least the requested capacity, likely to be much more.
-        return new GenotypeLikelihoodCalculator(ploidy, alleleCount, alleleFirstGenotypeOffsetByPloidy, genotypeTableByPloidy);
+        return new GenotypeLikelihoodCalculator(ploidy, alleleCount, tables.alleleFirstGenotypeOffsetByPloidy, tables.genotypeTableByPloidy);
     }
 
     /**
-     * Calculate genotype counts using the tables and validate that there is no overflow
+     * Get tables supporting the ploidy and allele count, and validate that the genotype count doesn't overflow
      */
-    private synchronized void calculateGenotypeCountsUsingTablesAndValidate(final int ploidy, final int alleleCount) {
-        checkPloidyAndMaximumAllele(ploidy, alleleCount);
+    private Tables getTablesAndValidateGenotypeCount(final int ploidy, final int alleleCount) {
+        final Tables tables = getTables(ploidy, alleleCount);
 
-        if (calculateGenotypeCountUsingTables(ploidy, alleleCount) == GENOTYPE_COUNT_OVERFLOW) {
+        if (tables.alleleFirstGenotypeOffsetByPloidy[ploidy][alleleCount] == GENOTYPE_COUNT_OVERFLOW) {
             final double largeGenotypeCount = Math.pow(10, MathUtils.log10BinomialCoefficient(ploidy + alleleCount - 1, alleleCount - 1));
             throw new IllegalArgumentException(String.format("the number of genotypes is too large for ploidy %d and allele %d: approx. %.0f", ploidy, alleleCount, largeGenotypeCount));
         }
+        return tables;
     }
 
     /**
@@ -287,45 +317,58 @@ public final class GenotypeLikelihoodCalculators {
      *
      * @return never {@code null}.
      */
-    public synchronized GenotypeLikelihoodCalculatorDRAGEN getInstanceDRAGEN(final int ploidy, final int alleleCount) {
+    public GenotypeLikelihoodCalculatorDRAGEN getInstanceDRAGEN(final int ploidy, final int alleleCount) {
         Utils.validate(ploidy == 2, "DRAGEN genotyping mode currently only supports diploid samples");
-        calculateGenotypeCountsUsingTablesAndValidate(ploidy, alleleCount);
+        final Tables tables = getTablesAndValidateGenotypeCount(ploidy, alleleCount);
 
         // At this point the tables must have at least the requested capacity, likely to be much more.
-        return new GenotypeLikelihoodCalculatorDRAGEN(ploidy, alleleCount, alleleFirstGenotypeOffsetByPloidy, genotypeTableByPloidy);
+        return new GenotypeLikelihoodCalculatorDRAGEN(ploidy, alleleCount, tables.alleleFirstGenotypeOffsetByPloidy, tables.genotypeTableByPloidy);
     }
 
 
+    /**
+     * Returns shared tables that support the requested ploidy and allele index.
+     * <p>
+     *     The current tables are returned without locking if they are large enough, which is nearly always the case
+     *     after the first few requests; otherwise they are replaced with larger ones.
+     * </p>
+     *
+     * @param ploidy the requested ploidy.
+     * @param allele the requested allele index.
+     *
+     * @throws IllegalArgumentException if either value is negative.
+     *
+     * @return never {@code null}.
+     */
+    private Tables getTables(final int ploidy, final int allele) {
+        checkPloidyAndMaximumAllele(ploidy, allele);
+        final Tables current = tables;
+        return current.supports(ploidy, allele) ? current : ensureCapacity(allele, ploidy);
+    }
+
     /**
      * Update of shared tables.
      *
      * @param requestedMaximumAllele the new requested maximum allele maximum.
      * @param requestedMaximumPloidy the new requested ploidy maximum.
+     *
+     * @return the updated tables, never {@code null}.
      */
-    private synchronized void ensureCapacity(final int requestedMaximumAllele, final int requestedMaximumPloidy) {
-
-        final boolean needsToExpandAlleleCapacity = requestedMaximumAllele > maximumAllele;
-        final boolean needsToExpandPloidyCapacity = requestedMaximumPloidy > maximumPloidy;
-
-        if (!needsToExpandAlleleCapacity && !needsToExpandPloidyCapacity) {
-            return;
+    private synchronized Tables ensureCapacity(final int requestedMaximumAllele, final int requestedMaximumPloidy) {
+        final Tables current = tables;
+        // another thread may have expanded the tables while we were waiting for the lock
+        if (current.supports(requestedMaximumPloidy, requestedMaximumAllele)) {
+            return current;
         }
 
-        final int newMaximumPloidy = Math.max(maximumPloidy, requestedMaximumPloidy);
-        final int newMaximumAllele = Math.max(maximumAllele, requestedMaximumAllele);
-
-        logger.debug("Expanding capacity ploidy:" + maximumPloidy + "->" + newMaximumPloidy + " allele:" +  maximumAllele +"->" + newMaximumAllele );
+        final int newMaximumPloidy = Math.max(current.maximumPloidy, requestedMaximumPloidy);
+        final int newMaximumAllele = Math.max(current.maximumAllele, requestedMaximumAllele);
 
-        // Update tables first.
-        alleleFirstGenotypeOffsetByPloidy = buildAlleleFirstGenotypeOffsetTable(newMaximumPloidy,newMaximumAllele);
-        genotypeTableByPloidy = buildGenotypeAlleleCountsTable(newMaximumPloidy,newMaximumAllele,alleleFirstGenotypeOffsetByPloidy);
+        logger.debug("Expanding capacity ploidy:" + current.maximumPloidy + "->" + newMaximumPloidy + " allele:" +  current.maximumAllele +"->" + newMaximumAllele );
 
-        if (needsToExpandAlleleCapacity) {
-            maximumAllele = requestedMaximumAllele;
-        }
-        if (needsToExpandPloidyCapacity) {
-            maximumPloidy = requestedMaximumPloidy;
-        }
+        final Tables expanded = new Tables(newMaximumPloidy, newMaximumAllele);
+        tables = expanded;
+        return expanded;
     }
 
     /**
@@ -409,9 +452,7 @@ public final class GenotypeLikelihoodCalculators {
         throw new GATKException("Code should never reach here.");
     }
 
-    private synchronized int calculateGenotypeCountUsingTables(int ploidy, int alleleCount) {
-        checkPloidyAndMaximumAllele(ploidy, alleleCount);
-        ensureCapacity(alleleCount, ploidy);
-        return alleleFirstGenotypeOffsetByPloidy[ploidy][alleleCount];
+    private int calculateGenotypeCountUsingTables(final int ploidy, final int alleleCount) {
+        return getTables(ploidy, alleleCount).alleleFirstGenotypeOffsetByPloidy[ploidy][alleleCount];
     }
 }
\ No newline at end of file
@@ -1,9 +1,11 @@
 package org.broadinstitute.hellbender.tools.walkers.haplotypecaller;
 
 import htsjdk.samtools.SAMSequenceDictionary;
+import htsjdk.variant.variantcontext.VariantContext;
 import htsjdk.variant.variantcontext.writer.VariantContextWriter;
 import org.broadinstitute.barclay.argparser.Argument;
 import org.broadinstitute.barclay.argparser.ArgumentCollection;
+import org.broadinstitute.barclay.argparser.CommandLineException;
 import org.broadinstitute.barclay.argparser.CommandLineProgramProperties;
 import org.broadinstitute.barclay.help.DocumentedFeature;
 import org.broadinstitute.hellbender.cmdline.GATKPlugin.GATKReadFilterPluginDescriptor;
@@ -11,6 +13,7 @@ import org.broadinstitute.hellbender.cmdline.StandardArgumentDefinitions;
 import org.broadinstitute.hellbender.cmdline.argumentcollections.ReferenceInputArgumentCollection;
 import org.broadinstitute.hellbender.cmdline.programgroups.ShortVariantDiscoveryProgramGroup;
 import org.broadinstitute.hellbender.engine.*;
+import org.broadinstitute.hellbender.engine.spark.AssemblyRegionWalkerContext;
 import org.broadinstitute.hellbender.engine.filters.MappingQualityReadFilter;
 import org.broadinstitute.hellbender.engine.filters.ReadFilter;
 import org.broadinstitute.hellbender.tools.walkers.annotator.Annotation;
@@ -23,6 +26,7 @@ import org.broadinstitute.hellbender.utils.fasta.CachingIndexedFastaSequenceFile
 import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Collectors;
 
 
 /**
@@ -254,9 +258,15 @@ public final class HaplotypeCaller extends AssemblyRegionWalker {
             assemblyRegionArgs.indelPaddingForGenotyping = 150;
         }
 
-        final VariantAnnotatorEngine variantAnnotatorEngine = new VariantAnnotatorEngine(makeVariantAnnotations(),
-                hcArgs.dbsnp.dbsnp, hcArgs.comps,  hcArgs.emitReferenceConfidence != ReferenceConfidenceMode.NONE, false);
-        hcEngine = new HaplotypeCallerEngine(hcArgs, assemblyRegionArgs, createOutputBamIndex, createOutputBamMD5, getHeaderForReads(), getReferenceReader(referenceArguments), variantAnnotatorEngine);
+        if (assemblyRegionThreads > 1) {
+            validateParallelTraversalArgs();
+        }
+
+        if (hcArgs.likelihoodArgs.pairHMMLikelihoodCacheSize > 0) {
+            progressMeter.addStatistic("PairHMM Cache Hits", PairHMMLikelihoodCache::getTotalHitRateString);
+        }
+
+        hcEngine = makeHaplotypeCallerEngine();
 
         // The HC engine will make the right kind (VCF or GVCF) of writer for us
         final SAMSequenceDictionary sequenceDictionary = getHeaderForReads().getSequenceDictionary();
@@ -264,6 +274,25 @@ public final class HaplotypeCaller extends AssemblyRegionWalker {
         hcEngine.writeHeader(vcfWriter, sequenceDictionary, getDefaultToolVCFHeaderLines());
     }
 
+    private HaplotypeCallerEngine makeHaplotypeCallerEngine() {
+        final VariantAnnotatorEngine variantAnnotatorEngine = new VariantAnnotatorEngine(makeVariantAnnotations(),
+                hcArgs.dbsnp.dbsnp, hcArgs.comps,  hcArgs.emitReferenceConfidence != ReferenceConfidenceMode.NONE, false);
+        return new HaplotypeCallerEngine(hcArgs, assemblyRegionArgs, createOutputBamIndex, createOutputBamMD5, getHeaderForReads(), getReferenceReader(referenceArguments), variantAnnotatorEngine);
+    }
+
+    /**
+     * Debug outputs are written directly by each engine rather than through the emitted results, so they cannot be
+     * shared among the per-thread engines used in parallel traversal.
+     */
+    private void validateParallelTraversalArgs() {
+        if (hcArgs.bamOutputPath != null || hcArgs.assemblyStateOutput != null || hcArgs.genotyperDebugOutStream != null ||
+                hcArgs.assemblerArgs.graphOutput != null || hcArgs.assemblerArgs.haplotypeHistogramOutput != null ||
+                hcArgs.assemblerArgs.debugGraphTransformations || hcArgs.assemblerArgs.captureAssemblyFailureBAM) {
+            throw new CommandLineException.BadArgumentValue(ASSEMBLY_REGION_THREADS_LONG_NAME, Integer.toString(assemblyRegionThreads),
+                    "bam output and assembly/genotyper debug outputs are not supported with parallel traversal");
+        }
+    }
+
     private static CachingIndexedFastaSequenceFile getReferenceReader(ReferenceInputArgumentCollection referenceArguments) {
         return new CachingIndexedFastaSequenceFile(referenceArguments.getReferenceSpecifier());
     }
@@ -273,6 +302,44 @@ public final class HaplotypeCaller extends AssemblyRegionWalker {
         hcEngine.callRegion(region, featureContext, referenceContext).forEach(vcfWriter::add);
     }
 
+    @Override
+    protected boolean supportsParallelTraversal() { return true; }
+
+    /**
+     * Each worker gets its own {@link HaplotypeCallerEngine} (assembler, PairHMM, genotyper and reference reader);
+     * only the VCF writer, which is called on the traversal thread, is shared.
+     */
+    @Override
+    protected AssemblyRegionWorker makeAssemblyRegionWorker() {
+        final HaplotypeCallerEngine workerEngine = makeHaplotypeCallerEngine();
+        return new AssemblyRegionWorker() {
+            @Override
+            public AssemblyRegionEvaluator assemblyRegionEvaluator() {
+                return workerEngine;
+            }
+
+            @Override
+            public Runnable processRegion(final AssemblyRegion region, final ReferenceContext referenceContext, final FeatureContext featureContext) {
+                final List<VariantContext> calls = workerEngine.callRegion(region, featureContext, referenceContext);
+                return () -> calls.forEach(vcfWriter::add);
+            }
+
+            /**
+             * The read likelihoods of all the regions of the batch are computed together by the engine.
+             */
+            @Override
+            public List<Runnable> processRegions(final List<AssemblyRegionWalkerContext> regions) {
+                final List<List<VariantContext>> calls = workerEngine.callRegions(regions);
+                return calls.stream().<Runnable>map(regionCalls -> () -> regionCalls.forEach(vcfWriter::add)).collect(Collectors.toList());
+            }
+
+            @Override
+            public void close() {
+                workerEngine.shutdown();
+            }
+        };
+    }
+
     @Override
     public void closeTool() {
         if ( vcfWriter != null ) {
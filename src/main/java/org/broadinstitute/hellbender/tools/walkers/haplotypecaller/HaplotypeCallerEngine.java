@@ -17,6 +17,7 @@ import org.broadinstitute.hellbender.engine.filters.ReadFilter;
 import org.broadinstitute.hellbender.engine.filters.ReadFilterLibrary;
 import org.broadinstitute.hellbender.engine.filters.WellformedReadFilter;
 import org.broadinstitute.hellbender.engine.spark.AssemblyRegionArgumentCollection;
+import org.broadinstitute.hellbender.engine.spark.AssemblyRegionWalkerContext;
 import org.broadinstitute.hellbender.exceptions.UserException;
 import org.broadinstitute.hellbender.tools.walkers.annotator.*;
 import org.broadinstitute.hellbender.tools.walkers.genotyper.*;
@@ -60,7 +61,7 @@ import java.util.stream.Collectors;
  * -Get the appropriate VCF or GVCF writer (depending on our arguments) from {@link #makeVCFWriter}
  * -Write the appropriate VCF header via {@link #writeHeader}
  * -Repeatedly call {@link #isActive} to identify active vs. inactive regions
- * -Repeatedly call {@link #callRegion} to call variants in each region, and add them to your writer
+ * -Repeatedly call {@link #callRegion} (or {@link #callRegions} for batches of regions) to call variants in each region, and add them to your writer
  * -When done, call {@link #shutdown}. Close the writer you got from {@link #makeVCFWriter} yourself.
  */
 public final class HaplotypeCallerEngine implements AssemblyRegionEvaluator {
@@ -528,9 +529,50 @@ public final class HaplotypeCallerEngine implements AssemblyRegionEvaluator {
      * @return List of variants discovered in the region (may be empty)
      */
     public List<VariantContext> callRegion(final AssemblyRegion region, final FeatureContext features, final ReferenceContext referenceContext) {
+        return callRegions(Collections.singletonList(new AssemblyRegionWalkerContext(region, referenceContext, features))).get(0);
+    }
+
+    /**
+     * Generate variant calls for a batch of assembly regions.
+     *
+     * Gives the same results as calling {@link #callRegion} on each region in turn, but the read likelihoods of all
+     * the regions are computed with a single call to the likelihood calculation engine, which amortizes its per-call
+     * overhead when the regions are small. Regions are genotyped in the order given.
+     *
+     * @param regions the regions to assemble and perform variant calling on, with their reference and feature contexts
+     * @return the variants discovered in each region (each list may be empty), in the same order as {@code regions}
+     */
+    public List<List<VariantContext>> callRegions(final List<AssemblyRegionWalkerContext> regions) {
+        Utils.nonNull(regions, "regions is null");
+        final List<RegionCallingState> states = new ArrayList<>(regions.size());
+        for (final AssemblyRegionWalkerContext context : regions) {
+            states.add(prepareRegionForLikelihoods(context.getAssemblyRegion(), context.getFeatureContext(), context.getReferenceContext()));
+        }
+
+        final List<RegionCallingState> needLikelihoods = states.stream().filter(state -> state.calls == null).collect(Collectors.toList());
+        if ( ! needLikelihoods.isEmpty() ) {
+            // Calculate the likelihoods: CPU intensive part.
+            final List<AlleleLikelihoods<GATKRead, Haplotype>> readLikelihoods = likelihoodCalculationEngine.computeReadLikelihoods(
+                    needLikelihoods.stream().map(state -> state.assemblyResult).collect(Collectors.toList()), samplesList,
+                    needLikelihoods.stream().map(state -> state.reads).collect(Collectors.toList()));
+            for (int i = 0; i < needLikelihoods.size(); i++) {
+                final RegionCallingState state = needLikelihoods.get(i);
+                state.calls = genotypeRegion(state, readLikelihoods.get(i));
+            }
+        }
+        return states.stream().map(state -> state.calls).collect(Collectors.toList());
+    }
+
+    /**
+     * First half of the calling of an assembly region, up to the computation of its read likelihoods: assemble the
+     * region and trim it to the variation found.
+     *
+     * @return the state of the region; if it does not need to be genotyped, with its final calls already set.
+     */
+    private RegionCallingState prepareRegionForLikelihoods(final AssemblyRegion region, final FeatureContext features, final ReferenceContext referenceContext) {
         if ( hcArgs.justDetermineActiveRegions ) {
             // we're benchmarking ART and/or the active region determination code in the HC, just leave without doing any work
-            return NO_CALLS;
+            return new RegionCallingState(NO_CALLS);
         }
         if (HaplotypeCallerGenotypingDebugger.isEnabled()) {
             HaplotypeCallerGenotypingDebugger.println("calling for region: " +region.getSpan());
@@ -547,7 +589,7 @@ public final class HaplotypeCallerEngine implements AssemblyRegionEvaluator {
 
         if( ! region.isActive() ) {
             // Not active so nothing to do!
-            return referenceModelForNoVariation(region, true, VCpriors);
+            return new RegionCallingState(referenceModelForNoVariation(region, true, VCpriors));
         }
 
         final List<VariantContext> givenAlleles = features.getValues(hcArgs.alleles).stream()
@@ -555,7 +597,7 @@ public final class HaplotypeCallerEngine implements AssemblyRegionEvaluator {
 
         if( givenAlleles.isEmpty() && region.size() == 0 ) {
             // No reads here so nothing to do!
-            return referenceModelForNoVariation(region, true, VCpriors);
+            return new RegionCallingState(referenceModelForNoVariation(region, true, VCpriors));
         }
 
         if (assemblyDebugOutStream != null) {
@@ -589,7 +631,7 @@ public final class HaplotypeCallerEngine implements AssemblyRegionEvaluator {
         final AssemblyRegionTrimmer.Result trimmingResult = trimmer.trim(region, allVariationEvents, referenceContext);
 
         if ( ! trimmingResult.isVariationPresent() && ! hcArgs.disableOptimizations ) {
-            return referenceModelForNoVariation(region, false, VCpriors);
+            return new RegionCallingState(referenceModelForNoVariation(region, false, VCpriors));
         }
 
         final AssemblyResultSet assemblyResult = untrimmedAssemblyResult.trimTo(trimmingResult.getVariantRegion());
@@ -610,18 +652,18 @@ public final class HaplotypeCallerEngine implements AssemblyRegionEvaluator {
         // abort early if something is out of the acceptable range
         // TODO is this ever true at this point??? perhaps GGA. Need to check.
         if( ! assemblyResult.isVariationPresent() && ! hcArgs.disableOptimizations ) {
-            return referenceModelForNoVariation(region, false, VCpriors);
+            return new RegionCallingState(referenceModelForNoVariation(region, false, VCpriors));
         }
 
         // For sure this is not true if gVCF is on.
         if ( hcArgs.dontGenotype ) {
-            return NO_CALLS; // user requested we not proceed
+            return new RegionCallingState(NO_CALLS); // user requested we not proceed
         }
 
         // TODO is this ever true at this point??? perhaps GGA. Need to check.
         if ( regionForGenotyping.size() == 0 && ! hcArgs.disableOptimizations ) {
             // no reads remain after filtering so nothing else to do!
-            return referenceModelForNoVariation(region, false, VCpriors);
+            return new RegionCallingState(referenceModelForNoVariation(region, false, VCpriors));
         }
 
         if (HaplotypeCallerGenotypingDebugger.isEnabled()) {
@@ -649,9 +691,28 @@ public final class HaplotypeCallerEngine implements AssemblyRegionEvaluator {
             HaplotypeCallerGenotypingDebugger.println("");
         }
 
-        // Calculate the likelihoods: CPU intensive part.
-        final AlleleLikelihoods<GATKRead, Haplotype> readLikelihoods =
-                likelihoodCalculationEngine.computeReadLikelihoods(assemblyResult, samplesList, reads);
+        return new RegionCallingState(region, features, VCpriors, givenAlleles, trimmingResult, assemblyResult, regionForGenotyping,
+                perSampleFilteredReadList, reads);
+    }
+
+    /**
+     * Second half of the calling of an active region, once its reads likelihoods have been computed: realign the reads
+     * to their best haplotypes, genotype the region and compute its reference confidence, if requested.
+     *
+     * @param state the region, as prepared by {@link #prepareRegionForLikelihoods}
+     * @param readLikelihoods the likelihoods of the reads of the region given its haplotypes
+     * @return List of variants discovered in the region (may be empty)
+     */
+    private List<VariantContext> genotypeRegion(final RegionCallingState state, final AlleleLikelihoods<GATKRead, Haplotype> readLikelihoods) {
+        final AssemblyRegion region = state.region;
+        final FeatureContext features = state.features;
+        final List<VariantContext> VCpriors = state.VCpriors;
+        final List<VariantContext> givenAlleles = state.givenAlleles;
+        final AssemblyRegionTrimmer.Result trimmingResult = state.trimmingResult;
+        final AssemblyResultSet assemblyResult = state.assemblyResult;
+        final AssemblyRegion regionForGenotyping = state.regionForGenotyping;
+        final Map<String, List<GATKRead>> perSampleFilteredReadList = state.perSampleFilteredReadList;
+        final List<Haplotype> haplotypes = assemblyResult.getHaplotypeList();
 
         // Realign reads to their best haplotype.
         final Map<GATKRead, GATKRead> readRealignments = AssemblyBasedCallerUtils.realignReadsToTheirBestHaplotype(readLikelihoods, assemblyResult.getReferenceHaplotype(), assemblyResult.getPaddedReferenceLoc(), aligner);
@@ -731,6 +792,44 @@ public final class HaplotypeCallerEngine implements AssemblyRegionEvaluator {
         }
     }
 
+    /**
+     * Everything needed to genotype an assembly region once its read likelihoods have been computed or, for regions
+     * that don't need genotyping, their final calls.
+     */
+    private static final class RegionCallingState {
+        private List<VariantContext> calls;
+
+        private final AssemblyRegion region;
+        private final FeatureContext features;
+        private final List<VariantContext> VCpriors;
+        private final List<VariantContext> givenAlleles;
+        private final AssemblyRegionTrimmer.Result trimmingResult;
+        private final AssemblyResultSet assemblyResult;
+        private final AssemblyRegion regionForGenotyping;
+        private final Map<String, List<GATKRead>> perSampleFilteredReadList;
+        private final Map<String, List<GATKRead>> reads;
+
+        private RegionCallingState(final List<VariantContext> calls) {
+            this(null, null, null, null, null, null, null, null, null);
+            this.calls = Utils.nonNull(calls);
+        }
+
+        private RegionCallingState(final AssemblyRegion region, final FeatureContext features, final List<VariantContext> VCpriors,
+                                   final List<VariantContext> givenAlleles, final AssemblyRegionTrimmer.Result trimmingResult,
+                                   final AssemblyResultSet assemblyResult, final AssemblyRegion regionForGenotyping,
+                                   final Map<String, List<GATKRead>> perSampleFilteredReadList, final Map<String, List<GATKRead>> reads) {
+            this.region = region;
+            this.features = features;
+            this.VCpriors = VCpriors;
+            this.givenAlleles = givenAlleles;
+            this.trimmingResult = trimmingResult;
+            this.assemblyResult = assemblyResult;
+            this.regionForGenotyping = regionForGenotyping;
+            this.perSampleFilteredReadList = perSampleFilteredReadList;
+            this.reads = reads;
+        }
+    }
+
     private boolean containsCalls(final CalledHaplotypes calledHaplotypes) {
         return calledHaplotypes.getCalls().stream()
                 .flatMap(call -> call.getGenotypes().stream())
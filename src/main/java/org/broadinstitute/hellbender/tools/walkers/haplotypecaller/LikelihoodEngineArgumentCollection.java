@@ -21,6 +21,7 @@ public final class LikelihoodEngineArgumentCollection implements Serializable {
     public static final String DRAGSTR_PARAMS_PATH_FULLNAME = "dragstr-params-path";
     public static final String DRAGSTR_HET_HOM_RATIO_FULLNAME = "dragstr-het-hom-ratio";
     public static final String DONT_USE_DRAGSTR_PAIRHMM_FULLNAME = "dont-use-dragstr-pair-hmm-scores";
+    public static final String PAIR_HMM_LIKELIHOOD_CACHE_SIZE_FULLNAME = "pair-hmm-likelihood-cache-size";
 
     /**
      * Bases with a quality below this threshold will reduced to the minimum usable qualiy score (6).
@@ -104,6 +105,15 @@ public final class LikelihoodEngineArgumentCollection implements Serializable {
     @Argument(fullName="dynamic-read-disqualification-threshold", doc="Constant used to scale the dynamic read disqualificaiton")
     public double readDisqualificationThresholdConstant = PairHMMLikelihoodCalculationEngine.DEFAULT_DYNAMIC_DISQUALIFICATION_SCALE_FACTOR;
 
+    /**
+     * Maximum number of reads whose PairHMM likelihoods are kept in memory, so that they need not be computed again when
+     * the same read (with the same bases and qualities after processing for the PairHMM) is evaluated against the same
+     * haplotype in another assembly region. The cache is disabled by default; hit rates are reported with the progress.
+     */
+    @Advanced
+    @Argument(fullName = PAIR_HMM_LIKELIHOOD_CACHE_SIZE_FULLNAME, doc = "Maximum number of reads whose PairHMM likelihoods are cached across assembly regions (0 to disable)", optional = true, minValue = 0)
+    public int pairHMMLikelihoodCacheSize = 0;
+
     @ArgumentCollection
     public PairHMMNativeArgumentCollection pairHMMNativeArgs = new PairHMMNativeArgumentCollection();
 }
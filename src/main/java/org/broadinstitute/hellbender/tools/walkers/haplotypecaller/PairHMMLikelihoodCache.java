@@ -0,0 +1,271 @@
+package org.broadinstitute.hellbender.tools.walkers.haplotypecaller;
+
+import org.broadinstitute.hellbender.utils.LRUCache;
+import org.broadinstitute.hellbender.utils.Utils;
+import org.broadinstitute.hellbender.utils.genotyper.LikelihoodMatrix;
+import org.broadinstitute.hellbender.utils.haplotype.Haplotype;
+import org.broadinstitute.hellbender.utils.read.GATKRead;
+import org.broadinstitute.hellbender.utils.read.ReadUtils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bounded least-recently-used cache of raw (not normalized) PairHMM likelihoods, so that the likelihood of a read given
+ * a haplotype is not computed again when the same read comes up against the same haplotype bases, for instance when
+ * the read spans adjacent assembly regions or a region is genotyped again.
+ *
+ * <p>
+ *     Entries are keyed on the bases and the base, insertion and deletion qualities of the processed read (as sent to the
+ *     PairHMM) and on the haplotype bases. The gap penalties are imputed from these by the
+ *     {@link org.broadinstitute.hellbender.utils.pairhmm.PairHMMInputScoreImputator} of the engine, so a cache must not
+ *     be shared between engines configured differently.
+ * </p>
+ * <p>
+ *     The cache holds the likelihoods of at most a fixed number of reads, each against all the haplotypes it has been
+ *     evaluated with. A read is only taken from the cache when its likelihoods given all the haplotypes of the current
+ *     matrix are present; otherwise the PairHMM evaluates it against all of them again.
+ * </p>
+ * <p>
+ *     Instances are not thread-safe. Hit and miss counts (one per read/haplotype pair) are also accumulated over all the
+ *     instances, for progress reporting.
+ * </p>
+ */
+public final class PairHMMLikelihoodCache {
+
+    private static final LongAdder totalHits = new LongAdder();
+    private static final LongAdder totalMisses = new LongAdder();
+
+    private final LRUCache<BasesKey, Map<BasesKey, Double>> likelihoodsPerRead;
+
+    /**
+     * @param maximumReads maximum number of reads whose likelihoods are kept. Must be positive.
+     */
+    public PairHMMLikelihoodCache(final int maximumReads) {
+        Utils.validateArg(maximumReads > 0, "the maximum number of reads must be positive");
+        likelihoodsPerRead = new LRUCache<>(maximumReads);
+    }
+
+    /**
+     * @return the number of read/haplotype likelihoods taken from any cache so far.
+     */
+    public static long getTotalHits() {
+        return totalHits.sum();
+    }
+
+    /**
+     * @return the number of read/haplotype likelihoods not found in any cache so far.
+     */
+    public static long getTotalMisses() {
+        return totalMisses.sum();
+    }
+
+    /**
+     * @return the percentage of read/haplotype likelihoods taken from any cache so far, formatted for display.
+     */
+    public static String getTotalHitRateString() {
+        final long hits = getTotalHits();
+        final long lookups = hits + getTotalMisses();
+        return lookups == 0 ? "NA" : String.format("%.1f%%", 100.0 * hits / lookups);
+    }
+
+    /**
+     * Fills in the likelihoods of all the reads of a matrix that are fully cached, and works out which reads still need
+     * to be evaluated by the PairHMM.
+     *
+     * @param likelihoods the destination matrix.
+     * @param processedReads the reads to evaluate, as sent to the PairHMM, in the same order as the matrix evidence.
+     * @return never {@code null}.
+     */
+    public PendingLikelihoods lookUp(final LikelihoodMatrix<GATKRead, Haplotype> likelihoods, final List<GATKRead> processedReads) {
+        Utils.nonNull(likelihoods, "likelihoods is null");
+        Utils.nonNull(processedReads, "processedReads is null");
+        final List<Haplotype> haplotypes = likelihoods.alleles();
+        final BasesKey[] haplotypeKeys = new BasesKey[haplotypes.size()];
+        for (int h = 0; h < haplotypeKeys.length; h++) {
+            haplotypeKeys[h] = new BasesKey(haplotypes.get(h).getBases());
+        }
+
+        final PendingLikelihoods pending = new PendingLikelihoods(likelihoods, haplotypeKeys);
+        for (int r = 0; r < processedReads.size(); r++) {
+            final GATKRead read = processedReads.get(r);
+            final BasesKey readKey = readKey(read);
+            final Map<BasesKey, Double> cached = likelihoodsPerRead.get(readKey);
+            final double[] values = cached == null ? null : new double[haplotypeKeys.length];
+            int hits = 0;
+            if (cached != null) {
+                for (int h = 0; h < haplotypeKeys.length; h++) {
+                    final Double value = cached.get(haplotypeKeys[h]);
+                    if (value == null) {
+                        break;
+                    }
+                    values[h] = value;
+                    hits++;
+                }
+            }
+
+            if (hits == haplotypeKeys.length) {
+                for (int h = 0; h < haplotypeKeys.length; h++) {
+                    likelihoods.set(h, r, values[h]);
+                }
+                totalHits.add(hits);
+            } else {
+                pending.add(r, read, readKey);
+                totalMisses.add(haplotypeKeys.length);
+            }
+        }
+        return pending;
+    }
+
+    private static BasesKey readKey(final GATKRead read) {
+        final byte[] bases = read.getBasesNoCopy();
+        final byte[] quals = read.getBaseQualitiesNoCopy();
+        final byte[] insertionQuals = ReadUtils.getBaseInsertionQualities(read);
+        final byte[] deletionQuals = ReadUtils.getBaseDeletionQualities(read);
+        final byte[] key = new byte[bases.length + quals.length + insertionQuals.length + deletionQuals.length];
+        int offset = 0;
+        for (final byte[] part : new byte[][]{bases, quals, insertionQuals, deletionQuals}) {
+            System.arraycopy(part, 0, key, offset, part.length);
+            offset += part.length;
+        }
+        return new BasesKey(key);
+    }
+
+    /**
+     * The reads of a likelihood matrix that were not found in the cache. Once the PairHMM has computed their
+     * likelihoods in {@link #matrixToCompute()}, {@link #store()} adds them to the cache.
+     */
+    public final class PendingLikelihoods {
+        private final LikelihoodMatrix<GATKRead, Haplotype> likelihoods;
+        private final BasesKey[] haplotypeKeys;
+        private final List<Integer> readIndices = new ArrayList<>();
+        private final List<GATKRead> reads = new ArrayList<>();
+        private final List<BasesKey> readKeys = new ArrayList<>();
+
+        private PendingLikelihoods(final LikelihoodMatrix<GATKRead, Haplotype> likelihoods, final BasesKey[] haplotypeKeys) {
+            this.likelihoods = likelihoods;
+            this.haplotypeKeys = haplotypeKeys;
+        }
+
+        private void add(final int readIndex, final GATKRead read, final BasesKey readKey) {
+            readIndices.add(readIndex);
+            reads.add(read);
+            readKeys.add(readKey);
+        }
+
+        /**
+         * @return the processed reads that still need to be evaluated, in the same order as {@link #matrixToCompute()}.
+         */
+        public List<GATKRead> readsToCompute() {
+            return reads;
+        }
+
+        /**
+         * @return a view of the destination matrix restricted to the reads that still need to be evaluated.
+         */
+        public LikelihoodMatrix<GATKRead, Haplotype> matrixToCompute() {
+            return readIndices.size() == likelihoods.evidenceCount() ? likelihoods : new ReadSubsetMatrix();
+        }
+
+        /**
+         * Adds the likelihoods computed for the pending reads to the cache.
+         */
+        public void store() {
+            for (int i = 0; i < readIndices.size(); i++) {
+                final Map<BasesKey, Double> cached = likelihoodsPerRead.computeIfAbsent(readKeys.get(i), k -> new HashMap<>(haplotypeKeys.length));
+                for (int h = 0; h < haplotypeKeys.length; h++) {
+                    cached.put(haplotypeKeys[h], likelihoods.get(h, readIndices.get(i)));
+                }
+            }
+        }
+
+        /**
+         * The rows of the destination matrix for the pending reads, for the PairHMM to fill in.
+         */
+        private final class ReadSubsetMatrix implements LikelihoodMatrix<GATKRead, Haplotype> {
+            @Override
+            public List<GATKRead> evidence() {
+                return reads;
+            }
+
+            @Override
+            public List<Haplotype> alleles() {
+                return likelihoods.alleles();
+            }
+
+            @Override
+            public void set(final int alleleIndex, final int evidenceIndex, final double value) {
+                likelihoods.set(alleleIndex, readIndices.get(evidenceIndex), value);
+            }
+
+            @Override
+            public double get(final int alleleIndex, final int evidenceIndex) {
+                return likelihoods.get(alleleIndex, readIndices.get(evidenceIndex));
+            }
+
+            @Override
+            public int indexOfAllele(final Haplotype allele) {
+                return likelihoods.indexOfAllele(allele);
+            }
+
+            @Override
+            public int indexOfEvidence(final GATKRead evidence) {
+                return reads.indexOf(evidence);
+            }
+
+            @Override
+            public int numberOfAlleles() {
+                return likelihoods.numberOfAlleles();
+            }
+
+            @Override
+            public int evidenceCount() {
+                return reads.size();
+            }
+
+            @Override
+            public Haplotype getAllele(final int alleleIndex) {
+                return likelihoods.getAllele(alleleIndex);
+            }
+
+            @Override
+            public GATKRead getEvidence(final int evidenceIndex) {
+                return reads.get(evidenceIndex);
+            }
+
+            @Override
+            public void copyAlleleLikelihoods(final int alleleIndex, final double[] dest, final int offset) {
+                for (int r = 0; r < reads.size(); r++) {
+                    dest[offset + r] = get(alleleIndex, r);
+                }
+            }
+        }
+    }
+
+    /**
+     * Byte array with value semantics, to be used as a hash key.
+     */
+    private static final class BasesKey {
+        private final byte[] bases;
+        private final int hashCode;
+
+        private BasesKey(final byte[] bases) {
+            this.bases = bases;
+            this.hashCode = Arrays.hashCode(bases);
+        }
+
+        @Override
+        public boolean equals(final Object o) {
+            return this == o || (o instanceof BasesKey && hashCode == ((BasesKey) o).hashCode && Arrays.equals(bases, ((BasesKey) o).bases));
+        }
+
+        @Override
+        public int hashCode() {
+            return hashCode;
+        }
+    }
+}
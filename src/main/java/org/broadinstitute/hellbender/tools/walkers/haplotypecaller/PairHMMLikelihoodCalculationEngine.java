@@ -52,6 +52,9 @@ public final class PairHMMLikelihoodCalculationEngine implements ReadLikelihoodC
     private final boolean symmetricallyNormalizeAllelesToReference;
     private final boolean modifySoftclippedBases;
 
+    // cache of the raw PairHMM likelihoods of recently seen reads, or null if disabled
+    private final PairHMMLikelihoodCache likelihoodCache;
+
     public enum PCRErrorModel {
         /** no specialized PCR error model will be applied; if base insertion/deletion qualities are present they will be used */
         NONE(0.0),
@@ -137,6 +140,30 @@ public final class PairHMMLikelihoodCalculationEngine implements ReadLikelihoodC
                                               final boolean symmetricallyNormalizeAllelesToReference,
                                               final boolean disableCapReadQualitiesToMapQ,
                                               final boolean modifySoftclippedBases) {
+        this(constantGCP, dragstrParams, arguments, hmmType, log10globalReadMismappingRate, pcrErrorModel, baseQualityScoreThreshold, dynamicReadDisqualificaiton,
+                readDisqualificationScale, expectedErrorRatePerBase, symmetricallyNormalizeAllelesToReference, disableCapReadQualitiesToMapQ, modifySoftclippedBases, 0);
+    }
+
+    /**
+     * Create a new PairHMMLikelihoodCalculationEngine using provided parameters and hmm to do its calculations
+     *
+     * @param likelihoodCacheSize maximum number of reads whose raw PairHMM likelihoods are cached and reused in
+     *                            later calls (see {@link PairHMMLikelihoodCache}), or 0 to disable the cache.
+     */
+    public PairHMMLikelihoodCalculationEngine(final byte constantGCP,
+                                              final DragstrParams dragstrParams,
+                                              final PairHMMNativeArguments arguments,
+                                              final PairHMM.Implementation hmmType,
+                                              final double log10globalReadMismappingRate,
+                                              final PCRErrorModel pcrErrorModel,
+                                              final byte baseQualityScoreThreshold,
+                                              final boolean dynamicReadDisqualificaiton,
+                                              final double readDisqualificationScale,
+                                              final double expectedErrorRatePerBase,
+                                              final boolean symmetricallyNormalizeAllelesToReference,
+                                              final boolean disableCapReadQualitiesToMapQ,
+                                              final boolean modifySoftclippedBases,
+                                              final int likelihoodCacheSize) {
         Utils.nonNull(hmmType, "hmmType is null");
         Utils.nonNull(pcrErrorModel, "pcrErrorModel is null");
         if (constantGCP < 0){
@@ -145,6 +172,9 @@ public final class PairHMMLikelihoodCalculationEngine implements ReadLikelihoodC
         if (log10globalReadMismappingRate > 0){
             throw new IllegalArgumentException("log10globalReadMismappingRate must be negative");
         }
+        if (likelihoodCacheSize < 0){
+            throw new IllegalArgumentException("likelihoodCacheSize must be non-negative");
+        }
         this.dragstrParams = dragstrParams;
         this.constantGCP = constantGCP;
         this.log10globalReadMismappingRate = log10globalReadMismappingRate;
@@ -156,6 +186,7 @@ public final class PairHMMLikelihoodCalculationEngine implements ReadLikelihoodC
         this.expectedErrorRatePerBase = expectedErrorRatePerBase;
         this.disableCapReadQualitiesToMapQ = disableCapReadQualitiesToMapQ;
         this.modifySoftclippedBases = modifySoftclippedBases;
+        this.likelihoodCache = likelihoodCacheSize == 0 ? null : new PairHMMLikelihoodCache(likelihoodCacheSize);
 
         initializePCRErrorModel();
 
@@ -176,26 +207,63 @@ public final class PairHMMLikelihoodCalculationEngine implements ReadLikelihoodC
         Utils.nonNull(samples, "samples is null");
         Utils.nonNull(perSampleReadList, "perSampleReadList is null");
 
-        final List<Haplotype> haplotypeList = assemblyResultSet.getHaplotypeList();
-        final AlleleList<Haplotype> haplotypes = new IndexedAlleleList<>(haplotypeList);
-
-        initializePairHMM(haplotypeList, perSampleReadList);
+        return computeReadLikelihoods(Collections.singletonList(assemblyResultSet), samples, Collections.singletonList(perSampleReadList)).get(0);
+    }
 
-        // Add likelihoods for each sample's reads to our result
-        final AlleleLikelihoods<GATKRead, Haplotype> result = new AlleleLikelihoods<>(samples, haplotypes, perSampleReadList);
-        final int sampleCount = result.numberOfSamples();
-        for (int i = 0; i < sampleCount; i++) {
-                computeReadLikelihoods(result.sampleMatrix(i));
+    /**
+     * {@inheritDoc}
+     *
+     * The reads of every sample of every region are sent to the PairHMM as a single batch, so that it is sized only
+     * once and, for the native implementations, all the samples of a region are evaluated in a single call. If the
+     * likelihood cache is enabled, reads whose likelihoods are all cached are left out of the batch.
+     */
+    @Override
+    public List<AlleleLikelihoods<GATKRead, Haplotype>> computeReadLikelihoods(final List<AssemblyResultSet> assemblyResultSets, final SampleList samples,
+                                                                              final List<Map<String, List<GATKRead>>> perSampleReadLists) {
+        Utils.nonNull(assemblyResultSets, "assemblyResultSets is null");
+        Utils.nonNull(samples, "samples is null");
+        Utils.nonNull(perSampleReadLists, "perSampleReadLists is null");
+        Utils.validateArg(assemblyResultSets.size() == perSampleReadLists.size(), "there must be exactly one read set per assembly result set");
+
+        final List<AlleleLikelihoods<GATKRead, Haplotype>> results = new ArrayList<>(assemblyResultSets.size());
+        final List<LikelihoodMatrix<GATKRead, Haplotype>> sampleMatrices = new ArrayList<>();
+        final List<List<GATKRead>> processedReads = new ArrayList<>();
+        final List<PairHMMLikelihoodCache.PendingLikelihoods> pendingLikelihoods = new ArrayList<>();
+        for (int i = 0; i < assemblyResultSets.size(); i++) {
+            final AlleleList<Haplotype> haplotypes = new IndexedAlleleList<>(Utils.nonNull(assemblyResultSets.get(i), "assemblyResultSet is null").getHaplotypeList());
+
+            // Add likelihoods for each sample's reads to our result
+            final AlleleLikelihoods<GATKRead, Haplotype> result = new AlleleLikelihoods<>(samples, haplotypes, Utils.nonNull(perSampleReadLists.get(i), "perSampleReadList is null"));
+            final int sampleCount = result.numberOfSamples();
+            for (int s = 0; s < sampleCount; s++) {
+                final LikelihoodMatrix<GATKRead, Haplotype> sampleMatrix = result.sampleMatrix(s);
+                if (likelihoodCache == null) {
+                    sampleMatrices.add(sampleMatrix);
+                    processedReads.add(processReadsForPairHMM(sampleMatrix));
+                } else {
+                    final PairHMMLikelihoodCache.PendingLikelihoods pending = likelihoodCache.lookUp(sampleMatrix, processReadsForPairHMM(sampleMatrix));
+                    pendingLikelihoods.add(pending);
+                    sampleMatrices.add(pending.matrixToCompute());
+                    processedReads.add(pending.readsToCompute());
+                }
+            }
+            results.add(result);
         }
 
-        result.normalizeLikelihoods(log10globalReadMismappingRate, symmetricallyNormalizeAllelesToReference);
+        // Run the PairHMM to calculate the log10 likelihood of each (processed) reads' arising from each haplotype
+        pairHMM.computeLog10LikelihoodsBatch(sampleMatrices, processedReads, inputScoreImputator);
+        pendingLikelihoods.forEach(PairHMMLikelihoodCache.PendingLikelihoods::store);
 
-        if (dynamicDisqualification) {
-            result.filterPoorlyModeledEvidence(daynamicLog10MinLiklihoodModel(readDisqualificationScale, log10MinTrueLikelihood(expectedErrorRatePerBase, false)));
-        } else {
-            result.filterPoorlyModeledEvidence(log10MinTrueLikelihood(expectedErrorRatePerBase, true));
+        for (final AlleleLikelihoods<GATKRead, Haplotype> result : results) {
+            result.normalizeLikelihoods(log10globalReadMismappingRate, symmetricallyNormalizeAllelesToReference);
+
+            if (dynamicDisqualification) {
+                result.filterPoorlyModeledEvidence(daynamicLog10MinLiklihoodModel(readDisqualificationScale, log10MinTrueLikelihood(expectedErrorRatePerBase, false)));
+            } else {
+                result.filterPoorlyModeledEvidence(log10MinTrueLikelihood(expectedErrorRatePerBase, true));
+            }
         }
-        return result;
+        return results;
     }
 
     private ToDoubleFunction<GATKRead> daynamicLog10MinLiklihoodModel(final double dynamicRadQualConstant, final ToDoubleFunction<GATKRead> log10MinTrueLikelihood) {
@@ -307,24 +375,7 @@ public final class PairHMMLikelihoodCalculationEngine implements ReadLikelihoodC
         return processedRead;
     }
 
-    /**
-     * Initialize our pairHMM with parameters appropriate to the haplotypes and reads we're going to evaluate
-     *
-     * After calling this routine the PairHMM will be configured to best evaluate all reads in the samples
-     * against the set of haplotypes
-     *
-     * @param haplotypes a non-null list of haplotypes
-     * @param perSampleReadList a mapping from sample -> reads
-     */
-    private void initializePairHMM(final List<Haplotype> haplotypes, final Map<String, List<GATKRead>> perSampleReadList) {
-        final int readMaxLength = perSampleReadList.entrySet().stream().flatMap(e -> e.getValue().stream()).mapToInt(GATKRead::getLength).max().orElse(0);
-        final int haplotypeMaxLength = haplotypes.stream().mapToInt(h -> h.getBases().length).max().orElse(0);
-
-        // initialize arrays to hold the probabilities of being in the match, insertion and deletion cases
-        pairHMM.initialize(haplotypes, perSampleReadList, readMaxLength, haplotypeMaxLength);
-    }
-
-    private void computeReadLikelihoods(final LikelihoodMatrix<GATKRead, Haplotype> likelihoods) {
+    private List<GATKRead> processReadsForPairHMM(final LikelihoodMatrix<GATKRead, Haplotype> likelihoods) {
         // Modify the read qualities by applying the PCR error model and capping the minimum base,insertion,deletion qualities
         final List<GATKRead> processedReads = modifyReadQualities(likelihoods.evidence());
 
@@ -335,8 +386,7 @@ public final class PairHMMLikelihoodCalculationEngine implements ReadLikelihoodC
                 HaplotypeCallerGenotypingDebugger.println(Arrays.toString(read.getBaseQualitiesNoCopy()));
             }
         }
-        // Run the PairHMM to calculate the log10 likelihood of each (processed) reads' arising from each haplotype
-        pairHMM.computeLog10Likelihoods(likelihoods, processedReads, inputScoreImputator);
+        return processedReads;
     }
 
     /**
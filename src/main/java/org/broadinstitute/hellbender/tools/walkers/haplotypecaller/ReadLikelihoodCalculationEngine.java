@@ -1,11 +1,13 @@
 package org.broadinstitute.hellbender.tools.walkers.haplotypecaller;
 
+import org.broadinstitute.hellbender.utils.Utils;
 import org.broadinstitute.hellbender.utils.genotyper.AlleleLikelihoods;
 import org.broadinstitute.hellbender.utils.genotyper.SampleList;
 import org.broadinstitute.hellbender.utils.haplotype.Haplotype;
 import org.broadinstitute.hellbender.utils.read.GATKRead;
 
 import java.io.PrintStream;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 
@@ -29,6 +31,34 @@ public interface ReadLikelihoodCalculationEngine extends AutoCloseable {
     public AlleleLikelihoods<GATKRead, Haplotype> computeReadLikelihoods(AssemblyResultSet assemblyResultSet, SampleList samples,
                                                                          Map<String, List<GATKRead>> perSampleReadList);
 
+    /**
+     * Calculates the read likelihoods of several active regions at once, so that implementations can amortize their
+     * per-call overhead over all the regions in the batch.
+     *
+     * <p>The default implementation simply computes the likelihoods of each region in turn.</p>
+     *
+     * @param assemblyResultSets the input assembly results, one per region.
+     * @param samples the list of targeted samples.
+     * @param perSampleReadLists the input read sets stratified per sample, one per region in the same order as
+     *                           {@code assemblyResultSets}.
+     *
+     * @throws IllegalArgumentException if any parameter is {@code null} or the two lists have different sizes.
+     *
+     * @return never {@code null}, the likelihoods of each region in the same order as the input, each as would have
+     *    been returned by {@link #computeReadLikelihoods(AssemblyResultSet, SampleList, Map)}.
+     */
+    default List<AlleleLikelihoods<GATKRead, Haplotype>> computeReadLikelihoods(final List<AssemblyResultSet> assemblyResultSets, final SampleList samples,
+                                                                               final List<Map<String, List<GATKRead>>> perSampleReadLists) {
+        Utils.nonNull(assemblyResultSets, "assemblyResultSets is null");
+        Utils.nonNull(perSampleReadLists, "perSampleReadLists is null");
+        Utils.validateArg(assemblyResultSets.size() == perSampleReadLists.size(), "there must be exactly one read set per assembly result set");
+        final List<AlleleLikelihoods<GATKRead, Haplotype>> result = new ArrayList<>(assemblyResultSets.size());
+        for (int i = 0; i < assemblyResultSets.size(); i++) {
+            result.add(computeReadLikelihoods(assemblyResultSets.get(i), samples, perSampleReadLists.get(i)));
+        }
+        return result;
+    }
+
     /**
      * This method must be called when the client is done with likelihood calculations.
      * It closes any open resources.
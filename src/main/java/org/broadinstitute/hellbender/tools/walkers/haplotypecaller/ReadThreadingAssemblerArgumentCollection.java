@@ -27,6 +27,7 @@ public abstract class ReadThreadingAssemblerArgumentCollection implements Serial
     public static final String KMER_SIZE_LONG_NAME = "kmer-size";
     public static final String DONT_INCREASE_KMER_SIZE_LONG_NAME = "dont-increase-kmer-sizes-for-cycles";
     public static final String LINKED_DE_BRUIJN_GRAPH_LONG_NAME = "linked-de-bruijn-graph";
+    public static final String KMER_ASSEMBLY_THREADS_LONG_NAME = "kmer-assembly-threads";
 
     // -----------------------------------------------------------------------------------------------
     // arguments to control internal behavior of the read threading assembler
@@ -39,6 +40,15 @@ public abstract class ReadThreadingAssemblerArgumentCollection implements Serial
     @Argument(fullName= KMER_SIZE_LONG_NAME, doc="Kmer size to use in the read threading assembler", optional = true)
     public List<Integer> kmerSizes = Lists.newArrayList(10, 25);
 
+    /**
+     * The graphs for the kmer sizes given by --kmer-size are built and cleaned concurrently on this number of threads,
+     * shared by all of the assemblers in the JVM. The results do not depend on this value. Larger kmer sizes tried when
+     * none of the given ones yields a usable graph are still tried one at a time.
+     */
+    @Advanced
+    @Argument(fullName= KMER_ASSEMBLY_THREADS_LONG_NAME, doc="Number of threads on which to assemble the graphs for the different kmer sizes", optional = true, minValue = 1)
+    public int kmerAssemblyThreads = 1;
+
     /**
      * When graph cycles are detected, the normal behavior is to increase kmer sizes iteratively until the cycles are
      * resolved. Disabling this behavior may cause the program to give up on assembling the ActiveRegion.
@@ -0,0 +1,270 @@
+package org.broadinstitute.hellbender.tools.walkers.haplotypecaller.readthreading;
+
+import org.broadinstitute.hellbender.tools.walkers.haplotypecaller.Kmer;
+import org.broadinstitute.hellbender.utils.Utils;
+
+import java.util.*;
+
+/**
+ * Map from kmers of a fixed size to values, used by the read threading graphs to find the vertex of a kmer.
+ *
+ * Kmers of up to {@link #MAX_PACKED_KMER_SIZE} bases made of A, C, G and T only are packed with 2 bits per base into
+ * a long, and kept in an open-addressing table of primitive keys, so that looking up or adding such a kmer neither
+ * allocates nor hashes a {@link Kmer}, and kmers can be looked up directly from a range of a larger sequence. Any other
+ * kmer (longer kmers, or kmers with other bases, such as Ns or lower-case bases in the reference) is kept in a regular
+ * hash map, so that the map behaves exactly like a {@code Map<Kmer, V>}, other than in the order of {@link #values()}.
+ *
+ * @param <V> type of the values
+ */
+final class PackedKmerMap<V> {
+
+    /**
+     * Longest kmer that can be packed into a long with 2 bits per base
+     */
+    static final int MAX_PACKED_KMER_SIZE = 31;
+
+    /**
+     * Value of {@link #pack} for kmers that cannot be packed. Packed kmers never have their sign bit set.
+     */
+    static final long UNPACKABLE = -1L;
+
+    private static final int INITIAL_CAPACITY = 64;
+
+    private final int kmerSize;
+    private final boolean packable;
+
+    // open-addressing table with linear probing: a slot is free iff its value is null
+    private long[] keys;
+    private Object[] values;
+    private int numPacked = 0;
+
+    private final Map<Kmer, V> unpacked = new HashMap<>();
+
+    /**
+     * @param kmerSize size of the kmers in the map, must be positive
+     */
+    PackedKmerMap(final int kmerSize) {
+        Utils.validateArg(kmerSize > 0, () -> "kmerSize must be positive but got " + kmerSize);
+        this.kmerSize = kmerSize;
+        this.packable = kmerSize <= MAX_PACKED_KMER_SIZE;
+        this.keys = new long[packable ? INITIAL_CAPACITY : 0];
+        this.values = new Object[keys.length];
+    }
+
+    /**
+     * @return the 2-bit code of a base, or -1 if it is not one of A, C, G or T
+     */
+    static int baseCode(final byte base) {
+        switch ( base ) {
+            case 'A': return 0;
+            case 'C': return 1;
+            case 'G': return 2;
+            case 'T': return 3;
+            default: return -1;
+        }
+    }
+
+    /**
+     * @return the kmer of length bases starting at start in bases packed into a long, or {@link #UNPACKABLE} if it is
+     *         too long or has bases other than A, C, G and T
+     */
+    static long pack(final byte[] bases, final int start, final int length) {
+        if ( length > MAX_PACKED_KMER_SIZE ) {
+            return UNPACKABLE;
+        }
+        long packed = 0;
+        for ( int i = start; i < start + length; i++ ) {
+            final int code = baseCode(bases[i]);
+            if ( code < 0 ) {
+                return UNPACKABLE;
+            }
+            packed = packed << 2 | code;
+        }
+        return packed;
+    }
+
+    private long pack(final Kmer kmer) {
+        // kmers of other sizes are never packed, so that they are simply not found
+        return packable && kmer.length() == kmerSize ? pack(kmer.bases(), 0, kmerSize) : UNPACKABLE;
+    }
+
+    private static int hash(final long packed) {
+        // murmur3 finalizer, since packed kmers sharing a prefix would otherwise cluster
+        long h = packed;
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return (int) h;
+    }
+
+    /**
+     * @return the slot of the packed kmer, or of the free slot where it would be inserted
+     */
+    private int findSlot(final long packed) {
+        final int mask = keys.length - 1;
+        int slot = hash(packed) & mask;
+        while ( values[slot] != null && keys[slot] != packed ) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    @SuppressWarnings("unchecked")
+    private V getPacked(final long packed) {
+        return (V) values[findSlot(packed)];
+    }
+
+    /**
+     * @return the value for the kmer, or null if there is none
+     */
+    V get(final Kmer kmer) {
+        final long packed = pack(Utils.nonNull(kmer));
+        return packed == UNPACKABLE ? unpacked.get(kmer) : getPacked(packed);
+    }
+
+    /**
+     * Get the value for the kmer of {@link #kmerSize} bases starting at start in bases, without creating a {@link Kmer}
+     * if it can be packed
+     *
+     * @return the value for the kmer, or null if there is none
+     */
+    V get(final byte[] bases, final int start) {
+        final long packed = packable ? pack(bases, start, kmerSize) : UNPACKABLE;
+        return packed == UNPACKABLE ? unpacked.get(new Kmer(bases, start, kmerSize)) : getPacked(packed);
+    }
+
+    boolean containsKey(final Kmer kmer) {
+        return get(kmer) != null;
+    }
+
+    boolean containsKey(final byte[] bases, final int start) {
+        return get(bases, start) != null;
+    }
+
+    /**
+     * @param value a non-null value
+     * @return the previous value for the kmer, or null if there was none
+     */
+    V put(final Kmer kmer, final V value) {
+        Utils.nonNull(value);
+        final long packed = pack(Utils.nonNull(kmer));
+        if ( packed == UNPACKABLE ) {
+            return unpacked.put(kmer, value);
+        }
+        final int slot = findSlot(packed);
+        @SuppressWarnings("unchecked")
+        final V previous = (V) values[slot];
+        keys[slot] = packed;
+        values[slot] = value;
+        if ( previous == null && ++numPacked * 2 > keys.length ) {
+            resize();
+        }
+        return previous;
+    }
+
+    /**
+     * @param value a non-null value
+     * @return the current value for the kmer if there is one, or null if value was added
+     */
+    V putIfAbsent(final Kmer kmer, final V value) {
+        final V current = get(kmer);
+        return current != null ? current : put(kmer, value);
+    }
+
+    /**
+     * @param packed a kmer of {@link #kmerSize} bases packed by {@link #pack}
+     * @param value a non-null value
+     * @return the current value for the kmer if there is one, or null if value was added
+     */
+    V putIfAbsent(final long packed, final V value) {
+        Utils.validateArg(packable && packed != UNPACKABLE, "kmer is not packed");
+        Utils.nonNull(value);
+        final int slot = findSlot(packed);
+        @SuppressWarnings("unchecked")
+        final V current = (V) values[slot];
+        if ( current != null ) {
+            return current;
+        }
+        keys[slot] = packed;
+        values[slot] = value;
+        if ( ++numPacked * 2 > keys.length ) {
+            resize();
+        }
+        return null;
+    }
+
+    /**
+     * @return the value that was removed for the kmer, or null if there was none
+     */
+    V remove(final Kmer kmer) {
+        final long packed = pack(Utils.nonNull(kmer));
+        if ( packed == UNPACKABLE ) {
+            return unpacked.remove(kmer);
+        }
+        int slot = findSlot(packed);
+        @SuppressWarnings("unchecked")
+        final V removed = (V) values[slot];
+        if ( removed == null ) {
+            return null;
+        }
+
+        // shift back the following entries of the probe sequence, so that none of them is left unreachable
+        final int mask = keys.length - 1;
+        int next = slot;
+        while ( true ) {
+            next = (next + 1) & mask;
+            if ( values[next] == null ) {
+                break;
+            }
+            final int home = hash(keys[next]) & mask;
+            // move the entry at next into the hole unless its home slot lies cyclically in (slot, next]
+            if ( slot <= next ? (home <= slot || home > next) : (home <= slot && home > next) ) {
+                keys[slot] = keys[next];
+                values[slot] = values[next];
+                slot = next;
+            }
+        }
+        values[slot] = null;
+        --numPacked;
+        return removed;
+    }
+
+    private void resize() {
+        final long[] oldKeys = keys;
+        final Object[] oldValues = values;
+        keys = new long[oldKeys.length * 2];
+        values = new Object[oldKeys.length * 2];
+        for ( int i = 0; i < oldKeys.length; i++ ) {
+            if ( oldValues[i] != null ) {
+                final int slot = findSlot(oldKeys[i]);
+                keys[slot] = oldKeys[i];
+                values[slot] = oldValues[i];
+            }
+        }
+    }
+
+    int size() {
+        return numPacked + unpacked.size();
+    }
+
+    boolean isEmpty() {
+        return size() == 0;
+    }
+
+    /**
+     * @return a new list of all of the values, in no particular order
+     */
+    @SuppressWarnings("unchecked")
+    List<V> values() {
+        final List<V> result = new ArrayList<>(size());
+        for ( final Object value : values ) {
+            if ( value != null ) {
+                result.add((V) value);
+            }
+        }
+        result.addAll(unpacked.values());
+        return result;
+    }
+}
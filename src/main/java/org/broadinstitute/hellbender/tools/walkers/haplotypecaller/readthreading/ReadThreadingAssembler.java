@@ -28,6 +28,9 @@ import java.io.File;
 import java.io.IOException;
 import java.io.PrintStream;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
 import java.util.stream.Collectors;
 
 public final class ReadThreadingAssembler {
@@ -37,6 +40,12 @@ public final class ReadThreadingAssembler {
     private static final int KMER_SIZE_ITERATION_INCREASE = 10;
     private static final int MAX_KMER_ITERATIONS_TO_ATTEMPT = 6;
 
+    /**
+     * Fork-join pools on which the graphs for the different kmer sizes are assembled concurrently, by number of threads,
+     * shared by all of the assemblers (e.g. of the workers of a parallel region traversal)
+     */
+    private static final Map<Integer, ForkJoinPool> KMER_ASSEMBLY_POOLS = new ConcurrentHashMap<>();
+
     /** The min and max kmer sizes to try when building the graph. */
     private final List<Integer> kmerSizes;
     private final boolean dontIncreaseKmerSizesForCycles;
@@ -73,6 +82,11 @@ public final class ReadThreadingAssembler {
     private Histogram haplotypeHistogram = null;
     private Histogram kmersUsedHistogram = null;
 
+    /**
+     * Pool on which to assemble the graphs for the requested kmer sizes concurrently, or null to assemble them in turn
+     */
+    private ForkJoinPool kmerAssemblyPool = null;
+
     public ReadThreadingAssembler(final int maxAllowedPathsForReadThreadingAssembler, final List<Integer> kmerSizes,
                                   final boolean dontIncreaseKmerSizesForCycles, final boolean allowNonUniqueKmersInRef,
                                   final int numPruningSamples, final int pruneFactor, final boolean useAdaptivePruning,
@@ -536,8 +550,8 @@ public final class ReadThreadingAssembler {
         final List<AssemblyResult> results = new LinkedList<>();
 
         // first, try using the requested kmer sizes
-        for ( final int kmerSize : kmerSizes ) {
-            addResult(results, createGraph(reads, refHaplotype, kmerSize, dontIncreaseKmerSizesForCycles, allowNonUniqueKmersInRef, header, aligner));
+        for ( final AssemblyResult result : createGraphsForRequestedKmerSizes(reads, refHaplotype, header, aligner) ) {
+            addResult(results, result);
         }
 
         // if none of those worked, iterate over larger sizes if allowed to do so
@@ -556,6 +570,34 @@ public final class ReadThreadingAssembler {
         return results;
     }
 
+    /**
+     * Create the graphs for each of the requested kmer sizes, concurrently if a kmer assembly pool has been set.
+     * Graphs are independent of each other, so the results are the same either way.
+     *
+     * @return the (possibly null) results of {@link #createGraph} for each of the requested kmer sizes, in order
+     */
+    private List<AssemblyResult> createGraphsForRequestedKmerSizes(final List<GATKRead> reads, final Haplotype refHaplotype,
+                                                                   final SAMFileHeader header, final SmithWatermanAligner aligner) {
+        final List<AssemblyResult> results = new ArrayList<>(kmerSizes.size());
+        if ( kmerAssemblyPool == null || kmerSizes.size() == 1 ) {
+            for ( final int kmerSize : kmerSizes ) {
+                results.add(createGraph(reads, refHaplotype, kmerSize, dontIncreaseKmerSizesForCycles, allowNonUniqueKmersInRef, header, aligner));
+            }
+            return results;
+        }
+
+        final List<ForkJoinTask<AssemblyResult>> tasks = new ArrayList<>(kmerSizes.size());
+        for ( final int kmerSize : kmerSizes ) {
+            tasks.add(kmerAssemblyPool.submit(() ->
+                    createGraph(reads, refHaplotype, kmerSize, dontIncreaseKmerSizesForCycles, allowNonUniqueKmersInRef, header, aligner)));
+        }
+        // join rethrows any exception thrown while creating a graph
+        for ( final ForkJoinTask<AssemblyResult> task : tasks ) {
+            results.add(task.join());
+        }
+        return results;
+    }
+
     /**
      * Method for getting a list of all of the specified kmer sizes to test for the graph including kmer expansions
      * @return
@@ -845,6 +887,17 @@ public final class ReadThreadingAssembler {
         this.removePathsNotConnectedToRef = removePathsNotConnectedToRef;
     }
 
+    /**
+     * Set the number of threads on which to assemble the graphs for the requested kmer sizes concurrently. The threads
+     * are shared with the other assemblers using the same number of threads.
+     *
+     * @param numThreads number of threads, 1 to assemble the graphs in turn on the calling thread
+     */
+    public void setKmerAssemblyThreads(final int numThreads) {
+        Utils.validateArg(numThreads > 0, () -> "numThreads must be positive but got " + numThreads);
+        kmerAssemblyPool = numThreads > 1 ? KMER_ASSEMBLY_POOLS.computeIfAbsent(numThreads, ForkJoinPool::new) : null;
+    }
+
     public void setArtificialHaplotypeRecoveryMode(boolean disableUncoveredJunctionTreeHaplotypeRecovery) {
         if (disableUncoveredJunctionTreeHaplotypeRecovery) {
             if (!generateSeqGraph) {
@@ -157,13 +157,30 @@ public class ReadThreadingGraph extends AbstractReadThreadingGraph {
      */
     static Collection<Kmer> determineNonUniqueKmers(final SequenceForKmers seqForKmers, final int kmerSize) {
         // count up occurrences of kmers within each read
-        final Set<Kmer> allKmers = new LinkedHashSet<>();
+        final PackedKmerMap<Boolean> allKmers = new PackedKmerMap<>(kmerSize);
         final List<Kmer> nonUniqueKmers = new ArrayList<>();
+        final byte[] sequence = seqForKmers.sequence;
         final int stopPosition = seqForKmers.stop - kmerSize;
+
+        // pack the kmers as we slide along the sequence, so that a Kmer is only created for non-uniques and for
+        // kmers that can't be packed
+        final boolean packable = kmerSize <= PackedKmerMap.MAX_PACKED_KMER_SIZE;
+        final long mask = packable ? (1L << (2 * kmerSize)) - 1 : 0;
+        long packed = 0;
+        int packedBases = 0;
         for (int i = 0; i <= stopPosition; i++) {
-            final Kmer kmer = new Kmer(seqForKmers.sequence, i, kmerSize);
-            if (!allKmers.add(kmer)) {
-                nonUniqueKmers.add(kmer);
+            if (packable) {
+                // add the bases entering the kmer starting at i (all of them for the first kmer)
+                for (int j = i == 0 ? 0 : i + kmerSize - 1; j < i + kmerSize; j++) {
+                    final int code = PackedKmerMap.baseCode(sequence[j]);
+                    packed = code < 0 ? 0 : (packed << 2 | code) & mask;
+                    packedBases = code < 0 ? 0 : packedBases + 1;
+                }
+            }
+            final boolean seen = packedBases >= kmerSize ? allKmers.putIfAbsent(packed, Boolean.TRUE) != null :
+                    allKmers.putIfAbsent(new Kmer(sequence, i, kmerSize), Boolean.TRUE) != null;
+            if (seen) {
+                nonUniqueKmers.add(new Kmer(sequence, i, kmerSize));
             }
         }
         return nonUniqueKmers;
@@ -146,6 +146,26 @@ public final class Pileup extends LocusWalker {
 
     @Override
     public void apply(AlignmentContext alignmentContext, ReferenceContext referenceContext, FeatureContext featureContext) {
+        out.print(formatPileup(alignmentContext, referenceContext, featureContext));
+    }
+
+    @Override
+    protected boolean supportsParallelTraversal() {
+        return true;
+    }
+
+    /**
+     * Pileup lines are formatted on the worker threads, and printed in locus order on the traversal thread.
+     */
+    @Override
+    protected LocusWorker makeLocusWorker() {
+        return (alignmentContext, referenceContext, featureContext) -> {
+            final String pileupLine = formatPileup(alignmentContext, referenceContext, featureContext);
+            return () -> out.print(pileupLine);
+        };
+    }
+
+    private String formatPileup(final AlignmentContext alignmentContext, final ReferenceContext referenceContext, final FeatureContext featureContext) {
         final String features = getFeaturesString(featureContext);
         final ReadPileup basePileup = alignmentContext.getBasePileup().makeFilteredPileup(pe -> !pe.isDeletion());
         final StringBuilder s = new StringBuilder();
@@ -159,7 +179,7 @@ public final class Pileup extends LocusWalker {
             s.append(" ").append(createVerboseOutput(basePileup));
         }
         s.append("\n");
-        out.print(s.toString());
+        return s.toString();
     }
 
     /**
@@ -1,5 +1,6 @@
 package org.broadinstitute.hellbender.utils;
 
+import com.google.common.annotations.VisibleForTesting;
 import com.google.common.collect.AbstractIterator;
 import com.google.common.collect.Iterators;
 import com.google.common.primitives.Ints;
@@ -53,7 +54,15 @@ public final class Utils {
     private static final Random randomGenerator = new Random(GATK_RANDOM_SEED);
     private static final RandomDataGenerator randomDataGenerator = new RandomDataGenerator(new Well19937c(GATK_RANDOM_SEED));
 
-    public static Random getRandomGenerator() { return randomGenerator; }
+    /**
+     * Per-thread replacement for {@link #randomGenerator}, installed by {@link #runWithIndependentRandomGenerator}.
+     */
+    private static final ThreadLocal<Random> threadRandomGenerator = new ThreadLocal<>();
+
+    public static Random getRandomGenerator() {
+        final Random threadGenerator = threadRandomGenerator.get();
+        return threadGenerator != null ? threadGenerator : randomGenerator;
+    }
     public static RandomDataGenerator getRandomDataGenerator() { return randomDataGenerator; }
 
     public static void resetRandomGenerator() {
@@ -61,6 +70,47 @@ public final class Utils {
         randomDataGenerator.reSeed(GATK_RANDOM_SEED);
     }
 
+    /**
+     * Runs a task on the calling thread with {@link #getRandomGenerator()} returning a generator private to that task,
+     * seeded from the GATK seed and the given stream id.
+     * <p>
+     *     Tasks that run concurrently would otherwise interleave their draws on the shared generator, making results
+     *     depend on thread scheduling. With one stream id per unit of work (e.g. per shard) results are reproducible
+     *     regardless of the number of threads or the order in which the units are processed.
+     * </p>
+     * @param streamId identifies the random stream for this task.
+     * @param task the task to run.
+     */
+    public static void runWithIndependentRandomGenerator(final long streamId, final Runnable task) {
+        nonNull(task);
+        final Random previous = threadRandomGenerator.get();
+        threadRandomGenerator.set(new Random(randomStreamSeed(streamId)));
+        try {
+            task.run();
+        } finally {
+            if (previous != null) {
+                threadRandomGenerator.set(previous);
+            } else {
+                threadRandomGenerator.remove();
+            }
+        }
+    }
+
+    /**
+     * Seed of the random stream with the given id.
+     * <p>
+     *     {@link Random} seeded with nearly equal seeds produces correlated first values, so the stream id is spread
+     *     over all the bits of the seed with the SplitMix64 finalizer.
+     * </p>
+     */
+    @VisibleForTesting
+    static long randomStreamSeed(final long streamId) {
+        long z = GATK_RANDOM_SEED + (streamId + 1) * 0x9E3779B97F4A7C15L;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
     private static final int TEXT_WARNING_WIDTH = 68;
     private static final String TEXT_WARNING_PREFIX = "* ";
     private static final String TEXT_WARNING_BORDER = StringUtils.repeat('*', TEXT_WARNING_PREFIX.length() + TEXT_WARNING_WIDTH);
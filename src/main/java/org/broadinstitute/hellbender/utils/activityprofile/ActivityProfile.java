@@ -10,9 +10,21 @@ import java.util.*;
 /**
  * Class holding information about per-base activity scores for
  * assembly region traversal
+ *
+ * The probabilities of the states are kept in a ring buffer of doubles indexed by their offset from the start of the
+ * profile, so that adding a state, and the states derived from it, doesn't create any per-locus objects, and popping
+ * regions off the front of the profile doesn't shift the remaining states.
  */
 public class ActivityProfile {
-    protected final List<ActivityProfileState> stateList;
+    private static final int INITIAL_CAPACITY = 256;
+
+    /**
+     * Ring buffer of the state probabilities; the state at offset i from regionStartLoc is at
+     * probs[(firstIndex + i) & (probs.length - 1)].  Its length is always a power of 2.
+     */
+    private double[] probs = new double[INITIAL_CAPACITY];
+    private int firstIndex = 0;
+    private int numStates = 0;
 
     protected final int maxProbPropagationDistance;
     protected final double activeProbThreshold;
@@ -34,7 +46,6 @@ public class ActivityProfile {
      * @param activeProbThreshold threshold for the probability of a profile state being active
      */
     public ActivityProfile(final int maxProbPropagationDistance, final double activeProbThreshold, final SAMFileHeader header) {
-        this.stateList = new ArrayList<>();
         this.maxProbPropagationDistance = maxProbPropagationDistance;
         this.activeProbThreshold = activeProbThreshold;
         this.samHeader = header;
@@ -67,7 +78,7 @@ public class ActivityProfile {
      * @return the number of profile results
      */
     public int size() {
-        return stateList.size();
+        return numStates;
     }
 
     /**
@@ -75,7 +86,7 @@ public class ActivityProfile {
      * @return true if the profile is empty (ie., contains no ActivityProfileStates)
      */
     public boolean isEmpty() {
-        return stateList.isEmpty();
+        return numStates == 0;
     }
 
     /**
@@ -95,11 +106,19 @@ public class ActivityProfile {
     }
 
     /**
-     * Get the list of activity profile results in this object
+     * Get a list of new activity profile results with the states in this object.
+     *
+     * The states aren't stored as objects, so this creates them, and changing them doesn't change this profile.
+     *
      * @return a non-null, ordered list of activity profile results
      */
     protected List<ActivityProfileState> getStateList() {
-        return stateList;
+        final List<ActivityProfileState> states = new ArrayList<>(numStates);
+        for ( int i = 0; i < numStates; i++ ) {
+            final int start = regionStartLoc.getStart() + i;
+            states.add(new ActivityProfileState(new SimpleInterval(regionStartLoc.getContig(), start, start), getProb(i)));
+        }
+        return states;
     }
 
     /**
@@ -107,31 +126,22 @@ public class ActivityProfile {
      * @return a non-null array
      */
     protected double[] getProbabilitiesAsArray() {
-        final double[] probs = new double[getStateList().size()];
-        int i = 0;
-        for ( final ActivityProfileState state : getStateList() ) {
-            probs[i++] = state.isActiveProb();
+        final double[] result = new double[numStates];
+        for ( int i = 0; i < numStates; i++ ) {
+            result[i] = getProb(i);
         }
-        return probs;
+        return result;
     }
 
     /**
-     * Helper function that gets the interval for a site offset from relativeLoc, protecting ourselves from
-     * falling off the edge of the contig.
+     * Helper function that tells whether a site offset from the start of this profile falls on the contig
      *
-     * @param relativeLoc the location offset is relative to
-     * @param offset the offset from relativeLoc where we'd like to create a GenomeLoc
-     * @return a SimpleInterval with relativeLoc.start + offset, if this is on the contig, null otherwise
+     * @param position the offset of the site from the start of this profile
+     * @return true if regionStartLoc.start + position is on the contig, false otherwise
      */
-    protected SimpleInterval getLocForOffset(final SimpleInterval relativeLoc, final int offset) {
-        Utils.nonNull(relativeLoc);
-
-        final int start = relativeLoc.getStart() + offset;
-        if ( start < 1 || start > getCurrentContigLength() ) {
-            return null;
-        } else {
-            return new SimpleInterval(regionStartLoc.getContig(), start, start);
-        }
+    protected boolean isOnContig(final int position) {
+        final int start = regionStartLoc.getStart() + position;
+        return start >= 1 && start <= getCurrentContigLength();
     }
 
     /**
@@ -169,73 +179,92 @@ public class ActivityProfile {
             regionStopLoc = loc;
         }
 
-        final Collection<ActivityProfileState> processedStates = processState(state);
-        for ( final ActivityProfileState processedState : processedStates ) {
-            incorporateSingleState(processedState);
+        final int position = state.getOffset(regionStartLoc);
+        final double prob = state.isActiveProb();
+        if ( state.getResultState().equals(ActivityProfileState.Type.HIGH_QUALITY_SOFT_CLIPS) ) {
+            // special code to deal with the problem that high quality soft clipped bases aren't added to pileups
+            // add no more than the max prob propagation distance num HQ clips
+            final int numHQClips = Math.min(state.getResultValue().intValue(), getMaxProbPropagationDistance());
+            for( int i = - numHQClips; i <= numHQClips; i++ ) {
+                if ( isOnContig(position + i) ) {
+                    processState(position, i, prob);
+                }
+            }
+        } else {
+            processState(position, 0, prob);
         }
     }
 
     /**
-     * Incorporate a single activity profile state into the current list of states
+     * Incorporate a single activity profile probability into the current states
      *
-     * If state's position occurs immediately after the last position in this profile, then
-     * the state is appended to the state list.  If it's within the existing states list,
-     * the prob of stateToAdd is added to its corresponding state in the list.  If the
-     * position would be before the start of this profile, stateToAdd is simply ignored.
+     * If position occurs immediately after the last position in this profile, then a state with prob is
+     * appended to the states.  If it's within the existing states, prob is added to the probability of
+     * the corresponding state.  If the position would be before the start of this profile, prob is simply ignored.
      *
-     * @param stateToAdd the state we want to add to the states list
+     * @param position the offset from the start of this profile of the state we want to add prob to
+     * @param prob the probability to add
      */
-    private void incorporateSingleState(final ActivityProfileState stateToAdd) {
-        Utils.nonNull(stateToAdd);
-        final int position = stateToAdd.getOffset(regionStartLoc);
+    protected final void incorporateSingleState(final int position, final double prob) {
         // should we allow this?  probably not
-        Utils.validateArg(position <= size(), () -> "Must add state contiguous to existing states: adding " + stateToAdd);
+        Utils.validateArg(position <= size(), () -> "Must add state contiguous to existing states: adding " + prob + " at offset " + position);
 
         if ( position >= 0 ) {
             // ignore states starting before this region's start
             if ( position < size() ) {
-                stateList.get(position).setIsActiveProb(stateList.get(position).isActiveProb() + stateToAdd.isActiveProb());
+                final int index = ringIndex(position);
+                probs[index] = probs[index] + prob;
             } else {
-                Utils.validateArg(position == size(), "position == size but it wasn't");
-                stateList.add(stateToAdd);
+                if ( numStates == probs.length ) {
+                    growRing();
+                }
+                probs[ringIndex(numStates++)] = prob;
             }
         }
     }
 
     /**
-     * Process justAddedState, returning a collection of derived states that actually be added to the stateList
+     * Process a state derived from the state our client just added, incorporating the probabilities that should
+     * actually be added to this profile's states with {@link #incorporateSingleState(int, double)}
      *
-     * The purpose of this function is to transform justAddedStates, if needed, into a series of atomic states
-     * that we actually want to track.  For example, if state is for soft clips, we transform that single
-     * state into a list of states that surround the state up to the distance of the soft clip.
+     * The derived states are the just-added state itself, or, if that state is for soft clips, the states on the
+     * contig that surround it up to the distance of the soft clip.  This implementation simply incorporates the
+     * derived state.
      *
      * Can be overridden by subclasses to transform states in any way
      *
-     * There's no particular contract for the output states, except that they can never refer to states
-     * beyond the current end of the stateList unless the explicitly include preceding states before
-     * the reference.  So for example if the current state list is [1, 2, 3] this function could return
+     * There's no particular contract for the incorporated states, except that they can never refer to states
+     * beyond the current end of the states unless the explicitly include preceding states before
+     * the reference.  So for example if the current states are [1, 2, 3] this function could add to
      * [1,2,3,4,5] but not [1,2,3,5].
      *
-     * @param justAddedState the state our client provided to use to add to the list
-     * @return a list of derived states that should actually be added to this profile's state list
+     * @param position the offset from the start of this profile of the state our client just added
+     * @param offset the offset of the derived state from the just-added state
+     * @param prob the probability of the derived state
      */
-    protected Collection<ActivityProfileState> processState(final ActivityProfileState justAddedState) {
-        if ( justAddedState.getResultState().equals(ActivityProfileState.Type.HIGH_QUALITY_SOFT_CLIPS) ) {
-            // special code to deal with the problem that high quality soft clipped bases aren't added to pileups
-            final List<ActivityProfileState> states = new ArrayList<>();
-            // add no more than the max prob propagation distance num HQ clips
-            final int numHQClips = Math.min(justAddedState.getResultValue().intValue(), getMaxProbPropagationDistance());
-            for( int i = - numHQClips; i <= numHQClips; i++ ) {
-                final SimpleInterval loc = getLocForOffset(justAddedState.getLoc(), i);
-                if ( loc != null ) {
-                    states.add(new ActivityProfileState(loc, justAddedState.isActiveProb()));
-                }
-            }
+    protected void processState(final int position, final int offset, final double prob) {
+        incorporateSingleState(position + offset, prob);
+    }
 
-            return states;
-        } else {
-            return Collections.singletonList(justAddedState);
+    private int ringIndex(final int offset) {
+        return (firstIndex + offset) & (probs.length - 1);
+    }
+
+    private void growRing() {
+        final double[] grown = new double[probs.length * 2];
+        for ( int i = 0; i < numStates; i++ ) {
+            grown[i] = probs[ringIndex(i)];
         }
+        probs = grown;
+        firstIndex = 0;
+    }
+
+    /**
+     * Remove the first n states from this profile
+     */
+    private void removeFirstStates(final int n) {
+        firstIndex = ringIndex(n);
+        numStates -= n;
     }
 
     // --------------------------------------------------------------------------------
@@ -300,18 +329,17 @@ public class ActivityProfile {
      * @return a fully formed assembly region, or null if none can be made
      */
     private AssemblyRegion popNextReadyAssemblyRegion( final int assemblyRegionExtension, final int minRegionSize, final int maxRegionSize, final boolean forceConversion ) {
-        if ( stateList.isEmpty() ) {
+        if ( isEmpty() ) {
             return null;
         }
 
         // If we are flushing the activity profile we need to trim off the excess states so that we don't create regions outside of our current processing interval
         if( forceConversion ) {
-            final List<ActivityProfileState> statesToTrimAway = new ArrayList<>(stateList.subList(getSpan().size(), stateList.size()));
-            stateList.removeAll(statesToTrimAway);
+            numStates = Math.min(numStates, getSpan().size());
         }
 
-        final ActivityProfileState first = stateList.get(0);
-        final boolean isActiveRegion = first.isActiveProb() > activeProbThreshold;
+        final SimpleInterval first = regionStartLoc;
+        final boolean isActiveRegion = getProb(0) > activeProbThreshold;
         final int offsetOfNextRegionEnd = findEndOfRegion(isActiveRegion, minRegionSize, maxRegionSize, forceConversion);
         if ( offsetOfNextRegionEnd == -1 ) {
             // couldn't find a valid ending offset, so we return null
@@ -319,16 +347,16 @@ public class ActivityProfile {
         }
 
         // we need to create the active region, and clip out the states we're extracting from this profile
-        final List<ActivityProfileState> sub = stateList.subList(0, offsetOfNextRegionEnd + 1);
-        sub.clear();
+        removeFirstStates(offsetOfNextRegionEnd + 1);
 
         // update the start and stop locations as necessary
-        if ( stateList.isEmpty() ) {
+        if ( isEmpty() ) {
             regionStartLoc = regionStopLoc = null;
         } else {
-            regionStartLoc = stateList.get(0).getLoc();
+            final int newStart = first.getStart() + offsetOfNextRegionEnd + 1;
+            regionStartLoc = new SimpleInterval(first.getContig(), newStart, newStart);
         }
-        final SimpleInterval regionLoc = new SimpleInterval(first.getLoc().getContig(), first.getLoc().getStart(), first.getLoc().getStart() + offsetOfNextRegionEnd);
+        final SimpleInterval regionLoc = new SimpleInterval(first.getContig(), first.getStart(), first.getStart() + offsetOfNextRegionEnd);
         return new AssemblyRegion(regionLoc, isActiveRegion, assemblyRegionExtension, samHeader);
     }
 
@@ -353,7 +381,7 @@ public class ActivityProfile {
      * @return the index into stateList of the last element of this region, or -1 if it cannot be found
      */
     private int findEndOfRegion(final boolean isActiveRegion, final int minRegionSize, final int maxRegionSize, final boolean forceConversion) {
-        if ( ! forceConversion && stateList.size() < maxRegionSize + getMaxProbPropagationDistance() ) {
+        if ( ! forceConversion && size() < maxRegionSize + getMaxProbPropagationDistance() ) {
             // we really haven't finalized at the probability mass that might affect our decision, so keep
             // waiting until we do before we try to make any decisions
             return -1;
@@ -416,7 +444,7 @@ public class ActivityProfile {
     private int findFirstActivityBoundary(final boolean isActiveRegion, final int maxRegionSize) {
         Utils.validateArg(maxRegionSize > 0, "maxRegionSize must be > 0");
 
-        final int nStates = stateList.size();
+        final int nStates = size();
         int endOfActiveRegion = 0;
 
         while ( endOfActiveRegion < nStates && endOfActiveRegion < maxRegionSize ) {
@@ -435,9 +463,9 @@ public class ActivityProfile {
      * @return the isActiveProb of the state at index
      */
     private double getProb(final int index) {
-        Utils.validIndex(index, stateList.size());
+        Utils.validIndex(index, size());
 
-        return stateList.get(index).isActiveProb();
+        return probs[ringIndex(index)];
     }
 
     /**
@@ -450,9 +478,9 @@ public class ActivityProfile {
      * @return true if prob at state is a minimum, false otherwise
      */
     private boolean isMinimum(final int index) {
-        Utils.validIndex(index, stateList.size());
+        Utils.validIndex(index, size());
 
-        if ( index == stateList.size() - 1 ) {
+        if ( index == size() - 1 ) {
             // we cannot be at a minimum if the current position is the last in the state list
             return false;
         }
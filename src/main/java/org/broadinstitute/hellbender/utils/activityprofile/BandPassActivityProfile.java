@@ -3,12 +3,8 @@ package org.broadinstitute.hellbender.utils.activityprofile;
 
 import htsjdk.samtools.SAMFileHeader;
 import org.broadinstitute.hellbender.utils.MathUtils;
-import org.broadinstitute.hellbender.utils.SimpleInterval;
 import org.broadinstitute.hellbender.utils.Utils;
 
-import java.util.ArrayList;
-import java.util.Collection;
-
 /**
  * A band pass filtering version of the activity profile
  *
@@ -121,27 +117,21 @@ public class BandPassActivityProfile extends ActivityProfile {
     }
 
     /**
-     * Band pass the probabilities in the ActivityProfile, producing a new profile that's band pass filtered
-     * @return a new double[] that's the band-pass filtered version of this profile
+     * Band pass the probabilities in the ActivityProfile, spreading the probability of each derived state
+     * over the band around the just-added state as it is added
+     *
+     * Note that the band is centered on the state our client just added, not on the derived state.
      */
     @Override
-    protected Collection<ActivityProfileState> processState(final ActivityProfileState justAddedState) {
-        final Collection<ActivityProfileState> states = new ArrayList<>();
-
-        for ( final ActivityProfileState superState : super.processState(justAddedState) ) {
-            if ( superState.isActiveProb() > 0.0 ) {
-                for( int i = -filterSize; i <= filterSize; i++ ) {
-                    final SimpleInterval loc = getLocForOffset(justAddedState.getLoc(), i);
-                    if ( loc != null ) {
-                        final double newProb = superState.isActiveProb() * gaussianKernel[i + filterSize];
-                        states.add(new ActivityProfileState(loc, newProb));
-                    }
+    protected void processState(final int position, final int offset, final double prob) {
+        if ( prob > 0.0 ) {
+            for( int i = -filterSize; i <= filterSize; i++ ) {
+                if ( isOnContig(position + i) ) {
+                    incorporateSingleState(position + i, prob * gaussianKernel[i + filterSize]);
                 }
-            } else {
-                states.add(justAddedState);
             }
+        } else {
+            incorporateSingleState(position, prob);
         }
-
-        return states;
     }
 }
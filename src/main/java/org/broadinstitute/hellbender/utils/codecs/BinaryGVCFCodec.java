@@ -0,0 +1,370 @@
+package org.broadinstitute.hellbender.utils.codecs;
+
+import htsjdk.tribble.BinaryFeatureCodec;
+import htsjdk.tribble.Feature;
+import htsjdk.tribble.FeatureCodecHeader;
+import htsjdk.tribble.TribbleException;
+import htsjdk.tribble.readers.LineIteratorImpl;
+import htsjdk.tribble.readers.PositionalBufferedStream;
+import htsjdk.tribble.readers.SynchronousLineReader;
+import htsjdk.variant.variantcontext.Allele;
+import htsjdk.variant.variantcontext.Genotype;
+import htsjdk.variant.variantcontext.GenotypeBuilder;
+import htsjdk.variant.variantcontext.GenotypesContext;
+import htsjdk.variant.variantcontext.VariantContext;
+import htsjdk.variant.variantcontext.VariantContextBuilder;
+import htsjdk.variant.vcf.VCFCodec;
+import htsjdk.variant.vcf.VCFConstants;
+import htsjdk.variant.vcf.VCFContigHeaderLine;
+import htsjdk.variant.vcf.VCFHeader;
+import org.broadinstitute.hellbender.utils.variant.GATKVCFConstants;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+/**
+ * Codec for the binary GVCF format (extension {@value #FILE_EXTENSION}), a compact alternative to VCF text for
+ * GVCFs passed between HaplotypeCaller, CombineGVCFs and GenotypeGVCFs, written by
+ * {@link org.broadinstitute.hellbender.utils.variant.writers.BinaryGVCFWriter}.
+ *
+ * A file starts with {@link #MAGIC}, followed by the length (a 4-byte big-endian int) and UTF-8 text of a VCF header,
+ * including the #CHROM line. Each record then consists of its length (a 4-byte big-endian int) and its contents:
+ * the index of its contig among the contig lines of the header, its start, its length minus one, and its kind.
+ *
+ * -{@link #REFERENCE_BLOCK} records are GVCF reference blocks: a single reference base with the {@code <NON_REF>}
+ *  allele, no ID, QUAL, filters or INFO other than END (implied by the extent of the record), and for each sample
+ *  a ploidy, whether it is called (homozygous reference) or not, and optionally GQ, DP, MIN_DP and PLs.
+ *
+ * -{@link #VARIANT} records hold any other variant context: its alleles, ID, QUAL, filters and INFO, and for each
+ *  sample its alleles, phasing, GQ, DP, AD, PLs, filters and other FORMAT fields.
+ *
+ * Integers are stored as variable-length integers (zig-zag encoded when they may be negative), so that PLs take one
+ * or two bytes each. Values of INFO and of FORMAT fields other than the ones above are stored as their VCF text,
+ * and decoded as Strings (or Lists of Strings), as {@link VCFCodec} does.
+ *
+ * Files are not block-compressed, so that they can be indexed by tribble (e.g. by IndexFeatureFile).
+ */
+public final class BinaryGVCFCodec extends BinaryFeatureCodec<VariantContext> {
+
+    public static final String FILE_EXTENSION = ".bgvcf";
+
+    public static final byte[] MAGIC = {'B', 'G', 'V', 'C', 'F', 1};
+
+    /**
+     * Kinds of records
+     */
+    public static final byte REFERENCE_BLOCK = 0;
+    public static final byte VARIANT = 1;
+
+    /**
+     * States of the site filters of a record
+     */
+    public static final byte UNFILTERED = 0;
+    public static final byte PASSES_FILTERS = 1;
+    public static final byte FAILS_FILTERS = 2;
+
+    /**
+     * Kinds of INFO values
+     */
+    public static final byte INFO_FLAG = 0;
+    public static final byte INFO_VALUE = 1;
+
+    /**
+     * Bits of the flags of the genotype of a sample
+     */
+    public static final int GENOTYPE_CALLED = 1;
+    public static final int GENOTYPE_PHASED = 1 << 1;
+    public static final int GENOTYPE_HAS_GQ = 1 << 2;
+    public static final int GENOTYPE_HAS_DP = 1 << 3;
+    public static final int GENOTYPE_HAS_AD = 1 << 4;
+    public static final int GENOTYPE_HAS_PL = 1 << 5;
+    public static final int GENOTYPE_HAS_MIN_DP = 1 << 6;
+    public static final int GENOTYPE_FILTERED = 1 << 7;
+
+    private VCFHeader header;
+    private List<String> contigs;
+    private List<String> samples;
+
+    private byte[] recordBuffer = new byte[4096];
+    private final byte[] intBuffer = new byte[4];
+
+    @Override
+    public Class<VariantContext> getFeatureType() {
+        return VariantContext.class;
+    }
+
+    @Override
+    public boolean canDecode(final String path) {
+        return isBinaryGVCFPath(path);
+    }
+
+    /**
+     * @return true if the path has the {@link #FILE_EXTENSION} extension, in any case. Used wherever the format is
+     *         chosen from the extension, so that a binary GVCF is always written where it will be read as one.
+     */
+    public static boolean isBinaryGVCFPath(final String path) {
+        return path.toLowerCase().endsWith(FILE_EXTENSION);
+    }
+
+    @Override
+    public FeatureCodecHeader readHeader(final PositionalBufferedStream stream) throws IOException {
+        final byte[] magic = new byte[MAGIC.length];
+        if ( ! readFully(stream, magic, magic.length) || ! Arrays.equals(magic, MAGIC) ) {
+            throw new TribbleException("Input is not a binary GVCF file");
+        }
+        final int headerLength = readInt(stream);
+        final byte[] headerText = new byte[headerLength];
+        if ( ! readFully(stream, headerText, headerLength) ) {
+            throw new TribbleException("Premature end of file while reading binary GVCF header");
+        }
+
+        header = (VCFHeader) new VCFCodec().readActualHeader(
+                new LineIteratorImpl(new SynchronousLineReader(new ByteArrayInputStream(headerText))));
+        contigs = new ArrayList<>();
+        for ( final VCFContigHeaderLine contigLine : header.getContigLines() ) {
+            contigs.add(contigLine.getID());
+        }
+        samples = header.getGenotypeSamples();
+        return new FeatureCodecHeader(header, stream.getPosition());
+    }
+
+    @Override
+    public Feature decodeLoc(final PositionalBufferedStream stream) throws IOException {
+        return decode(stream);
+    }
+
+    @Override
+    public VariantContext decode(final PositionalBufferedStream stream) throws IOException {
+        final int length = readInt(stream);
+        if ( length > recordBuffer.length ) {
+            recordBuffer = new byte[Math.max(length, 2 * recordBuffer.length)];
+        }
+        if ( ! readFully(stream, recordBuffer, length) ) {
+            throw new TribbleException("Premature end of file while reading binary GVCF record");
+        }
+        return decodeRecord(new RecordReader(recordBuffer, length));
+    }
+
+    private VariantContext decodeRecord(final RecordReader record) {
+        final int contigIndex = record.readUnsignedVarInt();
+        if ( contigIndex >= contigs.size() ) {
+            throw new TribbleException("Invalid contig index " + contigIndex + " in binary GVCF record");
+        }
+        final String contig = contigs.get(contigIndex);
+        final int start = record.readUnsignedVarInt();
+        final int end = start + record.readUnsignedVarInt();
+        final byte kind = record.readByte();
+
+        if ( kind == REFERENCE_BLOCK ) {
+            return decodeReferenceBlock(record, contig, start, end);
+        } else if ( kind == VARIANT ) {
+            return decodeVariant(record, contig, start, end);
+        }
+        throw new TribbleException("Invalid kind of record " + kind + " in binary GVCF record at " + contig + ":" + start);
+    }
+
+    private VariantContext decodeReferenceBlock(final RecordReader record, final String contig, final int start, final int end) {
+        final Allele ref = Allele.create(record.readByte(), true);
+        final List<Allele> alleles = Arrays.asList(ref, Allele.NON_REF_ALLELE);
+
+        final ArrayList<Genotype> genotypes = new ArrayList<>(samples.size());
+        for ( final String sample : samples ) {
+            final int ploidy = record.readUnsignedVarInt();
+            final int flags = record.readByte() & 0xff;
+            final GenotypeBuilder gb = new GenotypeBuilder(sample, Collections.nCopies(ploidy, (flags & GENOTYPE_CALLED) != 0 ? ref : Allele.NO_CALL));
+            readGenotypeFields(record, flags, gb);
+            if ( (flags & GENOTYPE_HAS_MIN_DP) != 0 ) {
+                gb.attribute(GATKVCFConstants.MIN_DP_FORMAT_KEY, record.readVarInt());
+            }
+            genotypes.add(gb.make());
+        }
+
+        return new VariantContextBuilder(null, contig, start, end, alleles)
+                .attribute(VCFConstants.END_KEY, end)
+                .genotypes(GenotypesContext.create(genotypes, header.getSampleNameToOffset(), samples))
+                .make();
+    }
+
+    private VariantContext decodeVariant(final RecordReader record, final String contig, final int start, final int end) {
+        final int numAlleles = record.readUnsignedVarInt();
+        final List<Allele> alleles = new ArrayList<>(numAlleles);
+        for ( int i = 0; i < numAlleles; i++ ) {
+            alleles.add(Allele.create(record.readBytes(), i == 0));
+        }
+
+        final VariantContextBuilder builder = new VariantContextBuilder(null, contig, start, end, alleles)
+                .id(record.readString())
+                .log10PError(record.readDouble());
+
+        final byte filterState = record.readByte();
+        if ( filterState == PASSES_FILTERS ) {
+            builder.passFilters();
+        } else if ( filterState == FAILS_FILTERS ) {
+            final int numFilters = record.readUnsignedVarInt();
+            final Set<String> filters = new LinkedHashSet<>(numFilters);
+            for ( int i = 0; i < numFilters; i++ ) {
+                filters.add(record.readString());
+            }
+            builder.filters(filters);
+        } else {
+            builder.unfiltered();
+        }
+
+        final int numInfoFields = record.readUnsignedVarInt();
+        final Map<String, Object> attributes = new LinkedHashMap<>(numInfoFields * 2);
+        for ( int i = 0; i < numInfoFields; i++ ) {
+            final String key = record.readString();
+            attributes.put(key, record.readByte() == INFO_FLAG ? Boolean.TRUE : toVCFCodecValue(record.readString()));
+        }
+        builder.attributes(attributes);
+
+        final ArrayList<Genotype> genotypes = new ArrayList<>(samples.size());
+        for ( final String sample : samples ) {
+            final int ploidy = record.readUnsignedVarInt();
+            final List<Allele> genotypeAlleles = new ArrayList<>(ploidy);
+            for ( int i = 0; i < ploidy; i++ ) {
+                final int alleleIndex = record.readUnsignedVarInt();
+                genotypeAlleles.add(alleleIndex == 0 ? Allele.NO_CALL : alleles.get(alleleIndex - 1));
+            }
+            final int flags = record.readByte() & 0xff;
+            final GenotypeBuilder gb = new GenotypeBuilder(sample, genotypeAlleles).phased((flags & GENOTYPE_PHASED) != 0);
+            readGenotypeFields(record, flags, gb);
+            if ( (flags & GENOTYPE_HAS_AD) != 0 ) {
+                gb.AD(record.readVarInts());
+            }
+            if ( (flags & GENOTYPE_FILTERED) != 0 ) {
+                gb.filter(record.readString());
+            }
+            final int numExtendedAttributes = record.readUnsignedVarInt();
+            for ( int i = 0; i < numExtendedAttributes; i++ ) {
+                gb.attribute(record.readString(), record.readString());
+            }
+            genotypes.add(gb.make());
+        }
+        builder.genotypes(GenotypesContext.create(genotypes, header.getSampleNameToOffset(), samples));
+
+        return builder.make();
+    }
+
+    /**
+     * Read the GQ, DP and PLs of a genotype, as present according to its flags
+     */
+    private static void readGenotypeFields(final RecordReader record, final int flags, final GenotypeBuilder gb) {
+        if ( (flags & GENOTYPE_HAS_GQ) != 0 ) {
+            gb.GQ(record.readVarInt());
+        }
+        if ( (flags & GENOTYPE_HAS_DP) != 0 ) {
+            gb.DP(record.readVarInt());
+        }
+        if ( (flags & GENOTYPE_HAS_PL) != 0 ) {
+            gb.PL(record.readVarInts());
+        }
+    }
+
+    /**
+     * @return the value as {@link VCFCodec} would decode it from INFO: a List of Strings if it has several
+     *         comma-separated values, or a String
+     */
+    private static Object toVCFCodecValue(final String value) {
+        return value.indexOf(VCFConstants.INFO_FIELD_ARRAY_SEPARATOR_CHAR) == -1 ? value :
+                Arrays.asList(value.split(VCFConstants.INFO_FIELD_ARRAY_SEPARATOR, -1));
+    }
+
+    private int readInt(final PositionalBufferedStream stream) throws IOException {
+        if ( ! readFully(stream, intBuffer, intBuffer.length) ) {
+            throw new TribbleException("Premature end of file while reading binary GVCF file");
+        }
+        return (intBuffer[0] & 0xff) << 24 | (intBuffer[1] & 0xff) << 16 | (intBuffer[2] & 0xff) << 8 | (intBuffer[3] & 0xff);
+    }
+
+    /**
+     * @return false if the stream ended before length bytes could be read
+     */
+    private static boolean readFully(final PositionalBufferedStream stream, final byte[] buffer, final int length) throws IOException {
+        int offset = 0;
+        while ( offset < length ) {
+            final int bytesRead = stream.read(buffer, offset, length - offset);
+            if ( bytesRead < 0 ) {
+                return false;
+            }
+            offset += bytesRead;
+        }
+        return true;
+    }
+
+    /**
+     * Reads the fields of a record from its bytes
+     */
+    private static final class RecordReader {
+        private final byte[] buffer;
+        private final int end;
+        private int position = 0;
+
+        RecordReader(final byte[] buffer, final int end) {
+            this.buffer = buffer;
+            this.end = end;
+        }
+
+        byte readByte() {
+            if ( position >= end ) {
+                throw new TribbleException("Truncated binary GVCF record");
+            }
+            return buffer[position++];
+        }
+
+        int readUnsignedVarInt() {
+            int value = 0;
+            for ( int shift = 0; shift < 35; shift += 7 ) {
+                final byte b = readByte();
+                value |= (b & 0x7f) << shift;
+                if ( (b & 0x80) == 0 ) {
+                    return value;
+                }
+            }
+            throw new TribbleException("Invalid variable-length integer in binary GVCF record");
+        }
+
+        int readVarInt() {
+            final int zigZag = readUnsignedVarInt();
+            return (zigZag >>> 1) ^ -(zigZag & 1);
+        }
+
+        int[] readVarInts() {
+            final int[] values = new int[readUnsignedVarInt()];
+            for ( int i = 0; i < values.length; i++ ) {
+                values[i] = readVarInt();
+            }
+            return values;
+        }
+
+        byte[] readBytes() {
+            final int length = readUnsignedVarInt();
+            if ( length > end - position ) {
+                throw new TribbleException("Truncated binary GVCF record");
+            }
+            final byte[] bytes = Arrays.copyOfRange(buffer, position, position + length);
+            position += length;
+            return bytes;
+        }
+
+        String readString() {
+            final int length = readUnsignedVarInt();
+            if ( length > end - position ) {
+                throw new TribbleException("Truncated binary GVCF record");
+            }
+            final String value = new String(buffer, position, length, StandardCharsets.UTF_8);
+            position += length;
+            return value;
+        }
+
+        double readDouble() {
+            long bits = 0;
+            for ( int i = 0; i < 8; i++ ) {
+                bits = bits << 8 | (readByte() & 0xff);
+            }
+            return Double.longBitsToDouble(bits);
+        }
+    }
+}
@@ -21,11 +21,20 @@ import org.broadinstitute.hellbender.utils.Utils;
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.List;
 
 /**
  * A caching version of the IndexedFastaSequenceFile that avoids going to disk as often as the raw indexer.
  *
+ * Keeps up to a fixed number of windows of the reference in memory (see {@link #DEFAULT_CACHE_WINDOWS}),
+ * evicting the least recently used window when a new one is loaded, so that access patterns alternating
+ * between a few distant loci (e.g. mates, breakpoints, or the intervals of a multi-interval shard) keep
+ * hitting the cache.
+ *
+ * Instances are thread-safe, and can be shared by the threads of a parallel traversal.
+ *
  * Automatically upper-cases the bases coming in, unless the flag preserveCase is explicitly set.
  * Automatically converts IUPAC bases to Ns, unless the flag preserveIUPAC is explicitly set.
  *
@@ -45,9 +54,21 @@ public final class CachingIndexedFastaSequenceFile implements ReferenceSequenceF
     /** The default cache size in bp */
     public static final long DEFAULT_CACHE_SIZE = 1000000;
 
-    /** The cache size of this CachingIndexedFastaSequenceFile */
+    /** The default maximum number of windows kept in the cache */
+    public static final int DEFAULT_CACHE_WINDOWS = 4;
+
+    /** The default maximum number of bases kept in the cache: only the number of windows is bounded */
+    public static final long DEFAULT_MAX_CACHE_BYTES = Long.MAX_VALUE;
+
+    /** The cache size of this CachingIndexedFastaSequenceFile, i.e. the size of each window in bp */
     private final long cacheSize;
 
+    /** The maximum number of windows kept in the cache */
+    private final int maxCacheWindows;
+
+    /** The maximum number of bases kept in the cache, over all windows */
+    private final long maxCacheBytes;
+
     /** When we have a cache miss at position X, we load sequence from X - cacheMissBackup */
     private final long cacheMissBackup;
 
@@ -61,17 +82,35 @@ public final class CachingIndexedFastaSequenceFile implements ReferenceSequenceF
      */
     private final boolean preserveIUPAC;
 
-    // information about checking efficiency
-    long cacheHits = 0;
-    long cacheMisses = 0;
+    // information about checking efficiency, guarded by the lock on windows
+    private long cacheHits = 0;
+    private long cacheMisses = 0;
+
+    /**
+     * Represents a specific cached sequence, with a specific start and stop, as well as the bases.
+     * The bases are never modified once the window is in the cache.
+     */
+    private static final class CacheWindow {
+        final long start, stop;
+        final ReferenceSequence seq;
+        long hits = 0;
+
+        CacheWindow(final long start, final long stop, final ReferenceSequence seq) {
+            this.start = start;
+            this.stop = stop;
+            this.seq = seq;
+        }
 
-    /** Represents a specific cached sequence, with a specific start and stop, as well as the bases */
-    private static class Cache {
-        long start = -1, stop = -1;
-        ReferenceSequence seq = null;
+        boolean contains(final int contigIndex, final long start, final long stop) {
+            return seq.getContigIndex() == contigIndex && start >= this.start && stop <= this.stop;
+        }
     }
 
-    private final Cache cache = new Cache();
+    /** The cached windows, most recently used first. All accesses must hold the lock on this list. */
+    private final List<CacheWindow> windows = new ArrayList<>();
+
+    /** Total number of bases in {@link #windows} */
+    private long cachedBytes = 0;
 
     /**
      * Assert that the fasta reader we opened is indexed.  It should be because we asserted that the indexes existed
@@ -139,15 +178,40 @@ public final class CachingIndexedFastaSequenceFile implements ReferenceSequenceF
      * @param preserveIUPAC If true, we will keep the IUPAC bases in the FASTA, otherwise they are converted to Ns
      */
      public CachingIndexedFastaSequenceFile(final Path fasta, final long cacheSize, final boolean preserveCase, final boolean  preserveIUPAC) {
+        this(fasta, cacheSize, DEFAULT_CACHE_WINDOWS, DEFAULT_MAX_CACHE_BYTES, preserveCase, preserveIUPAC);
+    }
+
+    /**
+     * Open the given indexed fasta sequence file.  Throw an exception if the file cannot be opened.
+     *
+     * Looks for index files for the fasta on disk
+     * Uses provided cacheSize, number of windows and cache byte limit instead of the defaults
+     *
+     * NOTE: Most GATK tools do not support data created by setting {@code preserveCase} or {@code preserveIUPAC} to {@code true}.
+     *
+     * @param fasta The file to open.
+     * @param cacheSize the size of each cache window in this CachingIndexedFastaReader, must be > 0
+     * @param maxCacheWindows the maximum number of windows kept in the cache, must be > 0
+     * @param maxCacheBytes the maximum number of bases kept in the cache over all windows, must be > 0.
+     *                      The most recently loaded window is always kept, even if it is larger than this limit.
+     * @param preserveCase If true, we will keep the case of the underlying bases in the FASTA, otherwise everything is converted to upper case
+     * @param preserveIUPAC If true, we will keep the IUPAC bases in the FASTA, otherwise they are converted to Ns
+     */
+    public CachingIndexedFastaSequenceFile(final Path fasta, final long cacheSize, final int maxCacheWindows, final long maxCacheBytes,
+                                           final boolean preserveCase, final boolean preserveIUPAC) {
         // Check the FASTA path:
         checkFastaPath(fasta);
         Utils.validate(cacheSize > 0, () -> "Cache size must be > 0 but was " + cacheSize);
+        Utils.validate(maxCacheWindows > 0, () -> "Number of cache windows must be > 0 but was " + maxCacheWindows);
+        Utils.validate(maxCacheBytes > 0, () -> "Maximum cache bytes must be > 0 but was " + maxCacheBytes);
 
         // Read reference data by creating an IndexedFastaSequenceFile.
         try {
             final ReferenceSequenceFile referenceSequenceFile = ReferenceSequenceFileFactory.getReferenceSequenceFile(fasta, true, true);
             sequenceFile = requireIndex(fasta, referenceSequenceFile);
             this.cacheSize = cacheSize;
+            this.maxCacheWindows = maxCacheWindows;
+            this.maxCacheBytes = maxCacheBytes;
             this.cacheMissBackup = Math.max(cacheSize / 1000, 1);
             this.preserveCase = preserveCase;
             this.preserveIUPAC = preserveIUPAC;
@@ -200,10 +264,18 @@ public final class CachingIndexedFastaSequenceFile implements ReferenceSequenceF
     }
 
     /**
-     * Print the efficiency (hits / queries) to logger with priority
+     * Print the efficiency (hits / queries) to logger with priority, followed by the number of hits
+     * of each window currently in the cache
      */
     public void printEfficiency(final Level priority) {
-        logger.log(priority, String.format("### CachingIndexedFastaReader: hits=%d misses=%d efficiency %.6f%%", cacheHits, cacheMisses, calcEfficiency()));
+        synchronized (windows) {
+            logger.log(priority, String.format("### CachingIndexedFastaReader: hits=%d misses=%d efficiency %.6f%% windows=%d bases=%d",
+                    cacheHits, cacheMisses, calcEfficiency(), windows.size(), cachedBytes));
+            for ( final CacheWindow window : windows ) {
+                logger.log(priority, String.format("###   window %s:%d-%d: hits=%d",
+                        window.seq.getName(), window.start, window.stop, window.hits));
+            }
+        }
     }
 
     /**
@@ -211,21 +283,27 @@ public final class CachingIndexedFastaSequenceFile implements ReferenceSequenceF
      * @return
      */
     public double calcEfficiency() {
-        return 100.0 * cacheHits / (cacheMisses + cacheHits * 1.0);
+        synchronized (windows) {
+            return 100.0 * cacheHits / (cacheMisses + cacheHits * 1.0);
+        }
     }
 
     /**
      * @return the number of cache hits that have occurred
      */
     public long getCacheHits() {
-        return cacheHits;
+        synchronized (windows) {
+            return cacheHits;
+        }
     }
 
     /**
      * @return the number of cache misses that have occurred
      */
     public long getCacheMisses() {
-        return cacheMisses;
+        synchronized (windows) {
+            return cacheMisses;
+        }
     }
 
     /**
@@ -235,6 +313,22 @@ public final class CachingIndexedFastaSequenceFile implements ReferenceSequenceF
         return cacheSize;
     }
 
+    /**
+     * @return the maximum number of windows kept in the cache
+     */
+    public int getMaxCacheWindows() {
+        return maxCacheWindows;
+    }
+
+    /**
+     * @return the number of windows currently in the cache
+     */
+    public int getNumCachedWindows() {
+        synchronized (windows) {
+            return windows.size();
+        }
+    }
+
     /**
      * Is this CachingIndexedFastaReader keeping the original case of bases in the fasta, or is
      * everything being made upper case?
@@ -263,7 +357,9 @@ public final class CachingIndexedFastaSequenceFile implements ReferenceSequenceF
      */
     @Override
     public ReferenceSequence nextSequence() {
-        return sequenceFile.nextSequence();
+        synchronized (sequenceFile) {
+            return sequenceFile.nextSequence();
+        }
     }
 
     /**
@@ -272,7 +368,9 @@ public final class CachingIndexedFastaSequenceFile implements ReferenceSequenceF
      */
     @Override
     public void reset() {
-        sequenceFile.reset();
+        synchronized (sequenceFile) {
+            sequenceFile.reset();
+        }
     }
 
     /**
@@ -315,8 +413,10 @@ public final class CachingIndexedFastaSequenceFile implements ReferenceSequenceF
         final ReferenceSequence result;
 
         if ( (stop - start + 1) > cacheSize ) {
-            cacheMisses++;
-            result = sequenceFile.getSubsequenceAt(contig, start, stop);
+            synchronized (windows) {
+                cacheMisses++;
+            }
+            result = readSubsequence(contig, start, stop);
             if ( ! preserveCase ) StringUtil.toUpperCase(result.getBases());
             if ( ! preserveIUPAC ) BaseUtils.convertIUPACtoN(result.getBases(), true, start < 1);
         } else {
@@ -329,28 +429,39 @@ public final class CachingIndexedFastaSequenceFile implements ReferenceSequenceF
             if (stop > contigInfo.getSequenceLength())
                 throw new SAMException("Query asks for data past end of contig. Query contig " + contig + " start:" + start + " stop:" + stop + " contigLength:" +  contigInfo.getSequenceLength());
 
-            if ( start < cache.start || stop > cache.stop || cache.seq == null || cache.seq.getContigIndex() != contigInfo.getSequenceIndex() ) {
-                cacheMisses++;
-                cache.start = Math.max(start - cacheMissBackup, 0);
-                cache.stop  = Math.min(start + cacheSize + cacheMissBackup, contigInfo.getSequenceLength());
-                cache.seq   = sequenceFile.getSubsequenceAt(contig, cache.start, cache.stop);
+            CacheWindow window;
+            synchronized (windows) {
+                window = findWindow(contigInfo.getSequenceIndex(), start, stop);
+                if ( window != null ) {
+                    cacheHits++;
+                    window.hits++;
+                } else {
+                    cacheMisses++;
+                }
+            }
+
+            if ( window == null ) {
+                // load the new window without holding the lock on the cache, so that other threads can keep using it
+                final long windowStart = Math.max(start - cacheMissBackup, 0);
+                final long windowStop = Math.min(start + cacheSize + cacheMissBackup, contigInfo.getSequenceLength());
+                final ReferenceSequence seq = readSubsequence(contig, windowStart, windowStop);
 
                 // convert all of the bases in the sequence to upper case if we aren't preserving cases
-                if ( ! preserveCase ) StringUtil.toUpperCase(cache.seq.getBases());
-                if ( ! preserveIUPAC ) BaseUtils.convertIUPACtoN(cache.seq.getBases(), true, cache.start == 0);
-            } else {
-                cacheHits++;
+                if ( ! preserveCase ) StringUtil.toUpperCase(seq.getBases());
+                if ( ! preserveIUPAC ) BaseUtils.convertIUPACtoN(seq.getBases(), true, windowStart == 0);
+
+                window = addWindow(new CacheWindow(windowStart, windowStop, seq), start, stop);
             }
 
             // at this point we determine where in the cache we want to extract the requested subsequence
-            final int cacheOffsetStart = (int)(start - cache.start);
+            final int cacheOffsetStart = (int)(start - window.start);
             final int cacheOffsetStop = (int)(stop - start + cacheOffsetStart + 1);
 
             try {
-                result = new ReferenceSequence(cache.seq.getName(), cache.seq.getContigIndex(), Arrays.copyOfRange(cache.seq.getBases(), cacheOffsetStart, cacheOffsetStop));
+                result = new ReferenceSequence(window.seq.getName(), window.seq.getContigIndex(), Arrays.copyOfRange(window.seq.getBases(), cacheOffsetStart, cacheOffsetStop));
             } catch ( ArrayIndexOutOfBoundsException e ) {
                 throw new GATKException(String.format("BUG: bad array indexing.  Cache start %d and end %d, request start %d end %d, offset start %d and end %d, base size %d",
-                        cache.start, cache.stop, start, stop, cacheOffsetStart, cacheOffsetStop, cache.seq.getBases().length), e);
+                        window.start, window.stop, start, stop, cacheOffsetStart, cacheOffsetStop, window.seq.getBases().length), e);
             }
         }
 
@@ -361,11 +472,66 @@ public final class CachingIndexedFastaSequenceFile implements ReferenceSequenceF
         return result;
     }
 
+    /**
+     * Read the bases in [start,stop] from the underlying file, which is not thread-safe
+     */
+    private ReferenceSequence readSubsequence(final String contig, final long start, final long stop) {
+        synchronized (sequenceFile) {
+            return sequenceFile.getSubsequenceAt(contig, start, stop);
+        }
+    }
+
+    /**
+     * Find a cached window containing [start,stop] and move it to the front of the cache.
+     * Must be called while holding the lock on {@link #windows}.
+     *
+     * @return the window, or null if no cached window contains the query
+     */
+    private CacheWindow findWindow(final int contigIndex, final long start, final long stop) {
+        for ( int i = 0; i < windows.size(); i++ ) {
+            final CacheWindow window = windows.get(i);
+            if ( window.contains(contigIndex, start, stop) ) {
+                if ( i > 0 ) {
+                    windows.remove(i);
+                    windows.add(0, window);
+                }
+                return window;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Add a newly loaded window to the front of the cache, evicting the least recently used windows
+     * until the cache fits within its limits again.
+     *
+     * If another thread has cached a window containing [start,stop] in the meantime, that window is returned instead.
+     */
+    private CacheWindow addWindow(final CacheWindow newWindow, final long start, final long stop) {
+        synchronized (windows) {
+            final CacheWindow existing = findWindow(newWindow.seq.getContigIndex(), start, stop);
+            if ( existing != null ) {
+                return existing;
+            }
+
+            windows.add(0, newWindow);
+            cachedBytes += newWindow.seq.length();
+            while ( windows.size() > maxCacheWindows || (cachedBytes > maxCacheBytes && windows.size() > 1) ) {
+                cachedBytes -= windows.remove(windows.size() - 1).seq.length();
+            }
+            return newWindow;
+        }
+    }
+
     /**
      * Close the backing {@link ReferenceSequenceFile}
      */
     @Override
     public void close() {
+        synchronized (windows) {
+            windows.clear();
+            cachedBytes = 0;
+        }
         try {
             this.sequenceFile.close();
         } catch (IOException e){
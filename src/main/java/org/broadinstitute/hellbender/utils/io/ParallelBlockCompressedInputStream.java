@@ -0,0 +1,268 @@
+package org.broadinstitute.hellbender.utils.io;
+
+import htsjdk.samtools.util.BlockCompressedStreamConstants;
+import htsjdk.samtools.util.BlockGunzipper;
+import htsjdk.samtools.util.zip.InflaterFactory;
+import org.broadinstitute.hellbender.exceptions.GATKException;
+import org.broadinstitute.hellbender.exceptions.UserException;
+import org.broadinstitute.hellbender.utils.Utils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.ReadableByteChannel;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+/**
+ * An InputStream over the uncompressed contents of a BGZF (block-compressed) file that inflates
+ * blocks in parallel.
+ *
+ * Compressed blocks are read sequentially from a channel on the calling thread, up to a fixed number of blocks ahead
+ * of the current position, and handed to an {@link ExecutorService} to be inflated. Uncompressed blocks are then
+ * consumed in file order, so the bytes returned are the same as those of an htsjdk BlockCompressedInputStream.
+ * Inflaters are made by the default htsjdk {@link InflaterFactory}, so that the Intel inflater is used when it is
+ * available.
+ *
+ * Only supports sequential reading from the start of the data: there is no support for seeking to virtual file
+ * offsets. Instances are not thread-safe, but several instances can share the same executor.
+ */
+public final class ParallelBlockCompressedInputStream extends InputStream {
+    private static final byte[] EMPTY_BLOCK = new byte[0];
+
+    private final ReadableByteChannel channel;
+    private final String source;
+    private final ExecutorService executor;
+    private final int maxBlocksAhead;
+    private final InflaterFactory inflaterFactory = BlockGunzipper.getDefaultInflaterFactory();
+
+    /** Uncompressed blocks being inflated, in file order */
+    private final Deque<Future<byte[]>> pendingBlocks = new ArrayDeque<>();
+
+    /** Inflaters not currently in use by any inflation task */
+    private final Queue<Inflater> idleInflaters = new ConcurrentLinkedQueue<>();
+
+    private final ByteBuffer headerBuffer = ByteBuffer.allocate(BlockCompressedStreamConstants.BLOCK_HEADER_LENGTH).order(ByteOrder.LITTLE_ENDIAN);
+
+    private byte[] currentBlock = EMPTY_BLOCK;
+    private int currentOffset = 0;
+    private boolean endOfChannel = false;
+    private boolean closed = false;
+
+    /**
+     * @param channel channel positioned at the start of a BGZF block, typically the start of the file. Closed when this stream is closed.
+     * @param source description of the data being read, for error messages
+     * @param executor executor on which to inflate blocks
+     * @param maxBlocksAhead maximum number of blocks read ahead of the current position, must be positive
+     */
+    public ParallelBlockCompressedInputStream(final ReadableByteChannel channel, final String source,
+                                              final ExecutorService executor, final int maxBlocksAhead) {
+        this.channel = Utils.nonNull(channel);
+        this.source = Utils.nonNull(source);
+        this.executor = Utils.nonNull(executor);
+        Utils.validateArg(maxBlocksAhead > 0, "maxBlocksAhead must be positive");
+        this.maxBlocksAhead = maxBlocksAhead;
+    }
+
+    @Override
+    public int read() throws IOException {
+        if ( ! advanceToNonEmptyBlock() ) {
+            return -1;
+        }
+        return currentBlock[currentOffset++] & 0xff;
+    }
+
+    @Override
+    public int read(final byte[] buffer, final int offset, final int length) throws IOException {
+        Utils.nonNull(buffer);
+        if ( offset < 0 || length < 0 || length > buffer.length - offset ) {
+            throw new IndexOutOfBoundsException();
+        }
+        if ( length == 0 ) {
+            return 0;
+        }
+
+        int bytesRead = 0;
+        while ( bytesRead < length && advanceToNonEmptyBlock() ) {
+            final int chunk = Math.min(length - bytesRead, currentBlock.length - currentOffset);
+            System.arraycopy(currentBlock, currentOffset, buffer, offset + bytesRead, chunk);
+            currentOffset += chunk;
+            bytesRead += chunk;
+        }
+        return bytesRead == 0 ? -1 : bytesRead;
+    }
+
+    @Override
+    public int available() {
+        return currentBlock.length - currentOffset;
+    }
+
+    /**
+     * Waits for any inflation in progress, then releases the inflaters and closes the underlying channel.
+     */
+    @Override
+    public void close() throws IOException {
+        if ( closed ) {
+            return;
+        }
+        closed = true;
+
+        // inflaters may only be released once no task is using them, and there are at most maxBlocksAhead tasks to wait for
+        for ( final Future<byte[]> pending : pendingBlocks ) {
+            try {
+                pending.get();
+            } catch ( final Exception e ) {
+                // the data is not needed any more, so neither are its errors
+            }
+        }
+        pendingBlocks.clear();
+        for ( Inflater inflater = idleInflaters.poll(); inflater != null; inflater = idleInflaters.poll() ) {
+            inflater.end();
+        }
+        channel.close();
+    }
+
+    /**
+     * Make sure that the current block has bytes left to read, moving on to the next non-empty block if needed.
+     *
+     * @return false if the end of the data has been reached
+     */
+    private boolean advanceToNonEmptyBlock() throws IOException {
+        if ( closed ) {
+            throw new IOException("Stream closed: " + source);
+        }
+        while ( currentOffset >= currentBlock.length ) {
+            readAhead();
+            if ( pendingBlocks.isEmpty() ) {
+                return false;
+            }
+            currentBlock = awaitBlock(pendingBlocks.removeFirst());
+            currentOffset = 0;
+        }
+        readAhead();
+        return true;
+    }
+
+    /**
+     * Queue compressed blocks for inflation until we are {@link #maxBlocksAhead} blocks ahead, or the channel is exhausted
+     */
+    private void readAhead() throws IOException {
+        while ( ! endOfChannel && pendingBlocks.size() < maxBlocksAhead ) {
+            final byte[] compressedBlock = readCompressedBlock();
+            if ( compressedBlock == null ) {
+                endOfChannel = true;
+            } else {
+                pendingBlocks.addLast(executor.submit(() -> inflateBlock(compressedBlock)));
+            }
+        }
+    }
+
+    /**
+     * @return the next complete compressed block, header and footer included, or null at the end of the channel
+     */
+    private byte[] readCompressedBlock() throws IOException {
+        headerBuffer.clear();
+        final int headerBytes = readFully(headerBuffer);
+        if ( headerBytes == 0 ) {
+            return null;
+        }
+        if ( headerBytes < BlockCompressedStreamConstants.BLOCK_HEADER_LENGTH ) {
+            throw new UserException.MalformedFile("Premature end of file while reading BGZF block header from " + source);
+        }
+        if ( headerBuffer.get(0) != BlockCompressedStreamConstants.GZIP_ID1 ||
+             headerBuffer.get(1) != (byte) BlockCompressedStreamConstants.GZIP_ID2 ||
+             headerBuffer.get(3) != BlockCompressedStreamConstants.GZIP_FLG ) {
+            throw new UserException.MalformedFile("Invalid BGZF block header in " + source + ": the file is not block-compressed");
+        }
+
+        final int blockLength = (headerBuffer.getShort(BlockCompressedStreamConstants.BLOCK_LENGTH_OFFSET) & 0xffff) + 1;
+        if ( blockLength < BlockCompressedStreamConstants.BLOCK_HEADER_LENGTH + BlockCompressedStreamConstants.BLOCK_FOOTER_LENGTH ) {
+            throw new UserException.MalformedFile("Invalid BGZF block size " + blockLength + " in " + source);
+        }
+
+        final byte[] block = new byte[blockLength];
+        System.arraycopy(headerBuffer.array(), 0, block, 0, BlockCompressedStreamConstants.BLOCK_HEADER_LENGTH);
+        final ByteBuffer body = ByteBuffer.wrap(block, BlockCompressedStreamConstants.BLOCK_HEADER_LENGTH,
+                                                blockLength - BlockCompressedStreamConstants.BLOCK_HEADER_LENGTH);
+        if ( readFully(body) < blockLength - BlockCompressedStreamConstants.BLOCK_HEADER_LENGTH ) {
+            throw new UserException.MalformedFile("Premature end of file while reading BGZF block from " + source);
+        }
+        return block;
+    }
+
+    /**
+     * Read from the channel until the buffer is full or the end of the channel is reached
+     *
+     * @return the number of bytes read
+     */
+    private int readFully(final ByteBuffer buffer) throws IOException {
+        int total = 0;
+        while ( buffer.hasRemaining() ) {
+            final int read = channel.read(buffer);
+            if ( read < 0 ) {
+                break;
+            }
+            total += read;
+        }
+        return total;
+    }
+
+    /**
+     * Inflate one compressed block. Runs on the executor.
+     */
+    private byte[] inflateBlock(final byte[] compressedBlock) {
+        final int uncompressedLength = ByteBuffer.wrap(compressedBlock, compressedBlock.length - 4, 4).order(ByteOrder.LITTLE_ENDIAN).getInt();
+        if ( uncompressedLength < 0 || uncompressedLength > BlockCompressedStreamConstants.DEFAULT_UNCOMPRESSED_BLOCK_SIZE ) {
+            throw new UserException.MalformedFile("Invalid uncompressed BGZF block size " + uncompressedLength + " in " + source);
+        }
+        if ( uncompressedLength == 0 ) {
+            return EMPTY_BLOCK;
+        }
+
+        final byte[] uncompressedBlock = new byte[uncompressedLength];
+        Inflater inflater = idleInflaters.poll();
+        if ( inflater == null ) {
+            inflater = inflaterFactory.makeInflater(true);
+        }
+        try {
+            inflater.reset();
+            inflater.setInput(compressedBlock, BlockCompressedStreamConstants.BLOCK_HEADER_LENGTH,
+                    compressedBlock.length - BlockCompressedStreamConstants.BLOCK_HEADER_LENGTH - BlockCompressedStreamConstants.BLOCK_FOOTER_LENGTH);
+            final int inflatedLength = inflater.inflate(uncompressedBlock, 0, uncompressedLength);
+            if ( inflatedLength != uncompressedLength ) {
+                throw new UserException.MalformedFile("Did not inflate expected amount of data from BGZF block in " + source +
+                        ": expected " + uncompressedLength + " bytes but got " + inflatedLength);
+            }
+        } catch ( final DataFormatException e ) {
+            throw new UserException.MalformedFile("Corrupt BGZF block in " + source + ": " + e.getMessage());
+        } finally {
+            idleInflaters.add(inflater);
+        }
+        return uncompressedBlock;
+    }
+
+    private byte[] awaitBlock(final Future<byte[]> pending) {
+        try {
+            return pending.get();
+        } catch ( final ExecutionException e ) {
+            final Throwable cause = e.getCause();
+            if ( cause instanceof RuntimeException ) {
+                throw (RuntimeException) cause;
+            } else if ( cause instanceof Error ) {
+                throw (Error) cause;
+            }
+            throw new GATKException("Error inflating BGZF block from " + source, cause);
+        } catch ( final InterruptedException e ) {
+            Thread.currentThread().interrupt();
+            throw new GATKException("Interrupted while inflating BGZF block from " + source, e);
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package org.broadinstitute.hellbender.utils.iterators;
+
+import htsjdk.samtools.SAMFileHeader;
+import htsjdk.samtools.util.BinaryCodec;
+import htsjdk.samtools.util.BlockCompressedInputStream;
+import htsjdk.samtools.util.CloseableIterator;
+import org.broadinstitute.hellbender.exceptions.GATKException;
+import org.broadinstitute.hellbender.exceptions.UserException;
+import org.broadinstitute.hellbender.utils.Utils;
+import org.broadinstitute.hellbender.utils.io.ParallelBlockCompressedInputStream;
+import org.broadinstitute.hellbender.utils.read.GATKRead;
+import org.broadinstitute.hellbender.utils.read.LazyBAMRecordToGATKReadAdapter;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.SeekableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ExecutorService;
+import java.util.function.Function;
+
+/**
+ * Iterates over all of the records of a BAM file, from start to end, as {@link LazyBAMRecordToGATKReadAdapter}s:
+ * only the raw bytes of each record are read, and their fields are decoded when first accessed.
+ *
+ * Blocks are inflated either on the calling thread, or in parallel on an executor
+ * (see {@link ParallelBlockCompressedInputStream}). The records are not validated.
+ */
+public final class LazyBAMReadIterator implements CloseableIterator<GATKRead> {
+    private final InputStream inputStream;
+    private final BinaryCodec codec;
+    private final SAMFileHeader header;
+    private final String source;
+
+    private final byte[] blockSizeBuffer = new byte[4];
+    private GATKRead nextRead;
+
+    /**
+     * @param bamPath BAM file to iterate over
+     * @param channelWrapper wrapper to apply to the channel opened on bamPath (e.g. a cloud prefetcher); may be the identity
+     * @param header header of the file, as read by htsjdk, to associate with the records
+     * @param inflaterPool executor on which to inflate blocks, or null to inflate them on the calling thread
+     * @param maxBlocksAhead maximum number of blocks to read ahead of the current record, if inflaterPool is not null
+     */
+    public LazyBAMReadIterator(final Path bamPath, final Function<SeekableByteChannel, SeekableByteChannel> channelWrapper,
+                               final SAMFileHeader header, final ExecutorService inflaterPool, final int maxBlocksAhead) {
+        Utils.nonNull(bamPath);
+        Utils.nonNull(channelWrapper);
+        this.header = Utils.nonNull(header);
+        this.source = bamPath.toUri().toString();
+
+        try {
+            final SeekableByteChannel channel = channelWrapper.apply(Files.newByteChannel(bamPath));
+            inputStream = inflaterPool != null ?
+                    new ParallelBlockCompressedInputStream(channel, source, inflaterPool, maxBlocksAhead) :
+                    new BlockCompressedInputStream(new BufferedInputStream(Channels.newInputStream(channel)));
+        } catch ( final IOException e ) {
+            throw new UserException.CouldNotReadInputFile(bamPath, e);
+        }
+
+        codec = new BinaryCodec(inputStream);
+        try {
+            ParallelInflatingBAMIterator.skipHeader(codec, source);
+            nextRead = readNextRead();
+        } catch ( final RuntimeException e ) {
+            close();
+            throw e;
+        }
+    }
+
+    private GATKRead readNextRead() {
+        final int bytesRead = codec.readBytesOrFewer(blockSizeBuffer, 0, blockSizeBuffer.length);
+        if ( bytesRead <= 0 ) {
+            return null;
+        }
+        if ( bytesRead < blockSizeBuffer.length ) {
+            throw new UserException.MalformedFile("Premature end of file while reading BAM record from " + source);
+        }
+
+        final int blockSize = (blockSizeBuffer[0] & 0xff) | (blockSizeBuffer[1] & 0xff) << 8 |
+                              (blockSizeBuffer[2] & 0xff) << 16 | (blockSizeBuffer[3] & 0xff) << 24;
+        if ( blockSize < LazyBAMRecordToGATKReadAdapter.FIXED_FIELDS_LENGTH ) {
+            throw new UserException.MalformedFile("Invalid BAM record size " + blockSize + " in " + source);
+        }
+        final byte[] data = new byte[blockSize];
+        codec.readBytes(data);
+        return new LazyBAMRecordToGATKReadAdapter(header, data);
+    }
+
+    @Override
+    public boolean hasNext() {
+        return nextRead != null;
+    }
+
+    @Override
+    public GATKRead next() {
+        if ( nextRead == null ) {
+            throw new NoSuchElementException("No more records in " + source);
+        }
+        final GATKRead read = nextRead;
+        nextRead = readNextRead();
+        return read;
+    }
+
+    @Override
+    public void close() {
+        nextRead = null;
+        try {
+            inputStream.close();
+        } catch ( final IOException e ) {
+            throw new GATKException("Error closing " + source, e);
+        }
+    }
+}
@@ -0,0 +1,135 @@
+package org.broadinstitute.hellbender.utils.iterators;
+
+import htsjdk.samtools.util.CloseableIterator;
+import org.broadinstitute.hellbender.exceptions.GATKException;
+import org.broadinstitute.hellbender.utils.Utils;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+
+/**
+ * Iterates over the elements of a source iterator (e.g. over the records of a text file), pulling them from the
+ * source and finishing their decoding in batches on an executor, one batch ahead of the caller: as soon as the caller
+ * starts on a batch, the next one is submitted.
+ *
+ * Each batch is a separate, finite task, so any number of these iterators may share an executor with fewer threads
+ * (e.g. one per input of a k-way merge), and at most two batches per iterator are held in memory. The tasks of an
+ * iterator never run concurrently with each other, so the source iterator, and the decoder, need not be thread-safe,
+ * but the elements must not depend on any state of the source that is modified by decoding the elements that follow
+ * them, unless the decoder finishes decoding them.
+ *
+ * Closing this iterator waits for any batch being decoded, and does not close the source.
+ */
+public final class ParallelDecodingIterator<T> implements CloseableIterator<T> {
+    private final Iterator<T> source;
+    private final Consumer<T> decoder;
+    private final ExecutorService executor;
+    private final int batchSize;
+    private final String description;
+
+    /**
+     * Held by the task decoding a batch, so that closing waits for it
+     */
+    private final Object decodingLock = new Object();
+    private volatile boolean closed = false;
+
+    private Future<List<T>> nextBatch;
+    private Iterator<T> currentBatch = Collections.emptyIterator();
+
+    /**
+     * @param source iterator over the elements, only accessed on the executor
+     * @param decoder applied to each element on the executor, once it has been pulled from the source, to finish decoding it
+     * @param executor executor on which to decode batches
+     * @param batchSize number of elements per batch
+     * @param description description of the source, for error messages
+     */
+    public ParallelDecodingIterator(final Iterator<T> source, final Consumer<T> decoder, final ExecutorService executor,
+                                    final int batchSize, final String description) {
+        this.source = Utils.nonNull(source);
+        this.decoder = Utils.nonNull(decoder);
+        this.executor = Utils.nonNull(executor);
+        Utils.validateArg(batchSize > 0, "batchSize must be positive");
+        this.batchSize = batchSize;
+        this.description = Utils.nonNull(description);
+
+        nextBatch = submitNextBatch();
+    }
+
+    private Future<List<T>> submitNextBatch() {
+        return executor.submit(() -> {
+            synchronized (decodingLock) {
+                final List<T> batch = new ArrayList<>(batchSize);
+                while ( ! closed && batch.size() < batchSize && source.hasNext() ) {
+                    final T element = source.next();
+                    decoder.accept(element);
+                    batch.add(element);
+                }
+                return batch;
+            }
+        });
+    }
+
+    @Override
+    public boolean hasNext() {
+        while ( ! currentBatch.hasNext() ) {
+            if ( nextBatch == null ) {
+                return false;
+            }
+            final List<T> batch = awaitNextBatch();
+            // a short batch means that the source is exhausted
+            nextBatch = batch.size() == batchSize ? submitNextBatch() : null;
+            currentBatch = batch.iterator();
+        }
+        return true;
+    }
+
+    @Override
+    public T next() {
+        if ( ! hasNext() ) {
+            throw new NoSuchElementException("No more elements in " + description);
+        }
+        return currentBatch.next();
+    }
+
+    /**
+     * Wait for the next batch to be decoded, rethrowing any failure of the source or decoder
+     */
+    private List<T> awaitNextBatch() {
+        try {
+            return nextBatch.get();
+        } catch ( final InterruptedException e ) {
+            Thread.currentThread().interrupt();
+            throw new GATKException("Interrupted while waiting for " + description + " to be decoded", e);
+        } catch ( final ExecutionException e ) {
+            nextBatch = null;
+            if ( e.getCause() instanceof RuntimeException ) {
+                throw (RuntimeException) e.getCause();
+            } else if ( e.getCause() instanceof Error ) {
+                throw (Error) e.getCause();
+            }
+            throw new GATKException("Failure while decoding " + description, e.getCause());
+        }
+    }
+
+    /**
+     * Stop decoding, and wait for any batch being decoded, so that the source may be closed by the caller
+     */
+    @Override
+    public void close() {
+        closed = true;
+        if ( nextBatch != null ) {
+            nextBatch.cancel(false);
+            nextBatch = null;
+        }
+        synchronized (decodingLock) {
+            currentBatch = Collections.emptyIterator();
+        }
+    }
+}
@@ -0,0 +1,144 @@
+package org.broadinstitute.hellbender.utils.iterators;
+
+import htsjdk.samtools.BAMRecordCodec;
+import htsjdk.samtools.SAMFileHeader;
+import htsjdk.samtools.SAMRecord;
+import htsjdk.samtools.SAMUtils;
+import htsjdk.samtools.ValidationStringency;
+import htsjdk.samtools.util.BinaryCodec;
+import htsjdk.samtools.util.CloseableIterator;
+import org.broadinstitute.hellbender.exceptions.GATKException;
+import org.broadinstitute.hellbender.exceptions.UserException;
+import org.broadinstitute.hellbender.utils.Utils;
+import org.broadinstitute.hellbender.utils.io.ParallelBlockCompressedInputStream;
+
+import java.io.IOException;
+import java.nio.channels.SeekableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ExecutorService;
+import java.util.function.Function;
+
+/**
+ * Iterates over all of the records of a BAM file, from start to end, inflating its BGZF blocks in parallel
+ * (see {@link ParallelBlockCompressedInputStream}) and decoding the records on the calling thread.
+ *
+ * Produces the same records, in the same order, as the iterator of an htsjdk SamReader over the same file,
+ * and validates them in the same way, but does not support queries by interval.
+ */
+public final class ParallelInflatingBAMIterator implements CloseableIterator<SAMRecord> {
+    private static final byte[] BAM_MAGIC = {'B', 'A', 'M', 1};
+
+    private final ParallelBlockCompressedInputStream inputStream;
+    private final BAMRecordCodec recordCodec;
+    private final ValidationStringency validationStringency;
+    private final String source;
+
+    private SAMRecord nextRecord;
+    private long recordIndex = 0;
+
+    /**
+     * @param bamPath BAM file to iterate over
+     * @param channelWrapper wrapper to apply to the channel opened on bamPath (e.g. a cloud prefetcher); may be the identity
+     * @param header header of the file, as read by htsjdk, to associate with the records
+     * @param validationStringency stringency with which to validate the records
+     * @param inflaterPool executor on which to inflate blocks
+     * @param maxBlocksAhead maximum number of blocks to read ahead of the current record
+     */
+    public ParallelInflatingBAMIterator(final Path bamPath, final Function<SeekableByteChannel, SeekableByteChannel> channelWrapper,
+                                        final SAMFileHeader header, final ValidationStringency validationStringency,
+                                        final ExecutorService inflaterPool, final int maxBlocksAhead) {
+        Utils.nonNull(bamPath);
+        Utils.nonNull(channelWrapper);
+        Utils.nonNull(header);
+        this.validationStringency = Utils.nonNull(validationStringency);
+        this.source = bamPath.toUri().toString();
+
+        try {
+            inputStream = new ParallelBlockCompressedInputStream(channelWrapper.apply(Files.newByteChannel(bamPath)), source, inflaterPool, maxBlocksAhead);
+        } catch ( final IOException e ) {
+            throw new UserException.CouldNotReadInputFile(bamPath, e);
+        }
+
+        recordCodec = new BAMRecordCodec(header);
+        try {
+            skipHeader(new BinaryCodec(inputStream), source);
+            recordCodec.setInputStream(inputStream, source);
+            nextRecord = readNextRecord();
+        } catch ( final RuntimeException e ) {
+            close();
+            throw e;
+        }
+    }
+
+    /**
+     * Skip over the binary header at the start of the uncompressed BAM data, when we already have the parsed header
+     *
+     * @param codec codec over the uncompressed BAM data, positioned at its start
+     * @param source description of the data being read, for error messages
+     */
+    static void skipHeader(final BinaryCodec codec, final String source) {
+        final byte[] magic = new byte[BAM_MAGIC.length];
+        codec.readBytes(magic);
+        if ( ! Arrays.equals(magic, BAM_MAGIC) ) {
+            throw new UserException.MalformedFile("Invalid BAM file header in " + source);
+        }
+
+        final int headerTextLength = codec.readInt();
+        skipBytes(codec, headerTextLength, source);
+        final int numReferences = codec.readInt();
+        for ( int i = 0; i < numReferences; i++ ) {
+            final int nameLength = codec.readInt();
+            skipBytes(codec, nameLength, source);
+            codec.readInt(); // reference length
+        }
+    }
+
+    private static void skipBytes(final BinaryCodec codec, final int length, final String source) {
+        if ( length < 0 ) {
+            throw new UserException.MalformedFile("Invalid BAM file header in " + source);
+        }
+        codec.readBytes(new byte[length]);
+    }
+
+    private SAMRecord readNextRecord() {
+        final SAMRecord record = recordCodec.decode();
+        if ( record == null ) {
+            return null;
+        }
+
+        ++recordIndex;
+        record.setValidationStringency(validationStringency);
+        if ( validationStringency != ValidationStringency.SILENT ) {
+            SAMUtils.processValidationErrors(record.isValid(validationStringency == ValidationStringency.STRICT), recordIndex, validationStringency);
+        }
+        return record;
+    }
+
+    @Override
+    public boolean hasNext() {
+        return nextRecord != null;
+    }
+
+    @Override
+    public SAMRecord next() {
+        if ( nextRecord == null ) {
+            throw new NoSuchElementException("No more records in " + source);
+        }
+        final SAMRecord record = nextRecord;
+        nextRecord = readNextRecord();
+        return record;
+    }
+
+    @Override
+    public void close() {
+        nextRecord = null;
+        try {
+            inputStream.close();
+        } catch ( final IOException e ) {
+            throw new GATKException("Error closing " + source, e);
+        }
+    }
+}
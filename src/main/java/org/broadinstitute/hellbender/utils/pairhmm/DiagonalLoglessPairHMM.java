@@ -0,0 +1,203 @@
+package org.broadinstitute.hellbender.utils.pairhmm;
+
+import org.broadinstitute.hellbender.utils.QualityUtils;
+
+import static org.broadinstitute.hellbender.utils.pairhmm.PairHMMModel.*;
+
+/**
+ * Pure-Java logless PairHMM that sweeps the read x haplotype matrix along its anti-diagonals.
+ *
+ * <p>
+ *     All the cells of an anti-diagonal (i + j constant) depend only on the two previous anti-diagonals, so they
+ *     can be computed independently of each other. This implementation keeps only those three anti-diagonals, in
+ *     read-indexed primitive arrays, and stores the per-read transition and prior probabilities as struct-of-arrays
+ *     columns; the haplotype is traversed backwards along each anti-diagonal so that every array is accessed at
+ *     consecutive indices. The base (mis)match priors of each anti-diagonal are looked up first, in a separate loop,
+ *     so that the loop computing the states is a straight-line multiply-add over arrays, with no branches and no
+ *     loop-carried dependencies. The working set is O(read length) instead of the four O(read x haplotype) matrices
+ *     used by {@link LoglessPairHMM}.
+ * </p>
+ * <p>
+ *     Each cell is computed with exactly the same floating point operations, in the same order, as
+ *     {@link LoglessPairHMM}, so both implementations return identical likelihoods.
+ * </p>
+ */
+public final class DiagonalLoglessPairHMM extends PairHMM {
+
+    // per-read constants, indexed by the 1-based read position (index 0 is unused)
+    private double[] matchToMatchProb;
+    private double[] indelToMatchProb;
+    private double[] matchToInsertionProb;
+    private double[] insertionToInsertionProb;
+    private double[] matchToDeletionProb;
+    private double[] deletionToDeletionProb;
+    private double[] baseMatchProb;
+    private double[] baseMismatchProb;
+    private byte[] paddedReadBases;
+
+    // haplotype bases in reverse order, so that they are read at increasing indices along an anti-diagonal
+    private byte[] reversedHaplotypeBases;
+
+    // base (mis)match prior of each cell of the current anti-diagonal, indexed by read position
+    private double[] prior;
+
+    // match, insertion and deletion states for the current anti-diagonal and the two previous ones, indexed by read position
+    private double[] match, insertion, deletion;
+    private double[] previousMatch, previousInsertion, previousDeletion;
+    private double[] secondPreviousMatch, secondPreviousInsertion, secondPreviousDeletion;
+
+    // match and insertion states of the last read position, indexed by haplotype position
+    private double[] lastRowMatch, lastRowInsertion;
+
+    private final double[] siteTransitions = new double[TRANS_PROB_ARRAY_LENGTH];
+
+    @Override
+    public void doNotUseTristateCorrection() {
+        doNotUseTristateCorrection = true;
+    }
+
+    @Override
+    public void initialize( final int readMaxLength, final int haplotypeMaxLength ) {
+        super.initialize(readMaxLength, haplotypeMaxLength);
+
+        matchToMatchProb = new double[paddedMaxReadLength];
+        indelToMatchProb = new double[paddedMaxReadLength];
+        matchToInsertionProb = new double[paddedMaxReadLength];
+        insertionToInsertionProb = new double[paddedMaxReadLength];
+        matchToDeletionProb = new double[paddedMaxReadLength];
+        deletionToDeletionProb = new double[paddedMaxReadLength];
+        baseMatchProb = new double[paddedMaxReadLength];
+        baseMismatchProb = new double[paddedMaxReadLength];
+        paddedReadBases = new byte[paddedMaxReadLength];
+
+        reversedHaplotypeBases = new byte[maxHaplotypeLength];
+        prior = new double[paddedMaxReadLength];
+
+        match = new double[paddedMaxReadLength];
+        insertion = new double[paddedMaxReadLength];
+        deletion = new double[paddedMaxReadLength];
+        previousMatch = new double[paddedMaxReadLength];
+        previousInsertion = new double[paddedMaxReadLength];
+        previousDeletion = new double[paddedMaxReadLength];
+        secondPreviousMatch = new double[paddedMaxReadLength];
+        secondPreviousInsertion = new double[paddedMaxReadLength];
+        secondPreviousDeletion = new double[paddedMaxReadLength];
+
+        lastRowMatch = new double[paddedMaxHaplotypeLength];
+        lastRowInsertion = new double[paddedMaxHaplotypeLength];
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public double subComputeReadLikelihoodGivenHaplotypeLog10( final byte[] haplotypeBases,
+                                                               final byte[] readBases,
+                                                               final byte[] readQuals,
+                                                               final byte[] insertionGOP,
+                                                               final byte[] deletionGOP,
+                                                               final byte[] overallGCP,
+                                                               final int hapStartIndex,
+                                                               final boolean recacheReadValues,
+                                                               final int nextHapStartIndex) {
+        if ( ! constantsAreInitialized || recacheReadValues ) {
+            initializeReadConstants(readBases, readQuals, insertionGOP, deletionGOP, overallGCP);
+            constantsAreInitialized = true;
+        }
+
+        final int readLength = readBases.length;
+        final int haplotypeLength = haplotypeBases.length;
+        for (int j = 0; j < haplotypeLength; j++) {
+            reversedHaplotypeBases[haplotypeLength - 1 - j] = haplotypeBases[j];
+        }
+
+        // free deletions in the beginning: the first row of the deletion matrix
+        final double initialValue = LoglessPairHMM.INITIAL_CONDITION / haplotypeLength;
+
+        for (int diagonal = 0; diagonal <= readLength + haplotypeLength; diagonal++) {
+            rotateDiagonals();
+
+            // boundary cells: first row (i == 0) and first column (j == 0)
+            if ( diagonal <= haplotypeLength ) {
+                match[0] = 0.0;
+                insertion[0] = 0.0;
+                deletion[0] = initialValue;
+            }
+            if ( diagonal >= 1 && diagonal <= readLength ) {
+                match[diagonal] = 0.0;
+                insertion[diagonal] = 0.0;
+                deletion[diagonal] = 0.0;
+            }
+
+            // inner cells: cell (i, j) with j = diagonal - i, whose haplotype base is reversedHaplotypeBases[offset + i]
+            final int from = Math.max(1, diagonal - haplotypeLength);
+            final int to = Math.min(readLength, diagonal - 1);
+            final int offset = haplotypeLength - diagonal;
+            for (int i = from; i <= to; i++) {
+                final byte x = paddedReadBases[i];
+                final byte y = reversedHaplotypeBases[offset + i];
+                prior[i] = x == y || x == (byte) 'N' || y == (byte) 'N' ? baseMatchProb[i] : baseMismatchProb[i];
+            }
+            for (int i = from; i <= to; i++) {
+                match[i] = prior[i] * ( secondPreviousMatch[i - 1] * matchToMatchProb[i] +
+                        secondPreviousInsertion[i - 1] * indelToMatchProb[i] +
+                        secondPreviousDeletion[i - 1] * indelToMatchProb[i] );
+                insertion[i] = previousMatch[i - 1] * matchToInsertionProb[i] + previousInsertion[i - 1] * insertionToInsertionProb[i];
+                deletion[i] = previousMatch[i] * matchToDeletionProb[i] + previousDeletion[i] * deletionToDeletionProb[i];
+            }
+
+            if ( to == readLength && from <= to ) {
+                lastRowMatch[diagonal - readLength] = match[readLength];
+                lastRowInsertion[diagonal - readLength] = insertion[readLength];
+            }
+        }
+
+        // final log probability is the log10 sum of the last element in the Match and Insertion state arrays,
+        // summed in the same order as LoglessPairHMM
+        double finalSumProbabilities = 0.0;
+        for (int j = 1; j <= haplotypeLength; j++) {
+            finalSumProbabilities += lastRowMatch[j] + lastRowInsertion[j];
+        }
+        return Math.log10(finalSumProbabilities) - LoglessPairHMM.INITIAL_CONDITION_LOG10;
+    }
+
+    /**
+     * Make the current anti-diagonal the previous one, and the previous one the one before that, recycling
+     * the oldest arrays for the new current anti-diagonal.
+     */
+    private void rotateDiagonals() {
+        final double[] recycledMatch = secondPreviousMatch;
+        final double[] recycledInsertion = secondPreviousInsertion;
+        final double[] recycledDeletion = secondPreviousDeletion;
+        secondPreviousMatch = previousMatch;
+        secondPreviousInsertion = previousInsertion;
+        secondPreviousDeletion = previousDeletion;
+        previousMatch = match;
+        previousInsertion = insertion;
+        previousDeletion = deletion;
+        match = recycledMatch;
+        insertion = recycledInsertion;
+        deletion = recycledDeletion;
+    }
+
+    /**
+     * Caches the per-read transition and base (mis)match probabilities as 1-based columns.
+     */
+    private void initializeReadConstants(final byte[] readBases, final byte[] readQuals, final byte[] insertionGOP,
+                                         final byte[] deletionGOP, final byte[] overallGCP) {
+        final double tristateCorrection = doNotUseTristateCorrection ? 1.0 : LoglessPairHMM.TRISTATE_CORRECTION;
+        for (int i = 0; i < readBases.length; i++) {
+            qualToTransProbs(siteTransitions, insertionGOP[i], deletionGOP[i], overallGCP[i]);
+            matchToMatchProb[i + 1] = siteTransitions[matchToMatch];
+            indelToMatchProb[i + 1] = siteTransitions[indelToMatch];
+            matchToInsertionProb[i + 1] = siteTransitions[matchToInsertion];
+            insertionToInsertionProb[i + 1] = siteTransitions[insertionToInsertion];
+            matchToDeletionProb[i + 1] = siteTransitions[matchToDeletion];
+            deletionToDeletionProb[i + 1] = siteTransitions[deletionToDeletion];
+
+            baseMatchProb[i + 1] = QualityUtils.qualToProb(readQuals[i]);
+            baseMismatchProb[i + 1] = QualityUtils.qualToErrorProb(readQuals[i]) / tristateCorrection;
+            paddedReadBases[i + 1] = readBases[i];
+        }
+    }
+}
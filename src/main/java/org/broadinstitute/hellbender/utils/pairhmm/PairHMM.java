@@ -50,6 +50,12 @@ public abstract class PairHMM implements Closeable{
             logger.info("Using the non-hardware-accelerated Java LOGLESS_CACHING PairHMM implementation");
             return hmm;
         }),
+        /* Pure-Java version of LOGLESS_CACHING that computes the matrix along anti-diagonals, keeping only three of them in memory. Gives the same results as LOGLESS_CACHING */
+        DIAGONAL_LOGLESS(args -> {
+            final DiagonalLoglessPairHMM hmm = new DiagonalLoglessPairHMM();
+            logger.info("Using the non-hardware-accelerated Java DIAGONAL_LOGLESS PairHMM implementation");
+            return hmm;
+        }),
         /* Optimized AVX implementation of LOGLESS_CACHING called through JNI. Throws if AVX is not available */
         AVX_LOGLESS_CACHING(args -> {
             // Constructor will throw a UserException if AVX is not available
@@ -75,7 +81,7 @@ public abstract class PairHMM implements Closeable{
            Order of precedence:
             1. AVX_LOGLESS_CACHING_OMP
             2. AVX_LOGLESS_CACHING
-            3. LOGLESS_CACHING
+            3. DIAGONAL_LOGLESS
          */
         FASTEST_AVAILABLE(args -> {
             // This try block is temporarily commented out becuase FPGA support is experimental for the time being. Once
@@ -104,8 +110,8 @@ public abstract class PairHMM implements Closeable{
             }
             catch ( UserException.HardwareFeatureException e ) {
                 logger.warn("***WARNING: Machine does not have the AVX instruction set support needed for the accelerated AVX PairHmm. " +
-                            "Falling back to the MUCH slower LOGLESS_CACHING implementation!");
-                return new LoglessPairHMM();
+                            "Falling back to the MUCH slower pure-Java DIAGONAL_LOGLESS implementation!");
+                return new DiagonalLoglessPairHMM();
             }
         });
 
@@ -257,6 +263,43 @@ public abstract class PairHMM implements Closeable{
         }
     }
 
+    /**
+     *  Batch version of {@link #computeLog10Likelihoods(LikelihoodMatrix, List, PairHMMInputScoreImputator)}: computes
+     *  the likelihoods of any number of work units, each a likelihood matrix and the processed reads to evaluate against
+     *  its haplotypes. The units may come from different samples and from different assembly regions, each with its own
+     *  set of haplotypes.
+     *
+     *  This implementation sizes the HMM once for the longest read and haplotype in the whole batch and then evaluates
+     *  each unit in turn. Implementations with a high per-call overhead should override it to do better.
+     *
+     * @param logLikelihoods the destination likelihood matrix of each work unit.
+     * @param processedReads the reads to analyze for each work unit, in the same order as {@code logLikelihoods}.
+     * @param inputScoreImputator imputes the gap penalties of each read.
+     */
+    public void computeLog10LikelihoodsBatch(final List<? extends LikelihoodMatrix<GATKRead, Haplotype>> logLikelihoods,
+                                             final List<? extends List<GATKRead>> processedReads,
+                                             final PairHMMInputScoreImputator inputScoreImputator) {
+        Utils.nonNull(logLikelihoods, "logLikelihoods is null");
+        Utils.nonNull(processedReads, "processedReads is null");
+        Utils.validateArg(logLikelihoods.size() == processedReads.size(), "there must be exactly one list of reads per likelihood matrix");
+
+        int readMaxLength = 0;
+        int haplotypeMaxLength = 0;
+        for (int i = 0; i < logLikelihoods.size(); i++) {
+            if (!processedReads.get(i).isEmpty()) {
+                readMaxLength = Math.max(readMaxLength, findMaxReadLength(processedReads.get(i)));
+                haplotypeMaxLength = Math.max(haplotypeMaxLength, findMaxAlleleLength(logLikelihoods.get(i).alleles()));
+            }
+        }
+        if (readMaxLength > 0 && (!initialized || readMaxLength > maxReadLength || haplotypeMaxLength > maxHaplotypeLength)) {
+            initialize(readMaxLength, haplotypeMaxLength);
+        }
+
+        for (int i = 0; i < logLikelihoods.size(); i++) {
+            computeLog10Likelihoods(logLikelihoods.get(i), processedReads.get(i), inputScoreImputator);
+        }
+    }
+
     /**
      * Compute the total probability of read arising from haplotypeBases given base substitution, insertion, and deletion
      * probabilities.
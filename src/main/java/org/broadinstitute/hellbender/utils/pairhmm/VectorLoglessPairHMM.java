@@ -10,6 +10,7 @@ import org.broadinstitute.gatk.nativebindings.pairhmm.PairHMMNativeArguments;
 import org.broadinstitute.gatk.nativebindings.pairhmm.PairHMMNativeBinding;
 import org.broadinstitute.gatk.nativebindings.pairhmm.ReadDataHolder;
 import org.broadinstitute.hellbender.exceptions.UserException;
+import org.broadinstitute.hellbender.utils.Utils;
 import org.broadinstitute.hellbender.utils.genotyper.LikelihoodMatrix;
 import org.broadinstitute.hellbender.utils.haplotype.Haplotype;
 import org.broadinstitute.hellbender.utils.read.GATKRead;
@@ -130,13 +131,7 @@ public final class VectorLoglessPairHMM extends LoglessPairHMM {
         ReadDataHolder[] readDataArray = new ReadDataHolder[readListSize];
         int idx = 0;
         for (GATKRead read : processedReads) {
-            final PairHMMInputScoreImputation inputScoreImputation = inputScoreImputator.impute(read);
-            readDataArray[idx] = new ReadDataHolder();
-            readDataArray[idx].readBases = read.getBases();
-            readDataArray[idx].readQuals = read.getBaseQualities();
-            readDataArray[idx].insertionGOP = inputScoreImputation.insOpenPenalties();
-            readDataArray[idx].deletionGOP = inputScoreImputation.delOpenPenalties();
-            readDataArray[idx].overallGCP = inputScoreImputation.gapContinuationPenalties();
+            readDataArray[idx] = makeReadDataHolder(read, inputScoreImputator);
             ++idx;
         }
 
@@ -170,6 +165,97 @@ public final class VectorLoglessPairHMM extends LoglessPairHMM {
     }
 
 
+    /**
+     * {@inheritDoc}
+     *
+     * The native library evaluates every read against every haplotype of a call, so consecutive work units sharing
+     * the same haplotypes (typically the samples of a single assembly region) are concatenated and sent to it in a
+     * single call; units with different haplotypes go in separate calls to avoid evaluating unneeded read/haplotype pairs.
+     */
+    @Override
+    public void computeLog10LikelihoodsBatch(final List<? extends LikelihoodMatrix<GATKRead, Haplotype>> logLikelihoods,
+                                             final List<? extends List<GATKRead>> processedReads,
+                                             final PairHMMInputScoreImputator inputScoreImputator) {
+        Utils.nonNull(logLikelihoods, "logLikelihoods is null");
+        Utils.nonNull(processedReads, "processedReads is null");
+        Utils.validateArg(logLikelihoods.size() == processedReads.size(), "there must be exactly one list of reads per likelihood matrix");
+
+        int first = 0;
+        while (first < logLikelihoods.size()) {
+            final List<Haplotype> haplotypes = logLikelihoods.get(first).alleles();
+            int end = first + 1;
+            while (end < logLikelihoods.size() && logLikelihoods.get(end).alleles().equals(haplotypes)) {
+                end++;
+            }
+            computeLog10LikelihoodsSharingHaplotypes(logLikelihoods.subList(first, end), processedReads.subList(first, end), haplotypes, inputScoreImputator);
+            first = end;
+        }
+    }
+
+    /**
+     * Computes the likelihoods of several work units whose matrices have the same haplotypes with a single native call.
+     */
+    private void computeLog10LikelihoodsSharingHaplotypes(final List<? extends LikelihoodMatrix<GATKRead, Haplotype>> logLikelihoods,
+                                                          final List<? extends List<GATKRead>> processedReads,
+                                                          final List<Haplotype> haplotypes,
+                                                          final PairHMMInputScoreImputator inputScoreImputator) {
+        final int readCount = processedReads.stream().mapToInt(List::size).sum();
+        if (readCount == 0) {
+            return;
+        }
+        if (doProfiling) {
+            startTime = System.nanoTime();
+        }
+        final int numHaplotypes = haplotypes.size();
+        final HaplotypeDataHolder[] haplotypeDataArray = new HaplotypeDataHolder[numHaplotypes];
+        for (int h = 0; h < numHaplotypes; h++) {
+            haplotypeDataArray[h] = new HaplotypeDataHolder();
+            haplotypeDataArray[h].haplotypeBases = haplotypes.get(h).getBases();
+        }
+
+        final ReadDataHolder[] readDataArray = new ReadDataHolder[readCount];
+        int idx = 0;
+        for (final List<GATKRead> reads : processedReads) {
+            for (final GATKRead read : reads) {
+                readDataArray[idx++] = makeReadDataHolder(read, inputScoreImputator);
+            }
+        }
+
+        mLogLikelihoodArray = new double[readCount * numHaplotypes];
+        if (doProfiling) {
+            threadLocalSetupTimeDiff = (System.nanoTime() - startTime);
+        }
+        pairHmm.computeLikelihoods(readDataArray, haplotypeDataArray, mLogLikelihoodArray);
+
+        // results are laid out read by read, with the haplotypes of each read in matrix order
+        int resultIdx = 0;
+        for (int u = 0; u < logLikelihoods.size(); u++) {
+            final LikelihoodMatrix<GATKRead, Haplotype> matrix = logLikelihoods.get(u);
+            final int unitReadCount = processedReads.get(u).size();
+            for (int r = 0; r < unitReadCount; r++) {
+                for (int h = 0; h < numHaplotypes; h++) {
+                    matrix.set(h, r, mLogLikelihoodArray[resultIdx++]);
+                }
+            }
+        }
+        if (doProfiling) {
+            threadLocalPairHMMComputeTimeDiff = (System.nanoTime() - startTime);
+            pairHMMComputeTime += threadLocalPairHMMComputeTimeDiff;
+            pairHMMSetupTime += threadLocalSetupTimeDiff;
+        }
+    }
+
+    private static ReadDataHolder makeReadDataHolder(final GATKRead read, final PairHMMInputScoreImputator inputScoreImputator) {
+        final PairHMMInputScoreImputation inputScoreImputation = inputScoreImputator.impute(read);
+        final ReadDataHolder readData = new ReadDataHolder();
+        readData.readBases = read.getBases();
+        readData.readQuals = read.getBaseQualities();
+        readData.insertionGOP = inputScoreImputation.insOpenPenalties();
+        readData.deletionGOP = inputScoreImputation.delOpenPenalties();
+        readData.overallGCP = inputScoreImputation.gapContinuationPenalties();
+        return readData;
+    }
+
     @Override
     public void close() {
         pairHmm.done();
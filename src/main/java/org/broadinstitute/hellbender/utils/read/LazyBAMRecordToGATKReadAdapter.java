@@ -0,0 +1,925 @@
+package org.broadinstitute.hellbender.utils.read;
+
+import com.google.common.annotations.VisibleForTesting;
+import htsjdk.samtools.*;
+import htsjdk.samtools.util.Locatable;
+import org.apache.commons.lang.ArrayUtils;
+import org.broadinstitute.hellbender.exceptions.GATKException;
+import org.broadinstitute.hellbender.utils.Utils;
+
+import java.io.ByteArrayInputStream;
+import java.io.Serializable;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Implementation of the {@link GATKRead} interface over the raw bytes of a BAM record.
+ *
+ * The fixed-length fields of the record (positions, flags, mapping quality, read and cigar lengths) are parsed when
+ * the read is created, while the read name, cigar, bases, base qualities and tags are each decoded from the raw bytes
+ * only on first access. Individual tags are looked up directly in the raw tag block, without decoding the others.
+ * Reads that are rejected by a read filter based on cheap fields (e.g. mapping quality or flags) are therefore never
+ * fully decoded.
+ *
+ * The raw bytes are never modified. Instead, the first call to a method that modifies the read (or that requires a
+ * full {@link SAMRecord}, such as {@link #convertToSAMRecord} or {@link #getSAMString}) decodes the whole record into
+ * a {@link SAMRecordToGATKReadAdapter}, to which all subsequent calls are delegated (copy-on-write).
+ *
+ * Unlike reads produced by an htsjdk SamReader, these reads are not validated when they are created.
+ */
+public final class LazyBAMRecordToGATKReadAdapter implements GATKRead, Serializable {
+    private static final long serialVersionUID = 1L;
+
+    private static final Charset DEFAULT_CHARSET = Charset.forName("UTF-8");
+
+    /**
+     * Length of the fixed-length part of a BAM record, not counting the leading block_size field
+     */
+    public static final int FIXED_FIELDS_LENGTH = 32;
+
+    private static final int READ_PAIRED_FLAG = 0x1;
+    private static final int PROPER_PAIR_FLAG = 0x2;
+    private static final int READ_UNMAPPED_FLAG = 0x4;
+    private static final int MATE_UNMAPPED_FLAG = 0x8;
+    private static final int READ_REVERSE_STRAND_FLAG = 0x10;
+    private static final int MATE_REVERSE_STRAND_FLAG = 0x20;
+    private static final int FIRST_OF_PAIR_FLAG = 0x40;
+    private static final int SECOND_OF_PAIR_FLAG = 0x80;
+    private static final int SECONDARY_ALIGNMENT_FLAG = 0x100;
+    private static final int FAILS_VENDOR_QUALITY_CHECK_FLAG = 0x200;
+    private static final int DUPLICATE_READ_FLAG = 0x400;
+    private static final int SUPPLEMENTARY_ALIGNMENT_FLAG = 0x800;
+
+    private final SAMFileHeader header;
+
+    /**
+     * The record, from the end of its block_size field to the end of its tags. Never modified.
+     */
+    private final byte[] data;
+
+    // Fixed-length fields, parsed on construction
+    private final int referenceIndex;
+    private final int alignmentStart;
+    private final int mappingQuality;
+    private final int flags;
+    private final int readLength;
+    private final int numCigarOperations;
+    private final int mateReferenceIndex;
+    private final int mateAlignmentStart;
+    private final int fragmentLength;
+
+    // Offsets of the variable-length fields in data
+    private final int readNameLength;
+    private final int cigarOffset;
+    private final int basesOffset;
+    private final int qualitiesOffset;
+    private final int tagsOffset;
+
+    // Variable-length fields, decoded on first access
+    private transient String cachedName = null;
+    private transient Cigar cachedCigar = null;
+    private transient byte[] cachedBases = null;
+    private transient byte[] cachedBaseQualities = null;
+    private transient Integer cachedSoftStart = null;
+    private transient Integer cachedSoftEnd = null;
+    private transient Integer cachedAdaptorBoundary = null;
+
+    /**
+     * Fully decoded read, once the record has been modified or needed as a SAMRecord. Null until then.
+     */
+    private SAMRecordToGATKReadAdapter decodedRead = null;
+
+    /**
+     * @param header header of the file the record comes from, used to resolve reference indices. Must not be null.
+     * @param data the bytes of a BAM record following its block_size field (so data.length == block_size).
+     *             Not copied, so must not be modified by the caller afterwards.
+     */
+    public LazyBAMRecordToGATKReadAdapter( final SAMFileHeader header, final byte[] data ) {
+        this.header = Utils.nonNull(header, "header must not be null");
+        this.data = Utils.nonNull(data, "record data must not be null");
+        Utils.validateArg(data.length >= FIXED_FIELDS_LENGTH, () -> "BAM record is too short: " + data.length + " bytes");
+
+        referenceIndex = readInt(0);
+        alignmentStart = readInt(4) + 1;
+        readNameLength = data[8] & 0xff;
+        mappingQuality = data[9] & 0xff;
+        numCigarOperations = readUnsignedShort(12);
+        flags = readUnsignedShort(14);
+        readLength = readInt(16);
+        mateReferenceIndex = readInt(20);
+        mateAlignmentStart = readInt(24) + 1;
+        fragmentLength = readInt(28);
+
+        Utils.validateArg(readLength >= 0, () -> "BAM record has negative read length " + readLength);
+        cigarOffset = FIXED_FIELDS_LENGTH + readNameLength;
+        basesOffset = cigarOffset + 4 * numCigarOperations;
+        qualitiesOffset = basesOffset + (readLength + 1) / 2;
+        tagsOffset = qualitiesOffset + readLength;
+        Utils.validateArg(readNameLength > 0 && tagsOffset <= data.length,
+                () -> "BAM record of " + data.length + " bytes is too short for its variable-length fields");
+    }
+
+    /**
+     * @return true if the record has been fully decoded, either because it was modified or because a method that
+     *         requires a full SAMRecord was called
+     */
+    @VisibleForTesting
+    boolean isDecoded() {
+        return decodedRead != null;
+    }
+
+    /**
+     * Decode the whole record into a SAMRecordToGATKReadAdapter, if not already done. All calls that either modify
+     * the read or need a SAMRecord must go through the returned read from then on.
+     */
+    private SAMRecordToGATKReadAdapter decoded() {
+        if ( decodedRead == null ) {
+            final byte[] record = new byte[4 + data.length];
+            writeInt(record, 0, data.length);
+            System.arraycopy(data, 0, record, 4, data.length);
+
+            final BAMRecordCodec codec = new BAMRecordCodec(header);
+            codec.setInputStream(new ByteArrayInputStream(record));
+            final SAMRecord samRecord = codec.decode();
+            if ( samRecord == null ) {
+                throw new GATKException("Could not decode BAM record for read " + getName());
+            }
+            decodedRead = new SAMRecordToGATKReadAdapter(samRecord);
+
+            cachedName = null;
+            cachedCigar = null;
+            cachedBases = null;
+            cachedBaseQualities = null;
+            cachedSoftStart = null;
+            cachedSoftEnd = null;
+            cachedAdaptorBoundary = null;
+        }
+        return decodedRead;
+    }
+
+    @Override
+    public String getName() {
+        if ( decodedRead != null ) {
+            return decodedRead.getName();
+        }
+        if ( cachedName == null ) {
+            cachedName = new String(data, FIXED_FIELDS_LENGTH, readNameLength - 1, DEFAULT_CHARSET);
+        }
+        return cachedName;
+    }
+
+    @Override
+    public int getFlags() {
+        return decodedRead != null ? decodedRead.getFlags() : flags;
+    }
+
+    @Override
+    public void setName( final String name ) {
+        decoded().setName(name);
+    }
+
+    @Override
+    public int getLength() {
+        return decodedRead != null ? decodedRead.getLength() : readLength;
+    }
+
+    @Override
+    public String getContig() {
+        if ( decodedRead != null ) {
+            return decodedRead.getContig();
+        }
+        return isUnmapped() ? null : getReferenceName(referenceIndex);
+    }
+
+    @Override
+    public int getStart() {
+        if ( decodedRead != null ) {
+            return decodedRead.getStart();
+        }
+        return isUnmapped() ? ReadConstants.UNSET_POSITION : alignmentStart;
+    }
+
+    @Override
+    public int getEnd() {
+        if ( decodedRead != null ) {
+            return decodedRead.getEnd();
+        }
+        return isUnmapped() ? ReadConstants.UNSET_POSITION : alignmentStart + getCigarInternal().getReferenceLength() - 1;
+    }
+
+    @Override
+    public void setPosition( final String contig, final int start ) {
+        decoded().setPosition(contig, start);
+    }
+
+    @Override
+    public void setPosition( final Locatable locatable ) {
+        decoded().setPosition(locatable);
+    }
+
+    @Override
+    public String getAssignedContig() {
+        return decodedRead != null ? decodedRead.getAssignedContig() : getReferenceName(referenceIndex);
+    }
+
+    @Override
+    public int getAssignedStart() {
+        return decodedRead != null ? decodedRead.getAssignedStart() : alignmentStart;
+    }
+
+    @Override
+    public int getUnclippedStart() {
+        if ( decodedRead != null ) {
+            return decodedRead.getUnclippedStart();
+        }
+        if ( isUnmapped() ) {
+            return ReadConstants.UNSET_POSITION;
+        }
+
+        int unclippedStart = alignmentStart;
+        for ( final CigarElement element : getCigarInternal().getCigarElements() ) {
+            if ( ! element.getOperator().isClipping() ) {
+                break;
+            }
+            unclippedStart -= element.getLength();
+        }
+        return unclippedStart;
+    }
+
+    @Override
+    public int getUnclippedEnd() {
+        if ( decodedRead != null ) {
+            return decodedRead.getUnclippedEnd();
+        }
+        if ( isUnmapped() ) {
+            return ReadConstants.UNSET_POSITION;
+        }
+
+        int unclippedEnd = getEnd();
+        final List<CigarElement> elements = getCigarInternal().getCigarElements();
+        for ( int i = elements.size() - 1; i >= 0 && elements.get(i).getOperator().isClipping(); i-- ) {
+            unclippedEnd += elements.get(i).getLength();
+        }
+        return unclippedEnd;
+    }
+
+    @Override
+    public int getSoftStart() {
+        if ( decodedRead != null ) {
+            return decodedRead.getSoftStart();
+        }
+        if ( cachedSoftStart == null ) {
+            cachedSoftStart = ReadUtils.getSoftStart(this);
+        }
+        return cachedSoftStart;
+    }
+
+    @Override
+    public int getSoftEnd() {
+        if ( decodedRead != null ) {
+            return decodedRead.getSoftEnd();
+        }
+        if ( cachedSoftEnd == null ) {
+            cachedSoftEnd = ReadUtils.getSoftEnd(this);
+        }
+        return cachedSoftEnd;
+    }
+
+    @Override
+    public int getAdaptorBoundary() {
+        if ( decodedRead != null ) {
+            return decodedRead.getAdaptorBoundary();
+        }
+        if ( cachedAdaptorBoundary == null ) {
+            cachedAdaptorBoundary = ReadUtils.getAdaptorBoundary(this);
+        }
+        return cachedAdaptorBoundary;
+    }
+
+    @Override
+    public String getMateContig() {
+        if ( decodedRead != null ) {
+            return decodedRead.getMateContig();
+        }
+        return mateIsUnmapped() ? null : getReferenceName(mateReferenceIndex);
+    }
+
+    @Override
+    public int getMateStart() {
+        if ( decodedRead != null ) {
+            return decodedRead.getMateStart();
+        }
+        return mateIsUnmapped() ? ReadConstants.UNSET_POSITION : mateAlignmentStart;
+    }
+
+    @Override
+    public void setMatePosition( final String contig, final int start ) {
+        decoded().setMatePosition(contig, start);
+    }
+
+    @Override
+    public void setMatePosition( final Locatable locatable ) {
+        decoded().setMatePosition(locatable);
+    }
+
+    @Override
+    public int getFragmentLength() {
+        return decodedRead != null ? decodedRead.getFragmentLength() : fragmentLength;
+    }
+
+    @Override
+    public void setFragmentLength( final int fragmentLength ) {
+        decoded().setFragmentLength(fragmentLength);
+    }
+
+    @Override
+    public int getMappingQuality() {
+        if ( decodedRead != null ) {
+            return decodedRead.getMappingQuality();
+        }
+        return mappingQuality != SAMRecord.NO_MAPPING_QUALITY ? mappingQuality : ReadConstants.NO_MAPPING_QUALITY;
+    }
+
+    @Override
+    public void setMappingQuality( final int mappingQuality ) {
+        decoded().setMappingQuality(mappingQuality);
+    }
+
+    @Override
+    public byte[] getBases() {
+        if ( decodedRead != null ) {
+            return decodedRead.getBases();
+        }
+        final byte[] bases = getBasesInternal();
+        return bases.length > 0 ? Arrays.copyOf(bases, bases.length) : ArrayUtils.EMPTY_BYTE_ARRAY;
+    }
+
+    @Override
+    public byte[] getBasesNoCopy() {
+        return decodedRead != null ? decodedRead.getBasesNoCopy() : getBasesInternal();
+    }
+
+    //Bounds checking is the caller's responsibility, as it's too expensive in this hotspot method
+    @Override
+    public byte getBase( final int i ) {
+        return decodedRead != null ? decodedRead.getBase(i) : getBasesInternal()[i];
+    }
+
+    @Override
+    public void setBases( final byte[] bases ) {
+        decoded().setBases(bases);
+    }
+
+    @Override
+    public byte[] getBaseQualities() {
+        if ( decodedRead != null ) {
+            return decodedRead.getBaseQualities();
+        }
+        final byte[] baseQualities = getBaseQualitiesInternal();
+        return baseQualities.length > 0 ? Arrays.copyOf(baseQualities, baseQualities.length) : ArrayUtils.EMPTY_BYTE_ARRAY;
+    }
+
+    @Override
+    public byte[] getBaseQualitiesNoCopy() {
+        return decodedRead != null ? decodedRead.getBaseQualitiesNoCopy() : getBaseQualitiesInternal();
+    }
+
+    @Override
+    public int getBaseQualityCount() {
+        if ( decodedRead != null ) {
+            return decodedRead.getBaseQualityCount();
+        }
+        // Missing qualities are encoded as a run of 0xff bytes, see getBaseQualitiesInternal()
+        return readLength == 0 || data[qualitiesOffset] == (byte) 0xff ? 0 : readLength;
+    }
+
+    //Bounds checking is the caller's responsibility, as it's too expensive in this hotspot method
+    @Override
+    public byte getBaseQuality( final int i ) {
+        return decodedRead != null ? decodedRead.getBaseQuality(i) : getBaseQualitiesInternal()[i];
+    }
+
+    @Override
+    public void setBaseQualities( final byte[] baseQualities ) {
+        decoded().setBaseQualities(baseQualities);
+    }
+
+    @Override
+    public Cigar getCigar() {
+        if ( decodedRead != null ) {
+            return decodedRead.getCigar();
+        }
+        // Make a defensive copy, since Cigar is a mutable type
+        return new Cigar(getCigarInternal().getCigarElements());
+    }
+
+    @Override
+    public List<CigarElement> getCigarElements() {
+        // Cigar.getCigarElements returns an unmodifiable list so we don't wrap it again
+        return decodedRead != null ? decodedRead.getCigarElements() : getCigarInternal().getCigarElements();
+    }
+
+    //Bounds checking is the caller's responsibility, as it's too expensive in this hotspot method
+    @Override
+    public CigarElement getCigarElement( final int index ) {
+        return decodedRead != null ? decodedRead.getCigarElement(index) : getCigarInternal().getCigarElement(index);
+    }
+
+    @Override
+    public int numCigarElements() {
+        if ( decodedRead != null ) {
+            return decodedRead.numCigarElements();
+        }
+        return cachedCigar != null || hasLongCigarPlaceholder() ? getCigarInternal().numCigarElements() : numCigarOperations;
+    }
+
+    @Override
+    public void setCigar( final Cigar cigar ) {
+        decoded().setCigar(cigar);
+    }
+
+    @Override
+    public void setCigar( final String cigarString ) {
+        decoded().setCigar(cigarString);
+    }
+
+    @Override
+    public String getReadGroup() {
+        if ( decodedRead != null ) {
+            return decodedRead.getReadGroup();
+        }
+        // May return null
+        return (String) getRawAttribute(SAMTag.RG.name());
+    }
+
+    @Override
+    public void setReadGroup( final String readGroupID ) {
+        decoded().setReadGroup(readGroupID);
+    }
+
+    @Override
+    public boolean isPaired() {
+        return decodedRead != null ? decodedRead.isPaired() : hasFlag(READ_PAIRED_FLAG);
+    }
+
+    @Override
+    public void setIsPaired( final boolean isPaired ) {
+        decoded().setIsPaired(isPaired);
+    }
+
+    @Override
+    public boolean isProperlyPaired() {
+        return decodedRead != null ? decodedRead.isProperlyPaired() : isPaired() && hasFlag(PROPER_PAIR_FLAG);
+    }
+
+    @Override
+    public void setIsProperlyPaired( final boolean isProperlyPaired ) {
+        decoded().setIsProperlyPaired(isProperlyPaired);
+    }
+
+    @Override
+    public boolean isUnmapped() {
+        return decodedRead != null ? decodedRead.isUnmapped() : hasFlag(READ_UNMAPPED_FLAG) || isUnplaced();
+    }
+
+    @Override
+    public void setIsUnmapped() {
+        decoded().setIsUnmapped();
+    }
+
+    @Override
+    public boolean isUnplaced() {
+        if ( decodedRead != null ) {
+            return decodedRead.isUnplaced();
+        }
+        return referenceIndex == SAMRecord.NO_ALIGNMENT_REFERENCE_INDEX || alignmentStart == SAMRecord.NO_ALIGNMENT_START;
+    }
+
+    @Override
+    public void setIsUnplaced() {
+        decoded().setIsUnplaced();
+    }
+
+    @Override
+    public boolean mateIsUnmapped() {
+        if ( decodedRead != null ) {
+            return decodedRead.mateIsUnmapped();
+        }
+        Utils.validate(isPaired(), "Cannot get mate information for an unpaired read");
+
+        return hasFlag(MATE_UNMAPPED_FLAG) || mateIsUnplacedInternal();
+    }
+
+    @Override
+    public void setMateIsUnmapped() {
+        decoded().setMateIsUnmapped();
+    }
+
+    @Override
+    public boolean mateIsUnplaced() {
+        if ( decodedRead != null ) {
+            return decodedRead.mateIsUnplaced();
+        }
+        Utils.validate(isPaired(), "Cannot get mate information for an unpaired read");
+
+        return mateIsUnplacedInternal();
+    }
+
+    private boolean mateIsUnplacedInternal() {
+        return mateReferenceIndex == SAMRecord.NO_ALIGNMENT_REFERENCE_INDEX || mateAlignmentStart == SAMRecord.NO_ALIGNMENT_START;
+    }
+
+    @Override
+    public void setMateIsUnplaced() {
+        decoded().setMateIsUnplaced();
+    }
+
+    @Override
+    public boolean isReverseStrand() {
+        return decodedRead != null ? decodedRead.isReverseStrand() : hasFlag(READ_REVERSE_STRAND_FLAG);
+    }
+
+    @Override
+    public void setIsReverseStrand( final boolean isReverseStrand ) {
+        decoded().setIsReverseStrand(isReverseStrand);
+    }
+
+    @Override
+    public boolean mateIsReverseStrand() {
+        if ( decodedRead != null ) {
+            return decodedRead.mateIsReverseStrand();
+        }
+        Utils.validate(isPaired(), "Cannot get mate information for an unpaired read");
+
+        return hasFlag(MATE_REVERSE_STRAND_FLAG);
+    }
+
+    @Override
+    public void setMateIsReverseStrand( final boolean mateIsReverseStrand ) {
+        decoded().setMateIsReverseStrand(mateIsReverseStrand);
+    }
+
+    @Override
+    public boolean isFirstOfPair() {
+        return decodedRead != null ? decodedRead.isFirstOfPair() : isPaired() && hasFlag(FIRST_OF_PAIR_FLAG);
+    }
+
+    @Override
+    public void setIsFirstOfPair() {
+        decoded().setIsFirstOfPair();
+    }
+
+    @Override
+    public boolean isSecondOfPair() {
+        return decodedRead != null ? decodedRead.isSecondOfPair() : isPaired() && hasFlag(SECOND_OF_PAIR_FLAG);
+    }
+
+    @Override
+    public void setIsSecondOfPair() {
+        decoded().setIsSecondOfPair();
+    }
+
+    @Override
+    public boolean isSecondaryAlignment() {
+        return decodedRead != null ? decodedRead.isSecondaryAlignment() : hasFlag(SECONDARY_ALIGNMENT_FLAG);
+    }
+
+    @Override
+    public void setIsSecondaryAlignment( final boolean isSecondaryAlignment ) {
+        decoded().setIsSecondaryAlignment(isSecondaryAlignment);
+    }
+
+    @Override
+    public boolean isSupplementaryAlignment() {
+        return decodedRead != null ? decodedRead.isSupplementaryAlignment() : hasFlag(SUPPLEMENTARY_ALIGNMENT_FLAG);
+    }
+
+    @Override
+    public void setIsSupplementaryAlignment( final boolean isSupplementaryAlignment ) {
+        decoded().setIsSupplementaryAlignment(isSupplementaryAlignment);
+    }
+
+    @Override
+    public boolean failsVendorQualityCheck() {
+        return decodedRead != null ? decodedRead.failsVendorQualityCheck() : hasFlag(FAILS_VENDOR_QUALITY_CHECK_FLAG);
+    }
+
+    @Override
+    public void setFailsVendorQualityCheck( final boolean failsVendorQualityCheck ) {
+        decoded().setFailsVendorQualityCheck(failsVendorQualityCheck);
+    }
+
+    @Override
+    public boolean isDuplicate() {
+        return decodedRead != null ? decodedRead.isDuplicate() : hasFlag(DUPLICATE_READ_FLAG);
+    }
+
+    @Override
+    public void setIsDuplicate( final boolean isDuplicate ) {
+        decoded().setIsDuplicate(isDuplicate);
+    }
+
+    @Override
+    public boolean hasAttribute( final String attributeName ) {
+        if ( decodedRead != null ) {
+            return decodedRead.hasAttribute(attributeName);
+        }
+        ReadUtils.assertAttributeNameIsLegal(attributeName);
+        return findRawAttribute(attributeName) >= 0;
+    }
+
+    @Override
+    public Integer getAttributeAsInteger( final String attributeName ) {
+        if ( decodedRead != null ) {
+            return decodedRead.getAttributeAsInteger(attributeName);
+        }
+        ReadUtils.assertAttributeNameIsLegal(attributeName);
+        final Object attributeValue = getRawAttribute(attributeName);
+
+        if ( attributeValue == null ) {
+            return null;
+        }
+        else if ( attributeValue instanceof Integer ) {
+            return (Integer)attributeValue;
+        }
+        else {
+            try {
+                return Integer.parseInt(attributeValue.toString());
+            }
+            catch ( NumberFormatException e ) {
+                throw new GATKException.ReadAttributeTypeMismatch(attributeName, "integer", e);
+            }
+        }
+    }
+
+    @Override
+    public String getAttributeAsString( final String attributeName ) {
+        if ( decodedRead != null ) {
+            return decodedRead.getAttributeAsString(attributeName);
+        }
+        ReadUtils.assertAttributeNameIsLegal(attributeName);
+        final Object attributeValue = getRawAttribute(attributeName);
+        if ( attributeValue instanceof byte[] ) {
+            // encode byte[] values with the default charset, as SAMRecordToGATKReadAdapter does
+            final byte[] val = (byte[]) attributeValue;
+            return (val.length == 0) ? "" : new String(val, DEFAULT_CHARSET);
+        }
+        return attributeValue != null ? attributeValue.toString() : null;
+    }
+
+    @Override
+    public byte[] getAttributeAsByteArray( final String attributeName ) {
+        if ( decodedRead != null ) {
+            return decodedRead.getAttributeAsByteArray(attributeName);
+        }
+        ReadUtils.assertAttributeNameIsLegal(attributeName);
+        final Object attributeValue = getRawAttribute(attributeName);
+
+        if ( attributeValue == null ) {
+            return null;
+        }
+        else if ( attributeValue instanceof byte[] ) {
+            // The value was decoded from our raw bytes just now, so there's no need for a defensive copy
+            return (byte[])attributeValue;
+        }
+        else if ( attributeValue instanceof String ) {
+            return ((String)attributeValue).getBytes(DEFAULT_CHARSET);
+        }
+        else {
+            throw new GATKException.ReadAttributeTypeMismatch(attributeName, "byte array");
+        }
+    }
+
+    @Override
+    public Object getTransientAttribute( final Object key ) {
+        // Transient attributes can only have been set after decoding
+        return decodedRead != null ? decodedRead.getTransientAttribute(key) : null;
+    }
+
+    @Override
+    public void setAttribute( final String attributeName, final Integer attributeValue ) {
+        decoded().setAttribute(attributeName, attributeValue);
+    }
+
+    @Override
+    public void setAttribute( final String attributeName, final String attributeValue ) {
+        decoded().setAttribute(attributeName, attributeValue);
+    }
+
+    @Override
+    public void setAttribute( final String attributeName, final byte[] attributeValue ) {
+        decoded().setAttribute(attributeName, attributeValue);
+    }
+
+    @Override
+    public void setTransientAttribute( final Object key, final Object value ) {
+        decoded().setTransientAttribute(key, value);
+    }
+
+    @Override
+    public void clearAttribute( final String attributeName ) {
+        decoded().clearAttribute(attributeName);
+    }
+
+    @Override
+    public void clearAttributes() {
+        decoded().clearAttributes();
+    }
+
+    @Override
+    public void clearTransientAttribute( final String attributeName ) {
+        if ( decodedRead != null ) {
+            decodedRead.clearTransientAttribute(attributeName);
+        }
+    }
+
+    @Override
+    public GATKRead copy() {
+        // The raw bytes are never modified, so an undecoded copy can safely share them
+        return decodedRead != null ? decodedRead.copy() : new LazyBAMRecordToGATKReadAdapter(header, data);
+    }
+
+    @Override
+    public GATKRead deepCopy() {
+        return decodedRead != null ? decodedRead.deepCopy() : new LazyBAMRecordToGATKReadAdapter(header.clone(), data.clone());
+    }
+
+    @Override
+    public SAMRecord convertToSAMRecord( final SAMFileHeader header ) {
+        return decoded().convertToSAMRecord(header);
+    }
+
+    @Override
+    public String getSAMString() {
+        return decoded().getSAMString();
+    }
+
+    @Override
+    public void reverseComplement() {
+        decoded().reverseComplement();
+    }
+
+    /**
+     * Reads are equal if their decoded SAMRecords are equal, so this decodes both reads.
+     */
+    @Override
+    public boolean equals( final Object o ) {
+        if ( this == o ) return true;
+        if ( o == null || getClass() != o.getClass() ) return false;
+
+        final LazyBAMRecordToGATKReadAdapter that = (LazyBAMRecordToGATKReadAdapter) o;
+
+        return Objects.equals(decoded(), that.decoded());
+    }
+
+    @Override
+    public int hashCode() {
+        return decoded().hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return commonToString();
+    }
+
+    private boolean hasFlag( final int flag ) {
+        return (flags & flag) != 0;
+    }
+
+    private String getReferenceName( final int index ) {
+        return index == SAMRecord.NO_ALIGNMENT_REFERENCE_INDEX ? SAMRecord.NO_ALIGNMENT_REFERENCE_NAME : header.getSequence(index).getSequenceName();
+    }
+
+    private byte[] getBasesInternal() {
+        if ( cachedBases == null ) {
+            cachedBases = readLength == 0 ? SAMRecord.NULL_SEQUENCE : SAMUtils.compressedBasesToBytes(readLength, data, basesOffset);
+        }
+        return cachedBases;
+    }
+
+    private byte[] getBaseQualitiesInternal() {
+        if ( cachedBaseQualities == null ) {
+            // As in htsjdk, a first byte of 0xff means that the qualities are missing
+            cachedBaseQualities = readLength == 0 || data[qualitiesOffset] == (byte) 0xff ?
+                    SAMRecord.NULL_QUALS : Arrays.copyOfRange(data, qualitiesOffset, qualitiesOffset + readLength);
+        }
+        return cachedBaseQualities;
+    }
+
+    private Cigar getCigarInternal() {
+        if ( cachedCigar == null ) {
+            if ( hasLongCigarPlaceholder() ) {
+                // Let htsjdk deal with the real cigar in the CG tag, which is rare enough to not be worth optimizing
+                return decoded().getEncapsulatedSamRecord().getCigar();
+            }
+            final List<CigarElement> elements = new ArrayList<>(numCigarOperations);
+            for ( int i = 0; i < numCigarOperations; i++ ) {
+                final int operation = readInt(cigarOffset + 4 * i);
+                elements.add(new CigarElement(operation >>> 4, CigarOperator.binaryToEnum(operation & 0xf)));
+            }
+            cachedCigar = new Cigar(elements);
+        }
+        return cachedCigar;
+    }
+
+    /**
+     * @return true if the cigar stored in the record is the placeholder for a cigar with more than 65535
+     *         operations, which is then stored in the CG tag (see the SAM specification)
+     */
+    private boolean hasLongCigarPlaceholder() {
+        if ( numCigarOperations != 2 ) {
+            return false;
+        }
+        final int first = readInt(cigarOffset);
+        final int second = readInt(cigarOffset + 4);
+        return CigarOperator.binaryToEnum(first & 0xf) == CigarOperator.S && first >>> 4 == readLength &&
+               CigarOperator.binaryToEnum(second & 0xf) == CigarOperator.N &&
+               findRawAttribute(SAMTag.CG.name()) >= 0;
+    }
+
+    /**
+     * @return the decoded value of the given tag, as it would be returned by {@link SAMRecord#getAttribute}, or null if absent
+     */
+    private Object getRawAttribute( final String attributeName ) {
+        final int tagOffset = findRawAttribute(attributeName);
+        if ( tagOffset < 0 ) {
+            return null;
+        }
+        final int tagLength = skipRawAttribute(tagOffset) - tagOffset;
+        return BinaryTagCodec.readTags(data, tagOffset, tagLength, ValidationStringency.SILENT).getValue();
+    }
+
+    /**
+     * @return the offset of the given tag in the raw tag block, or -1 if the tag is absent
+     */
+    private int findRawAttribute( final String attributeName ) {
+        final byte first = (byte) attributeName.charAt(0);
+        final byte second = (byte) attributeName.charAt(1);
+        int offset = tagsOffset;
+        while ( offset < data.length ) {
+            if ( data[offset] == first && data[offset + 1] == second ) {
+                return offset;
+            }
+            offset = skipRawAttribute(offset);
+        }
+        return -1;
+    }
+
+    /**
+     * @return the offset of the tag following the one at tagOffset
+     */
+    private int skipRawAttribute( final int tagOffset ) {
+        final int valueOffset = tagOffset + 3;
+        final char type = (char) data[tagOffset + 2];
+        switch ( type ) {
+            case 'A': case 'c': case 'C':
+                return valueOffset + 1;
+            case 's': case 'S':
+                return valueOffset + 2;
+            case 'i': case 'I': case 'f':
+                return valueOffset + 4;
+            case 'Z': case 'H':
+                int end = valueOffset;
+                while ( data[end] != 0 ) {
+                    end++;
+                }
+                return end + 1;
+            case 'B':
+                final int count = readInt(valueOffset + 1);
+                return valueOffset + 5 + count * getArrayElementSize((char) data[valueOffset]);
+            default:
+                throw new GATKException("Unrecognized type " + type + " for tag " + (char) data[tagOffset] + (char) data[tagOffset + 1] + " in read " + getName());
+        }
+    }
+
+    private int getArrayElementSize( final char type ) {
+        switch ( type ) {
+            case 'c': case 'C':
+                return 1;
+            case 's': case 'S':
+                return 2;
+            case 'i': case 'I': case 'f':
+                return 4;
+            default:
+                throw new GATKException("Unrecognized array element type " + type + " in read " + getName());
+        }
+    }
+
+    private int readInt( final int offset ) {
+        return (data[offset] & 0xff) | (data[offset + 1] & 0xff) << 8 | (data[offset + 2] & 0xff) << 16 | (data[offset + 3] & 0xff) << 24;
+    }
+
+    private int readUnsignedShort( final int offset ) {
+        return (data[offset] & 0xff) | (data[offset + 1] & 0xff) << 8;
+    }
+
+    private static void writeInt( final byte[] buffer, final int offset, final int value ) {
+        buffer[offset] = (byte) value;
+        buffer[offset + 1] = (byte) (value >>> 8);
+        buffer[offset + 2] = (byte) (value >>> 16);
+        buffer[offset + 3] = (byte) (value >>> 24);
+    }
+}
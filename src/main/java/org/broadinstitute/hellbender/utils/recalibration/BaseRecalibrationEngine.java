@@ -64,6 +64,11 @@ public final class BaseRecalibrationEngine implements Serializable {
 
     private RecalibrationTables recalTables;
 
+    /**
+     * Tables shared with other engines, updated instead of {@link #recalTables} when not null
+     */
+    private final ConcurrentRecalibrationTables sharedTables;
+
     private SAMFileHeader readsHeader;
 
     /**
@@ -82,7 +87,21 @@ public final class BaseRecalibrationEngine implements Serializable {
     private boolean finalized = false;
 
     public BaseRecalibrationEngine( final RecalibrationArgumentCollection recalArgs, final SAMFileHeader readsHeader ) {
+        this(recalArgs, readsHeader, null);
+    }
+
+    /**
+     * Create an engine that accumulates its statistics into tables shared with other engines, so that reads can be
+     * processed concurrently by one engine per thread.
+     *
+     * The recalibration tables of such an engine are only populated by {@link #finalizeData()}, which must be called
+     * on a single engine once all the engines sharing the tables have processed their reads.
+     *
+     * @param sharedTables tables shared by all the engines, or null to use tables private to this engine
+     */
+    public BaseRecalibrationEngine( final RecalibrationArgumentCollection recalArgs, final SAMFileHeader readsHeader, final ConcurrentRecalibrationTables sharedTables ) {
         this.recalArgs = recalArgs;
+        this.sharedTables = sharedTables;
         this.readsHeader = readsHeader;
 
         if (recalArgs.enableBAQ) {
@@ -159,6 +178,9 @@ public final class BaseRecalibrationEngine implements Serializable {
      */
     public void finalizeData() {
         Utils.validate(!finalized, "FinalizeData() has already been called");
+        if ( sharedTables != null ) {
+            recalTables = sharedTables.toRecalibrationTables();
+        }
         finalizeRecalibrationTables(recalTables);
         finalized = true;
     }
@@ -260,6 +282,11 @@ public final class BaseRecalibrationEngine implements Serializable {
                     final byte qual = recalInfo.getQual(eventType, offset);
                     final double isError = recalInfo.getErrorFraction(eventType, offset);
 
+                    if ( sharedTables != null ) {
+                        sharedTables.increment(keys, eventIndex, isError);
+                        continue;
+                    }
+
                     final int key0 = keys[0];
                     final int key1 = keys[1];
 
@@ -0,0 +1,174 @@
+package org.broadinstitute.hellbender.utils.recalibration;
+
+import org.broadinstitute.hellbender.utils.Utils;
+import org.broadinstitute.hellbender.utils.collections.NestedIntegerArray;
+import org.broadinstitute.hellbender.utils.recalibration.covariates.StandardCovariateList;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Recalibration tables that can be updated concurrently by several {@link BaseRecalibrationEngine}s, to accumulate
+ * the statistics of all the reads into a single set of tables.
+ *
+ * Instead of a {@link RecalDatum} per covariate combination, the number of observations and (scaled) number of
+ * mismatches of every combination are stored in flat primitive arrays, updated with atomic operations. The arrays
+ * are allocated lazily for each read group and quality score, as only a small fraction of those are typically seen.
+ *
+ * Once all the reads have been processed, {@link #toRecalibrationTables()} converts the accumulated statistics into
+ * regular {@link RecalibrationTables}. Numbers of observations are exact and do not depend on the order of the updates.
+ * This is also true of the numbers of mismatches as long as these are whole numbers (i.e. without BAQ); otherwise,
+ * floating-point sums may differ from those of a single-threaded run by rounding errors in the last digits.
+ */
+public final class ConcurrentRecalibrationTables {
+    private static final int EVENT_DIMENSION = EventType.values().length;
+    private static final int QUALITY_SCORE_TABLE_INDEX = 1;
+
+    private final StandardCovariateList covariates;
+    private final int numReadGroups;
+    private final int qualDimension;
+
+    /**
+     * Accumulated statistics, indexed as the tables of {@link RecalibrationTables}. The read group table is derived
+     * from the quality score table when finalizing the data, so its entry is always {@code null}.
+     */
+    private final Table[] tables;
+
+    public ConcurrentRecalibrationTables(final StandardCovariateList covariates, final int numReadGroups) {
+        Utils.nonNull(covariates);
+        Utils.validateArg(numReadGroups >= 0, "the number of read groups must not be negative");
+        this.covariates = covariates;
+        this.numReadGroups = numReadGroups;
+        this.qualDimension = covariates.getQualityScoreCovariate().maximumKeyValue() + 1;
+
+        tables = new Table[covariates.size()];
+        // the quality score table is stored as an additional covariate table with a single covariate value
+        tables[QUALITY_SCORE_TABLE_INDEX] = new Table(1);
+        for ( int i = covariates.numberOfSpecialCovariates(); i < covariates.size(); i++ ) {
+            tables[i] = new Table(covariates.get(i).maximumKeyValue() + 1);
+        }
+    }
+
+    /**
+     * Record one observation of the given event for a base, in the quality score table and every additional
+     * covariate table for which the base has a key.
+     *
+     * Safe to call concurrently from multiple threads.
+     *
+     * @param keys the covariate keys of the base for this event type, as returned by
+     *             {@link org.broadinstitute.hellbender.utils.recalibration.covariates.ReadCovariates#getKeySet}
+     * @param eventIndex the ordinal of the {@link EventType}
+     * @param isError the (fractional) error of the base for this event
+     */
+    public void increment(final int[] keys, final int eventIndex, final double isError) {
+        final int readGroupKey = keys[0];
+        final int qualKey = keys[1];
+        final double scaledError = RecalDatum.scaleMismatches(isError);
+
+        tables[QUALITY_SCORE_TABLE_INDEX].increment(readGroupKey, qualKey, 0, eventIndex, scaledError);
+        for ( int i = covariates.numberOfSpecialCovariates(); i < tables.length; i++ ) {
+            final int key = keys[i];
+            if ( key >= 0 ) {
+                tables[i].increment(readGroupKey, qualKey, key, eventIndex, scaledError);
+            }
+        }
+    }
+
+    /**
+     * Convert the accumulated statistics into a new set of (non-finalized) recalibration tables, identical to those
+     * that a single {@link BaseRecalibrationEngine} would have produced from the same reads.
+     *
+     * Must only be called once all updates have completed.
+     */
+    public RecalibrationTables toRecalibrationTables() {
+        final RecalibrationTables result = new RecalibrationTables(covariates, numReadGroups);
+        for ( int readGroupKey = 0; readGroupKey < numReadGroups; readGroupKey++ ) {
+            for ( int qualKey = 0; qualKey < qualDimension; qualKey++ ) {
+                copyBlocks(result, readGroupKey, qualKey);
+            }
+        }
+        return result;
+    }
+
+    private void copyBlocks(final RecalibrationTables result, final int readGroupKey, final int qualKey) {
+        // the reported quality of each datum is the value of its quality score key
+        final byte reportedQuality = (byte) qualKey;
+        copyBlock(tables[QUALITY_SCORE_TABLE_INDEX].getBlock(readGroupKey, qualKey), reportedQuality, (key, eventIndex, datum) ->
+                result.getQualityScoreTable().put(datum, readGroupKey, qualKey, eventIndex));
+        for ( int i = covariates.numberOfSpecialCovariates(); i < tables.length; i++ ) {
+            final NestedIntegerArray<RecalDatum> table = result.getTable(i);
+            copyBlock(tables[i].getBlock(readGroupKey, qualKey), reportedQuality, (key, eventIndex, datum) ->
+                    table.put(datum, readGroupKey, qualKey, key, eventIndex));
+        }
+    }
+
+    @FunctionalInterface
+    private interface DatumConsumer {
+        void accept(int key, int eventIndex, RecalDatum datum);
+    }
+
+    private static void copyBlock(final Block block, final byte reportedQuality, final DatumConsumer consumer) {
+        if ( block == null ) {
+            return;
+        }
+        for ( int i = 0; i < block.observations.length(); i++ ) {
+            final long observations = block.observations.get(i);
+            if ( observations > 0 ) {
+                final double scaledMismatches = Double.longBitsToDouble(block.scaledMismatches.get(i));
+                consumer.accept(i / EVENT_DIMENSION, i % EVENT_DIMENSION, RecalDatum.fromScaledMismatches(observations, scaledMismatches, reportedQuality));
+            }
+        }
+    }
+
+    /**
+     * The statistics of one covariate, as one lazily allocated {@link Block} per read group and quality score.
+     */
+    private final class Table {
+        private final int covariateDimension;
+        private final AtomicReferenceArray<Block> blocks;
+
+        private Table(final int covariateDimension) {
+            this.covariateDimension = covariateDimension;
+            this.blocks = new AtomicReferenceArray<>(numReadGroups * qualDimension);
+        }
+
+        private Block getBlock(final int readGroupKey, final int qualKey) {
+            return blocks.get(readGroupKey * qualDimension + qualKey);
+        }
+
+        private void increment(final int readGroupKey, final int qualKey, final int covariateKey, final int eventIndex, final double scaledError) {
+            final int blockIndex = readGroupKey * qualDimension + qualKey;
+            Block block = blocks.get(blockIndex);
+            if ( block == null ) {
+                // if another thread allocates the block first, use theirs
+                blocks.compareAndSet(blockIndex, null, new Block(covariateDimension * EVENT_DIMENSION));
+                block = blocks.get(blockIndex);
+            }
+            block.increment(covariateKey * EVENT_DIMENSION + eventIndex, scaledError);
+        }
+    }
+
+    /**
+     * Observation and mismatch counts for all the covariate values and event types of a read group and quality score.
+     * The mismatch counts are doubles stored as their raw long bits, to be updated atomically.
+     */
+    private static final class Block {
+        private final AtomicLongArray observations;
+        private final AtomicLongArray scaledMismatches;
+
+        private Block(final int size) {
+            observations = new AtomicLongArray(size);
+            scaledMismatches = new AtomicLongArray(size);
+        }
+
+        private void increment(final int index, final double scaledError) {
+            observations.incrementAndGet(index);
+            if ( scaledError != 0.0 ) {
+                long current;
+                do {
+                    current = scaledMismatches.get(index);
+                } while ( ! scaledMismatches.compareAndSet(index, current, Double.doubleToRawLongBits(Double.longBitsToDouble(current) + scaledError)) );
+            }
+        }
+    }
+}
@@ -85,6 +85,23 @@ public final class RecalDatum implements Serializable {
         this.empiricalQuality = copy.empiricalQuality;
     }
 
+    /**
+     * Create a new RecalDatum from a number of mismatches that has already been scaled with {@link #scaleMismatches},
+     * so that it is stored exactly as if it had been accumulated by incrementing a RecalDatum.
+     */
+    static RecalDatum fromScaledMismatches(final long numObservations, final double scaledNumMismatches, final byte reportedQuality) {
+        final RecalDatum datum = new RecalDatum(numObservations, 0.0, reportedQuality);
+        datum.numMismatches = scaledNumMismatches;
+        return datum;
+    }
+
+    /**
+     * Scale a number of mismatches by the internal multiplier, as done when incrementing a RecalDatum.
+     */
+    static double scaleMismatches(final double numMismatches) {
+        return numMismatches*MULTIPLIER;
+    }
+
     /**
      * Add in all of the data from other into this object, updating the reported quality from the expected
      * error rate implied by the two reported qualities
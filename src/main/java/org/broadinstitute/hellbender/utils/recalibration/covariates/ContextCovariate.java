@@ -2,8 +2,6 @@ package org.broadinstitute.hellbender.utils.recalibration.covariates;
 
 import com.google.common.annotations.VisibleForTesting;
 import htsjdk.samtools.SAMFileHeader;
-import it.unimi.dsi.fastutil.ints.IntArrayList;
-import it.unimi.dsi.fastutil.ints.IntList;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.broadinstitute.barclay.argparser.CommandLineException;
@@ -14,6 +12,8 @@ import org.broadinstitute.hellbender.utils.clipping.ReadClipper;
 import org.broadinstitute.hellbender.utils.read.GATKRead;
 import org.broadinstitute.hellbender.utils.recalibration.RecalibrationArgumentCollection;
 
+import java.util.Arrays;
+
 public final class ContextCovariate implements Covariate {
     private static final long serialVersionUID = 1L;
     private static final Logger logger = LogManager.getLogger(ContextCovariate.class);
@@ -59,15 +59,16 @@ public final class ContextCovariate implements Covariate {
     public void recordValues(final GATKRead read, final SAMFileHeader header, final ReadCovariates values, final boolean recordIndelValues) {
 
         final int originalReadLength = read.getLength();
+        final CovariateKeyCache workspace = values.getKeysCache();
 
-        // store the original bases and then write Ns over low quality ones
-        final byte[] strandedClippedBases = getStrandedClippedBytes(read, lowQualTail);  //Note: this makes a copy of the read
-
-        //Note: we're using a non-standard library here because boxing came up on profiling as taking 20% of time in applyBQSR.
-        //IntList avoids boxing
-        final IntList mismatchKeys = contextWith(strandedClippedBases, mismatchesContextSize, mismatchesKeyMask);
+        // copy the original bases and then write Ns over low quality ones
+        //Note: we use reusable buffers instead of clipping a copy of the read, because these per-read allocations
+        //showed up as a large share of the allocations in BaseRecalibrator and ApplyBQSR
+        final byte[] strandedClippedBases = workspace.getBasesBuffer(originalReadLength);
+        final int readLengthAfterClipping = fillStrandedClippedBases(read, lowQualTail, strandedClippedBases);
 
-        final int readLengthAfterClipping = strandedClippedBases.length;
+        final int[] mismatchKeys = workspace.getMismatchContextBuffer(readLengthAfterClipping);
+        contextWith(strandedClippedBases, readLengthAfterClipping, mismatchesContextSize, mismatchesKeyMask, mismatchKeys);
 
         // this is necessary to ensure that we don't keep historical data in the ReadCovariates values
         // since the context covariate may not span the entire set of values in read covariates
@@ -84,16 +85,17 @@ public final class ContextCovariate implements Covariate {
 
         //Note: duplicated the loop to avoid checking recordIndelValues on each iteration
         if (recordIndelValues) {
-            final IntList indelKeys = contextWith(strandedClippedBases, indelsContextSize, indelsKeyMask);
+            final int[] indelKeys = workspace.getIndelContextBuffer(readLengthAfterClipping);
+            contextWith(strandedClippedBases, readLengthAfterClipping, indelsContextSize, indelsKeyMask, indelKeys);
             for (int i = 0; i < readLengthAfterClipping; i++) {
                 final int readOffset = getStrandedOffset(negativeStrand, i, readLengthAfterClipping);
-                final int indelKey = indelKeys.getInt(i);
-                values.addCovariate(mismatchKeys.getInt(i), indelKey, indelKey, readOffset);
+                final int indelKey = indelKeys[i];
+                values.addCovariate(mismatchKeys[i], indelKey, indelKey, readOffset);
             }
         } else {
             for (int i = 0; i < readLengthAfterClipping; i++) {
                 final int readOffset = getStrandedOffset(negativeStrand, i, readLengthAfterClipping);
-                values.addCovariate(mismatchKeys.getInt(i), 0, 0, readOffset);
+                values.addCovariate(mismatchKeys[i], 0, 0, readOffset);
             }
         }
     }
@@ -130,6 +132,46 @@ public final class ContextCovariate implements Covariate {
         }
     }
 
+    /**
+     * Same as {@link #getStrandedClippedBytes}, but writes the bases into the given buffer instead of clipping a copy
+     * of the read.
+     * @param read the read
+     * @param lowQTail every base quality lower than or equal to this in the tail of the read will be replaced with N.
+     * @param destination buffer for the bases, at least as long as the read
+     * @return the number of bases written to destination: the length of the read, or 0 if all bases are below lowQTail.
+     */
+    @VisibleForTesting
+    static int fillStrandedClippedBases(final GATKRead read, final byte lowQTail, final byte[] destination) {
+        final int readLength = read.getLength();
+        int leftClipIndex = 0;
+        int rightClipIndex = readLength - 1;
+
+        // same as ReadClipper.clipLowQualEnds
+        while (rightClipIndex >= 0 && read.getBaseQuality(rightClipIndex) <= lowQTail) {
+            rightClipIndex--;
+        }
+        while (leftClipIndex < readLength && read.getBaseQuality(leftClipIndex) <= lowQTail) {
+            leftClipIndex++;
+        }
+        if (leftClipIndex > rightClipIndex) {
+            // the entire read is clipped
+            return 0;
+        }
+
+        final byte[] bases = read.getBasesNoCopy();
+        if (read.isReverseStrand()) {
+            for (int i = 0; i < readLength; i++) {
+                final int originalIndex = readLength - 1 - i;
+                destination[i] = originalIndex < leftClipIndex || originalIndex > rightClipIndex ? (byte) 'N' : BaseUtils.simpleComplement(bases[originalIndex]);
+            }
+        } else {
+            System.arraycopy(bases, 0, destination, 0, readLength);
+            Arrays.fill(destination, 0, leftClipIndex, (byte) 'N');
+            Arrays.fill(destination, rightClipIndex + 1, readLength, (byte) 'N');
+        }
+        return readLength;
+    }
+
     @Override
     public String formatKey(final int key) {
         if (key == -1) // this can only happen in test routines because we do not propagate null keys to the csv file
@@ -157,30 +199,28 @@ public final class ContextCovariate implements Covariate {
      * calculates the context of a base independent of the covariate mode (mismatch, insertion or deletion)
      *
      * @param bases       the bases in the read to build the context from
+     * @param readLength  the number of bases to use in bases
      * @param contextSize context size to use building the context
      * @param mask        mask for pulling out just the context bits
+     * @param keys        destination for the keys of the first readLength bases
      */
-    private static IntList contextWith(final byte[] bases, final int contextSize, final int mask) {
-
-        final int readLength = bases.length;
-
-        //Note: we use a specialized collection to avoid the cost of boxing and unboxing that otherwise comes up on the profiler.
-        final IntList keys = new IntArrayList(readLength);
+    private static void contextWith(final byte[] bases, final int readLength, final int contextSize, final int mask, final int[] keys) {
+        int nKeys = 0;
 
         // the first contextSize-1 bases will not have enough previous context
         for (int i = 1; i < contextSize && i <= readLength; i++) {
-            keys.add(-1);
+            keys[nKeys++] = -1;
         }
 
         if (readLength < contextSize) {
-            return keys;
+            return;
         }
 
         final int newBaseOffset = 2 * (contextSize - 1) + LENGTH_BITS;
 
         // get (and add) the key for the context starting at the first base
         int currentKey = keyFromContext(bases, 0, contextSize);
-        keys.add(currentKey);
+        keys[nKeys++] = currentKey;
 
         // if the first key was -1 then there was an non-ACGT in the context; figure out how many more consecutive contexts it affects
         int currentNPenalty = 0;
@@ -209,14 +249,12 @@ public final class ContextCovariate implements Covariate {
             }
 
             if (currentNPenalty == 0) {
-                keys.add(currentKey);
+                keys[nKeys++] = currentKey;
             } else {
                 currentNPenalty--;
-                keys.add(-1);
+                keys[nKeys++] = -1;
             }
         }
-
-        return keys;
     }
 
     public static int keyFromContext(final String dna) {
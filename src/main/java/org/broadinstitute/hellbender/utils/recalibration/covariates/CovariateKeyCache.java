@@ -7,6 +7,10 @@ import org.broadinstitute.hellbender.utils.Utils;
  * Use an LRU cache to keep cache of keys (int[][][]) arrays for each read length we've seen.
  * The cache allows us to avoid the expense of recreating these arrays for every read.  The LRU
  * keeps the total number of cached arrays to less than LRU_CACHE_SIZE.
+ *
+ * The cache also holds the scratch buffers used by the covariates to compute the keys of a read, so that computing
+ * the covariates of a read does not allocate any per-read arrays. As a consequence, a cache must not be shared by
+ * threads computing covariates concurrently (engines and transformers use one cache each).
  */
 public final class CovariateKeyCache {
 
@@ -17,6 +21,11 @@ public final class CovariateKeyCache {
 
     private final LRUCache<Integer, int[][][]> keysCache = new LRUCache<>(LRU_CACHE_SIZE);
 
+    // scratch buffers, grown as needed and reused across reads
+    private byte[] basesBuffer = new byte[0];
+    private int[] mismatchContextBuffer = new int[0];
+    private int[] indelContextBuffer = new int[0];
+
     /**
      * Get the cached value for the given readlength or null is no value is cached.
      */
@@ -38,4 +47,37 @@ public final class CovariateKeyCache {
     public int size() {
         return keysCache.size();
     }
+
+    /**
+     * Returns a scratch buffer for the bases of a read, of at least the given length.
+     * Its content is overwritten by every call to this method.
+     */
+    byte[] getBasesBuffer(final int minLength) {
+        if ( basesBuffer.length < minLength ) {
+            basesBuffer = new byte[minLength];
+        }
+        return basesBuffer;
+    }
+
+    /**
+     * Returns a scratch buffer for the mismatch context keys of a read, of at least the given length.
+     * Its content is overwritten by every call to this method.
+     */
+    int[] getMismatchContextBuffer(final int minLength) {
+        if ( mismatchContextBuffer.length < minLength ) {
+            mismatchContextBuffer = new int[minLength];
+        }
+        return mismatchContextBuffer;
+    }
+
+    /**
+     * Returns a scratch buffer for the indel context keys of a read, of at least the given length.
+     * Its content is overwritten by every call to this method.
+     */
+    int[] getIndelContextBuffer(final int minLength) {
+        if ( indelContextBuffer.length < minLength ) {
+            indelContextBuffer = new int[minLength];
+        }
+        return indelContextBuffer;
+    }
 }
@@ -23,16 +23,23 @@ public final class CycleCovariate implements Covariate {
     @Override
     public void recordValues(final GATKRead read, final SAMFileHeader header, final ReadCovariates values, final boolean recordIndelValues) {
         final int readLength = read.getLength();
+
+        // same as cycleKey, but with the read-level values computed once per read rather than once per base
+        final int readOrderFactor = read.isPaired() && read.isSecondOfPair() ? -1 : 1;
+        final int firstCycle = read.isReverseStrand() ? readLength * readOrderFactor : readOrderFactor;
+        final int increment = read.isReverseStrand() ? -readOrderFactor : readOrderFactor;
+
         //Note: duplicate the loop to void checking recordIndelValues on every iteration
         if (recordIndelValues) {
+            final int maxCycleForIndels = readLength - CUSHION_FOR_INDELS - 1;
             for (int i = 0; i < readLength; i++) {
-                final int substitutionKey = cycleKey(i, read, false, MAXIMUM_CYCLE_VALUE);
-                final int indelKey = cycleKey(i, read, true, MAXIMUM_CYCLE_VALUE);
+                final int substitutionKey = keyFromCycle(firstCycle + i * increment, MAXIMUM_CYCLE_VALUE);
+                final int indelKey = i < CUSHION_FOR_INDELS || i > maxCycleForIndels ? -1 : substitutionKey;
                 values.addCovariate(substitutionKey, indelKey, indelKey, i);
             }
         } else {
             for (int i = 0; i < readLength; i++) {
-                final int substitutionKey = cycleKey(i, read, false, MAXIMUM_CYCLE_VALUE);
+                final int substitutionKey = keyFromCycle(firstCycle + i * increment, MAXIMUM_CYCLE_VALUE);
                 values.addCovariate(substitutionKey, 0, 0, i);
             }
         }
@@ -1,6 +1,7 @@
 package org.broadinstitute.hellbender.utils.recalibration.covariates;
 
 import htsjdk.samtools.SAMFileHeader;
+import htsjdk.samtools.SAMUtils;
 import org.broadinstitute.hellbender.utils.recalibration.RecalibrationArgumentCollection;
 import org.broadinstitute.hellbender.utils.QualityUtils;
 import org.broadinstitute.hellbender.utils.read.GATKRead;
@@ -19,13 +20,15 @@ public final class QualityScoreCovariate implements Covariate {
     @Override
     public void recordValues(final GATKRead read, final SAMFileHeader header, final ReadCovariates values, final boolean recordIndelValues) {
         final int baseQualityCount = read.getBaseQualityCount();
-        final byte[] baseInsertionQualities = recordIndelValues ? ReadUtils.getBaseInsertionQualities(read) : null;
-        final byte[] baseDeletionQualities = recordIndelValues ? ReadUtils.getBaseDeletionQualities(read) : null;
 
         //note: duplicate the loop to avoid checking recordIndelValues on every iteration
         if (recordIndelValues) {
+            //note: the indel qualities are decoded on the fly (as in ReadUtils.getBaseInsertionQualities) rather than
+            //into new arrays, to avoid per-read allocations. Most reads have none, and use the default quality instead.
+            final String baseInsertionQualities = read.getAttributeAsString(ReadUtils.BQSR_BASE_INSERTION_QUALITIES);
+            final String baseDeletionQualities = read.getAttributeAsString(ReadUtils.BQSR_BASE_DELETION_QUALITIES);
             for (int i = 0; i < baseQualityCount; i++) {
-                values.addCovariate(read.getBaseQuality(i), baseInsertionQualities[i], baseDeletionQualities[i], i);
+                values.addCovariate(read.getBaseQuality(i), indelQuality(baseInsertionQualities, i), indelQuality(baseDeletionQualities, i), i);
             }
         } else {
             for (int i = 0; i < baseQualityCount; i++) {
@@ -34,6 +37,10 @@ public final class QualityScoreCovariate implements Covariate {
         }
     }
 
+    private static byte indelQuality(final String fastqQualities, final int offset) {
+        return fastqQualities == null ? ReadUtils.DEFAULT_INSERTION_DELETION_QUAL : SAMUtils.fastqToPhred(fastqQualities.charAt(offset));
+    }
+
     @Override
     public String formatKey(final int key) {
         return String.format("%d", key);
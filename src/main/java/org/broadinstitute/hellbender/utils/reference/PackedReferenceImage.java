@@ -0,0 +1,414 @@
+package org.broadinstitute.hellbender.utils.reference;
+
+import htsjdk.samtools.SAMException;
+import htsjdk.samtools.SAMFileHeader;
+import htsjdk.samtools.SAMSequenceDictionary;
+import htsjdk.samtools.SAMSequenceRecord;
+import htsjdk.samtools.SAMTextHeaderCodec;
+import htsjdk.samtools.reference.ReferenceSequenceFileFactory;
+import htsjdk.samtools.util.BufferedLineReader;
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+import org.broadinstitute.hellbender.exceptions.GATKException;
+import org.broadinstitute.hellbender.exceptions.UserException;
+import org.broadinstitute.hellbender.utils.Utils;
+import org.broadinstitute.hellbender.utils.fasta.CachingIndexedFastaSequenceFile;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * A binary image of a reference, for fast access to its bases from any number of threads and processes.
+ *
+ * The bases of each contig are stored 2-bit packed (four bases per byte), together with the list of runs of Ns in
+ * the contig. This is the same base alphabet that GATK reads from a FASTA file by default, since lower-case bases are
+ * converted to upper case and IUPAC ambiguity codes to N (see {@link CachingIndexedFastaSequenceFile}). The image also
+ * holds the sequence dictionary of the reference.
+ *
+ * The packed bases are memory-mapped, so all the readers of an image on the same node share a single copy of the
+ * reference through the page cache. Queries are thread-safe, and decode the requested bases into a new array.
+ *
+ * Images are created from an indexed FASTA file by {@link #create}, usually through the
+ * {@link org.broadinstitute.hellbender.tools.PackedReferenceImageCreator} tool. Layout:
+ * <ul>
+ *     <li>magic bytes, format version and offset of the index</li>
+ *     <li>the packed bases of each contig</li>
+ *     <li>the index: sequence dictionary as SAM header text, then the offset of the packed bases and the N runs of each contig</li>
+ * </ul>
+ */
+public final class PackedReferenceImage implements AutoCloseable {
+
+    /**
+     * Extension of the image of a FASTA file, when stored next to it.
+     */
+    public static final String IMAGE_EXTENSION = ".refimg";
+
+    private static final byte[] MAGIC = "GATKREFIMG".getBytes(StandardCharsets.US_ASCII);
+    private static final int VERSION = 1;
+    private static final int PREAMBLE_SIZE = MAGIC.length + Integer.BYTES + Long.BYTES;
+
+    /**
+     * Number of bases read from the FASTA file at a time while creating an image. Must be a multiple of 4, so that
+     * each chunk fills whole bytes.
+     */
+    private static final int CREATION_CHUNK_SIZE = 1 << 20;
+
+    private static final byte[] PACKED_BASES = {'A', 'C', 'G', 'T'};
+
+    /**
+     * Result of {@link #packBase} for bases stored as runs of Ns rather than packed.
+     */
+    private static final int N_CODE = -1;
+
+    /**
+     * The four bases of each possible packed byte, at index (byte << 2) + position of the base in the byte.
+     */
+    private static final byte[] UNPACKED_BASES = new byte[256 * 4];
+
+    static {
+        for ( int packed = 0; packed < 256; packed++ ) {
+            for ( int i = 0; i < 4; i++ ) {
+                UNPACKED_BASES[(packed << 2) + i] = PACKED_BASES[(packed >> (2 * i)) & 3];
+            }
+        }
+    }
+
+    private final Path path;
+    private final FileChannel channel;
+    private final SAMSequenceDictionary dictionary;
+    private final ContigImage[] contigs;
+
+    /**
+     * Open an existing image.
+     *
+     * @param path image file, on the default file system
+     */
+    public PackedReferenceImage(final Path path) {
+        this.path = Utils.nonNull(path);
+        try {
+            channel = FileChannel.open(path, StandardOpenOption.READ);
+        } catch ( final IOException e ) {
+            throw new UserException.CouldNotReadInputFile(path, e);
+        }
+
+        try {
+            final ByteBuffer preamble = ByteBuffer.allocate(PREAMBLE_SIZE);
+            while ( preamble.hasRemaining() && channel.read(preamble) >= 0 ) { }
+            preamble.flip();
+            final byte[] magic = new byte[MAGIC.length];
+            if ( preamble.remaining() < PREAMBLE_SIZE || ! Arrays.equals(readBytes(preamble, magic), MAGIC) ) {
+                throw new UserException.MalformedFile(path, "not a packed reference image");
+            }
+            final int version = preamble.getInt();
+            if ( version != VERSION ) {
+                throw new UserException.MalformedFile(path, "unsupported packed reference image version " + version + " (expected " + VERSION + ")");
+            }
+            final long indexOffset = preamble.getLong();
+
+            final ByteBuffer index = channel.map(FileChannel.MapMode.READ_ONLY, indexOffset, channel.size() - indexOffset);
+            final byte[] dictionaryText = readBytes(index, new byte[index.getInt()]);
+            dictionary = new SAMTextHeaderCodec()
+                    .decode(BufferedLineReader.fromString(new String(dictionaryText, StandardCharsets.UTF_8)), path.toString())
+                    .getSequenceDictionary();
+
+            contigs = new ContigImage[dictionary.size()];
+            for ( int i = 0; i < contigs.length; i++ ) {
+                final int length = dictionary.getSequence(i).getSequenceLength();
+                final long basesOffset = index.getLong();
+                final int numRuns = index.getInt();
+                final int[] runStarts = new int[numRuns];
+                final int[] runEnds = new int[numRuns];
+                for ( int run = 0; run < numRuns; run++ ) {
+                    runStarts[run] = index.getInt();
+                    runEnds[run] = index.getInt();
+                }
+                final ByteBuffer bases = channel.map(FileChannel.MapMode.READ_ONLY, basesOffset, packedSize(length));
+                contigs[i] = new ContigImage(length, bases, runStarts, runEnds);
+            }
+        } catch ( final UserException e ) {
+            closeQuietly();
+            throw e;
+        } catch ( final IOException | RuntimeException e ) {
+            closeQuietly();
+            throw new UserException.MalformedFile(path, "could not read packed reference image", e);
+        }
+    }
+
+    private static byte[] readBytes(final ByteBuffer buffer, final byte[] dest) {
+        buffer.get(dest);
+        return dest;
+    }
+
+    /**
+     * Create an image of an indexed FASTA file, with the bases that GATK reads from it by default (upper case, with
+     * IUPAC ambiguity codes converted to N).
+     *
+     * @param fastaPath reference FASTA file, with companion .fai and .dict files
+     * @param imagePath image file to create; overwritten if it exists
+     *
+     * @throws UserException.BadInput if the FASTA file contains a base that is neither A, C, G, T, N nor an IUPAC
+     *         ambiguity code
+     */
+    public static void create(final Path fastaPath, final Path imagePath) {
+        Utils.nonNull(fastaPath);
+        Utils.nonNull(imagePath);
+        // ambiguity codes are converted to N here rather than by the reader, so that unexpected bases can be reported
+        // with their position
+        try ( final CachingIndexedFastaSequenceFile fasta = new CachingIndexedFastaSequenceFile(fastaPath,
+                      CachingIndexedFastaSequenceFile.DEFAULT_CACHE_SIZE, false, true);
+              final FileChannel out = FileChannel.open(imagePath, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE) ) {
+            final SAMSequenceDictionary dictionary = fasta.getSequenceDictionary();
+            final long[] basesOffsets = new long[dictionary.size()];
+            final List<IntArrayList> nRuns = new ArrayList<>(dictionary.size());
+
+            out.position(PREAMBLE_SIZE);
+            for ( final SAMSequenceRecord contig : dictionary.getSequences() ) {
+                basesOffsets[contig.getSequenceIndex()] = out.position();
+                nRuns.add(writeContigBases(fasta, contig, out));
+            }
+
+            final long indexOffset = out.position();
+            final StringWriter dictionaryText = new StringWriter();
+            new SAMTextHeaderCodec().encode(dictionaryText, new SAMFileHeader(dictionary));
+            final byte[] dictionaryBytes = dictionaryText.toString().getBytes(StandardCharsets.UTF_8);
+            int indexSize = Integer.BYTES + dictionaryBytes.length;
+            for ( final IntArrayList runs : nRuns ) {
+                indexSize += Long.BYTES + Integer.BYTES + runs.size() * Integer.BYTES;
+            }
+            final ByteBuffer index = ByteBuffer.allocate(indexSize);
+            index.putInt(dictionaryBytes.length).put(dictionaryBytes);
+            for ( int i = 0; i < basesOffsets.length; i++ ) {
+                final IntArrayList runs = nRuns.get(i);
+                index.putLong(basesOffsets[i]).putInt(runs.size() / 2);
+                for ( int j = 0; j < runs.size(); j++ ) {
+                    index.putInt(runs.getInt(j));
+                }
+            }
+            writeFully(out, index, indexOffset);
+
+            final ByteBuffer preamble = ByteBuffer.allocate(PREAMBLE_SIZE);
+            preamble.put(MAGIC).putInt(VERSION).putLong(indexOffset);
+            writeFully(out, preamble, 0);
+        } catch ( final IOException e ) {
+            throw new UserException.CouldNotCreateOutputFile(imagePath.toString(), "could not write packed reference image", e);
+        }
+    }
+
+    /**
+     * Write the packed bases of a contig at the current position of the output.
+     *
+     * @return the runs of Ns in the contig, as consecutive 0-based (start, end exclusive) pairs
+     */
+    private static IntArrayList writeContigBases(final CachingIndexedFastaSequenceFile fasta, final SAMSequenceRecord contig, final FileChannel out) throws IOException {
+        final int length = contig.getSequenceLength();
+        final IntArrayList runs = new IntArrayList();
+        final ByteBuffer packed = ByteBuffer.allocate(CREATION_CHUNK_SIZE / 4);
+        int runStart = -1;
+
+        for ( int chunkStart = 0; chunkStart < length; chunkStart += CREATION_CHUNK_SIZE ) {
+            final int chunkEnd = Math.min(length, chunkStart + CREATION_CHUNK_SIZE);
+            final byte[] bases = fasta.getSubsequenceAt(contig.getSequenceName(), chunkStart + 1, chunkEnd).getBases();
+            packed.clear();
+            int currentByte = 0;
+            for ( int i = 0; i < bases.length; i++ ) {
+                final int position = chunkStart + i;
+                int code = packBase(bases[i], contig.getSequenceName(), position);
+                if ( code == N_CODE ) {
+                    if ( runStart < 0 ) {
+                        runStart = position;
+                    }
+                    code = 0;
+                } else if ( runStart >= 0 ) {
+                    runs.add(runStart);
+                    runs.add(position);
+                    runStart = -1;
+                }
+                currentByte |= code << (2 * (position & 3));
+                if ( (position & 3) == 3 ) {
+                    packed.put((byte) currentByte);
+                    currentByte = 0;
+                }
+            }
+            if ( (chunkEnd & 3) != 0 ) {
+                // only the last chunk of a contig can end in the middle of a byte
+                packed.put((byte) currentByte);
+            }
+            packed.flip();
+            while ( packed.hasRemaining() ) {
+                out.write(packed);
+            }
+        }
+        if ( runStart >= 0 ) {
+            runs.add(runStart);
+            runs.add(length);
+        }
+        return runs;
+    }
+
+    /**
+     * @return the 2-bit code of an upper-case base, or {@link #N_CODE} for N and IUPAC ambiguity codes
+     */
+    private static int packBase(final byte base, final String contig, final int position) {
+        switch ( base ) {
+            case 'A': return 0;
+            case 'C': return 1;
+            case 'G': return 2;
+            case 'T': return 3;
+            case 'N': case 'R': case 'Y': case 'M': case 'K': case 'W': case 'S': case 'B': case 'D': case 'H': case 'V':
+                return N_CODE;
+            default:
+                final String printedBase = base > ' ' && base < 127 ? "'" + (char) base + "'" : "byte " + (base & 0xFF);
+                throw new UserException.BadInput("Unexpected base " + printedBase + " at " + contig + ":" + (position + 1) +
+                        " (1-based) of the reference; only A, C, G, T, N and IUPAC ambiguity codes are supported");
+        }
+    }
+
+    private static void writeFully(final FileChannel out, final ByteBuffer buffer, final long position) throws IOException {
+        buffer.flip();
+        long offset = position;
+        while ( buffer.hasRemaining() ) {
+            offset += out.write(buffer, offset);
+        }
+    }
+
+    private static long packedSize(final int length) {
+        return (length + 3L) / 4;
+    }
+
+    /**
+     * Find an image of a FASTA file stored next to it (with {@link #IMAGE_EXTENSION} appended to the FASTA file name)
+     * that is at least as recent as the FASTA file itself and its .fai index and .dict sequence dictionary, so that an
+     * image made from an older version of any of them is never used.
+     *
+     * @param fastaPath reference FASTA file
+     * @return the path of the image, or {@code null} if there is no such image, or if the FASTA file is not on the
+     *         default file system (where images can be memory-mapped)
+     */
+    public static Path findImageForFasta(final Path fastaPath) {
+        Utils.nonNull(fastaPath);
+        if ( fastaPath.getFileSystem() != FileSystems.getDefault() ) {
+            return null;
+        }
+        final Path imagePath = Paths.get(fastaPath.toString() + IMAGE_EXTENSION);
+        try {
+            if ( ! Files.isRegularFile(imagePath) ) {
+                return null;
+            }
+            final FileTime imageTime = Files.getLastModifiedTime(imagePath);
+            for ( final Path sourcePath : new Path[] { fastaPath,
+                    ReferenceSequenceFileFactory.getFastaIndexFileName(fastaPath),
+                    ReferenceSequenceFileFactory.getDefaultDictionaryForReferenceSequence(fastaPath) } ) {
+                // without an index or dictionary, fall back to the FASTA file, which reports them as missing
+                if ( ! Files.exists(sourcePath) || imageTime.compareTo(Files.getLastModifiedTime(sourcePath)) < 0 ) {
+                    return null;
+                }
+            }
+            return imagePath;
+        } catch ( final IOException e ) {
+            // fall back to the FASTA file
+            return null;
+        }
+    }
+
+    /**
+     * @return the sequence dictionary of the reference
+     */
+    public SAMSequenceDictionary getSequenceDictionary() {
+        return dictionary;
+    }
+
+    /**
+     * @return the path of this image
+     */
+    public Path getPath() {
+        return path;
+    }
+
+    /**
+     * Get the bases of an interval of the reference, in upper case, with any base other than A, C, G and T as N.
+     *
+     * @param contig contig of the interval
+     * @param start inclusive, 1-based start of the interval
+     * @param stop inclusive, 1-based end of the interval. May be {@code start - 1} for an empty interval.
+     * @return a new array with the bases of the interval
+     */
+    public byte[] getBases(final String contig, final long start, final long stop) {
+        final int contigIndex = dictionary.getSequenceIndex(contig);
+        if ( contigIndex < 0 ) {
+            throw new UserException.MissingContigInSequenceDictionary(contig, dictionary);
+        }
+        final ContigImage contigImage = contigs[contigIndex];
+        if ( stop > contigImage.length ) {
+            throw new SAMException("Query asks for data past end of contig. Query contig " + contig + " start:" + start + " stop:" + stop + " contigLength:" + contigImage.length);
+        }
+        if ( start < 1 || start > stop + 1 ) {
+            throw new SAMException(String.format("Malformed query; start point %d lies after end point %d or before 1", start, stop));
+        }
+
+        final int first = (int) start - 1;
+        final int end = (int) stop;
+        final byte[] bases = new byte[end - first];
+        for ( int position = first; position < end; position++ ) {
+            bases[position - first] = UNPACKED_BASES[((contigImage.bases.get(position >> 2) & 0xFF) << 2) + (position & 3)];
+        }
+        contigImage.maskNs(bases, first, end);
+        return bases;
+    }
+
+    @Override
+    public void close() {
+        try {
+            channel.close();
+        } catch ( final IOException e ) {
+            throw new GATKException("Error closing packed reference image " + path, e);
+        }
+    }
+
+    private void closeQuietly() {
+        try {
+            channel.close();
+        } catch ( final IOException e ) {
+            // already failing
+        }
+    }
+
+    /**
+     * The packed bases and N runs of a single contig.
+     */
+    private static final class ContigImage {
+        private final int length;
+        private final ByteBuffer bases;
+        private final int[] runStarts;
+        private final int[] runEnds;
+
+        private ContigImage(final int length, final ByteBuffer bases, final int[] runStarts, final int[] runEnds) {
+            this.length = length;
+            this.bases = bases;
+            this.runStarts = runStarts;
+            this.runEnds = runEnds;
+        }
+
+        /**
+         * Overwrite with N the bases of the runs that overlap the interval [first, end) of the contig.
+         */
+        private void maskNs(final byte[] bases, final int first, final int end) {
+            // first run that ends after the start of the interval (runs are sorted and disjoint)
+            int run = Arrays.binarySearch(runEnds, first);
+            run = run >= 0 ? run + 1 : -run - 1;
+            for ( ; run < runStarts.length && runStarts[run] < end; run++ ) {
+                Arrays.fill(bases, Math.max(first, runStarts[run]) - first, Math.min(end, runEnds[run]) - first, (byte) 'N');
+            }
+        }
+    }
+}
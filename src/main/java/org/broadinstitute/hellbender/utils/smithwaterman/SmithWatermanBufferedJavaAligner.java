@@ -0,0 +1,396 @@
+package org.broadinstitute.hellbender.utils.smithwaterman;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.collect.Lists;
+import htsjdk.samtools.Cigar;
+import htsjdk.samtools.CigarElement;
+import htsjdk.samtools.CigarOperator;
+import org.broadinstitute.gatk.nativebindings.smithwaterman.SWOverhangStrategy;
+import org.broadinstitute.gatk.nativebindings.smithwaterman.SWParameters;
+import org.broadinstitute.hellbender.utils.Utils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Pairwise discrete smith-waterman alignment implemented in pure java, producing exactly the same alignments as
+ * {@link SmithWatermanJavaAligner} with less allocation.
+ *
+ * The score and back track matrices are stored as flat arrays in per-thread buffers that are reused across alignments,
+ * instead of allocating a pair of {@code int[n][m]} matrices (n + 1 arrays each) for every alignment. Only the first row
+ * and column of the score matrix, and the gap bookkeeping arrays, need to be reset between alignments, since every
+ * other cell is written before it is read. Buffers larger than {@link #MAX_RETAINED_CELLS} cells are not retained, so
+ * that an occasional very long alignment doesn't hold on to a large amount of memory in each thread.
+ *
+ * ************************************************************************
+ * ****                    IMPORTANT NOTE:                             ****
+ * ****  This class assumes that all bytes come from UPPERCASED chars! ****
+ * ************************************************************************
+ */
+public final class SmithWatermanBufferedJavaAligner implements SmithWatermanAligner {
+    private static final SmithWatermanBufferedJavaAligner ALIGNER = new SmithWatermanBufferedJavaAligner();
+
+    /**
+     * Largest number of matrix cells for which the buffers of a thread are retained after an alignment
+     */
+    @VisibleForTesting
+    static final int MAX_RETAINED_CELLS = 1 << 22;
+
+    private static final int MATRIX_MIN_CUTOFF = (int) -1.0e8;   // never let matrix elements drop below this cutoff
+    private static final int LOW_INIT_VALUE = Integer.MIN_VALUE / 2;
+
+    private static final ThreadLocal<Buffers> BUFFERS = ThreadLocal.withInitial(Buffers::new);
+
+    private final LongAdder totalComputeTime = new LongAdder();
+
+    /**
+     * The state of a trace step through the matrix
+     */
+    private enum State {
+        MATCH,
+        INSERTION,
+        DELETION,
+        CLIP
+    }
+
+    /**
+     * Matrices and gap bookkeeping for one alignment
+     */
+    private static final class Buffers {
+        int[] sw = new int[0];
+        int[] btrack = new int[0];
+        int[] bestGapV = new int[0];
+        int[] gapSizeV = new int[0];
+        int[] bestGapH = new int[0];
+        int[] gapSizeH = new int[0];
+
+        /**
+         * Make sure the buffers are large enough for a matrix of nrow x ncol cells, and reset the cells that are read
+         * before they are written
+         */
+        void prepare(final int nrow, final int ncol) {
+            final int cells = nrow * ncol;
+            if ( sw.length < cells ) {
+                sw = new int[cells];
+                btrack = new int[cells];
+            }
+            if ( bestGapV.length < ncol + 1 ) {
+                bestGapV = new int[ncol + 1];
+                gapSizeV = new int[ncol + 1];
+            }
+            if ( bestGapH.length < nrow + 1 ) {
+                bestGapH = new int[nrow + 1];
+                gapSizeH = new int[nrow + 1];
+            }
+
+            // the first row and column are never written by the recurrence
+            Arrays.fill(sw, 0, ncol, 0);
+            for ( int i = ncol; i < cells; i += ncol ) {
+                sw[i] = 0;
+            }
+            Arrays.fill(bestGapV, 0, ncol + 1, LOW_INIT_VALUE);
+            Arrays.fill(gapSizeV, 0, ncol + 1, 0);
+            Arrays.fill(bestGapH, 0, nrow + 1, LOW_INIT_VALUE);
+            Arrays.fill(gapSizeH, 0, nrow + 1, 0);
+        }
+    }
+
+    /**
+     * return the stateless singleton instance of SmithWatermanBufferedJavaAligner
+     */
+    public static SmithWatermanBufferedJavaAligner getInstance() {
+        return ALIGNER;
+    }
+
+    private SmithWatermanBufferedJavaAligner(){}
+
+    /**
+     * Aligns the alternate sequence to the reference sequence
+     *
+     * @param reference  ref sequence
+     * @param alternate  alt sequence
+     */
+    @Override
+    public SmithWatermanAlignment align(final byte[] reference, final byte[] alternate, final SWParameters parameters, final SWOverhangStrategy overhangStrategy) {
+        final long startTime = System.nanoTime();
+
+        if ( reference == null || reference.length == 0 || alternate == null || alternate.length == 0 ) {
+            throw new IllegalArgumentException("Non-null, non-empty sequences are required for the Smith-Waterman calculation");
+        }
+        Utils.nonNull(parameters);
+        Utils.nonNull(overhangStrategy);
+
+        // avoid running full Smith-Waterman if there is an exact match of alternate in reference
+        if (overhangStrategy == SWOverhangStrategy.SOFTCLIP || overhangStrategy == SWOverhangStrategy.IGNORE) {
+            // NOTE: This approach only works for SOFTCLIP and IGNORE overhang strategies
+            final int matchIndex = Utils.lastIndexOf(reference, alternate);
+            if ( matchIndex != -1 ) {
+                totalComputeTime.add(System.nanoTime() - startTime);
+                return new SWPairwiseAlignmentResult(new Cigar(Collections.singletonList(new CigarElement(alternate.length, CigarOperator.M))), matchIndex);
+            }
+        }
+
+        final int nrow = reference.length + 1;
+        final int ncol = alternate.length + 1;
+        Utils.validateArg((long) nrow * ncol <= Integer.MAX_VALUE, "Sequences are too long for the Smith-Waterman calculation");
+
+        final Buffers buffers = (long) nrow * ncol <= MAX_RETAINED_CELLS ? BUFFERS.get() : new Buffers();
+        buffers.prepare(nrow, ncol);
+        calculateMatrix(reference, alternate, buffers, nrow, ncol, overhangStrategy, parameters);
+        final SmithWatermanAlignment alignmentResult = calculateCigar(buffers.sw, buffers.btrack, nrow, ncol, overhangStrategy);
+
+        totalComputeTime.add(System.nanoTime() - startTime);
+        return alignmentResult;
+    }
+
+    /**
+     * Calculates the SW matrices for the given sequences, as {@link SmithWatermanJavaAligner} does, into the buffers
+     * (matrices with ncol = alternate.length + 1 columns, stored by row)
+     */
+    private static void calculateMatrix(final byte[] reference, final byte[] alternate, final Buffers buffers, final int nrow, final int ncol,
+                                        final SWOverhangStrategy overhangStrategy, final SWParameters parameters) {
+        final int[] sw = buffers.sw;
+        final int[] btrack = buffers.btrack;
+        final int[] best_gap_v = buffers.bestGapV;
+        final int[] gap_size_v = buffers.gapSizeV;
+        final int[] best_gap_h = buffers.bestGapH;
+        final int[] gap_size_h = buffers.gapSizeH;
+
+        //access is pricey if done enough times so we extract those out
+        final int w_open = parameters.getGapOpenPenalty();
+        final int w_extend = parameters.getGapExtendPenalty();
+        final int w_match = parameters.getMatchValue();
+        final int w_mismatch = parameters.getMismatchPenalty();
+
+        // we need to initialize the SW matrix with gap penalties if we want to keep track of indels at the edges of alignments
+        if ( overhangStrategy == SWOverhangStrategy.INDEL || overhangStrategy == SWOverhangStrategy.LEADING_INDEL ) {
+            // initialize the first row
+            sw[1] = w_open;
+            int currentValue = w_open;
+            for ( int j = 2; j < ncol; j++ ) {
+                currentValue += w_extend;
+                sw[j] = currentValue;
+            }
+            // initialize the first column
+            sw[ncol] = w_open;
+            currentValue = w_open;
+            for ( int i = 2; i < nrow; i++ ) {
+                currentValue += w_extend;
+                sw[i * ncol] = currentValue;
+            }
+        }
+
+        for ( int i = 1; i < nrow; i++ ) {
+            final byte a_base = reference[i-1]; // letter in a at the current pos
+            final int lastRow = (i - 1) * ncol;
+            final int curRow = i * ncol;
+
+            // the gap to the left is only ever carried along the current row, so keep it in locals
+            int bestGapH = best_gap_h[i];
+            int gapSizeH = gap_size_h[i];
+
+            for ( int j = 1; j < ncol; j++ ) {
+                final byte b_base = alternate[j-1]; // letter in b at the current pos
+                final int step_diag = sw[lastRow + j - 1] + (a_base == b_base ? w_match : w_mismatch);
+
+                // best gap ending in the current cell coming from above (see SmithWatermanJavaAligner, this only works
+                // for linear gap penalties)
+                int prev_gap = sw[lastRow + j] + w_open;
+                best_gap_v[j] += w_extend;
+                if ( prev_gap > best_gap_v[j] ) {
+                    best_gap_v[j] = prev_gap;
+                    gap_size_v[j] = 1;
+                } else {
+                    gap_size_v[j]++;
+                }
+
+                final int step_down = best_gap_v[j];
+                final int kd = gap_size_v[j];
+
+                // best gap ending in the current cell coming from the left
+                prev_gap = sw[curRow + j - 1] + w_open;
+                bestGapH += w_extend;
+                if ( prev_gap > bestGapH ) {
+                    bestGapH = prev_gap;
+                    gapSizeH = 1;
+                } else {
+                    gapSizeH++;
+                }
+
+                final int step_right = bestGapH;
+                final int ki = gapSizeH;
+
+                //priority here will be step diagonal, step right, step down
+                if ( step_diag >= step_down && step_diag >= step_right ) {
+                    sw[curRow + j] = Math.max(MATRIX_MIN_CUTOFF, step_diag);
+                    btrack[curRow + j] = 0;
+                } else if ( step_right >= step_down ) { //moving right is the highest
+                    sw[curRow + j] = Math.max(MATRIX_MIN_CUTOFF, step_right);
+                    btrack[curRow + j] = -ki; // negative = horizontal
+                } else {
+                    sw[curRow + j] = Math.max(MATRIX_MIN_CUTOFF, step_down);
+                    btrack[curRow + j] = kd; // positive=vertical
+                }
+            }
+
+            best_gap_h[i] = bestGapH;
+            gap_size_h[i] = gapSizeH;
+        }
+    }
+
+    /*
+     * Class to store the result of calculating the CIGAR from the back track matrix
+     */
+    private static final class SWPairwiseAlignmentResult implements SmithWatermanAlignment {
+        private final Cigar cigar;
+        private final int alignmentOffset;
+
+        SWPairwiseAlignmentResult(final Cigar cigar, final int alignmentOffset) {
+            this.cigar = cigar;
+            this.alignmentOffset = alignmentOffset;
+        }
+
+        @Override
+        public Cigar getCigar() {
+            return cigar;
+        }
+
+        @Override
+        public int getAlignmentOffset() {
+            return alignmentOffset;
+        }
+    }
+
+    /**
+     * Calculates the CIGAR for the alignment from the back track matrix, as {@link SmithWatermanJavaAligner} does
+     *
+     * @return non-null SWPairwiseAlignmentResult object
+     */
+    private static SWPairwiseAlignmentResult calculateCigar(final int[] sw, final int[] btrack, final int nrow, final int ncol,
+                                                            final SWOverhangStrategy overhangStrategy) {
+        // p holds the position we start backtracking from; we will be assembling a cigar in the backwards order
+        int p1 = 0, p2 = 0;
+
+        final int refLength = nrow - 1;
+        final int altLength = ncol - 1;
+
+        int maxscore = Integer.MIN_VALUE; // sw scores are allowed to be negative
+        int segment_length = 0; // length of the segment (continuous matches, insertions or deletions)
+
+        // if we want to consider overhangs as legitimate operators, then just start from the corner of the matrix
+        if ( overhangStrategy == SWOverhangStrategy.INDEL ) {
+            p1 = refLength;
+            p2 = altLength;
+        } else {
+            // look for the largest score on the rightmost column. we use >= combined with the traversal direction
+            // to ensure that if two scores are equal, the one closer to diagonal gets picked
+            p2 = altLength;
+
+            for ( int i = 1; i < nrow; i++ ) {
+                final int curScore = sw[i * ncol + altLength];
+                if ( curScore >= maxscore ) {
+                    p1 = i;
+                    maxscore = curScore;
+                }
+            }
+            // now look for a larger score on the bottom-most row
+            if ( overhangStrategy != SWOverhangStrategy.LEADING_INDEL ) {
+                final int bottomRow = refLength * ncol;
+                for ( int j = 1; j < ncol; j++ ) {
+                    final int curScore = sw[bottomRow + j];
+                    if ( curScore > maxscore ||
+                            (curScore == maxscore && Math.abs(refLength - j) < Math.abs(p1 - p2)) ) {
+                        p1 = refLength;
+                        p2 = j;
+                        maxscore = curScore;
+                        segment_length = altLength - j; // end of sequence 2 is overhanging; we will just record it as 'M' segment
+                    }
+                }
+            }
+        }
+        final List<CigarElement> lce = new ArrayList<>(5);
+        if ( segment_length > 0 && overhangStrategy == SWOverhangStrategy.SOFTCLIP ) {
+            lce.add(makeElement(State.CLIP, segment_length));
+            segment_length = 0;
+        }
+
+        // we will be placing all insertions and deletions into sequence b, so the states are named w/regard
+        // to that sequence
+        State state = State.MATCH;
+        do {
+            final int btr = btrack[p1 * ncol + p2];
+            final State new_state;
+            int step_length = 1;
+            if ( btr > 0 ) {
+                new_state = State.DELETION;
+                step_length = btr;
+            } else if ( btr < 0 ) {
+                new_state = State.INSERTION;
+                step_length = (-btr);
+            } else new_state = State.MATCH; // and step_length =1, already set above
+
+            // move to next best location in the sw matrix:
+            switch( new_state ) {
+                case MATCH:  p1--; p2--; break; // move back along the diag in the sw matrix
+                case INSERTION: p2 -= step_length; break; // move left
+                case DELETION:  p1 -= step_length; break; // move up
+            }
+
+            // now let's see if the state actually changed:
+            if ( new_state == state ) segment_length+=step_length;
+            else {
+                // state changed, lets emit previous segment, whatever it was (Insertion Deletion, or (Mis)Match).
+                if (segment_length > 0) {
+                    lce.add(makeElement(state, segment_length));
+                }
+                segment_length = step_length;
+                state = new_state;
+            }
+        } while ( p1 > 0 && p2 > 0 );
+
+        // post-process the last segment, see SmithWatermanJavaAligner
+        final int alignment_offset;
+        if ( overhangStrategy == SWOverhangStrategy.SOFTCLIP ) {
+            lce.add(makeElement(state, segment_length));
+            if ( p2 > 0 ) lce.add(makeElement(State.CLIP, p2));
+            alignment_offset = p1;
+        } else if ( overhangStrategy == SWOverhangStrategy.IGNORE ) {
+            lce.add(makeElement(state, segment_length + p2));
+            alignment_offset = p1 - p2;
+        } else {  // overhangStrategy == OverhangStrategy.INDEL || overhangStrategy == OverhangStrategy.LEADING_INDEL
+
+            // take care of the actual alignment
+            lce.add(makeElement(state, segment_length));
+
+            // take care of overhangs at the beginning of the alignment
+            if ( p1 > 0 ) {
+                lce.add(makeElement(State.DELETION, p1));
+            } else if ( p2 > 0 ) {
+                lce.add(makeElement(State.INSERTION, p2));
+            }
+
+            alignment_offset = 0;
+        }
+
+        return new SWPairwiseAlignmentResult(new Cigar(Lists.reverse(lce)), alignment_offset);
+    }
+
+    private static CigarElement makeElement(final State state, final int length) {
+        CigarOperator op = null;
+        switch (state) {
+            case MATCH: op = CigarOperator.M; break;
+            case INSERTION: op = CigarOperator.I; break;
+            case DELETION: op = CigarOperator.D; break;
+            case CLIP: op = CigarOperator.S; break;
+        }
+        return new CigarElement(length, op);
+    }
+
+    @Override
+    public void close() {
+        logger.info(String.format("Total compute time in buffered java Smith-Waterman : %.2f sec", totalComputeTime.sum() * 1e-9));
+    }
+}
@@ -21,9 +21,11 @@ import org.broadinstitute.hellbender.exceptions.GATKException;
 import org.broadinstitute.hellbender.utils.genotyper.GenotypePriorCalculator;
 import org.broadinstitute.hellbender.tools.walkers.genotyper.*;
 import org.broadinstitute.hellbender.utils.*;
+import org.broadinstitute.hellbender.utils.codecs.BinaryGVCFCodec;
 import org.broadinstitute.hellbender.utils.param.ParamUtils;
 import org.broadinstitute.hellbender.utils.pileup.PileupElement;
 import org.broadinstitute.hellbender.utils.read.AlignmentUtils;
+import org.broadinstitute.hellbender.utils.variant.writers.BinaryGVCFWriter;
 
 import java.io.Serializable;
 import java.nio.file.Path;
@@ -77,6 +79,8 @@ public final class GATKVariantContextUtils {
 
     /**
      * Creates a VariantContextWriter whose outputFile type is based on the extension of the output file name.
+     * Outputs with the {@link BinaryGVCFCodec#FILE_EXTENSION} extension (in any case) are written as binary GVCFs,
+     * indexed if INDEX_ON_THE_FLY is among the <code>options</code>.
      * The default options set by VariantContextWriter are cleared before applying ALLOW_MISSING_FIELDS_IN_HEADER (if
      * <code>lenientProcessing</code> is set), followed by the set of options specified by any <code>options</code> args.
      *
@@ -94,6 +98,10 @@ public final class GATKVariantContextUtils {
     {
         Utils.nonNull(outPath);
 
+        if (BinaryGVCFCodec.isBinaryGVCFPath(outPath.toString())) {
+            return new BinaryGVCFWriter(outPath, Arrays.asList(options).contains(Options.INDEX_ON_THE_FLY), createMD5);
+        }
+
         VariantContextWriterBuilder vcWriterBuilder =
                 new VariantContextWriterBuilder().clearOptions().setOutputPath(outPath);
 
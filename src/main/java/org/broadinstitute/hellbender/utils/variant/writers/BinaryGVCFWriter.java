@@ -0,0 +1,417 @@
+package org.broadinstitute.hellbender.utils.variant.writers;
+
+import htsjdk.samtools.util.Md5CalculatingOutputStream;
+import htsjdk.tribble.Tribble;
+import htsjdk.tribble.index.Index;
+import htsjdk.tribble.index.IndexFactory;
+import htsjdk.variant.variantcontext.Allele;
+import htsjdk.variant.variantcontext.Genotype;
+import htsjdk.variant.variantcontext.VariantContext;
+import htsjdk.variant.variantcontext.writer.VariantContextWriter;
+import htsjdk.variant.variantcontext.writer.VariantContextWriterBuilder;
+import htsjdk.variant.vcf.VCFConstants;
+import htsjdk.variant.vcf.VCFContigHeaderLine;
+import htsjdk.variant.vcf.VCFEncoder;
+import htsjdk.variant.vcf.VCFHeader;
+import htsjdk.variant.vcf.VCFHeaderLineType;
+import htsjdk.variant.vcf.VCFInfoHeaderLine;
+import org.broadinstitute.hellbender.exceptions.GATKException;
+import org.broadinstitute.hellbender.exceptions.UserException;
+import org.broadinstitute.hellbender.tools.IndexFeatureFile;
+import org.broadinstitute.hellbender.utils.Utils;
+import org.broadinstitute.hellbender.utils.codecs.BinaryGVCFCodec;
+import org.broadinstitute.hellbender.utils.variant.GATKVCFConstants;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+
+/**
+ * Writes variant contexts in the binary GVCF format read by {@link BinaryGVCFCodec}.
+ *
+ * Reference blocks are recognized as they are written (e.g. from a {@link GVCFWriter}) and stored compactly; any other
+ * record is stored in the generic form. If requested, a tribble linear index, like the one IndexFeatureFile creates
+ * for GVCFs, and an MD5 digest of the output are written next to it when the writer is closed.
+ */
+public final class BinaryGVCFWriter implements VariantContextWriter {
+
+    private final Path outPath;
+    private final boolean createIndex;
+    private final DataOutputStream out;
+
+    private VCFHeader header;
+    private boolean headerWritten = false;
+    private Map<String, Integer> contigIndices;
+    private List<String> samples;
+
+    /**
+     * Contents of the record being written, reused across records
+     */
+    private final RecordBuffer record = new RecordBuffer();
+
+    /**
+     * @param outPath output path, should have the {@link BinaryGVCFCodec#FILE_EXTENSION} extension to be readable
+     * @param createIndex if true, write an index for the output when the writer is closed
+     */
+    public BinaryGVCFWriter(final Path outPath, final boolean createIndex) {
+        this(outPath, createIndex, false);
+    }
+
+    /**
+     * @param outPath output path, should have the {@link BinaryGVCFCodec#FILE_EXTENSION} extension to be readable
+     * @param createIndex if true, write an index for the output when the writer is closed
+     * @param createMD5 if true, write the MD5 digest of the output to a file with the extension ".md5" appended
+     */
+    public BinaryGVCFWriter(final Path outPath, final boolean createIndex, final boolean createMD5) {
+        this.outPath = Utils.nonNull(outPath);
+        this.createIndex = createIndex;
+        try {
+            final OutputStream fileStream = Files.newOutputStream(outPath);
+            this.out = new DataOutputStream(new BufferedOutputStream(createMD5 ?
+                    new Md5CalculatingOutputStream(fileStream, outPath.resolveSibling(outPath.getFileName() + ".md5")) : fileStream));
+        } catch (final IOException e) {
+            throw new UserException.CouldNotCreateOutputFile(outPath.toUri().toString(), e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public void writeHeader(final VCFHeader header) {
+        setHeader(header);
+
+        // the header is stored as the text that a VCF writer would produce for it
+        final ByteArrayOutputStream headerText = new ByteArrayOutputStream();
+        try ( final VariantContextWriter vcfWriter = new VariantContextWriterBuilder().clearOptions()
+                .setOutputStream(headerText).setOutputFileType(VariantContextWriterBuilder.OutputType.VCF_STREAM).build() ) {
+            vcfWriter.writeHeader(header);
+        }
+
+        try {
+            out.write(BinaryGVCFCodec.MAGIC);
+            out.writeInt(headerText.size());
+            headerText.writeTo(out);
+        } catch (final IOException e) {
+            throw new UserException.CouldNotCreateOutputFile(outPath.toUri().toString(), e.getMessage(), e);
+        }
+        headerWritten = true;
+    }
+
+    @Override
+    public void setHeader(final VCFHeader header) {
+        this.header = Utils.nonNull(header);
+        contigIndices = new HashMap<>();
+        for ( final VCFContigHeaderLine contigLine : header.getContigLines() ) {
+            contigIndices.put(contigLine.getID(), contigIndices.size());
+        }
+        samples = header.getGenotypeSamples();
+    }
+
+    @Override
+    public void add(final VariantContext vc) {
+        Utils.nonNull(vc);
+        if ( ! headerWritten ) {
+            throw new IllegalStateException("The header must be written before adding variants to a binary GVCF");
+        }
+        final Integer contigIndex = contigIndices.get(vc.getContig());
+        if ( contigIndex == null ) {
+            throw new UserException.MalformedFile("Contig " + vc.getContig() + " of variant at " + vc.getContig() + ":" + vc.getStart() +
+                    " is not in the header contig lines, which binary GVCFs require");
+        }
+
+        record.reset();
+        record.writeUnsignedVarInt(contigIndex);
+        record.writeUnsignedVarInt(vc.getStart());
+        record.writeUnsignedVarInt(vc.getEnd() - vc.getStart());
+        if ( isReferenceBlock(vc) ) {
+            record.writeByte(BinaryGVCFCodec.REFERENCE_BLOCK);
+            encodeReferenceBlock(vc);
+        } else {
+            record.writeByte(BinaryGVCFCodec.VARIANT);
+            encodeVariant(vc);
+        }
+
+        try {
+            out.writeInt(record.size());
+            record.writeTo(out);
+        } catch (final IOException e) {
+            throw new UserException.CouldNotCreateOutputFile(outPath.toUri().toString(), e.getMessage(), e);
+        }
+    }
+
+    /**
+     * @return true if the record is a reference block that can be stored in the compact form: nothing but a single
+     *         reference base with {@code <NON_REF>}, END, and uncalled or homozygous reference genotypes with at most
+     *         GQ, DP, MIN_DP and PLs
+     */
+    private boolean isReferenceBlock(final VariantContext vc) {
+        if ( vc.getNAlleles() != 2 || vc.getReference().length() != 1 || ! vc.getAlternateAllele(0).equals(Allele.NON_REF_ALLELE) ||
+                vc.hasID() || vc.hasLog10PError() || vc.filtersWereApplied() ||
+                vc.getAttributes().size() != 1 || ! vc.hasAttribute(VCFConstants.END_KEY) ||
+                vc.getNSamples() != samples.size() ) {
+            return false;
+        }
+        for ( final String sample : samples ) {
+            final Genotype g = vc.getGenotype(sample);
+            if ( g == null || g.isPhased() || g.isFiltered() || g.hasAD() || ! (g.isHomRef() || g.isNoCall()) ||
+                    ! isBlockMinDP(g.getExtendedAttributes()) ) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return true if the extended attributes of a genotype are empty, or hold nothing but an integer MIN_DP
+     */
+    private static boolean isBlockMinDP(final Map<String, Object> extendedAttributes) {
+        if ( extendedAttributes.isEmpty() ) {
+            return true;
+        }
+        if ( extendedAttributes.size() != 1 ) {
+            return false;
+        }
+        final Object minDP = extendedAttributes.get(GATKVCFConstants.MIN_DP_FORMAT_KEY);
+        if ( minDP instanceof Integer ) {
+            return true;
+        }
+        if ( minDP instanceof String ) {
+            try {
+                // only if it would be written back identically
+                return Integer.toString(Integer.parseInt((String) minDP)).equals(minDP);
+            } catch (final NumberFormatException e) {
+                return false;
+            }
+        }
+        return false;
+    }
+
+    private void encodeReferenceBlock(final VariantContext vc) {
+        record.writeByte(vc.getReference().getBases()[0]);
+        for ( final String sample : samples ) {
+            final Genotype g = vc.getGenotype(sample);
+            final Object minDP = g.getExtendedAttribute(GATKVCFConstants.MIN_DP_FORMAT_KEY);
+            int flags = genotypeFieldFlags(g);
+            if ( g.isHomRef() ) {
+                flags |= BinaryGVCFCodec.GENOTYPE_CALLED;
+            }
+            if ( minDP != null ) {
+                flags |= BinaryGVCFCodec.GENOTYPE_HAS_MIN_DP;
+            }
+            record.writeUnsignedVarInt(g.getPloidy());
+            record.writeByte(flags);
+            encodeGenotypeFields(g);
+            if ( minDP != null ) {
+                record.writeVarInt(minDP instanceof Integer ? (Integer) minDP : Integer.parseInt((String) minDP));
+            }
+        }
+    }
+
+    private void encodeVariant(final VariantContext vc) {
+        final List<Allele> alleles = vc.getAlleles();
+        record.writeUnsignedVarInt(alleles.size());
+        for ( final Allele allele : alleles ) {
+            record.writeBytes(allele.getDisplayBases());
+        }
+        record.writeString(vc.getID());
+        record.writeDouble(vc.getLog10PError());
+
+        if ( ! vc.filtersWereApplied() ) {
+            record.writeByte(BinaryGVCFCodec.UNFILTERED);
+        } else if ( ! vc.isFiltered() ) {
+            record.writeByte(BinaryGVCFCodec.PASSES_FILTERS);
+        } else {
+            record.writeByte(BinaryGVCFCodec.FAILS_FILTERS);
+            record.writeUnsignedVarInt(vc.getFilters().size());
+            for ( final String filter : vc.getFilters() ) {
+                record.writeString(filter);
+            }
+        }
+
+        // INFO values are stored as they would be written to a VCF: fields that format to nothing are dropped, and
+        // flags and empty values are written as bare keys
+        final List<String> infoKeys = new ArrayList<>(vc.getAttributes().size());
+        final List<String> infoValues = new ArrayList<>(vc.getAttributes().size());
+        for ( final Map.Entry<String, Object> attribute : vc.getAttributes().entrySet() ) {
+            final String value = VCFEncoder.formatVCFField(attribute.getValue());
+            if ( value != null ) {
+                infoKeys.add(attribute.getKey());
+                infoValues.add(value.isEmpty() || isFlag(attribute.getKey()) ? null : value);
+            }
+        }
+        record.writeUnsignedVarInt(infoKeys.size());
+        for ( int i = 0; i < infoKeys.size(); i++ ) {
+            record.writeString(infoKeys.get(i));
+            if ( infoValues.get(i) == null ) {
+                record.writeByte(BinaryGVCFCodec.INFO_FLAG);
+            } else {
+                record.writeByte(BinaryGVCFCodec.INFO_VALUE);
+                record.writeString(infoValues.get(i));
+            }
+        }
+
+        for ( final String sample : samples ) {
+            final Genotype g = vc.getGenotype(sample);
+            if ( g == null ) {
+                // samples missing from the record are written as empty genotypes
+                record.writeUnsignedVarInt(0);
+                record.writeByte(0);
+                record.writeUnsignedVarInt(0);
+                continue;
+            }
+
+            record.writeUnsignedVarInt(g.getPloidy());
+            for ( final Allele allele : g.getAlleles() ) {
+                record.writeUnsignedVarInt(allele.isNoCall() ? 0 : alleleIndex(alleles, allele, vc) + 1);
+            }
+
+            int flags = genotypeFieldFlags(g);
+            if ( g.isPhased() ) {
+                flags |= BinaryGVCFCodec.GENOTYPE_PHASED;
+            }
+            if ( g.hasAD() ) {
+                flags |= BinaryGVCFCodec.GENOTYPE_HAS_AD;
+            }
+            if ( g.isFiltered() ) {
+                flags |= BinaryGVCFCodec.GENOTYPE_FILTERED;
+            }
+            record.writeByte(flags);
+            encodeGenotypeFields(g);
+            if ( g.hasAD() ) {
+                record.writeVarInts(g.getAD());
+            }
+            if ( g.isFiltered() ) {
+                record.writeString(g.getFilters());
+            }
+
+            final List<String> keys = new ArrayList<>(g.getExtendedAttributes().size());
+            final List<String> values = new ArrayList<>(g.getExtendedAttributes().size());
+            for ( final Map.Entry<String, Object> attribute : g.getExtendedAttributes().entrySet() ) {
+                final String value = VCFEncoder.formatVCFField(attribute.getValue());
+                if ( value != null ) {
+                    keys.add(attribute.getKey());
+                    values.add(value);
+                }
+            }
+            record.writeUnsignedVarInt(keys.size());
+            for ( int i = 0; i < keys.size(); i++ ) {
+                record.writeString(keys.get(i));
+                record.writeString(values.get(i));
+            }
+        }
+    }
+
+    private boolean isFlag(final String key) {
+        final VCFInfoHeaderLine infoLine = header.getInfoHeaderLine(key);
+        return infoLine != null && infoLine.getType() == VCFHeaderLineType.Flag;
+    }
+
+    private static int alleleIndex(final List<Allele> alleles, final Allele allele, final VariantContext vc) {
+        for ( int i = 0; i < alleles.size(); i++ ) {
+            if ( alleles.get(i).equals(allele) ) {
+                return i;
+            }
+        }
+        throw new GATKException("Genotype allele " + allele + " is not an allele of the variant at " + vc.getContig() + ":" + vc.getStart());
+    }
+
+    /**
+     * @return the flags for the GQ, DP and PLs of a genotype
+     */
+    private static int genotypeFieldFlags(final Genotype g) {
+        return (g.hasGQ() ? BinaryGVCFCodec.GENOTYPE_HAS_GQ : 0) |
+               (g.hasDP() ? BinaryGVCFCodec.GENOTYPE_HAS_DP : 0) |
+               (g.hasPL() ? BinaryGVCFCodec.GENOTYPE_HAS_PL : 0);
+    }
+
+    private void encodeGenotypeFields(final Genotype g) {
+        if ( g.hasGQ() ) {
+            record.writeVarInt(g.getGQ());
+        }
+        if ( g.hasDP() ) {
+            record.writeVarInt(g.getDP());
+        }
+        if ( g.hasPL() ) {
+            record.writeVarInts(g.getPL());
+        }
+    }
+
+    /**
+     * Close the output, and write its index if requested
+     */
+    @Override
+    public void close() {
+        try {
+            out.close();
+        } catch (final IOException e) {
+            throw new UserException.CouldNotCreateOutputFile(outPath.toUri().toString(), e.getMessage(), e);
+        }
+
+        if ( createIndex && headerWritten ) {
+            final Index index = IndexFactory.createLinearIndex(outPath, new BinaryGVCFCodec(), IndexFeatureFile.OPTIMAL_GVCF_INDEX_BIN_SIZE);
+            final Path indexPath = Tribble.indexPath(outPath);
+            try {
+                index.write(indexPath);
+            } catch (final IOException e) {
+                throw new UserException.CouldNotCreateOutputFile(indexPath.toUri().toString(), e.getMessage(), e);
+            }
+        }
+    }
+
+    @Override
+    public boolean checkError() {
+        return false;
+    }
+
+    /**
+     * A growable byte buffer with the encodings of the binary GVCF format
+     */
+    private static final class RecordBuffer extends ByteArrayOutputStream {
+        RecordBuffer() {
+            super(4096);
+        }
+
+        void writeByte(final int value) {
+            write(value);
+        }
+
+        void writeUnsignedVarInt(int value) {
+            while ( (value & ~0x7f) != 0 ) {
+                write((value & 0x7f) | 0x80);
+                value >>>= 7;
+            }
+            write(value);
+        }
+
+        void writeVarInt(final int value) {
+            writeUnsignedVarInt((value << 1) ^ (value >> 31));
+        }
+
+        void writeVarInts(final int[] values) {
+            writeUnsignedVarInt(values.length);
+            for ( final int value : values ) {
+                writeVarInt(value);
+            }
+        }
+
+        void writeBytes(final byte[] bytes) {
+            writeUnsignedVarInt(bytes.length);
+            write(bytes, 0, bytes.length);
+        }
+
+        void writeString(final String value) {
+            writeBytes(value.getBytes(StandardCharsets.UTF_8));
+        }
+
+        void writeDouble(final double value) {
+            final long bits = Double.doubleToLongBits(value);
+            for ( int shift = 56; shift >= 0; shift -= 8 ) {
+                write((int) (bits >>> shift));
+            }
+        }
+    }
+}
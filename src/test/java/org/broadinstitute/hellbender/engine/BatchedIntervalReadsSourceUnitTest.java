@@ -0,0 +1,107 @@
+package org.broadinstitute.hellbender.engine;
+
+import org.broadinstitute.hellbender.GATKBaseTest;
+import org.broadinstitute.hellbender.utils.SimpleInterval;
+import org.broadinstitute.hellbender.utils.io.IOUtils;
+import org.broadinstitute.hellbender.utils.read.GATKRead;
+import org.testng.Assert;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+import java.nio.file.Path;
+import java.util.*;
+
+public final class BatchedIntervalReadsSourceUnitTest extends GATKBaseTest {
+    private static final Path TEST_BAM = IOUtils.getPath(publicTestDir + "org/broadinstitute/hellbender/engine/reads_data_source_test1.bam");
+
+    private static final List<SimpleInterval> INTERVALS = Arrays.asList(
+            new SimpleInterval("1", 200, 204),
+            new SimpleInterval("1", 205, 209),
+            new SimpleInterval("1", 285, 1100),
+            new SimpleInterval("1", 2000, 3000),
+            new SimpleInterval("2", 550, 649),
+            new SimpleInterval("3", 399, 400),
+            new SimpleInterval("4", 700, 701)
+    );
+
+    private static List<String> readNames(final Iterator<GATKRead> reads) {
+        final List<String> names = new ArrayList<>();
+        reads.forEachRemaining(read -> names.add(read.getName()));
+        return names;
+    }
+
+    @DataProvider(name = "batchLimits")
+    public Object[][] batchLimits() {
+        return new Object[][]{
+                {1, BatchedIntervalReadsSource.DEFAULT_MAX_BASES_PER_BATCH},
+                {2, BatchedIntervalReadsSource.DEFAULT_MAX_BASES_PER_BATCH},
+                {BatchedIntervalReadsSource.DEFAULT_MAX_INTERVALS_PER_BATCH, BatchedIntervalReadsSource.DEFAULT_MAX_BASES_PER_BATCH},
+                {BatchedIntervalReadsSource.DEFAULT_MAX_INTERVALS_PER_BATCH, 100L}
+        };
+    }
+
+    @Test(dataProvider = "batchLimits")
+    public void testMatchesIndividualQueries(final int maxIntervalsPerBatch, final long maxBasesPerBatch) {
+        final Map<SimpleInterval, List<String>> expectedReads = new LinkedHashMap<>();
+        try ( final ReadsPathDataSource readsSource = new ReadsPathDataSource(TEST_BAM) ) {
+            for ( final SimpleInterval interval : INTERVALS ) {
+                expectedReads.put(interval, readNames(readsSource.query(interval)));
+            }
+        }
+
+        try ( final ReadsPathDataSource readsSource = new ReadsPathDataSource(TEST_BAM) ) {
+            final BatchedIntervalReadsSource batchedSource = new BatchedIntervalReadsSource(readsSource, INTERVALS, maxIntervalsPerBatch, maxBasesPerBatch);
+            for ( final SimpleInterval interval : INTERVALS ) {
+                Assert.assertEquals(readNames(batchedSource.query(interval)), expectedReads.get(interval), "wrong reads for " + interval);
+                // repeated queries are passed through to the reads source
+                Assert.assertEquals(readNames(batchedSource.query(interval)), expectedReads.get(interval), "wrong reads for repeated query of " + interval);
+            }
+            // intervals that were not planned are passed through as well
+            Assert.assertEquals(readNames(batchedSource.query(new SimpleInterval("2", 550, 700))), Arrays.asList("f", "g", "h"));
+        }
+    }
+
+    @Test
+    public void testReadsOverlappingSeveralIntervalsAreCopied() {
+        final SimpleInterval first = new SimpleInterval("1", 200, 204);
+        final SimpleInterval second = new SimpleInterval("1", 205, 209);
+        try ( final ReadsPathDataSource readsSource = new ReadsPathDataSource(TEST_BAM) ) {
+            final BatchedIntervalReadsSource batchedSource = new BatchedIntervalReadsSource(readsSource, Arrays.asList(first, second));
+            Assert.assertEquals(batchedSource.getBatches().size(), 1);
+
+            final GATKRead fromFirst = batchedSource.query(first).next();
+            fromFirst.setName("modified");
+            final GATKRead fromSecond = batchedSource.query(second).next();
+            Assert.assertNotSame(fromSecond, fromFirst);
+            Assert.assertEquals(fromSecond.getName(), "a");
+        }
+    }
+
+    @Test
+    public void testBatchPlanning() {
+        final List<SimpleInterval> intervals = Arrays.asList(
+                new SimpleInterval("1", 1, 10),
+                new SimpleInterval("1", 21, 30),
+                new SimpleInterval("1", 41, 50),
+                new SimpleInterval("1", 61, 1060),  // too long to batch
+                new SimpleInterval("1", 1101, 1110),
+                new SimpleInterval("1", 1101, 1110),  // repeated
+                new SimpleInterval("2", 1, 10)
+        );
+        try ( final ReadsPathDataSource readsSource = new ReadsPathDataSource(TEST_BAM) ) {
+            final BatchedIntervalReadsSource batchedSource = new BatchedIntervalReadsSource(readsSource, intervals, 2, 500L);
+            Assert.assertEquals(batchedSource.getBatches(), Arrays.asList(
+                    Arrays.asList(new SimpleInterval("1", 1, 10), new SimpleInterval("1", 21, 30)),
+                    Arrays.asList(new SimpleInterval("1", 41, 50), new SimpleInterval("1", 1101, 1110)),
+                    Collections.singletonList(new SimpleInterval("2", 1, 10))
+            ));
+        }
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void testInvalidBatchSize() {
+        try ( final ReadsPathDataSource readsSource = new ReadsPathDataSource(TEST_BAM) ) {
+            new BatchedIntervalReadsSource(readsSource, INTERVALS, 0, BatchedIntervalReadsSource.DEFAULT_MAX_BASES_PER_BATCH);
+        }
+    }
+}
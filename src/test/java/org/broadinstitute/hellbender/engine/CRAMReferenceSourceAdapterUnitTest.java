@@ -0,0 +1,94 @@
+package org.broadinstitute.hellbender.engine;
+
+import htsjdk.samtools.SAMRecord;
+import htsjdk.samtools.SAMSequenceRecord;
+import htsjdk.samtools.SamReader;
+import htsjdk.samtools.SamReaderFactory;
+import org.broadinstitute.hellbender.GATKBaseTest;
+import org.broadinstitute.hellbender.utils.SimpleInterval;
+import org.broadinstitute.hellbender.utils.io.IOUtils;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+public final class CRAMReferenceSourceAdapterUnitTest extends GATKBaseTest {
+    private static final Path REFERENCE = IOUtils.getPath(hg19MiniReference);
+    private static final File TEST_CRAM = new File(publicTestDir + "org/broadinstitute/hellbender/engine/cram_with_crai_index.cram");
+
+    private static SAMSequenceRecord contig(final String name) {
+        return new SAMSequenceRecord(name, 16000);
+    }
+
+    @Test
+    public void testBasesMatchReference() {
+        try ( final ReferenceDataSource expectedReference = new ReferenceFileSource(REFERENCE, true);
+              final CRAMReferenceSourceAdapter adapter = new CRAMReferenceSourceAdapter(new ReferenceFileSource(REFERENCE, true)) ) {
+            for ( final String name : Arrays.asList("1", "2", "3", "4") ) {
+                final byte[] expected = new String(expectedReference.queryAndPrefetch(new SimpleInterval(name, 1, 16000)).getBases()).toUpperCase().getBytes();
+                Assert.assertEquals(adapter.getReferenceBases(contig(name), false), expected, "wrong bases for contig " + name);
+            }
+        }
+    }
+
+    @Test
+    public void testCacheHits() {
+        try ( final CRAMReferenceSourceAdapter adapter = new CRAMReferenceSourceAdapter(new ReferenceFileSource(REFERENCE, true), 2) ) {
+            final byte[] first = adapter.getReferenceBases(contig("1"), false);
+            Assert.assertSame(adapter.getReferenceBases(contig("1"), false), first);
+            adapter.getReferenceBases(contig("2"), false);
+            Assert.assertSame(adapter.getReferenceBases(contig("1"), false), first);
+
+            Assert.assertEquals(adapter.getNumRequests(), 4);
+            Assert.assertEquals(adapter.getNumHits(), 2);
+            Assert.assertEquals(adapter.getNumBasesLoaded(), 32000);
+            Assert.assertEquals(adapter.getNumCachedContigs(), 2);
+        }
+    }
+
+    @Test
+    public void testCacheIsBounded() {
+        try ( final CRAMReferenceSourceAdapter adapter = new CRAMReferenceSourceAdapter(new ReferenceFileSource(REFERENCE, true), 1) ) {
+            for ( final String name : Arrays.asList("1", "2", "1", "2") ) {
+                Assert.assertNotNull(adapter.getReferenceBases(contig(name), false));
+                Assert.assertEquals(adapter.getNumCachedContigs(), 1);
+            }
+            Assert.assertEquals(adapter.getNumHits(), 0);
+            Assert.assertEquals(adapter.getNumBasesLoaded(), 64000);
+        }
+    }
+
+    @Test
+    public void testNameVariants() {
+        try ( final CRAMReferenceSourceAdapter adapter = new CRAMReferenceSourceAdapter(new ReferenceFileSource(REFERENCE, true)) ) {
+            Assert.assertNull(adapter.getReferenceBases(contig("chr1"), false));
+            Assert.assertEquals(adapter.getReferenceBases(contig("chr1"), true), adapter.getReferenceBases(contig("1"), false));
+            Assert.assertNull(adapter.getReferenceBases(contig("5"), true));
+        }
+    }
+
+    @Test
+    public void testReadCram() throws IOException {
+        final List<String> readNames = new ArrayList<>();
+        try ( final CRAMReferenceSourceAdapter adapter = new CRAMReferenceSourceAdapter(new ReferenceFileSource(REFERENCE, true));
+              final SamReader reader = SamReaderFactory.makeDefault().referenceSource(adapter).open(TEST_CRAM) ) {
+            for ( final SAMRecord read : reader ) {
+                readNames.add(read.getReadName());
+            }
+            Assert.assertTrue(adapter.getNumRequests() > 0);
+        }
+        Assert.assertEquals(readNames, Arrays.asList("a", "b", "c", "d", "e", "f", "g", "h", "i", "j", "k"));
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void testInvalidMaxCachedContigs() {
+        try ( final ReferenceDataSource reference = new ReferenceFileSource(REFERENCE, true) ) {
+            new CRAMReferenceSourceAdapter(reference, 0);
+        }
+    }
+}
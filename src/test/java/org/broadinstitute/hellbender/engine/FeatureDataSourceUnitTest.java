@@ -1,5 +1,6 @@
 package org.broadinstitute.hellbender.engine;
 
+import com.google.common.collect.Iterators;
 import htsjdk.samtools.SAMSequenceDictionary;
 import htsjdk.tribble.Feature;
 import htsjdk.variant.variantcontext.VariantContext;
@@ -385,6 +386,83 @@ public final class FeatureDataSourceUnitTest extends GATKBaseTest {
         }
     }
 
+    /**
+     * Same as {@link #testSingleDataSourceMultipleQueries}, but with a small lookahead and asynchronous prefetching
+     * enabled, so that many queries are served by caches filled in the background
+     */
+    @Test(dataProvider = "SingleDataSourceMultipleQueriesTestData")
+    public void testSingleDataSourceMultipleQueriesWithAsyncPrefetch( final List<Pair<SimpleInterval, List<String>>> testQueries ) {
+        try (final FeatureDataSource<VariantContext> featureSource = new FeatureDataSource<>(QUERY_TEST_VCF, "MyName", 100)) {
+            featureSource.enableAsyncPrefetch();
+            Assert.assertTrue(featureSource.isAsyncPrefetchEnabled());
+
+            for ( Pair<SimpleInterval, List<String>> testQuery : testQueries ) {
+                final SimpleInterval queryInterval = testQuery.getLeft();
+                final List<VariantContext> queryResults = featureSource.queryAndPrefetch(queryInterval);
+                checkVariantQueryResults(queryResults, testQuery.getRight(), queryInterval);
+            }
+        }
+    }
+
+    /**
+     * Same as {@link #testSingleDataSourceMultipleQueriesWithAsyncPrefetch}, but with the query cache indexed for
+     * overlap queries
+     */
+    @Test(dataProvider = "SingleDataSourceMultipleQueriesTestData")
+    public void testSingleDataSourceMultipleQueriesWithIntervalIndexCache( final List<Pair<SimpleInterval, List<String>>> testQueries ) {
+        final FeatureInput<VariantContext> featureInput = new FeatureInput<>(QUERY_TEST_VCF.getAbsolutePath(), "MyName",
+                Collections.singletonMap(FeatureInput.QUERY_CACHE_ATTRIBUTE, FeatureInput.INTERVAL_INDEX_QUERY_CACHE));
+        try (final FeatureDataSource<VariantContext> featureSource = new FeatureDataSource<>(featureInput, 100, null)) {
+            featureSource.enableAsyncPrefetch();
+            Assert.assertTrue(featureSource.getQueryCache() instanceof IntervalIndexFeatureCache);
+
+            for ( Pair<SimpleInterval, List<String>> testQuery : testQueries ) {
+                final SimpleInterval queryInterval = testQuery.getLeft();
+                final List<VariantContext> queryResults = featureSource.queryAndPrefetch(queryInterval);
+                checkVariantQueryResults(queryResults, testQuery.getRight(), queryInterval);
+            }
+        }
+    }
+
+    @Test(expectedExceptions = UserException.BadInput.class)
+    public void testInvalidQueryCacheAttribute() {
+        final FeatureInput<VariantContext> featureInput = new FeatureInput<>(QUERY_TEST_VCF.getAbsolutePath(), "MyName",
+                Collections.singletonMap(FeatureInput.QUERY_CACHE_ATTRIBUTE, "noSuchCache"));
+        new FeatureDataSource<>(featureInput, 100, null);
+    }
+
+    @Test
+    public void testAsyncPrefetchServesCacheMisses() {
+        try (final FeatureDataSource<VariantContext> featureSource = new FeatureDataSource<>(QUERY_TEST_VCF, "MyName", 100);
+             final FeatureDataSource<VariantContext> expectedSource = new FeatureDataSource<>(QUERY_TEST_VCF, "MyName", 100)) {
+            featureSource.enableAsyncPrefetch();
+
+            // every miss after the first one falls within the window prefetched after the previous miss
+            for ( int start = 1; start <= 1300; start += 50 ) {
+                final SimpleInterval queryInterval = new SimpleInterval("1", start, start + 100);
+                final List<String> expectedVariantIDs = expectedSource.queryAndPrefetch(queryInterval).stream()
+                        .map(VariantContext::getID).collect(Collectors.toList());
+                checkVariantQueryResults(featureSource.queryAndPrefetch(queryInterval), expectedVariantIDs, queryInterval);
+            }
+
+            final FeatureCache<VariantContext> cache = featureSource.getQueryCache();
+            Assert.assertTrue(cache.getNumCacheMisses() > 1);
+            Assert.assertEquals(cache.getNumPrefetchHits(), cache.getNumCacheMisses() - 1);
+            Assert.assertEquals(cache.getNumPrefetchMisses(), 0);
+
+            // a full traversal must not interfere with a prefetch in progress
+            Assert.assertEquals(Iterators.size(featureSource.iterator()), 26);
+        }
+    }
+
+    @Test
+    public void testAsyncPrefetchNotEnabledWithoutLookahead() {
+        try (final FeatureDataSource<VariantContext> featureSource = new FeatureDataSource<>(QUERY_TEST_VCF, "MyName", 0)) {
+            featureSource.enableAsyncPrefetch();
+            Assert.assertFalse(featureSource.isAsyncPrefetchEnabled());
+        }
+    }
+
     @DataProvider(name = "GVCFQueryTestData")
     public Object[][] getGVCFQueryTestData() {
 
@@ -468,8 +546,10 @@ public final class FeatureDataSourceUnitTest extends GATKBaseTest {
     }
 
     private FeatureCache<ArtificialTestFeature> initializeFeatureCache( final List<ArtificialTestFeature> features, final String cacheContig, final int cacheStart, final int cacheEnd ) {
-        FeatureCache<ArtificialTestFeature> cache = new FeatureCache<>();
+        return initializeFeatureCache(new FeatureCache<>(), features, cacheContig, cacheStart, cacheEnd);
+    }
 
+    private FeatureCache<ArtificialTestFeature> initializeFeatureCache( final FeatureCache<ArtificialTestFeature> cache, final List<ArtificialTestFeature> features, final String cacheContig, final int cacheStart, final int cacheEnd ) {
         cache.fill(features.iterator(), new SimpleInterval(cacheContig, cacheStart, cacheEnd));
         return cache;
     }
@@ -556,6 +636,7 @@ public final class FeatureDataSourceUnitTest extends GATKBaseTest {
                 new ArtificialTestFeature("1", 100, 199)  // Feature 16
         );
         FeatureCache<ArtificialTestFeature> cache = initializeFeatureCache(feats, "1", 1, 200);
+        FeatureCache<ArtificialTestFeature> indexCache = initializeFeatureCache(new IntervalIndexFeatureCache<>(), feats, "1", 1, 200);
 
         // Pairing of start position to which to trim the cache with the List of Features we expect to see
         // in the cache after trimming
@@ -579,7 +660,8 @@ public final class FeatureDataSourceUnitTest extends GATKBaseTest {
         );
 
         return new Object[][] {
-                { cache, trimOperations }
+                { cache, trimOperations },
+                { indexCache, trimOperations }
         };
     }
 
@@ -614,6 +696,7 @@ public final class FeatureDataSourceUnitTest extends GATKBaseTest {
                 new ArtificialTestFeature("1", 80, 100)    // Feature 10
         );
         FeatureCache<ArtificialTestFeature> cache = initializeFeatureCache(feats, "1", 1, 100);
+        FeatureCache<ArtificialTestFeature> indexCache = initializeFeatureCache(new IntervalIndexFeatureCache<>(), feats, "1", 1, 100);
 
         // Pairing of end position with which to bound cache retrieval with the List of Features we expect to see
         // after retrieval
@@ -637,7 +720,8 @@ public final class FeatureDataSourceUnitTest extends GATKBaseTest {
         );
 
         return new Object[][] {
-                { cache, retrievalOperations }
+                { cache, retrievalOperations },
+                { indexCache, retrievalOperations }
         };
     }
 
@@ -673,6 +757,38 @@ public final class FeatureDataSourceUnitTest extends GATKBaseTest {
         Assert.assertEquals(cache.getCachedFeaturesUpToStopPosition(100), emptyRegion, "Should get back empty List for empty region");
     }
 
+    @Test
+    public void testIntervalIndexCacheMatchesLinearCache() {
+        final Random random = new Random(1);
+        final List<ArtificialTestFeature> features = new ArrayList<>();
+        for ( int i = 0; i < 5000; ++i ) {
+            final int start = 1 + random.nextInt(100000);
+            // mostly short Features, and a few long ones spanning many others
+            final int length = random.nextInt(20) == 0 ? random.nextInt(5000) : random.nextInt(20);
+            features.add(new ArtificialTestFeature("1", start, start + length));
+        }
+        features.sort(Comparator.comparingInt(ArtificialTestFeature::getStart));
+
+        final FeatureCache<ArtificialTestFeature> cache = initializeFeatureCache(features, "1", 1, 110000);
+        final FeatureCache<ArtificialTestFeature> indexCache = initializeFeatureCache(new IntervalIndexFeatureCache<>(), features, "1", 1, 110000);
+        for ( int start = 1; start < 105000; start += 1 + random.nextInt(500) ) {
+            final int stop = start + random.nextInt(1000);
+            cache.trimToNewStartPosition(start);
+            indexCache.trimToNewStartPosition(start);
+            Assert.assertEquals(indexCache.getCachedFeaturesUpToStopPosition(stop), cache.getCachedFeaturesUpToStopPosition(stop),
+                                "Wrong Features returned for query " + start + "-" + stop);
+        }
+    }
+
+    @Test
+    public void testHandleCachingOfEmptyRegionWithIntervalIndexCache() {
+        final FeatureCache<ArtificialTestFeature> cache = initializeFeatureCache(new IntervalIndexFeatureCache<>(), Collections.emptyList(), "1", 1, 100);
+
+        Assert.assertTrue(cache.isEmpty(), "Cache should be empty");
+        Assert.assertTrue(cache.cacheHit(new SimpleInterval("1", 2, 99)), "Unexpected cache miss");
+        Assert.assertEquals(cache.getCachedFeaturesUpToStopPosition(100), Collections.emptyList(), "Should get back empty List for empty region");
+    }
+
     /*********************************************************
      * End of direct testing on the FeatureCache inner class
      *********************************************************/
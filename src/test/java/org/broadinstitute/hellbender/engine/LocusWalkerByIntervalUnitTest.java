@@ -70,6 +70,29 @@ public class LocusWalkerByIntervalUnitTest extends CommandLineProgramTest {
         }
     }
 
+    @CommandLineProgramProperties(
+            summary = "Dummy that reads file and counts how many pileup elements are transformed, using several threads",
+            oneLineSummary = "none",
+            programGroup = TestProgramGroup.class
+    )
+    private static class TestParallelTransformedLocusWalker extends TestTransformedLocusWalker {
+
+        public TestParallelTransformedLocusWalker(Collection<Locatable> objectsToTestOverlapTo) {
+            super(objectsToTestOverlapTo);
+        }
+
+        @Override
+        protected boolean supportsParallelTraversal() {
+            return true;
+        }
+
+        @Override
+        protected IntervalLocusWorker makeIntervalLocusWorker() {
+            return (alignmentContext, referenceContext, featureContext, activeIntervals) ->
+                    () -> apply(alignmentContext, referenceContext, featureContext, activeIntervals);
+        }
+    }
+
     @DataProvider
     public Object[][] getOverlapsAndOverlappingDataTestCases() {
         return new Object[][] {
@@ -120,8 +143,18 @@ public class LocusWalkerByIntervalUnitTest extends CommandLineProgramTest {
 
     @Test(dataProvider = "getOverlapsAndOverlappingDataTestCases")
     public void testOverlappingBasesCoverageInformation(List<String> inputIntervals, Locatable[] locatablesToQuery, int[] expectedApplyCounts) throws IOException {
-
         final TestTransformedLocusWalker tool = new TestTransformedLocusWalker(Arrays.asList(locatablesToQuery));
+        runAndCheckOverlappingBases(tool, inputIntervals, locatablesToQuery, expectedApplyCounts, Collections.emptyList());
+    }
+
+    @Test(dataProvider = "getOverlapsAndOverlappingDataTestCases")
+    public void testOverlappingBasesCoverageInformationParallel(List<String> inputIntervals, Locatable[] locatablesToQuery, int[] expectedApplyCounts) throws IOException {
+        final TestTransformedLocusWalker tool = new TestParallelTransformedLocusWalker(Arrays.asList(locatablesToQuery));
+        runAndCheckOverlappingBases(tool, inputIntervals, locatablesToQuery, expectedApplyCounts,
+                Arrays.asList("--" + LocusWalker.LOCUS_WALKER_THREADS_LONG_NAME, "2"));
+    }
+
+    private void runAndCheckOverlappingBases(TestTransformedLocusWalker tool, List<String> inputIntervals, Locatable[] locatablesToQuery, int[] expectedApplyCounts, List<String> extraArgs) {
         String readInput = getTestDataDir() + "/../engine/CEUTrio.HiSeq.WGS.b37.NA12878.20.21.10000000-10000020.with.unmapped.bam";
         final ArrayList<String> args = new ArrayList<>();
         args.add("-I"); args.add(readInput);
@@ -131,6 +164,7 @@ public class LocusWalkerByIntervalUnitTest extends CommandLineProgramTest {
             args.add("-L");
             args.add(interval);
         }
+        args.addAll(extraArgs);
 
         tool.instanceMain(args.toArray(new String[args.size()]));
 
@@ -1,5 +1,6 @@
 package org.broadinstitute.hellbender.engine;
 
+import com.google.common.collect.Iterators;
 import htsjdk.variant.variantcontext.VariantContext;
 
 import org.broadinstitute.hellbender.exceptions.UserException;
@@ -161,6 +162,48 @@ public final class MultiVariantDataSourceUnitTest extends GATKBaseTest {
         }
     }
 
+    @Test
+    public void testIteratorOverlappingWithParallelDecoding() {
+        List<FeatureInput<VariantContext>> featureInputs = new ArrayList<>();
+        featureInputs.add(new FeatureInput<>(
+                new File(MULTI_VARIANT_TEST_DIRECTORY, "interleavedVariants_1_WithOverlap.vcf").getAbsolutePath(),
+                "interleavedVariants_1_WithOverlap"));
+        featureInputs.add(new FeatureInput<>(
+                new File(MULTI_VARIANT_TEST_DIRECTORY, "interleavedVariants_2_WithOverlap.vcf").getAbsolutePath(),
+                "interleavedVariants_2_WithOverlap"));
+
+        final List<String> expectedIDs = new ArrayList<>();
+        try (final MultiVariantDataSource multiVariantSource =
+                     new MultiVariantDataSource(featureInputs, FeatureDataSource.DEFAULT_QUERY_LOOKAHEAD_BASES)) {
+            multiVariantSource.forEach(vc -> expectedIDs.add(vc.getID()));
+        }
+
+        try (final MultiVariantDataSource multiVariantSource =
+                     new MultiVariantDataSource(featureInputs, FeatureDataSource.DEFAULT_QUERY_LOOKAHEAD_BASES)) {
+            multiVariantSource.enableParallelDecoding(2);
+            Assert.assertTrue(multiVariantSource.isParallelDecodingEnabled());
+
+            final List<String> actualIDs = new ArrayList<>();
+            multiVariantSource.forEach(vc -> actualIDs.add(vc.getID()));
+            Assert.assertEquals(actualIDs, expectedIDs);
+
+            // queries and further traversals must not be affected by the workers of a previous, unfinished traversal
+            final Iterator<VariantContext> unfinished = multiVariantSource.iterator();
+            unfinished.next();
+            Assert.assertEquals(Iterators.size(multiVariantSource.query(new SimpleInterval("1", 1, 1200))), 14);
+            Assert.assertEquals(Iterators.size(multiVariantSource.iterator()), expectedIDs.size());
+        }
+    }
+
+    @Test
+    public void testParallelDecodingNotEnabledForOneThread() {
+        try (final MultiVariantDataSource multiVariantSource = new MultiVariantDataSource(
+                Collections.singletonList(new FeatureInput<>(QUERY_TEST_VCF.getAbsolutePath(), "queryTest")), FeatureDataSource.DEFAULT_QUERY_LOOKAHEAD_BASES)) {
+            multiVariantSource.enableParallelDecoding(1);
+            Assert.assertFalse(multiVariantSource.isParallelDecodingEnabled());
+        }
+    }
+
     @Test
     public void testSerialQueries() {
         List<FeatureInput<VariantContext>> featureInputs = new ArrayList<>();
@@ -60,6 +60,29 @@ public class ProgressMeterUnitTest extends GATKBaseTest {
         Assert.assertEquals(meter.numLoggerUpdates(), expectedUpdates, "Wrong number of logger updates given secondsBetweenUpdates = " + secondsBetweenUpdates);
     }
 
+    @Test
+    public void testExtraStatisticsAreQueriedOnEachUpdate() {
+        final ListBasedTimeFunction timeFunction = new ListBasedTimeFunction(Arrays.asList(1000l, 3000l, 5000l));
+        final ProgressMeter meter = new ProgressMeter(1.0, timeFunction);
+        meter.setRecordsBetweenTimeChecks(1l);
+        final int[] queries = {0};
+        meter.addStatistic("Queries", () -> ++queries[0]);
+
+        meter.start();
+        meter.update(new SimpleInterval("1", 1, 1));
+        meter.update(new SimpleInterval("1", 2, 2));
+
+        Assert.assertEquals(meter.numLoggerUpdates(), 2);
+        Assert.assertEquals(queries[0], 2, "the statistic should be queried once per progress line");
+    }
+
+    @Test(expectedExceptions = IllegalStateException.class)
+    public void testCannotAddStatisticAfterStart() {
+        final ProgressMeter meter = new ProgressMeter(1.0);
+        meter.start();
+        meter.addStatistic("Statistic", () -> 0);
+    }
+
     @Test(expectedExceptions = IllegalArgumentException.class)
     public void testInvalidUpdateInterval() {
         final ProgressMeter meter = new ProgressMeter(0.0);
@@ -8,6 +8,7 @@ import org.broadinstitute.hellbender.utils.SimpleInterval;
 import org.broadinstitute.hellbender.utils.io.IOUtils;
 import org.broadinstitute.hellbender.testutils.XorWrapper;
 import org.broadinstitute.hellbender.utils.read.GATKRead;
+import org.broadinstitute.hellbender.utils.read.LazyBAMRecordToGATKReadAdapter;
 import org.broadinstitute.hellbender.utils.read.ReadUtils;
 import org.broadinstitute.hellbender.utils.read.SAMFileGATKReadWriter;
 import org.broadinstitute.hellbender.utils.read.SAMRecordToGATKReadAdapter;
@@ -201,6 +202,25 @@ public final class ReadsPathDataSourceUnitTest extends GATKBaseTest {
         }
     }
 
+    @Test(dataProvider = "SingleFileTraversalWithIntervalsData")
+    public void testSingleFileQueryIntervals( final Path samFile, final List<SimpleInterval> intervals, final List<String> expectedReadNames ) {
+        try (ReadsPathDataSource readsSource = new ReadsPathDataSource(samFile)) {
+            final List<String> readNames = new ArrayList<>();
+            readsSource.queryIntervals(intervals).forEachRemaining(read -> readNames.add(read.getName()));
+
+            // the same reads as a traversal bounded by the intervals, and the traversal bounds are left unset
+            Assert.assertEquals(readNames, expectedReadNames, "Wrong reads returned by query of intervals " + intervals);
+            Assert.assertFalse(readsSource.traversalIsBounded());
+        }
+    }
+
+    @Test
+    public void testQueryNoIntervals() {
+        try (ReadsPathDataSource readsSource = new ReadsPathDataSource(FIRST_TEST_BAM)) {
+            Assert.assertFalse(readsSource.queryIntervals(Collections.emptyList()).hasNext());
+        }
+    }
+
     @DataProvider(name = "SingleFileQueryByIntervalData")
     public Object[][] getSingleFileQueryByIntervalData() {
         // Files, with a single query interval, and expected read names in the expected order
@@ -268,6 +288,85 @@ public final class ReadsPathDataSourceUnitTest extends GATKBaseTest {
         }
     }
 
+    @Test(dataProvider = "SingleFileCompleteTraversalData")
+    public void testSingleFileCompleteTraversalWithInflaterThreads( final Path samFile, final List<String> expectedReadNames ) {
+        try (ReadsPathDataSource readsSource = new ReadsPathDataSource(samFile)) {
+            readsSource.setInflaterThreads(2);
+            traverseOnce(readsSource, samFile, expectedReadNames);
+            traverseOnce(readsSource, samFile, expectedReadNames);
+        }
+    }
+
+    @Test
+    public void testParallelInflationMatchesSerialInflation() {
+        // large enough to span many BGZF blocks
+        final Path bam = IOUtils.getPath(publicTestDir + "org/broadinstitute/hellbender/tools/BQSR/HiSeq.1mb.1RG.2k_lines.bam");
+        final List<GATKRead> expectedReads = new ArrayList<>();
+        try (ReadsPathDataSource readsSource = new ReadsPathDataSource(bam)) {
+            readsSource.forEach(expectedReads::add);
+        }
+
+        for ( final int numThreads : Arrays.asList(1, 2, 4) ) {
+            try (ReadsPathDataSource readsSource = new ReadsPathDataSource(bam)) {
+                readsSource.setInflaterThreads(numThreads);
+                final List<GATKRead> actualReads = new ArrayList<>();
+                readsSource.forEach(actualReads::add);
+
+                Assert.assertEquals(actualReads.size(), expectedReads.size());
+                for ( int i = 0; i < actualReads.size(); i++ ) {
+                    Assert.assertEquals(actualReads.get(i).convertToSAMRecord(readsSource.getHeader()).getSAMString(),
+                                        expectedReads.get(i).convertToSAMRecord(readsSource.getHeader()).getSAMString(),
+                                        "read #" + i + " differs with " + numThreads + " inflater threads");
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testLazyReadDecodingMatchesEagerDecoding() {
+        final Path bam = IOUtils.getPath(publicTestDir + "org/broadinstitute/hellbender/tools/BQSR/HiSeq.1mb.1RG.2k_lines.bam");
+        final List<GATKRead> expectedReads = new ArrayList<>();
+        try (ReadsPathDataSource readsSource = new ReadsPathDataSource(bam)) {
+            readsSource.forEach(expectedReads::add);
+        }
+
+        for ( final int numThreads : Arrays.asList(0, 2) ) {
+            try (ReadsPathDataSource readsSource = new ReadsPathDataSource(bam)) {
+                readsSource.setLazyReadDecoding(true);
+                readsSource.setInflaterThreads(numThreads);
+                final List<GATKRead> actualReads = new ArrayList<>();
+                readsSource.forEach(actualReads::add);
+
+                Assert.assertEquals(actualReads.size(), expectedReads.size());
+                for ( int i = 0; i < actualReads.size(); i++ ) {
+                    Assert.assertTrue(actualReads.get(i) instanceof LazyBAMRecordToGATKReadAdapter);
+                    Assert.assertEquals(actualReads.get(i).getName(), expectedReads.get(i).getName());
+                    Assert.assertEquals(actualReads.get(i).getStart(), expectedReads.get(i).getStart());
+                    Assert.assertEquals(actualReads.get(i).convertToSAMRecord(readsSource.getHeader()).getSAMString(),
+                                        expectedReads.get(i).convertToSAMRecord(readsSource.getHeader()).getSAMString(),
+                                        "read #" + i + " differs with lazy decoding and " + numThreads + " inflater threads");
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testLazyReadDecodingNotUsedForQueries() {
+        try (ReadsPathDataSource readsSource = new ReadsPathDataSource(FIRST_TEST_BAM)) {
+            readsSource.setLazyReadDecoding(true);
+            final Iterator<GATKRead> queryIterator = readsSource.query(new SimpleInterval("1", 1, 300));
+            Assert.assertTrue(queryIterator.hasNext());
+            Assert.assertFalse(queryIterator.next() instanceof LazyBAMRecordToGATKReadAdapter);
+        }
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void testNegativeInflaterThreads() {
+        try (ReadsPathDataSource readsSource = new ReadsPathDataSource(FIRST_TEST_BAM)) {
+            readsSource.setInflaterThreads(-1);
+        }
+    }
+
     @DataProvider(name = "MultipleFilesCompleteTraversalData")
     public Object[][] getMultipleFilesCompleteTraversalData() {
         // Files, with expected read names in the expected order
@@ -298,6 +397,18 @@ public final class ReadsPathDataSourceUnitTest extends GATKBaseTest {
         }
     }
 
+    @Test(dataProvider = "MultipleFilesCompleteTraversalData")
+    public void testMultipleFilesCompleteTraversalWithInflaterThreads(final List<Path> samFiles, final List<String> expectedReadNames) {
+        try (ReadsPathDataSource readsSource = new ReadsPathDataSource(samFiles)) {
+            readsSource.setInflaterThreads(2);
+            final List<String> readNames = new ArrayList<>();
+            for (GATKRead read : readsSource) {
+                readNames.add(read.getName());
+            }
+            Assert.assertEquals(readNames, expectedReadNames, "Wrong reads returned in complete traversal of " + samFiles);
+        }
+    }
+
     @DataProvider(name = "MultipleFilesTraversalWithIntervalsData")
     public Object[][] getMultipleFilesTraversalWithIntervalsData() {
         // Files, with intervals, and expected read names in the expected order
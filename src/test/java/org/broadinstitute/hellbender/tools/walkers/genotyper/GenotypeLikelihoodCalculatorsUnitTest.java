@@ -9,6 +9,7 @@ import org.testng.annotations.Test;
 import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.List;
+import java.util.stream.IntStream;
 
 public final class GenotypeLikelihoodCalculatorsUnitTest extends GATKBaseTest {
 
@@ -99,4 +100,27 @@ public final class GenotypeLikelihoodCalculatorsUnitTest extends GATKBaseTest {
         Assert.assertEquals(3, GenotypeLikelihoodCalculators.computeMaxAcceptableAlleleCount(20, 1024));
         Assert.assertEquals(2, GenotypeLikelihoodCalculators.computeMaxAcceptableAlleleCount(100, 1024));
     }
+
+    @Test
+    public void testConcurrentInstances() {
+        // many threads requesting growing ploidies and allele counts from the same instance, so that the tables are
+        // expanded while other threads are using them
+        final GenotypeLikelihoodCalculators shared = new GenotypeLikelihoodCalculators();
+        final GenotypeLikelihoodCalculators expected = new GenotypeLikelihoodCalculators();
+        IntStream.range(0, 2000).parallel().forEach(i -> {
+            final int ploidy = 1 + i % 7;
+            final int alleleCount = 1 + (i / 7) % 9;
+            final GenotypeLikelihoodCalculator calculator = shared.getInstance(ploidy, alleleCount);
+            Assert.assertEquals(calculator.genotypeCount(), shared.genotypeCount(ploidy, alleleCount));
+            final int genotypeCount = calculator.genotypeCount();
+            for (int genotypeIndex = 0; genotypeIndex < genotypeCount; genotypeIndex++) {
+                Assert.assertEquals(calculator.genotypeAlleleCountsAt(genotypeIndex).index(), genotypeIndex);
+            }
+        });
+        for (int ploidy = 1; ploidy <= 7; ploidy++) {
+            for (int alleleCount = 1; alleleCount <= 9; alleleCount++) {
+                Assert.assertEquals(shared.genotypeCount(ploidy, alleleCount), expected.genotypeCount(ploidy, alleleCount));
+            }
+        }
+    }
 }
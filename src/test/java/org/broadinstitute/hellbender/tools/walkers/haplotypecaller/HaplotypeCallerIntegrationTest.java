@@ -12,9 +12,11 @@ import htsjdk.variant.vcf.VCFConstants;
 import htsjdk.variant.vcf.VCFHeader;
 import org.apache.commons.collections.CollectionUtils;
 import org.apache.commons.lang3.tuple.Pair;
+import org.broadinstitute.barclay.argparser.CommandLineException;
 import org.broadinstitute.hellbender.CommandLineProgramTest;
 import org.broadinstitute.hellbender.cmdline.StandardArgumentDefinitions;
 import org.broadinstitute.hellbender.cmdline.argumentcollections.IntervalArgumentCollection;
+import org.broadinstitute.hellbender.engine.AssemblyRegionWalker;
 import org.broadinstitute.hellbender.engine.FeatureDataSource;
 import org.broadinstitute.hellbender.engine.ReadsDataSource;
 import org.broadinstitute.hellbender.engine.ReadsPathDataSource;
@@ -100,6 +102,109 @@ public class HaplotypeCallerIntegrationTest extends CommandLineProgramTest {
         }
     }
     
+    /*
+     * Test that parallel traversal over a single shard reproduces the single-threaded VCF mode results exactly
+     */
+    @Test(dataProvider="HaplotypeCallerTestInputs")
+    public void testParallelTraversalIsConsistentWithPastResults(final String inputFileName, final String referenceFileName) throws Exception {
+        Utils.resetRandomGenerator();
+
+        final File output = createTempFile("testParallelTraversalIsConsistentWithPastResults", ".vcf");
+        final File expected = new File(TEST_FILES_DIR, "expected.testVCFMode.gatk4.vcf");
+
+        final String[] args = {
+                "-I", inputFileName,
+                "-R", referenceFileName,
+                "-L", "20:10000000-10100000",
+                "-O", output.getAbsolutePath(),
+                "-pairHMM", "AVX_LOGLESS_CACHING",
+                "--" + AssemblyRegionWalker.ASSEMBLY_REGION_THREADS_LONG_NAME, "2",
+                "--" + StandardArgumentDefinitions.ADD_OUTPUT_VCF_COMMANDLINE, "false"
+        };
+
+        runCommandLine(args);
+
+        IntegrationTestSpec.assertEqualTextFiles(output, expected);
+    }
+
+    /*
+     * Test that processing the assembly regions in batches, which share their PairHMM calls, doesn't change the results
+     */
+    @Test(dataProvider="HaplotypeCallerTestInputs")
+    public void testBatchedParallelTraversalIsConsistentWithPastResults(final String inputFileName, final String referenceFileName) throws Exception {
+        Utils.resetRandomGenerator();
+
+        final File output = createTempFile("testBatchedParallelTraversalIsConsistentWithPastResults", ".vcf");
+        final File expected = new File(TEST_FILES_DIR, "expected.testVCFMode.gatk4.vcf");
+
+        final String[] args = {
+                "-I", inputFileName,
+                "-R", referenceFileName,
+                "-L", "20:10000000-10100000",
+                "-O", output.getAbsolutePath(),
+                "-pairHMM", "AVX_LOGLESS_CACHING",
+                "--" + AssemblyRegionWalker.ASSEMBLY_REGION_THREADS_LONG_NAME, "2",
+                "--" + AssemblyRegionWalker.ASSEMBLY_REGION_BATCH_SIZE_LONG_NAME, "8",
+                "--" + StandardArgumentDefinitions.ADD_OUTPUT_VCF_COMMANDLINE, "false"
+        };
+
+        runCommandLine(args);
+
+        IntegrationTestSpec.assertEqualTextFiles(output, expected);
+    }
+
+    @Test(expectedExceptions = CommandLineException.BadArgumentValue.class)
+    public void testRegionBatchesRequireParallelTraversal() throws Exception {
+        final String[] args = {
+                "-I", NA12878_20_21_WGS_bam,
+                "-R", b37_reference_20_21,
+                "-L", "20:10000000-10001000",
+                "-O", createTempFile("testRegionBatchesRequireParallelTraversal", ".vcf").getAbsolutePath(),
+                "--" + AssemblyRegionWalker.ASSEMBLY_REGION_BATCH_SIZE_LONG_NAME, "8"
+        };
+        runCommandLine(args);
+    }
+
+    /*
+     * Test that parallel traversal over several shards produces the same GVCF regardless of the number of threads
+     */
+    @Test
+    public void testParallelTraversalIsIndependentOfThreadCount() throws Exception {
+        final List<File> outputs = new ArrayList<>();
+        for ( final int threads : new int[]{2, 3, 4} ) {
+            final File output = createTempFile("testParallelTraversalIsIndependentOfThreadCount", ".g.vcf");
+            final String[] args = {
+                    "-I", NA12878_20_21_WGS_bam,
+                    "-R", b37_reference_20_21,
+                    "-L", "20:10000000-10050000",
+                    "-L", "21:10000000-10050000",
+                    "-O", output.getAbsolutePath(),
+                    "-ERC", "GVCF",
+                    "-pairHMM", "AVX_LOGLESS_CACHING",
+                    "--" + AssemblyRegionWalker.ASSEMBLY_REGION_THREADS_LONG_NAME, Integer.toString(threads),
+                    "--" + StandardArgumentDefinitions.ADD_OUTPUT_VCF_COMMANDLINE, "false"
+            };
+            runCommandLine(args);
+            outputs.add(output);
+        }
+
+        IntegrationTestSpec.assertEqualTextFiles(outputs.get(1), outputs.get(0));
+        IntegrationTestSpec.assertEqualTextFiles(outputs.get(2), outputs.get(0));
+    }
+
+    @Test(expectedExceptions = CommandLineException.BadArgumentValue.class)
+    public void testParallelTraversalRejectsBamOutput() throws Exception {
+        final String[] args = {
+                "-I", NA12878_20_21_WGS_bam,
+                "-R", b37_reference_20_21,
+                "-L", "20:10000000-10001000",
+                "-O", createTempFile("testParallelTraversalRejectsBamOutput", ".vcf").getAbsolutePath(),
+                "-bamout", createTempFile("testParallelTraversalRejectsBamOutput", ".bam").getAbsolutePath(),
+                "--" + AssemblyRegionWalker.ASSEMBLY_REGION_THREADS_LONG_NAME, "2"
+        };
+        runCommandLine(args);
+    }
+
     /*
      * Test that in JunctionTree mode we're consistent with past JunctionTree results (over non-complicated data)
      */
@@ -0,0 +1,133 @@
+package org.broadinstitute.hellbender.tools.walkers.haplotypecaller;
+
+import com.google.common.base.Strings;
+import htsjdk.samtools.SAMUtils;
+import htsjdk.samtools.TextCigarCodec;
+import org.broadinstitute.gatk.nativebindings.pairhmm.PairHMMNativeArguments;
+import org.broadinstitute.hellbender.GATKBaseTest;
+import org.broadinstitute.hellbender.utils.MathUtils;
+import org.broadinstitute.hellbender.utils.QualityUtils;
+import org.broadinstitute.hellbender.utils.Utils;
+import org.broadinstitute.hellbender.utils.genotyper.*;
+import org.broadinstitute.hellbender.utils.haplotype.Haplotype;
+import org.broadinstitute.hellbender.utils.pairhmm.PairHMM;
+import org.broadinstitute.hellbender.utils.read.ArtificialReadUtils;
+import org.broadinstitute.hellbender.utils.read.GATKRead;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.util.*;
+
+public final class PairHMMLikelihoodCacheUnitTest extends GATKBaseTest {
+
+    private static final SampleList SAMPLES = new IndexedSampleList("sample");
+
+    private static GATKRead makeRead(final String bases) {
+        return ArtificialReadUtils.createArtificialRead(bases.getBytes(), Utils.dupBytes((byte) 30, bases.length()), bases.length() + "M");
+    }
+
+    private static LikelihoodMatrix<GATKRead, Haplotype> makeMatrix(final List<Haplotype> haplotypes, final List<GATKRead> reads) {
+        return new AlleleLikelihoods<>(SAMPLES, new IndexedAlleleList<>(haplotypes), Collections.singletonMap("sample", reads)).sampleMatrix(0);
+    }
+
+    @Test
+    public void testCachedReadsAreFilledIn() {
+        final PairHMMLikelihoodCache cache = new PairHMMLikelihoodCache(10);
+        final List<Haplotype> haplotypes = Arrays.asList(new Haplotype("AAAACCCCGGGG".getBytes(), true), new Haplotype("AAAACCTCGGGG".getBytes(), false));
+        final List<GATKRead> reads = Arrays.asList(makeRead("AACCCCGG"), makeRead("AACCTCGG"));
+
+        final LikelihoodMatrix<GATKRead, Haplotype> first = makeMatrix(haplotypes, reads);
+        final PairHMMLikelihoodCache.PendingLikelihoods firstPending = cache.lookUp(first, reads);
+        Assert.assertSame(firstPending.matrixToCompute(), first, "nothing is cached yet");
+        Assert.assertEquals(firstPending.readsToCompute(), reads);
+        for ( int a = 0; a < 2; a++ ) {
+            for ( int r = 0; r < 2; r++ ) {
+                first.set(a, r, -1.0 - a - 10 * r);
+            }
+        }
+        firstPending.store();
+
+        // the same reads, with equal bases and qualities but different objects, in a different order and with a new read
+        final List<GATKRead> secondReads = Arrays.asList(makeRead("AACCTCGG"), makeRead("CCCCGGGG"), makeRead("AACCCCGG"));
+        final LikelihoodMatrix<GATKRead, Haplotype> second = makeMatrix(haplotypes, secondReads);
+        final PairHMMLikelihoodCache.PendingLikelihoods secondPending = cache.lookUp(second, secondReads);
+        Assert.assertEquals(secondPending.readsToCompute(), Collections.singletonList(secondReads.get(1)));
+        for ( int a = 0; a < 2; a++ ) {
+            Assert.assertEquals(second.get(a, 0), -1.0 - a - 10);
+            Assert.assertEquals(second.get(a, 2), -1.0 - a);
+        }
+
+        // the PairHMM fills in the view of the pending reads, which is written through to the matrix
+        final LikelihoodMatrix<GATKRead, Haplotype> view = secondPending.matrixToCompute();
+        Assert.assertEquals(view.evidenceCount(), 1);
+        Assert.assertEquals(view.numberOfAlleles(), 2);
+        view.set(1, 0, -7.0);
+        Assert.assertEquals(second.get(1, 1), -7.0);
+    }
+
+    @Test
+    public void testReadsMissingAnyHaplotypeAreRecomputed() {
+        final PairHMMLikelihoodCache cache = new PairHMMLikelihoodCache(10);
+        final Haplotype ref = new Haplotype("AAAACCCCGGGG".getBytes(), true);
+        final List<GATKRead> reads = Collections.singletonList(makeRead("AACCCCGG"));
+        final LikelihoodMatrix<GATKRead, Haplotype> first = makeMatrix(Collections.singletonList(ref), reads);
+        cache.lookUp(first, reads).store();
+
+        final List<Haplotype> haplotypes = Arrays.asList(ref, new Haplotype("AAAACCTCGGGG".getBytes(), false));
+        final PairHMMLikelihoodCache.PendingLikelihoods pending = cache.lookUp(makeMatrix(haplotypes, reads), reads);
+        Assert.assertEquals(pending.readsToCompute(), reads);
+    }
+
+    @Test
+    public void testLeastRecentlyUsedReadsAreEvicted() {
+        final PairHMMLikelihoodCache cache = new PairHMMLikelihoodCache(2);
+        final List<Haplotype> haplotypes = Collections.singletonList(new Haplotype("AAAACCCCGGGG".getBytes(), true));
+        for ( final String bases : new String[]{"AACCCCGG", "AAACCCCG", "AAAACCCC"} ) {
+            final List<GATKRead> reads = Collections.singletonList(makeRead(bases));
+            cache.lookUp(makeMatrix(haplotypes, reads), reads).store();
+        }
+
+        final List<GATKRead> reads = Arrays.asList(makeRead("AACCCCGG"), makeRead("AAACCCCG"), makeRead("AAAACCCC"));
+        final PairHMMLikelihoodCache.PendingLikelihoods pending = cache.lookUp(makeMatrix(haplotypes, reads), reads);
+        Assert.assertEquals(pending.readsToCompute(), Collections.singletonList(reads.get(0)));
+    }
+
+    @Test
+    public void testEngineGivesTheSameLikelihoodsWithCache() {
+        final LikelihoodEngineArgumentCollection LEAC = new LikelihoodEngineArgumentCollection();
+        final double log10MismappingRate = MathUtils.logToLog10(QualityUtils.qualToErrorProbLog10(LEAC.phredScaledGlobalReadMismappingRate));
+        final PairHMMLikelihoodCalculationEngine uncached = new PairHMMLikelihoodCalculationEngine((byte) SAMUtils.MAX_PHRED_SCORE, null, new PairHMMNativeArguments(),
+                PairHMM.Implementation.LOGLESS_CACHING, log10MismappingRate, PairHMMLikelihoodCalculationEngine.PCRErrorModel.CONSERVATIVE);
+        final PairHMMLikelihoodCalculationEngine cached = new PairHMMLikelihoodCalculationEngine((byte) SAMUtils.MAX_PHRED_SCORE, null, new PairHMMNativeArguments(),
+                PairHMM.Implementation.LOGLESS_CACHING, log10MismappingRate, PairHMMLikelihoodCalculationEngine.PCRErrorModel.CONSERVATIVE,
+                PairHMM.BASE_QUALITY_SCORE_THRESHOLD, false, PairHMMLikelihoodCalculationEngine.DEFAULT_DYNAMIC_DISQUALIFICATION_SCALE_FACTOR,
+                PairHMMLikelihoodCalculationEngine.DEFAULT_EXPECTED_ERROR_RATE_PER_BASE, true, false, true, 100);
+
+        final int n = 20;
+        final GATKRead read = ArtificialReadUtils.createArtificialRead(TextCigarCodec.decode(n + "M"));
+        read.setMappingQuality(60);
+        final AssemblyResultSet assemblyResultSet = new AssemblyResultSet();
+        final byte[] bases = Strings.repeat("A", n + 1).getBytes();
+        final Haplotype hap1 = new Haplotype(bases, true);
+        hap1.setGenomeLocation(read);
+        assemblyResultSet.add(hap1);
+        final byte[] basesModified = bases.clone();
+        basesModified[n / 2] = 'C';
+        final Haplotype hap2 = new Haplotype(basesModified, false);
+        hap2.setGenomeLocation(read);
+        assemblyResultSet.add(hap2);
+        final Map<String, List<GATKRead>> perSampleReadList = Collections.singletonMap("sample", Collections.singletonList(read));
+
+        final long hitsBefore = PairHMMLikelihoodCache.getTotalHits();
+        final AlleleLikelihoods<GATKRead, Haplotype> expected = uncached.computeReadLikelihoods(assemblyResultSet, SAMPLES, perSampleReadList);
+        for ( int i = 0; i < 2; i++ ) {
+            final AlleleLikelihoods<GATKRead, Haplotype> actual = cached.computeReadLikelihoods(assemblyResultSet, SAMPLES, perSampleReadList);
+            for ( int a = 0; a < 2; a++ ) {
+                Assert.assertEquals(actual.sampleMatrix(0).get(a, 0), expected.sampleMatrix(0).get(a, 0));
+            }
+        }
+        Assert.assertTrue(PairHMMLikelihoodCache.getTotalHits() >= hitsBefore + 2, "the second call should use the cached likelihoods");
+        uncached.close();
+        cached.close();
+    }
+}
@@ -199,4 +199,57 @@ public final class PairHMMLikelihoodCalculationEngineUnitTest extends GATKBaseTe
         Assert.assertTrue(v1 > v2, "matching haplotype should have a higher likelihood");
         lce.close();
     }
+
+    @Test
+    public void testComputeLikelihoodsForSeveralRegionsAtOnce() {
+        final LikelihoodEngineArgumentCollection LEAC = new LikelihoodEngineArgumentCollection();
+        final ReadLikelihoodCalculationEngine lce = new PairHMMLikelihoodCalculationEngine((byte) SAMUtils.MAX_PHRED_SCORE, null, new PairHMMNativeArguments(),
+                PairHMM.Implementation.LOGLESS_CACHING, MathUtils.logToLog10(QualityUtils.qualToErrorProbLog10(LEAC.phredScaledGlobalReadMismappingRate)),
+                PairHMMLikelihoodCalculationEngine.PCRErrorModel.CONSERVATIVE);
+        final SampleList samples = new IndexedSampleList("sample1", "sample2");
+
+        final List<AssemblyResultSet> assemblyResultSets = new ArrayList<>();
+        final List<Map<String, List<GATKRead>>> perSampleReadLists = new ArrayList<>();
+        for ( final int n : new int[]{10, 25} ) {
+            final GATKRead read1 = ArtificialReadUtils.createArtificialRead(TextCigarCodec.decode(n + "M"));
+            final GATKRead read2 = ArtificialReadUtils.createArtificialRead(TextCigarCodec.decode(n + "M"));
+            read1.setMappingQuality(60);
+            read2.setMappingQuality(30);
+            final Map<String, List<GATKRead>> perSampleReadList = new HashMap<>();
+            perSampleReadList.put("sample1", Arrays.asList(read1));
+            perSampleReadList.put("sample2", Arrays.asList(read2));
+
+            final AssemblyResultSet assemblyResultSet = new AssemblyResultSet();
+            final byte[] bases = Strings.repeat("A", n + 1).getBytes();
+            final Haplotype hap1 = new Haplotype(bases, true);
+            hap1.setGenomeLocation(read1);
+            assemblyResultSet.add(hap1);
+            final byte[] basesModified = bases.clone();
+            basesModified[n / 2] = 'C';
+            final Haplotype hap2 = new Haplotype(basesModified, false);
+            hap2.setGenomeLocation(read1);
+            assemblyResultSet.add(hap2);
+
+            assemblyResultSets.add(assemblyResultSet);
+            perSampleReadLists.add(perSampleReadList);
+        }
+
+        final List<AlleleLikelihoods<GATKRead, Haplotype>> batchLikes = lce.computeReadLikelihoods(assemblyResultSets, samples, perSampleReadLists);
+        Assert.assertEquals(batchLikes.size(), assemblyResultSets.size());
+        for ( int i = 0; i < assemblyResultSets.size(); i++ ) {
+            final AlleleLikelihoods<GATKRead, Haplotype> likes = lce.computeReadLikelihoods(assemblyResultSets.get(i), samples, perSampleReadLists.get(i));
+            for ( int s = 0; s < samples.numberOfSamples(); s++ ) {
+                final LikelihoodMatrix<GATKRead, Haplotype> expected = likes.sampleMatrix(s);
+                final LikelihoodMatrix<GATKRead, Haplotype> actual = batchLikes.get(i).sampleMatrix(s);
+                Assert.assertEquals(actual.alleles(), expected.alleles());
+                Assert.assertEquals(actual.evidence(), expected.evidence());
+                for ( int a = 0; a < expected.numberOfAlleles(); a++ ) {
+                    for ( int r = 0; r < expected.evidenceCount(); r++ ) {
+                        Assert.assertEquals(actual.get(a, r), expected.get(a, r));
+                    }
+                }
+            }
+        }
+        lce.close();
+    }
 }
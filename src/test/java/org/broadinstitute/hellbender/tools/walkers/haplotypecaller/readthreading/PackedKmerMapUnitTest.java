@@ -0,0 +1,101 @@
+package org.broadinstitute.hellbender.tools.walkers.haplotypecaller.readthreading;
+
+import org.broadinstitute.hellbender.GATKBaseTest;
+import org.broadinstitute.hellbender.tools.walkers.haplotypecaller.Kmer;
+import org.broadinstitute.hellbender.utils.Utils;
+import org.testng.Assert;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+import java.util.*;
+import java.util.stream.Collectors;
+
+public final class PackedKmerMapUnitTest extends GATKBaseTest {
+
+    private static byte[] randomBases(final Random random, final int length, final String alphabet) {
+        final byte[] bases = new byte[length];
+        for ( int i = 0; i < length; i++ ) {
+            bases[i] = (byte) alphabet.charAt(random.nextInt(alphabet.length()));
+        }
+        return bases;
+    }
+
+    @DataProvider(name = "kmerSizes")
+    public Object[][] kmerSizes() {
+        return new Object[][]{ {1}, {3}, {10}, {25}, {PackedKmerMap.MAX_PACKED_KMER_SIZE}, {PackedKmerMap.MAX_PACKED_KMER_SIZE + 1}, {40} };
+    }
+
+    @Test(dataProvider = "kmerSizes")
+    public void testMatchesHashMap(final int kmerSize) {
+        final Random random = Utils.getRandomGenerator();
+        final PackedKmerMap<Integer> map = new PackedKmerMap<>(kmerSize);
+        final Map<Kmer, Integer> expected = new HashMap<>();
+
+        // a small alphabet, mostly ACGT, so that kmers repeat and some of them can't be packed
+        final byte[] sequence = randomBases(random, 5000, "AAACCCGGGTTTN");
+        for ( int i = 0; i < 20000; i++ ) {
+            final int start = random.nextInt(sequence.length - kmerSize + 1);
+            final Kmer kmer = new Kmer(sequence, start, kmerSize);
+            switch ( random.nextInt(5) ) {
+                case 0:
+                    Assert.assertEquals(map.put(kmer, i), expected.put(kmer, i));
+                    break;
+                case 1:
+                    Assert.assertEquals(map.putIfAbsent(kmer, i), expected.putIfAbsent(kmer, i));
+                    break;
+                case 2:
+                    Assert.assertEquals(map.remove(kmer), expected.remove(kmer));
+                    break;
+                case 3:
+                    Assert.assertEquals(map.get(sequence, start), expected.get(kmer));
+                    break;
+                default:
+                    Assert.assertEquals(map.containsKey(kmer), expected.containsKey(kmer));
+            }
+            Assert.assertEquals(map.size(), expected.size());
+        }
+
+        for ( final Map.Entry<Kmer, Integer> entry : expected.entrySet() ) {
+            Assert.assertEquals(map.get(entry.getKey()), entry.getValue());
+        }
+        Assert.assertEquals(map.values().stream().sorted().collect(Collectors.toList()),
+                expected.values().stream().sorted().collect(Collectors.toList()));
+    }
+
+    @Test
+    public void testPack() {
+        Assert.assertEquals(PackedKmerMap.pack("ACGT".getBytes(), 0, 4), 0b00011011L);
+        Assert.assertEquals(PackedKmerMap.pack("TTACGT".getBytes(), 2, 4), 0b00011011L);
+        Assert.assertEquals(PackedKmerMap.pack("ACNT".getBytes(), 0, 4), PackedKmerMap.UNPACKABLE);
+        Assert.assertEquals(PackedKmerMap.pack("acgt".getBytes(), 0, 4), PackedKmerMap.UNPACKABLE);
+        Assert.assertEquals(PackedKmerMap.pack(new byte[PackedKmerMap.MAX_PACKED_KMER_SIZE + 1], 0, PackedKmerMap.MAX_PACKED_KMER_SIZE + 1), PackedKmerMap.UNPACKABLE);
+    }
+
+    @Test
+    public void testOtherKmerSizesAreNotFound() {
+        final PackedKmerMap<Integer> map = new PackedKmerMap<>(3);
+        map.put(new Kmer("ACG"), 1);
+        Assert.assertNull(map.get(new Kmer("AC")));
+        Assert.assertNull(map.remove(new Kmer("ACGT")));
+        Assert.assertEquals(map.size(), 1);
+    }
+
+    @Test(dataProvider = "kmerSizes")
+    public void testDetermineNonUniqueKmers(final int kmerSize) {
+        final Random random = Utils.getRandomGenerator();
+        for ( int i = 0; i < 20; i++ ) {
+            final byte[] sequence = randomBases(random, 200, i % 2 == 0 ? "ACGT" : "AACGTN");
+            final ReadThreadingGraph.SequenceForKmers seqForKmers = new ReadThreadingGraph.SequenceForKmers("seq", sequence, 0, sequence.length, 1, false);
+
+            final Set<Kmer> allKmers = new HashSet<>();
+            final List<Kmer> expected = new ArrayList<>();
+            for ( int start = 0; start <= sequence.length - kmerSize; start++ ) {
+                final Kmer kmer = new Kmer(sequence, start, kmerSize);
+                if ( ! allKmers.add(kmer) ) {
+                    expected.add(kmer);
+                }
+            }
+            Assert.assertEquals(new ArrayList<>(ReadThreadingGraph.determineNonUniqueKmers(seqForKmers, kmerSize)), expected);
+        }
+    }
+}
@@ -241,6 +241,43 @@ public final class ReadThreadingAssemblerUnitTest extends GATKBaseTest {
         Assert.assertEquals(haplotypes.get(1), altHaplotype);
     }
 
+    @Test
+    public void testConcurrentKmerAssemblyMatchesSequential() {
+        final SimpleInterval loc = new SimpleInterval("1", 100000, 100200);
+        final byte[] refBases = seq.getSubsequenceAt(loc.getContig(), loc.getStart(), loc.getEnd()).getBases();
+        final String ref = new String(refBases);
+        final byte[] snpBases = refBases.clone();
+        snpBases[60] = snpBases[60] == 'A' ? (byte) 'C' : (byte) 'A';
+        final byte[] deletionBases = (ref.substring(0, 120) + ref.substring(123)).getBytes();
+
+        final List<GATKRead> reads = new LinkedList<>();
+        for ( final byte[] altBases : Arrays.asList(snpBases, deletionBases) ) {
+            for ( int i = 0; i < 10; i++ ) {
+                reads.add(ArtificialReadUtils.createArtificialRead(header, loc.getContig(), loc.getContig(), loc.getStart(),
+                        altBases.clone(), Utils.dupBytes((byte) 30, altBases.length), altBases.length + "M"));
+            }
+        }
+
+        final List<Integer> kmerSizes = Arrays.asList(10, 25, 35);
+        final List<Haplotype> expected = assemble(new ReadThreadingAssembler(ReadThreadingAssembler.DEFAULT_NUM_PATHS_PER_GRAPH, kmerSizes, 2), refBases, loc, reads);
+        Assert.assertTrue(expected.size() > 1);
+
+        final ReadThreadingAssembler concurrentAssembler = new ReadThreadingAssembler(ReadThreadingAssembler.DEFAULT_NUM_PATHS_PER_GRAPH, kmerSizes, 2);
+        concurrentAssembler.setKmerAssemblyThreads(3);
+        for ( int i = 0; i < 5; i++ ) {
+            final List<Haplotype> actual = assemble(concurrentAssembler, refBases, loc, reads);
+            Assert.assertEquals(actual, expected);
+            for ( int j = 0; j < expected.size(); j++ ) {
+                Assert.assertEquals(actual.get(j).getCigar(), expected.get(j).getCigar());
+            }
+        }
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void testInvalidKmerAssemblyThreads() {
+        new ReadThreadingAssembler().setKmerAssemblyThreads(0);
+    }
+
     private static class TestAssembler {
         final ReadThreadingAssembler assembler;
         private final SAMFileHeader header;
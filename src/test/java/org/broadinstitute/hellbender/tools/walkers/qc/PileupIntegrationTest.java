@@ -1,12 +1,16 @@
 package org.broadinstitute.hellbender.tools.walkers.qc;
 
 import org.broadinstitute.hellbender.CommandLineProgramTest;
+import org.broadinstitute.hellbender.engine.LocusWalker;
 import org.broadinstitute.hellbender.exceptions.UserException;
 import org.broadinstitute.hellbender.testutils.IntegrationTestSpec;
 import org.testng.annotations.Test;
 
+import java.io.File;
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.List;
 
 /**
  * @author Daniel Gomez-Sanchez (magicDGS)
@@ -28,6 +32,53 @@ public class PileupIntegrationTest extends CommandLineProgramTest {
         testSpec.executeTest("testSimplePileup", this);
     }
 
+    @Test
+    public void testSimplePileupParallel() throws IOException {
+        // the same output in the same order, with loci processed by several threads
+        IntegrationTestSpec testSpec = new IntegrationTestSpec(
+            " -L 20:9999900-10000000" +
+                " -R " + b37_reference_20_21 +
+                " -I " + NA12878_20_21_WGS_bam +
+                " --" + LocusWalker.LOCUS_WALKER_THREADS_LONG_NAME + " 2" +
+                " -O %s",
+            Arrays.asList(TEST_OUTPUT_DIRECTORY + "expectedSimplePileup.txt")
+        );
+        testSpec.executeTest("testSimplePileupParallel", this);
+    }
+
+    @Test
+    public void testDownsampledPileupIsIndependentOfThreadCount() throws IOException {
+        // downsampling draws from the random stream of each contig, with one thread as well as with several
+        final List<File> outputs = new ArrayList<>();
+        for ( final int threads : new int[]{1, 2, 4} ) {
+            final File output = createTempFile("testDownsampledPileupIsIndependentOfThreadCount", ".txt");
+            final String[] args = new String[] {
+                    "-L", "20:9999900-10000000",
+                    "-L", "21:9999900-10000000",
+                    "-R", b37_reference_20_21,
+                    "-I", NA12878_20_21_WGS_bam,
+                    "--" + LocusWalker.MAX_DEPTH_PER_SAMPLE_NAME, "5",
+                    "--" + LocusWalker.LOCUS_WALKER_THREADS_LONG_NAME, Integer.toString(threads),
+                    "-O", output.getAbsolutePath()
+            };
+            runCommandLine(args);
+            outputs.add(output);
+        }
+
+        IntegrationTestSpec.assertEqualTextFiles(outputs.get(1), outputs.get(0));
+        IntegrationTestSpec.assertEqualTextFiles(outputs.get(2), outputs.get(0));
+    }
+
+    @Test(expectedExceptions = UserException.MissingIndex.class)
+    public void testParallelPileupRequiresIndexedReads() throws IOException {
+        final String[] args = new String[] {
+                "-I", packageRootTestDir + "engine/unindexed.bam",
+                "--" + LocusWalker.LOCUS_WALKER_THREADS_LONG_NAME, "2",
+                "-O", createTempFile("testParallelPileupRequiresIndexedReads", ".txt").getAbsolutePath()
+        };
+        runCommandLine(args);
+    }
+
     @Test
     public void testVerbosePileup() throws IOException {
         // GATK 3.5 code have a the last line with a REDUCE RESULT that was removed in this implementation
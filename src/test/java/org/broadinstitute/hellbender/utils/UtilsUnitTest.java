@@ -648,6 +648,39 @@ public final class UtilsUnitTest extends GATKBaseTest {
         }
     }
 
+    @Test
+    public void testRunWithIndependentRandomGenerator() throws Exception {
+        final Random global = Utils.getRandomGenerator();
+        final int[] firstDraws = new int[2];
+        final int[] secondDraws = new int[2];
+        Utils.runWithIndependentRandomGenerator(7, () -> {
+            Assert.assertNotSame(Utils.getRandomGenerator(), global);
+            firstDraws[0] = Utils.getRandomGenerator().nextInt();
+            firstDraws[1] = Utils.getRandomGenerator().nextInt();
+        });
+        Assert.assertSame(Utils.getRandomGenerator(), global);
+
+        // the same stream id gives the same draws, even when run on another thread
+        final Thread thread = new Thread(() -> Utils.runWithIndependentRandomGenerator(7, () -> {
+            secondDraws[0] = Utils.getRandomGenerator().nextInt();
+            secondDraws[1] = Utils.getRandomGenerator().nextInt();
+        }));
+        thread.start();
+        thread.join();
+        Assert.assertEquals(secondDraws, firstDraws);
+    }
+
+    @Test
+    public void testRandomStreamSeedsAreSpread() {
+        // consecutive stream ids must not give nearly equal seeds, whose first draws would be correlated
+        final Set<Long> seeds = new HashSet<>();
+        for ( long streamId = 0; streamId < 1000; streamId++ ) {
+            final long seed = Utils.randomStreamSeed(streamId);
+            Assert.assertTrue(seeds.add(seed));
+            Assert.assertTrue(Long.bitCount(seed ^ Utils.randomStreamSeed(streamId + 1)) > 8, "seeds of streams " + streamId + " and " + (streamId + 1) + " are too close");
+        }
+    }
+
     @Test(expectedExceptions = IllegalArgumentException.class)
     public void testListFromPrimitivesNull() throws Exception {
         Utils.listFromPrimitives(null);
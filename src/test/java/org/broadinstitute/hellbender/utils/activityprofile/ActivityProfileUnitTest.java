@@ -115,7 +115,7 @@ public class ActivityProfileUnitTest extends GATKBaseTest {
         Assert.assertEquals(genomeLocParser.createGenomeLoc(profile.regionStartLoc), genomeLocParser.createGenomeLoc(cfg.regionStart.getContig(), cfg.regionStart.getStart(), cfg.regionStart.getStart() ), "Start loc should be the start of the region");
 
         Assert.assertEquals(profile.size(), cfg.probs.size(), "Should have exactly the number of states we expected to add");
-        assertProbsAreEqual(profile.stateList, cfg.probs);
+        assertProbsAreEqual(profile.getStateList(), cfg.probs);
 
         // TODO -- reanble tests
         //assertRegionsAreEqual(profile.createActiveRegions(0, 100), cfg.expectedRegions);
@@ -453,4 +453,32 @@ public class ActivityProfileUnitTest extends GATKBaseTest {
         Assert.assertEquals(region.getSpan().getStart(), 1, "Region should start at 1");
         Assert.assertEquals(region.getSpan().size(), expectedRegionSize, "Incorrect region size; cut must have been incorrect");
     }
+
+    @Test
+    public void testStatesArePreservedAcrossPoppedRegions() {
+        // enough states, popped in enough regions, that the states wrap around the end of the profile's buffer
+        final ActivityProfile profile = new ActivityProfile(MAX_PROB_PROPAGATION_DISTANCE, ACTIVE_PROB_THRESHOLD, header);
+        final String contig = genomeLocParser.getSequenceDictionary().getSequences().get(0).getSequenceName();
+        final Random random = Utils.getRandomGenerator();
+        final List<Double> expectedProbs = new ArrayList<>();
+        int nextRegionStart = 1;
+
+        for ( int i = 1; i <= 5000; i++ ) {
+            final double prob = random.nextInt(4) == 0 ? random.nextDouble() : 0.0;
+            profile.add(new ActivityProfileState(new SimpleInterval(contig, i, i), prob));
+            expectedProbs.add(prob);
+
+            for ( final AssemblyRegion region : profile.popReadyAssemblyRegions(0, 1, 100, false) ) {
+                Assert.assertEquals(region.getSpan().getStart(), nextRegionStart, "Regions must be contiguous");
+                nextRegionStart = region.getSpan().getEnd() + 1;
+                expectedProbs.subList(0, region.getSpan().size()).clear();
+            }
+
+            Assert.assertEquals(profile.size(), expectedProbs.size());
+            if ( ! profile.isEmpty() ) {
+                Assert.assertEquals(profile.regionStartLoc.getStart(), nextRegionStart);
+            }
+            Assert.assertEquals(profile.getProbabilitiesAsArray(), expectedProbs.stream().mapToDouble(Double::doubleValue).toArray());
+        }
+    }
 }
@@ -0,0 +1,103 @@
+package org.broadinstitute.hellbender.utils.codecs;
+
+import htsjdk.tribble.Tribble;
+import htsjdk.variant.variantcontext.VariantContext;
+import htsjdk.variant.variantcontext.writer.Options;
+import htsjdk.variant.variantcontext.writer.VariantContextWriter;
+import htsjdk.variant.vcf.VCFEncoder;
+import htsjdk.variant.vcf.VCFHeader;
+import org.broadinstitute.hellbender.GATKBaseTest;
+import org.broadinstitute.hellbender.engine.FeatureDataSource;
+import org.broadinstitute.hellbender.utils.SimpleInterval;
+import org.broadinstitute.hellbender.utils.Utils;
+import org.broadinstitute.hellbender.utils.variant.GATKVariantContextUtils;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+
+public final class BinaryGVCFCodecUnitTest extends GATKBaseTest {
+    private static final File TEST_GVCF = new File(toolsTestDir + "walkers/CombineGVCFs/NA12878.AS.chr20snippet.g.vcf");
+
+    private static List<String> encode(final VCFHeader header, final Iterable<VariantContext> variants) {
+        final VCFEncoder encoder = new VCFEncoder(header, true, true);
+        final List<String> lines = new ArrayList<>();
+        variants.forEach(vc -> lines.add(encoder.encode(vc)));
+        return lines;
+    }
+
+    private static File writeBinaryGVCF(final FeatureDataSource<VariantContext> source, final VCFHeader header) {
+        final File output = createTempFile("binaryGVCF", BinaryGVCFCodec.FILE_EXTENSION);
+        try ( final VariantContextWriter writer = GATKVariantContextUtils.createVCFWriter(output.toPath(), null, false, Options.INDEX_ON_THE_FLY) ) {
+            writer.writeHeader(header);
+            source.forEach(writer::add);
+        }
+        return output;
+    }
+
+    @Test
+    public void testRoundTrip() {
+        try ( final FeatureDataSource<VariantContext> textSource = new FeatureDataSource<>(TEST_GVCF) ) {
+            final VCFHeader header = (VCFHeader) textSource.getHeader();
+            final List<String> expected = encode(header, textSource);
+            final File binaryGVCF = writeBinaryGVCF(textSource, header);
+
+            Assert.assertTrue(Files.exists(Tribble.indexPath(binaryGVCF.toPath())), "binary GVCF was not indexed");
+            Assert.assertTrue(binaryGVCF.length() < TEST_GVCF.length(), "binary GVCF is not smaller than the text GVCF");
+
+            try ( final FeatureDataSource<VariantContext> binarySource = new FeatureDataSource<>(binaryGVCF) ) {
+                final VCFHeader binaryHeader = (VCFHeader) binarySource.getHeader();
+                Assert.assertEquals(binaryHeader.getGenotypeSamples(), header.getGenotypeSamples());
+                Assert.assertEquals(binaryHeader.getContigLines(), header.getContigLines());
+                Assert.assertEquals(encode(header, binarySource), expected);
+            }
+        }
+    }
+
+    @Test
+    public void testQuery() {
+        final SimpleInterval interval = new SimpleInterval("20", 10433000, 10433051);
+        try ( final FeatureDataSource<VariantContext> textSource = new FeatureDataSource<>(TEST_GVCF) ) {
+            final VCFHeader header = (VCFHeader) textSource.getHeader();
+            final List<String> expected = encode(header, textSource.queryAndPrefetch(interval));
+            Assert.assertFalse(expected.isEmpty());
+
+            final File binaryGVCF = writeBinaryGVCF(textSource, header);
+            try ( final FeatureDataSource<VariantContext> binarySource = new FeatureDataSource<>(binaryGVCF) ) {
+                Assert.assertEquals(encode(header, binarySource.queryAndPrefetch(interval)), expected);
+            }
+        }
+    }
+
+    @Test
+    public void testCanDecode() {
+        final BinaryGVCFCodec codec = new BinaryGVCFCodec();
+        Assert.assertTrue(codec.canDecode("sample" + BinaryGVCFCodec.FILE_EXTENSION));
+        Assert.assertTrue(codec.canDecode("sample" + BinaryGVCFCodec.FILE_EXTENSION.toUpperCase()));
+        Assert.assertFalse(codec.canDecode(TEST_GVCF.getPath()));
+    }
+
+    @Test
+    public void testUpperCaseExtensionIsWrittenAsBinaryGVCFWithMD5() throws IOException {
+        final File output = new File(createTempDir("binaryGVCF"), "sample" + BinaryGVCFCodec.FILE_EXTENSION.toUpperCase());
+        try ( final FeatureDataSource<VariantContext> textSource = new FeatureDataSource<>(TEST_GVCF) ) {
+            final VCFHeader header = (VCFHeader) textSource.getHeader();
+            try ( final VariantContextWriter writer = GATKVariantContextUtils.createVCFWriter(output.toPath(), null, true) ) {
+                writer.writeHeader(header);
+                textSource.forEach(writer::add);
+            }
+
+            try ( final FeatureDataSource<VariantContext> binarySource = new FeatureDataSource<>(output) ) {
+                Assert.assertEquals(encode(header, binarySource), encode(header, textSource));
+            }
+        }
+
+        final File md5File = new File(output.getPath() + ".md5");
+        Assert.assertTrue(md5File.exists(), "MD5 file was not created");
+        Assert.assertEquals(new String(Files.readAllBytes(md5File.toPath())).trim(), Utils.calculateFileMD5(output));
+    }
+}
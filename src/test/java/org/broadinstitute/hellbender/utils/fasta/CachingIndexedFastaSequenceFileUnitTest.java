@@ -26,6 +26,10 @@ import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 /**
  * Basic unit test for CachingIndexedFastaSequenceFile
@@ -184,6 +188,78 @@ public final class CachingIndexedFastaSequenceFileUnitTest extends GATKBaseTest
         }
     }
 
+    @DataProvider(name = "cacheWindowLimits")
+    public Object[][] cacheWindowLimits() {
+        // windows of 100 bp are loaded as 100 + 2 * 1 bases
+        return new Object[][]{
+                {1, Long.MAX_VALUE, 2 * NUM_ALTERNATIONS},
+                {2, Long.MAX_VALUE, 2},
+                {4, Long.MAX_VALUE, 2},
+                {4, 150L, 2 * NUM_ALTERNATIONS},
+                {4, 300L, 2},
+        };
+    }
+
+    private static final int NUM_ALTERNATIONS = 10;
+
+    @Test(dataProvider = "cacheWindowLimits")
+    public void testAlternatingQueries(final int maxWindows, final long maxBytes, final int expectedMisses) throws IOException {
+        try(final ReferenceSequenceFile uncached = ReferenceSequenceFileFactory.getReferenceSequenceFile(simpleFasta);
+            final CachingIndexedFastaSequenceFile caching = new CachingIndexedFastaSequenceFile(simpleFasta, 100, maxWindows, maxBytes, true, false)) {
+            final String contig = caching.getSequenceDictionary().getSequence(0).getSequenceName();
+
+            for ( int i = 0; i < NUM_ALTERNATIONS; i++ ) {
+                for ( final int start : Arrays.asList(1000, 50000) ) {
+                    Assert.assertEquals(caching.getSubsequenceAt(contig, start, start + 10).getBases(),
+                                        uncached.getSubsequenceAt(contig, start, start + 10).getBases());
+                }
+            }
+
+            caching.printEfficiency(Level.DEBUG);
+            Assert.assertEquals(caching.getCacheMisses(), expectedMisses);
+            Assert.assertEquals(caching.getCacheHits(), 2 * NUM_ALTERNATIONS - expectedMisses);
+            Assert.assertTrue(caching.getNumCachedWindows() <= maxWindows);
+        }
+    }
+
+    @Test
+    public void testConcurrentQueries() throws Exception {
+        final int numThreads = 4;
+        final int queriesPerThread = 2000;
+        final int querySize = 50;
+
+        try(final ReferenceSequenceFile uncached = ReferenceSequenceFileFactory.getReferenceSequenceFile(simpleFasta);
+            final CachingIndexedFastaSequenceFile caching = new CachingIndexedFastaSequenceFile(simpleBGZippedFasta, 1000, 3, Long.MAX_VALUE, true, false)) {
+            final SAMSequenceRecord contig = caching.getSequenceDictionary().getSequence(0);
+            final byte[] expectedBases = uncached.getSequence(contig.getSequenceName()).getBases();
+
+            final ExecutorService executor = Executors.newFixedThreadPool(numThreads);
+            try {
+                final List<Future<?>> futures = new ArrayList<>();
+                for ( int t = 0; t < numThreads; t++ ) {
+                    final Random random = new Random(t);
+                    futures.add(executor.submit(() -> {
+                        for ( int i = 0; i < queriesPerThread; i++ ) {
+                            // cluster the queries around a few loci, so that threads share windows
+                            final int start = 1 + random.nextInt(5) * 20000 + random.nextInt(2000);
+                            final int stop = start + querySize - 1;
+                            final ReferenceSequence actual = caching.getSubsequenceAt(contig.getSequenceName(), start, stop);
+                            Assert.assertEquals(actual.getBases(), Arrays.copyOfRange(expectedBases, start - 1, stop));
+                        }
+                    }));
+                }
+                for ( final Future<?> future : futures ) {
+                    future.get();
+                }
+            } finally {
+                executor.shutdown();
+            }
+
+            Assert.assertEquals(caching.getCacheHits() + caching.getCacheMisses(), numThreads * queriesPerThread);
+            Assert.assertTrue(caching.getNumCachedWindows() <= 3);
+        }
+    }
+
     @Test
     public void testIupacChanges() throws IOException {
         final String testFasta = publicTestDir + "iupacFASTA.fasta";
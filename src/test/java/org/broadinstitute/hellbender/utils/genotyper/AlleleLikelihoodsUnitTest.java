@@ -411,6 +411,36 @@ public final class AlleleLikelihoodsUnitTest {
             testLikelihoodMatrixQueries(samples,result,newLikelihoods);
     }
 
+    // Removing evidence leaves spare room at the end of each allele row; check that it does not leak into later additions.
+    @Test(dataProvider = "dataSets")
+    public void testAddAllelesAndEvidenceAfterFiltering(final String[] samples, final Allele[] alleles, final Map<String,List<GATKRead>> reads) {
+        final AlleleLikelihoods<GATKRead, Allele> original = new AlleleLikelihoods<>(new IndexedSampleList(samples), new IndexedAlleleList<>(alleles), reads);
+        final AlleleLikelihoods<GATKRead, Allele> result = new AlleleLikelihoods<>(new IndexedSampleList(samples), new IndexedAlleleList<>(alleles), reads);
+        fillWithRandomLikelihoods(samples, alleles, original, result);
+
+        final SimpleInterval evenReadOverlap = new SimpleInterval(SAM_HEADER.getSequenceDictionary().getSequences().get(0).getSequenceName(), EVEN_READ_START, EVEN_READ_START);
+        result.retainEvidence(evenReadOverlap::overlaps);
+        result.addMissingAlleles(Collections.singletonList(Allele.create("ACCCCCAAAATTTAAAGGG".getBytes(), false)), -1.5);
+        final Map<String, List<GATKRead>> newReads = Arrays.stream(samples).collect(Collectors.toMap(s -> s, s -> Collections.singletonList(
+                ArtificialReadUtils.createArtificialRead(SAM_HEADER, "NEW" + s, 0, EVEN_READ_START, "AAAAA".getBytes(), new byte[]{30, 30, 30, 30, 30}, "5M"))));
+        result.addEvidence(newReads, -2.5);
+        checkEvidenceToIndexMapIsCorrect(result);
+
+        final double[][][] newLikelihoods = new double[samples.length][alleles.length + 1][];
+        for (int s = 0; s < samples.length; s++) {
+            final int retainedReadCount = (original.sampleEvidenceCount(s) + 1) / 2;
+            Assert.assertEquals(result.sampleEvidenceCount(s), retainedReadCount + 1);
+            for (int a = 0; a <= alleles.length; a++) {
+                newLikelihoods[s][a] = new double[retainedReadCount + 1];
+                for (int r = 0; r < retainedReadCount; r++) {
+                    newLikelihoods[s][a][r] = a < alleles.length ? original.sampleMatrix(s).get(a, r << 1) : -1.5;
+                }
+                newLikelihoods[s][a][retainedReadCount] = -2.5;
+            }
+        }
+        testLikelihoodMatrixQueries(samples, result, newLikelihoods);
+    }
+
 
     @Test(dataProvider = "dataSets")
     public void testAddNonRefAllele(final String[] samples, final Allele[] alleles, final Map<String,List<GATKRead>> reads) {
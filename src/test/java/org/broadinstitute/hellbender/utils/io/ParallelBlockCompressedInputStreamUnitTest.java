@@ -0,0 +1,82 @@
+package org.broadinstitute.hellbender.utils.io;
+
+import htsjdk.samtools.util.BlockCompressedOutputStream;
+import org.broadinstitute.hellbender.GATKBaseTest;
+import org.broadinstitute.hellbender.exceptions.UserException;
+import org.testng.Assert;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+public final class ParallelBlockCompressedInputStreamUnitTest extends GATKBaseTest {
+
+    @DataProvider(name = "sizesAndThreads")
+    public Object[][] sizesAndThreads() {
+        return new Object[][]{
+                {0, 1, 1},
+                {100, 1, 1},
+                {1_000_000, 1, 1},
+                {1_000_000, 2, 4},
+                {1_000_000, 4, 16},
+        };
+    }
+
+    @Test(dataProvider = "sizesAndThreads")
+    public void testMatchesSerialInflation(final int dataSize, final int numThreads, final int maxBlocksAhead) throws IOException {
+        // compressible data, with some randomness so that blocks differ
+        final Random random = new Random(dataSize);
+        final byte[] data = new byte[dataSize];
+        for ( int i = 0; i < dataSize; i++ ) {
+            data[i] = (byte) ("ACGT".charAt(random.nextInt(4)));
+        }
+
+        final File bgzf = createTempFile("parallelInflation", ".gz");
+        try ( final BlockCompressedOutputStream out = new BlockCompressedOutputStream(bgzf) ) {
+            out.write(data);
+        }
+
+        final ExecutorService executor = Executors.newFixedThreadPool(numThreads);
+        try ( final InputStream in = new ParallelBlockCompressedInputStream(
+                Files.newByteChannel(bgzf.toPath(), StandardOpenOption.READ), bgzf.toString(), executor, maxBlocksAhead) ) {
+            // mix single-byte and bulk reads
+            final int first = in.read();
+            if ( dataSize == 0 ) {
+                Assert.assertEquals(first, -1);
+            } else {
+                Assert.assertEquals(first, data[0] & 0xff);
+                final byte[] rest = org.apache.commons.io.IOUtils.toByteArray(in);
+                Assert.assertEquals(rest.length, dataSize - 1);
+                for ( int i = 0; i < rest.length; i++ ) {
+                    if ( rest[i] != data[i + 1] ) {
+                        Assert.fail("byte " + (i + 1) + " differs");
+                    }
+                }
+            }
+            Assert.assertEquals(in.read(), -1);
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test(expectedExceptions = UserException.MalformedFile.class)
+    public void testNotBlockCompressed() throws IOException {
+        final File plain = createTempFile("notBlockCompressed", ".txt");
+        Files.write(plain.toPath(), "this is not a BGZF file at all".getBytes());
+
+        final ExecutorService executor = Executors.newSingleThreadExecutor();
+        try ( final InputStream in = new ParallelBlockCompressedInputStream(
+                Files.newByteChannel(plain.toPath(), StandardOpenOption.READ), plain.toString(), executor, 2) ) {
+            in.read();
+        } finally {
+            executor.shutdown();
+        }
+    }
+}
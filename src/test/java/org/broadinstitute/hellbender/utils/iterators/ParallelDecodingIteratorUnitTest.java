@@ -0,0 +1,93 @@
+package org.broadinstitute.hellbender.utils.iterators;
+
+import com.google.common.collect.Lists;
+import org.broadinstitute.hellbender.GATKBaseTest;
+import org.testng.Assert;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+public class ParallelDecodingIteratorUnitTest extends GATKBaseTest {
+    private final ExecutorService executor = Executors.newFixedThreadPool(2);
+
+    @AfterClass
+    public void shutdownExecutor() {
+        executor.shutdownNow();
+    }
+
+    private static List<Integer> range(final int n) {
+        return IntStream.range(0, n).boxed().collect(Collectors.toList());
+    }
+
+    @DataProvider(name = "sizes")
+    public Object[][] sizes() {
+        return new Object[][]{
+                {0, 1}, {1, 1}, {10, 3}, {9, 3}, {100, 7}, {5, 100}
+        };
+    }
+
+    @Test(dataProvider = "sizes")
+    public void testSameElementsInOrder(final int numElements, final int batchSize) {
+        final List<Integer> decoded = new ArrayList<>();
+        final ParallelDecodingIterator<Integer> it = new ParallelDecodingIterator<>(range(numElements).iterator(), decoded::add, executor, batchSize, "test");
+        Assert.assertEquals(Lists.newArrayList((Iterator<Integer>) it), range(numElements));
+        Assert.assertEquals(decoded, range(numElements));
+        Assert.assertFalse(it.hasNext());
+    }
+
+    @Test
+    public void testManyIteratorsShareFewerThreads() {
+        // more iterators than threads, consumed in an interleaved order as in a merge
+        final List<ParallelDecodingIterator<Integer>> iterators = new ArrayList<>();
+        for ( int i = 0; i < 10; i++ ) {
+            iterators.add(new ParallelDecodingIterator<>(range(50).iterator(), n -> {}, executor, 4, "test" + i));
+        }
+        for ( int n = 0; n < 50; n++ ) {
+            for ( final ParallelDecodingIterator<Integer> it : iterators ) {
+                Assert.assertEquals(it.next().intValue(), n);
+            }
+        }
+        iterators.forEach(it -> Assert.assertFalse(it.hasNext()));
+    }
+
+    @Test
+    public void testCloseStopsDecoding() {
+        final AtomicInteger pulled = new AtomicInteger();
+        final Iterator<Integer> source = range(1000).stream().peek(n -> pulled.incrementAndGet()).iterator();
+        final ParallelDecodingIterator<Integer> it = new ParallelDecodingIterator<>(source, n -> {}, executor, 10, "test");
+        Assert.assertEquals(it.next().intValue(), 0);
+        it.close();
+
+        // no batch is decoded after close() returns, and at most two batches were decoded before
+        final int pulledAtClose = pulled.get();
+        Assert.assertTrue(pulledAtClose <= 20, "pulled " + pulledAtClose);
+        Assert.assertFalse(it.hasNext());
+        Assert.assertEquals(pulled.get(), pulledAtClose);
+    }
+
+    @Test(expectedExceptions = IllegalStateException.class)
+    public void testDecoderFailureIsRethrown() {
+        final ParallelDecodingIterator<Integer> it = new ParallelDecodingIterator<>(range(10).iterator(), n -> {
+            if ( n == 5 ) {
+                throw new IllegalStateException("bad element");
+            }
+        }, executor, 3, "test");
+        while ( it.hasNext() ) {
+            it.next();
+        }
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void testInvalidBatchSize() {
+        new ParallelDecodingIterator<>(range(10).iterator(), n -> {}, executor, 0, "test");
+    }
+}
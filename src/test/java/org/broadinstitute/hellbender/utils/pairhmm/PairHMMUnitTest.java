@@ -7,7 +7,11 @@ import org.broadinstitute.hellbender.utils.BaseUtils;
 import org.broadinstitute.hellbender.utils.MathUtils;
 import org.broadinstitute.hellbender.utils.QualityUtils;
 import org.broadinstitute.hellbender.utils.Utils;
+import org.broadinstitute.hellbender.utils.genotyper.AlleleLikelihoods;
+import org.broadinstitute.hellbender.utils.genotyper.IndexedAlleleList;
+import org.broadinstitute.hellbender.utils.genotyper.IndexedSampleList;
 import org.broadinstitute.hellbender.utils.genotyper.LikelihoodMatrix;
+import org.broadinstitute.hellbender.utils.genotyper.SampleList;
 import org.broadinstitute.hellbender.utils.haplotype.Haplotype;
 import org.broadinstitute.hellbender.utils.read.ArtificialReadUtils;
 import org.broadinstitute.hellbender.utils.read.GATKRead;
@@ -18,6 +22,7 @@ import org.testng.annotations.DataProvider;
 import org.testng.annotations.Test;
 
 import java.util.*;
+import java.util.stream.Collectors;
 
 public final class PairHMMUnitTest extends GATKBaseTest {
     private final static boolean ALLOW_READS_LONGER_THAN_HAPLOTYPE = true;
@@ -26,6 +31,7 @@ public final class PairHMMUnitTest extends GATKBaseTest {
     final N2MemoryPairHMM exactHMM = new Log10PairHMM(true); // the log truth implementation
     final N2MemoryPairHMM originalHMM = new Log10PairHMM(false); // the reference implementation
     final N2MemoryPairHMM loglessHMM = new LoglessPairHMM();
+    final DiagonalLoglessPairHMM diagonalLoglessHMM = new DiagonalLoglessPairHMM();
 
     private static final byte MASSIVE_QUAL = 100;
 
@@ -34,9 +40,14 @@ public final class PairHMMUnitTest extends GATKBaseTest {
         exactHMM.doNotUseTristateCorrection();
         originalHMM.doNotUseTristateCorrection();
         loglessHMM.doNotUseTristateCorrection();
+        diagonalLoglessHMM.doNotUseTristateCorrection();
     }
 
-    private List<N2MemoryPairHMM> getHMMs() {
+    private List<PairHMM> getHMMs() {
+        return Arrays.asList(exactHMM, originalHMM, loglessHMM, diagonalLoglessHMM);
+    }
+
+    private List<N2MemoryPairHMM> getN2MemoryHMMs() {
         return Arrays.asList(exactHMM, originalHMM, loglessHMM);
     }
 
@@ -536,6 +547,57 @@ public final class PairHMMUnitTest extends GATKBaseTest {
 
     }
 
+    @Test(dataProvider = "JustHMMProvider")
+    public void testBatchLikelihoodsMatchPerMatrixLikelihoods(final PairHMM hmm) {
+        final Random random = new Random(17);
+        final byte[] bases = {'A', 'C', 'G', 'T'};
+        final PairHMMInputScoreImputator inputScoreImputator = StandardPairHMMInputScoreImputator.newInstance((byte) 10);
+        final SampleList samples = new IndexedSampleList("sample");
+
+        // three regions with haplotypes and reads of different lengths, the last one without reads
+        final List<AlleleLikelihoods<GATKRead, Haplotype>> expected = new ArrayList<>();
+        final List<AlleleLikelihoods<GATKRead, Haplotype>> actual = new ArrayList<>();
+        final List<List<GATKRead>> readsPerRegion = new ArrayList<>();
+        for ( final int[] lengths : new int[][]{{40, 20, 5}, {90, 60, 3}, {30, 10, 0}} ) {
+            final List<Haplotype> haplotypes = new ArrayList<>();
+            for ( int h = 0; h < 3; h++ ) {
+                final byte[] haplotypeBases = new byte[lengths[0] + h];
+                for ( int j = 0; j < haplotypeBases.length; j++ ) {
+                    haplotypeBases[j] = bases[random.nextInt(bases.length)];
+                }
+                haplotypes.add(new Haplotype(haplotypeBases, h == 0));
+            }
+            final List<GATKRead> reads = new ArrayList<>();
+            for ( int r = 0; r < lengths[2]; r++ ) {
+                final byte[] readBases = Arrays.copyOfRange(haplotypes.get(r % haplotypes.size()).getBases(), r, r + lengths[1]);
+                final byte[] readQuals = new byte[readBases.length];
+                for ( int i = 0; i < readBases.length; i++ ) {
+                    readQuals[i] = (byte) (10 + random.nextInt(30));
+                }
+                reads.add(ArtificialReadUtils.createArtificialRead(readBases, readQuals, readBases.length + CigarOperator.M.toString()));
+            }
+            final Map<String, List<GATKRead>> perSampleReads = Collections.singletonMap("sample", reads);
+            expected.add(new AlleleLikelihoods<>(samples, new IndexedAlleleList<>(haplotypes), perSampleReads));
+            actual.add(new AlleleLikelihoods<>(samples, new IndexedAlleleList<>(haplotypes), perSampleReads));
+            readsPerRegion.add(reads);
+        }
+
+        for ( int i = 0; i < expected.size(); i++ ) {
+            hmm.computeLog10Likelihoods(expected.get(i).sampleMatrix(0), readsPerRegion.get(i), inputScoreImputator);
+        }
+        hmm.computeLog10LikelihoodsBatch(actual.stream().map(l -> l.sampleMatrix(0)).collect(Collectors.toList()), readsPerRegion, inputScoreImputator);
+
+        for ( int i = 0; i < expected.size(); i++ ) {
+            final LikelihoodMatrix<GATKRead, Haplotype> expectedMatrix = expected.get(i).sampleMatrix(0);
+            final LikelihoodMatrix<GATKRead, Haplotype> actualMatrix = actual.get(i).sampleMatrix(0);
+            for ( int a = 0; a < expectedMatrix.numberOfAlleles(); a++ ) {
+                for ( int r = 0; r < expectedMatrix.evidenceCount(); r++ ) {
+                    Assert.assertEquals(actualMatrix.get(a, r), expectedMatrix.get(a, r), "region " + i + " allele " + a + " read " + r);
+                }
+            }
+        }
+    }
+
     private LikelihoodMatrix<GATKRead, Haplotype> matrix(final List<Haplotype> haplotypes) {
         return new LikelihoodMatrix<GATKRead, Haplotype>() {
             @Override
@@ -753,7 +815,52 @@ public final class PairHMMUnitTest extends GATKBaseTest {
     @Test
     public void dumpMatrices(){
         //doesn't test anything other than not-blowing up
-        getHMMs().forEach(hmm -> hmm.initialize(3, 3));
-        getHMMs().forEach(hmm -> hmm.dumpMatrices());
+        getN2MemoryHMMs().forEach(hmm -> hmm.initialize(3, 3));
+        getN2MemoryHMMs().forEach(hmm -> hmm.dumpMatrices());
+    }
+
+    @DataProvider(name = "TristateCorrectionProvider")
+    public Object[][] makeTristateCorrectionProvider() {
+        return new Object[][]{{true}, {false}};
+    }
+
+    @Test(dataProvider = "TristateCorrectionProvider")
+    public void testDiagonalLoglessMatchesLoglessExactly(final boolean useTristateCorrection) {
+        final LoglessPairHMM logless = new LoglessPairHMM();
+        final DiagonalLoglessPairHMM diagonal = new DiagonalLoglessPairHMM();
+        if ( ! useTristateCorrection ) {
+            logless.doNotUseTristateCorrection();
+            diagonal.doNotUseTristateCorrection();
+        }
+        final Random random = new Random(13);
+        final byte[] bases = {'A', 'C', 'G', 'T', 'N'};
+        final int maxReadLength = 60;
+        final int maxHaplotypeLength = 80;
+        logless.initialize(maxReadLength, maxHaplotypeLength);
+        diagonal.initialize(maxReadLength, maxHaplotypeLength);
+
+        for ( int test = 0; test < 500; test++ ) {
+            final byte[] haplotype = new byte[1 + random.nextInt(maxHaplotypeLength)];
+            for ( int j = 0; j < haplotype.length; j++ ) {
+                haplotype[j] = bases[random.nextInt(random.nextInt(10) == 0 ? 5 : 4)];
+            }
+            final int readLength = 1 + random.nextInt(maxReadLength);
+            final byte[] read = new byte[readLength];
+            final byte[] quals = new byte[readLength];
+            final byte[] insQuals = new byte[readLength];
+            final byte[] delQuals = new byte[readLength];
+            final byte[] gcps = Utils.dupBytes((byte) 10, readLength);
+            for ( int i = 0; i < readLength; i++ ) {
+                // mostly copy the haplotype, with some errors and shifts
+                read[i] = random.nextInt(5) == 0 ? bases[random.nextInt(5)] : haplotype[Math.min(haplotype.length - 1, i + random.nextInt(3))];
+                quals[i] = (byte) (6 + random.nextInt(35));
+                insQuals[i] = (byte) (20 + random.nextInt(30));
+                delQuals[i] = (byte) (20 + random.nextInt(30));
+            }
+
+            final double expected = logless.computeReadLikelihoodGivenHaplotypeLog10(haplotype, read, quals, insQuals, delQuals, gcps, true, null);
+            final double actual = diagonal.computeReadLikelihoodGivenHaplotypeLog10(haplotype, read, quals, insQuals, delQuals, gcps, true, null);
+            Assert.assertEquals(Double.compare(actual, expected), 0, "DIAGONAL_LOGLESS gave " + actual + " but LOGLESS_CACHING gave " + expected);
+        }
     }
 }
\ No newline at end of file
@@ -0,0 +1,256 @@
+package org.broadinstitute.hellbender.utils.read;
+
+import htsjdk.samtools.*;
+import org.broadinstitute.hellbender.GATKBaseTest;
+import org.testng.Assert;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+public final class LazyBAMRecordToGATKReadAdapterUnitTest extends GATKBaseTest {
+
+    private static final SAMFileHeader HEADER = ArtificialReadUtils.createArtificialSamHeader(3, 1, 1_000_000);
+
+    /**
+     * @return the bytes of the BAM encoding of the record, without its leading block_size
+     */
+    private static byte[] encode( final SAMRecord record ) {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        final BAMRecordCodec codec = new BAMRecordCodec(HEADER);
+        codec.setOutputStream(out);
+        codec.encode(record);
+        final byte[] encoded = out.toByteArray();
+        return Arrays.copyOfRange(encoded, 4, encoded.length);
+    }
+
+    /**
+     * @return a fully decoded read over the same bytes, as htsjdk would produce it
+     */
+    private static GATKRead eagerRead( final byte[] data ) {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        out.write(data.length);
+        out.write(data.length >>> 8);
+        out.write(data.length >>> 16);
+        out.write(data.length >>> 24);
+        out.write(data, 0, data.length);
+
+        final BAMRecordCodec codec = new BAMRecordCodec(HEADER);
+        codec.setInputStream(new ByteArrayInputStream(out.toByteArray()));
+        return new SAMRecordToGATKReadAdapter(codec.decode());
+    }
+
+    @DataProvider(name = "records")
+    public Object[][] records() {
+        final List<Object[]> testCases = new ArrayList<>();
+
+        final SAMRecord mapped = ArtificialReadUtils.createArtificialSAMRecord(HEADER, "mapped", 1, 100,
+                "ACGTACGTAC".getBytes(), new byte[]{10, 20, 30, 40, 30, 20, 10, 20, 30, 40}, "2H2S3M1I2M1D2M");
+        mapped.setMappingQuality(37);
+        mapped.setReadNegativeStrandFlag(true);
+        mapped.setAttribute(SAMTag.RG.name(), "rg1");
+        mapped.setAttribute("NM", 3);
+        mapped.setAttribute("XS", "a string value");
+        mapped.setAttribute("XC", 'c');
+        mapped.setAttribute("XF", 1.5f);
+        mapped.setAttribute("XB", new byte[]{1, 2, 3});
+        mapped.setAttribute("XI", new int[]{100_000, -7});
+        mapped.setAttribute("XN", "1234");
+        testCases.add(new Object[]{ mapped });
+
+        final SAMRecord paired = ArtificialReadUtils.createArtificialSAMRecord(HEADER, "paired", 2, 5000,
+                "AACCGGTT".getBytes(), new byte[]{30, 30, 30, 30, 30, 30, 30, 30}, "8M");
+        paired.setReadPairedFlag(true);
+        paired.setProperPairFlag(true);
+        paired.setFirstOfPairFlag(true);
+        paired.setMateReferenceIndex(2);
+        paired.setMateAlignmentStart(5200);
+        paired.setMateNegativeStrandFlag(true);
+        paired.setInferredInsertSize(208);
+        paired.setDuplicateReadFlag(true);
+        testCases.add(new Object[]{ paired });
+
+        final SAMRecord mateUnmapped = ArtificialReadUtils.createArtificialSAMRecord(HEADER, "mateUnmapped", 0, 50,
+                "ACG".getBytes(), new byte[]{20, 20, 20}, "3M");
+        mateUnmapped.setReadPairedFlag(true);
+        mateUnmapped.setSecondOfPairFlag(true);
+        mateUnmapped.setMateUnmappedFlag(true);
+        mateUnmapped.setSupplementaryAlignmentFlag(true);
+        testCases.add(new Object[]{ mateUnmapped });
+
+        final SAMRecord unmapped = ArtificialReadUtils.createArtificialSAMRecord(HEADER, "unmapped", SAMRecord.NO_ALIGNMENT_REFERENCE_INDEX,
+                SAMRecord.NO_ALIGNMENT_START, "ACGTA".getBytes(), new byte[]{10, 10, 10, 10, 10}, "*");
+        unmapped.setReadUnmappedFlag(true);
+        unmapped.setReadFailsVendorQualityCheckFlag(true);
+        unmapped.setBaseQualities(SAMRecord.NULL_QUALS);
+        testCases.add(new Object[]{ unmapped });
+
+        final SAMRecord unmappedWithPosition = ArtificialReadUtils.createArtificialSAMRecord(HEADER, "unmappedWithPosition", 1, 300,
+                "ACGTA".getBytes(), new byte[]{10, 10, 10, 10, 10}, "*");
+        unmappedWithPosition.setReadUnmappedFlag(true);
+        unmappedWithPosition.setSecondaryAlignment(true);
+        testCases.add(new Object[]{ unmappedWithPosition });
+
+        final SAMRecord noBases = ArtificialReadUtils.createArtificialSAMRecord(HEADER, "noBases", 0, 10,
+                SAMRecord.NULL_SEQUENCE, SAMRecord.NULL_QUALS, "*");
+        testCases.add(new Object[]{ noBases });
+
+        return testCases.toArray(new Object[][]{});
+    }
+
+    @Test(dataProvider = "records")
+    public void testMatchesEagerDecoding( final SAMRecord record ) {
+        final byte[] data = encode(record);
+        final LazyBAMRecordToGATKReadAdapter lazy = new LazyBAMRecordToGATKReadAdapter(HEADER, data);
+        final GATKRead eager = eagerRead(data);
+
+        Assert.assertEquals(lazy.getName(), eager.getName());
+        Assert.assertEquals(lazy.getFlags(), eager.getFlags());
+        Assert.assertEquals(lazy.getLength(), eager.getLength());
+        Assert.assertEquals(lazy.getContig(), eager.getContig());
+        Assert.assertEquals(lazy.getStart(), eager.getStart());
+        Assert.assertEquals(lazy.getEnd(), eager.getEnd());
+        Assert.assertEquals(lazy.getAssignedContig(), eager.getAssignedContig());
+        Assert.assertEquals(lazy.getAssignedStart(), eager.getAssignedStart());
+        Assert.assertEquals(lazy.getUnclippedStart(), eager.getUnclippedStart());
+        Assert.assertEquals(lazy.getUnclippedEnd(), eager.getUnclippedEnd());
+        Assert.assertEquals(lazy.getFragmentLength(), eager.getFragmentLength());
+        Assert.assertEquals(lazy.getMappingQuality(), eager.getMappingQuality());
+
+        Assert.assertEquals(lazy.getBases(), eager.getBases());
+        Assert.assertEquals(lazy.getBasesNoCopy(), eager.getBasesNoCopy());
+        Assert.assertEquals(lazy.getBaseQualities(), eager.getBaseQualities());
+        Assert.assertEquals(lazy.getBaseQualitiesNoCopy(), eager.getBaseQualitiesNoCopy());
+        Assert.assertEquals(lazy.getBaseQualityCount(), eager.getBaseQualityCount());
+        for ( int i = 0; i < eager.getBaseQualityCount(); i++ ) {
+            Assert.assertEquals(lazy.getBase(i), eager.getBase(i));
+            Assert.assertEquals(lazy.getBaseQuality(i), eager.getBaseQuality(i));
+        }
+
+        Assert.assertEquals(lazy.getCigar(), eager.getCigar());
+        Assert.assertEquals(lazy.getCigarElements(), eager.getCigarElements());
+        Assert.assertEquals(lazy.numCigarElements(), eager.numCigarElements());
+        if ( ! eager.isUnmapped() ) {
+            Assert.assertEquals(lazy.getSoftStart(), eager.getSoftStart());
+            Assert.assertEquals(lazy.getSoftEnd(), eager.getSoftEnd());
+        }
+
+        Assert.assertEquals(lazy.isPaired(), eager.isPaired());
+        Assert.assertEquals(lazy.isProperlyPaired(), eager.isProperlyPaired());
+        Assert.assertEquals(lazy.isUnmapped(), eager.isUnmapped());
+        Assert.assertEquals(lazy.isUnplaced(), eager.isUnplaced());
+        Assert.assertEquals(lazy.isReverseStrand(), eager.isReverseStrand());
+        Assert.assertEquals(lazy.isFirstOfPair(), eager.isFirstOfPair());
+        Assert.assertEquals(lazy.isSecondOfPair(), eager.isSecondOfPair());
+        Assert.assertEquals(lazy.isSecondaryAlignment(), eager.isSecondaryAlignment());
+        Assert.assertEquals(lazy.isSupplementaryAlignment(), eager.isSupplementaryAlignment());
+        Assert.assertEquals(lazy.failsVendorQualityCheck(), eager.failsVendorQualityCheck());
+        Assert.assertEquals(lazy.isDuplicate(), eager.isDuplicate());
+        if ( eager.isPaired() ) {
+            Assert.assertEquals(lazy.mateIsUnmapped(), eager.mateIsUnmapped());
+            Assert.assertEquals(lazy.mateIsUnplaced(), eager.mateIsUnplaced());
+            Assert.assertEquals(lazy.mateIsReverseStrand(), eager.mateIsReverseStrand());
+            Assert.assertEquals(lazy.getMateContig(), eager.getMateContig());
+            Assert.assertEquals(lazy.getMateStart(), eager.getMateStart());
+        }
+
+        Assert.assertEquals(lazy.getReadGroup(), eager.getReadGroup());
+        for ( final String tag : Arrays.asList("RG", "NM", "XS", "XC", "XF", "XB", "XI", "XN", "ZZ") ) {
+            Assert.assertEquals(lazy.hasAttribute(tag), eager.hasAttribute(tag), tag);
+        }
+        for ( final String tag : Arrays.asList("RG", "NM", "XS", "XC", "XF", "XB", "XN", "ZZ") ) {
+            Assert.assertEquals(lazy.getAttributeAsString(tag), eager.getAttributeAsString(tag), tag);
+        }
+        for ( final String tag : Arrays.asList("NM", "XN", "ZZ") ) {
+            Assert.assertEquals(lazy.getAttributeAsInteger(tag), eager.getAttributeAsInteger(tag), tag);
+        }
+        for ( final String tag : Arrays.asList("RG", "XS", "XB", "ZZ") ) {
+            Assert.assertEquals(lazy.getAttributeAsByteArray(tag), eager.getAttributeAsByteArray(tag), tag);
+        }
+        Assert.assertNull(lazy.getTransientAttribute("key"));
+        Assert.assertEquals(lazy.toString(), eager.toString());
+
+        // none of the above needed to decode the whole record
+        Assert.assertFalse(lazy.isDecoded());
+
+        Assert.assertEquals(lazy.getSAMString(), eager.getSAMString());
+        Assert.assertTrue(lazy.isDecoded());
+    }
+
+    @Test
+    public void testCopyOnWrite() {
+        final SAMRecord record = ArtificialReadUtils.createArtificialSAMRecord(HEADER, "read", 1, 100,
+                "ACGTACGTAC".getBytes(), new byte[]{10, 20, 30, 40, 30, 20, 10, 20, 30, 40}, "10M");
+        record.setMappingQuality(20);
+        record.setAttribute(SAMTag.RG.name(), "rg1");
+        final byte[] data = encode(record);
+        final byte[] originalData = data.clone();
+
+        final LazyBAMRecordToGATKReadAdapter read = new LazyBAMRecordToGATKReadAdapter(HEADER, data);
+        final GATKRead copy = read.copy();
+        Assert.assertFalse(read.isDecoded());
+
+        read.setMappingQuality(60);
+        read.setReadGroup("rg2");
+        read.setPosition("3", 500);
+        read.setAttribute("NM", 1);
+        Assert.assertTrue(read.isDecoded());
+
+        Assert.assertEquals(read.getMappingQuality(), 60);
+        Assert.assertEquals(read.getReadGroup(), "rg2");
+        Assert.assertEquals(read.getContig(), "3");
+        Assert.assertEquals(read.getStart(), 500);
+        Assert.assertEquals(read.getEnd(), 509);
+        Assert.assertEquals(read.getAttributeAsInteger("NM"), Integer.valueOf(1));
+        Assert.assertEquals(read.getName(), "read");
+
+        // the raw bytes, and hence the copy made before the modifications, are unchanged
+        Assert.assertEquals(data, originalData);
+        Assert.assertEquals(copy.getMappingQuality(), 20);
+        Assert.assertEquals(copy.getReadGroup(), "rg1");
+        Assert.assertEquals(copy.getContig(), "2");
+        Assert.assertFalse(copy.hasAttribute("NM"));
+    }
+
+    @Test
+    public void testReturnedArraysAreCopies() {
+        final SAMRecord record = ArtificialReadUtils.createArtificialSAMRecord(HEADER, "read", 0, 1,
+                "ACGT".getBytes(), new byte[]{10, 20, 30, 40}, "4M");
+        final LazyBAMRecordToGATKReadAdapter read = new LazyBAMRecordToGATKReadAdapter(HEADER, encode(record));
+
+        read.getBases()[0] = 'T';
+        read.getBaseQualities()[0] = 0;
+        read.getCigar().add(new CigarElement(1, CigarOperator.S));
+
+        Assert.assertEquals(read.getBasesString(), "ACGT");
+        Assert.assertEquals(read.getBaseQuality(0), 10);
+        Assert.assertEquals(read.numCigarElements(), 1);
+    }
+
+    @Test
+    public void testEquality() {
+        final SAMRecord record = ArtificialReadUtils.createArtificialSAMRecord(HEADER, "read", 0, 1,
+                "ACGT".getBytes(), new byte[]{10, 20, 30, 40}, "4M");
+        final byte[] data = encode(record);
+        final GATKRead read = new LazyBAMRecordToGATKReadAdapter(HEADER, data);
+        final GATKRead sameRead = new LazyBAMRecordToGATKReadAdapter(HEADER, data.clone());
+
+        Assert.assertEquals(read, sameRead);
+        Assert.assertEquals(read.hashCode(), sameRead.hashCode());
+
+        sameRead.setIsDuplicate(true);
+        Assert.assertNotEquals(read, sameRead);
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void testTruncatedRecord() {
+        final SAMRecord record = ArtificialReadUtils.createArtificialSAMRecord(HEADER, "read", 0, 1,
+                "ACGT".getBytes(), new byte[]{10, 20, 30, 40}, "4M");
+        final byte[] data = encode(record);
+        new LazyBAMRecordToGATKReadAdapter(HEADER, Arrays.copyOf(data, data.length - 10));
+    }
+}
@@ -0,0 +1,97 @@
+package org.broadinstitute.hellbender.utils.recalibration;
+
+import org.broadinstitute.hellbender.GATKBaseTest;
+import org.broadinstitute.hellbender.utils.collections.NestedIntegerArray;
+import org.broadinstitute.hellbender.utils.recalibration.covariates.StandardCovariateList;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+public final class ConcurrentRecalibrationTablesUnitTest extends GATKBaseTest {
+    private static final int NUM_READ_GROUPS = 3;
+    private static final int NUM_OBSERVATIONS = 20000;
+    private static final int NUM_THREADS = 4;
+
+    @Test
+    public void testConcurrentUpdatesMatchSequentialTables() throws Exception {
+        final StandardCovariateList covariates = new StandardCovariateList(new RecalibrationArgumentCollection(), Arrays.asList("rg0", "rg1", "rg2"));
+        final Random random = new Random(13);
+        final List<int[]> keySets = new ArrayList<>(NUM_OBSERVATIONS);
+        final int[] eventIndices = new int[NUM_OBSERVATIONS];
+        final double[] errors = new double[NUM_OBSERVATIONS];
+        for ( int i = 0; i < NUM_OBSERVATIONS; i++ ) {
+            final int[] keys = new int[covariates.size()];
+            keys[0] = random.nextInt(NUM_READ_GROUPS);
+            keys[1] = 10 + random.nextInt(30);
+            for ( int k = covariates.numberOfSpecialCovariates(); k < keys.length; k++ ) {
+                // some bases have no key for some covariates (e.g. no context at the start of a read)
+                keys[k] = random.nextInt(10) == 0 ? -1 : random.nextInt(20);
+            }
+            keySets.add(keys);
+            eventIndices[i] = random.nextInt(EventType.values().length);
+            errors[i] = random.nextInt(5) == 0 ? 1.0 : 0.0;
+        }
+
+        final RecalibrationTables expected = new RecalibrationTables(covariates, NUM_READ_GROUPS);
+        for ( int i = 0; i < NUM_OBSERVATIONS; i++ ) {
+            final int[] keys = keySets.get(i);
+            final byte qual = (byte) keys[1];
+            RecalUtils.incrementDatumOrPutIfNecessary3keys(expected.getQualityScoreTable(), qual, errors[i], keys[0], keys[1], eventIndices[i]);
+            for ( int k = covariates.numberOfSpecialCovariates(); k < keys.length; k++ ) {
+                if ( keys[k] >= 0 ) {
+                    RecalUtils.incrementDatumOrPutIfNecessary4keys(expected.getTable(k), qual, errors[i], keys[0], keys[1], keys[k], eventIndices[i]);
+                }
+            }
+        }
+
+        final ConcurrentRecalibrationTables concurrentTables = new ConcurrentRecalibrationTables(covariates, NUM_READ_GROUPS);
+        final ExecutorService executor = Executors.newFixedThreadPool(NUM_THREADS);
+        try {
+            final List<Future<?>> futures = new ArrayList<>();
+            for ( int t = 0; t < NUM_THREADS; t++ ) {
+                final int thread = t;
+                futures.add(executor.submit(() -> {
+                    for ( int i = thread; i < NUM_OBSERVATIONS; i += NUM_THREADS ) {
+                        concurrentTables.increment(keySets.get(i), eventIndices[i], errors[i]);
+                    }
+                }));
+            }
+            for ( final Future<?> future : futures ) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        final RecalibrationTables actual = concurrentTables.toRecalibrationTables();
+        Assert.assertEquals(actual.numTables(), expected.numTables());
+        for ( int i = 0; i < expected.numTables(); i++ ) {
+            assertTablesEqual(actual.getTable(i), expected.getTable(i));
+        }
+    }
+
+    @Test
+    public void testEmptyTables() {
+        final StandardCovariateList covariates = new StandardCovariateList(new RecalibrationArgumentCollection(), Arrays.asList("rg0"));
+        Assert.assertTrue(new ConcurrentRecalibrationTables(covariates, 1).toRecalibrationTables().isEmpty());
+    }
+
+    private static void assertTablesEqual(final NestedIntegerArray<RecalDatum> actual, final NestedIntegerArray<RecalDatum> expected) {
+        final List<NestedIntegerArray.Leaf<RecalDatum>> expectedLeaves = expected.getAllLeaves();
+        Assert.assertEquals(actual.getAllLeaves().size(), expectedLeaves.size());
+        for ( final NestedIntegerArray.Leaf<RecalDatum> leaf : expectedLeaves ) {
+            final RecalDatum actualDatum = actual.get(leaf.keys);
+            Assert.assertNotNull(actualDatum, "missing datum at " + Arrays.toString(leaf.keys));
+            Assert.assertEquals(actualDatum.getNumObservations(), leaf.value.getNumObservations());
+            Assert.assertEquals(actualDatum.getNumMismatches(), leaf.value.getNumMismatches());
+            Assert.assertEquals(actualDatum.getEstimatedQReported(), leaf.value.getEstimatedQReported());
+        }
+    }
+}
@@ -123,6 +123,17 @@ public final class ContextCovariateUnitTest extends GATKBaseTest {
         Assert.assertEquals(new String(strandedBaseArray), new String(expected));
     }
 
+    @Test(dataProvider = "strandedBytes")
+    public void testFillStrandedClippedBases(final String baseStr, final byte[] quals, final String cigar, final boolean neg, final int lowQTail, final String expecteBaseStr) {
+        final GATKRead read = ArtificialReadUtils.createArtificialRead(baseStr.getBytes(), quals, cigar);
+        read.setIsReverseStrand(neg);
+        // a buffer longer than the read, with leftovers from a previous read
+        final byte[] buffer = "XXXXXXXXXX".getBytes();
+        final int length = ContextCovariate.fillStrandedClippedBases(read, (byte) lowQTail, buffer);
+        Assert.assertEquals(new String(buffer, 0, length), expecteBaseStr);
+        Assert.assertEquals(read.getBasesString(), baseStr, "the read must not be modified");
+    }
+
     @DataProvider(name = "strandedOffset")
     public Object[][] strandedOffset() {
         return new Object[][]{
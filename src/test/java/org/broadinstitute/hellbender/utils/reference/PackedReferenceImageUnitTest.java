@@ -0,0 +1,137 @@
+package org.broadinstitute.hellbender.utils.reference;
+
+import htsjdk.samtools.SAMException;
+import htsjdk.samtools.SAMSequenceRecord;
+import org.broadinstitute.hellbender.GATKBaseTest;
+import org.broadinstitute.hellbender.engine.ReferenceDataSource;
+import org.broadinstitute.hellbender.engine.ReferenceFileSource;
+import org.broadinstitute.hellbender.engine.ReferenceImageSource;
+import org.broadinstitute.hellbender.exceptions.UserException;
+import org.broadinstitute.hellbender.utils.io.IOUtils;
+import org.testng.Assert;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.util.Random;
+
+public final class PackedReferenceImageUnitTest extends GATKBaseTest {
+
+    @DataProvider
+    public Object[][] fastaFiles() {
+        return new Object[][] {
+                // lower-case bases and IUPAC codes
+                { publicTestDir + "iupacFASTA.fasta" },
+                // several contigs, one of them all Ns
+                { hg19MiniReference },
+                // a contig whose length is not a multiple of 4
+                { publicTestDir + "Homo_sapiens_assembly38_chrM_only.fasta" }
+        };
+    }
+
+    @Test(dataProvider = "fastaFiles")
+    public void testImageMatchesFasta(final String fasta) {
+        final Path fastaPath = IOUtils.getPath(fasta);
+        final Path imagePath = createTempFile("packedReference", PackedReferenceImage.IMAGE_EXTENSION).toPath();
+        PackedReferenceImage.create(fastaPath, imagePath);
+
+        final Random random = new Random(17);
+        try ( final ReferenceDataSource expected = new ReferenceFileSource(fastaPath);
+              final ReferenceDataSource actual = new ReferenceImageSource(imagePath) ) {
+            Assert.assertEquals(actual.getSequenceDictionary(), expected.getSequenceDictionary());
+            for ( final SAMSequenceRecord contig : expected.getSequenceDictionary().getSequences() ) {
+                final String name = contig.getSequenceName();
+                final int length = contig.getSequenceLength();
+                assertSameBases(expected, actual, name, 1, length);
+                assertSameBases(expected, actual, name, length, length);
+                for ( int i = 0; i < 200; i++ ) {
+                    final int start = 1 + random.nextInt(length);
+                    assertSameBases(expected, actual, name, start, Math.min(length, start + random.nextInt(300)));
+                }
+            }
+        }
+    }
+
+    private static void assertSameBases(final ReferenceDataSource expected, final ReferenceDataSource actual, final String contig, final int start, final int stop) {
+        Assert.assertEquals(new String(actual.queryAndPrefetch(contig, start, stop).getBases()),
+                new String(expected.queryAndPrefetch(contig, start, stop).getBases()),
+                contig + ":" + start + "-" + stop);
+    }
+
+    @Test
+    public void testEmptyQuery() {
+        final Path imagePath = createTempFile("packedReference", PackedReferenceImage.IMAGE_EXTENSION).toPath();
+        PackedReferenceImage.create(IOUtils.getPath(hg19MiniReference), imagePath);
+        try ( final PackedReferenceImage image = new PackedReferenceImage(imagePath) ) {
+            Assert.assertEquals(image.getBases("1", 100, 99).length, 0);
+        }
+    }
+
+    @Test(expectedExceptions = SAMException.class)
+    public void testQueryPastEndOfContig() {
+        final Path imagePath = createTempFile("packedReference", PackedReferenceImage.IMAGE_EXTENSION).toPath();
+        PackedReferenceImage.create(IOUtils.getPath(hg19MiniReference), imagePath);
+        try ( final PackedReferenceImage image = new PackedReferenceImage(imagePath) ) {
+            image.getBases("1", 15990, 16001);
+        }
+    }
+
+    @Test(expectedExceptions = UserException.MalformedFile.class)
+    public void testNotAnImage() {
+        new PackedReferenceImage(IOUtils.getPath(hg19MiniReference));
+    }
+
+    @Test
+    public void testReferenceDataSourceUsesUpToDateImage() throws IOException {
+        final File dir = createTempDir("packedReferenceImage");
+        final Path fastaPath = dir.toPath().resolve("hg19mini.fasta");
+        for ( final String file : new String[] {"hg19mini.fasta", "hg19mini.fasta.fai", "hg19mini.dict"} ) {
+            Files.copy(IOUtils.getPath(publicTestDir + file), dir.toPath().resolve(file), StandardCopyOption.REPLACE_EXISTING);
+        }
+
+        Assert.assertNull(PackedReferenceImage.findImageForFasta(fastaPath));
+        try ( final ReferenceDataSource source = ReferenceDataSource.of(fastaPath) ) {
+            Assert.assertTrue(source instanceof ReferenceFileSource);
+        }
+
+        final Path imagePath = dir.toPath().resolve("hg19mini.fasta" + PackedReferenceImage.IMAGE_EXTENSION);
+        PackedReferenceImage.create(fastaPath, imagePath);
+        Assert.assertEquals(PackedReferenceImage.findImageForFasta(fastaPath), imagePath);
+        try ( final ReferenceDataSource source = ReferenceDataSource.of(fastaPath) ) {
+            Assert.assertTrue(source instanceof ReferenceImageSource);
+        }
+
+        // an image older than the fasta file, its index or its dictionary is ignored
+        final FileTime imageTime = Files.getLastModifiedTime(imagePath);
+        for ( final String file : new String[] {"hg19mini.fasta", "hg19mini.fasta.fai", "hg19mini.dict"} ) {
+            final Path sourcePath = dir.toPath().resolve(file);
+            final FileTime sourceTime = Files.getLastModifiedTime(sourcePath);
+            Files.setLastModifiedTime(sourcePath, FileTime.fromMillis(imageTime.toMillis() + 10000));
+            Assert.assertNull(PackedReferenceImage.findImageForFasta(fastaPath), file);
+            Files.setLastModifiedTime(sourcePath, sourceTime);
+            Assert.assertEquals(PackedReferenceImage.findImageForFasta(fastaPath), imagePath, file);
+        }
+    }
+
+    @Test
+    public void testUnexpectedBaseIsReportedWithItsPosition() throws IOException {
+        final File dir = createTempDir("packedReferenceImage");
+        final Path fastaPath = dir.toPath().resolve("bad.fasta");
+        Files.write(fastaPath, ">bad\nACGTXACG\n".getBytes(StandardCharsets.US_ASCII));
+        Files.write(dir.toPath().resolve("bad.fasta.fai"), "bad\t8\t5\t8\t9\n".getBytes(StandardCharsets.US_ASCII));
+        Files.write(dir.toPath().resolve("bad.dict"), "@HD\tVN:1.6\n@SQ\tSN:bad\tLN:8\n".getBytes(StandardCharsets.US_ASCII));
+
+        try {
+            PackedReferenceImage.create(fastaPath, dir.toPath().resolve("bad.fasta" + PackedReferenceImage.IMAGE_EXTENSION));
+            Assert.fail("expected a UserException for the unexpected base");
+        } catch ( final UserException.BadInput e ) {
+            Assert.assertTrue(e.getMessage().contains("'X' at bad:5"), e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package org.broadinstitute.hellbender.utils.smithwaterman;
+
+import org.broadinstitute.gatk.nativebindings.smithwaterman.SWOverhangStrategy;
+import org.broadinstitute.gatk.nativebindings.smithwaterman.SWParameters;
+import org.broadinstitute.hellbender.utils.Utils;
+import org.broadinstitute.hellbender.utils.read.CigarUtils;
+import org.testng.Assert;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+public final class SmithWatermanBufferedJavaAlignerUnitTest extends SmithWatermanAlignerAbstractUnitTest {
+
+    @Override
+    protected SmithWatermanBufferedJavaAligner getAligner() {
+        return SmithWatermanBufferedJavaAligner.getInstance();
+    }
+
+    @DataProvider(name = "matchesJavaAligner")
+    public Object[][] matchesJavaAligner() {
+        final List<Object[]> tests = new ArrayList<>();
+        for ( final SWParameters parameters : new SWParameters[]{ SmithWatermanAligner.ORIGINAL_DEFAULT, SmithWatermanAligner.STANDARD_NGS,
+                CigarUtils.NEW_SW_PARAMETERS, CigarUtils.ALIGNMENT_TO_BEST_HAPLOTYPE_SW_PARAMETERS } ) {
+            for ( final SWOverhangStrategy strategy : SWOverhangStrategy.values() ) {
+                tests.add(new Object[]{ parameters, strategy });
+            }
+        }
+        return tests.toArray(new Object[][]{});
+    }
+
+    private static byte[] mutate(final Random random, final byte[] bases) {
+        final StringBuilder mutated = new StringBuilder();
+        for ( final byte base : bases ) {
+            final int event = random.nextInt(20);
+            if ( event == 0 ) {
+                mutated.append("ACGT".charAt(random.nextInt(4)));
+            } else if ( event == 1 ) {
+                mutated.append((char) base).append("ACGT", 0, 1 + random.nextInt(4));
+            } else if ( event != 2 ) {
+                mutated.append((char) base);
+            }
+        }
+        return mutated.length() == 0 ? new byte[]{ 'A' } : mutated.toString().getBytes();
+    }
+
+    @Test(dataProvider = "matchesJavaAligner")
+    public void testMatchesJavaAligner(final SWParameters parameters, final SWOverhangStrategy strategy) {
+        final Random random = Utils.getRandomGenerator();
+        final SmithWatermanAligner expectedAligner = SmithWatermanJavaAligner.getInstance();
+        for ( int i = 0; i < 200; i++ ) {
+            final byte[] reference = new byte[1 + random.nextInt(150)];
+            for ( int j = 0; j < reference.length; j++ ) {
+                reference[j] = (byte) "ACGT".charAt(random.nextInt(4));
+            }
+            // similar sequences, alternating with unrelated ones and ones much shorter or longer than the reference
+            final byte[] alternate;
+            if ( i % 4 == 3 ) {
+                alternate = new byte[1 + random.nextInt(200)];
+                for ( int j = 0; j < alternate.length; j++ ) {
+                    alternate[j] = (byte) "ACGT".charAt(random.nextInt(4));
+                }
+            } else {
+                alternate = mutate(random, reference);
+            }
+
+            final SmithWatermanAlignment expected = expectedAligner.align(reference, alternate, parameters, strategy);
+            final SmithWatermanAlignment actual = getAligner().align(reference, alternate, parameters, strategy);
+            Assert.assertEquals(actual.getCigar(), expected.getCigar());
+            Assert.assertEquals(actual.getAlignmentOffset(), expected.getAlignmentOffset());
+        }
+    }
+
+    @Test
+    public void testBuffersAreReusedAcrossSizes() {
+        final SmithWatermanAligner expectedAligner = SmithWatermanJavaAligner.getInstance();
+        // a long alignment followed by shorter ones, so that stale cells of the larger matrices are left in the buffers
+        final String[][] pairs = {
+                { "ACGTACGTTTGACCATGACGATTACGATCGATTTAGCATGCA", "ACGTACGTTTGAGGCCATGACGACGATCGATTAGCATGCA" },
+                { "TTTTACGT", "ACGT" },
+                { "ACGT", "TTTTACGT" },
+                { "AAAGGG", "AAATTTGGG" } };
+        for ( final SWOverhangStrategy strategy : SWOverhangStrategy.values() ) {
+            for ( final String[] pair : pairs ) {
+                final SmithWatermanAlignment expected = expectedAligner.align(pair[0].getBytes(), pair[1].getBytes(), SmithWatermanAligner.ORIGINAL_DEFAULT, strategy);
+                final SmithWatermanAlignment actual = getAligner().align(pair[0].getBytes(), pair[1].getBytes(), SmithWatermanAligner.ORIGINAL_DEFAULT, strategy);
+                Assert.assertEquals(actual.getCigar(), expected.getCigar());
+                Assert.assertEquals(actual.getAlignmentOffset(), expected.getAlignmentOffset());
+            }
+        }
+    }
+}